@@ -0,0 +1,72 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Shared source data for the collection benchmarks.
+ * <p>
+ * Sized sources are backed directly by an {@link ArrayList}, unsized sources
+ * hide the list behind a plain {@link Iterable} so no length is known up front.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+@State (Scope.Benchmark)
+public class BenchmarkSource {
+
+    @Param ({ "10", "10000", "10000000" })
+    public int size;
+
+    @Param ({ "SIZED", "UNSIZED" })
+    public Kind kind;
+
+    public List<Integer> list;
+
+    @Setup
+    public void setup() {
+        // Values are in [0, size), roughly 63% of them distinct.
+        Random rand = new Random(42);
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(rand.nextInt(size));
+        }
+    }
+
+    public Iterable<Integer> iterable() {
+        if (kind == Kind.SIZED) return list;
+
+        List<Integer> list = this.list;
+        return list::iterator;
+    }
+
+    public FastStream<Integer> fastStream() {
+        return FastStream.of(iterable());
+    }
+
+    @SuppressWarnings ("deprecation")
+    public StreamableIterable<Integer> streamable() {
+        return StreamableIterable.of(iterable());
+    }
+
+    public Stream<Integer> stream() {
+        if (kind == Kind.SIZED) return list.stream();
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(list.iterator(), ORDERED), false);
+    }
+
+    public enum Kind {
+        SIZED,
+        UNSIZED
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link FastStream}.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class FastStreamBenchmark {
+
+    @Benchmark
+    public void map(BenchmarkSource src, Blackhole bh) {
+        src.fastStream().map(e -> e + 1).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void filter(BenchmarkSource src, Blackhole bh) {
+        src.fastStream().filter(e -> (e & 1) == 0).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void sorted(BenchmarkSource src, Blackhole bh) {
+        src.fastStream().sorted().forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void sortedLimit(BenchmarkSource src, Blackhole bh) {
+        src.fastStream().sorted().limit(50).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void distinct(BenchmarkSource src, Blackhole bh) {
+        src.fastStream().distinct().forEach(bh::consume);
+    }
+
+    @Benchmark
+    public List<FastStream.Group<Integer, Integer>> groupBy(BenchmarkSource src) {
+        return src.fastStream().groupBy(e -> e & 15).toList();
+    }
+
+    @Benchmark
+    public void flatMap(BenchmarkSource src, Blackhole bh) {
+        src.fastStream().flatMap(e -> Arrays.asList(e, e)).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public List<Integer> toList(BenchmarkSource src) {
+        return src.fastStream().map(e -> e + 1).toList();
+    }
+
+    @Benchmark
+    public boolean anyMatch(BenchmarkSource src) {
+        return src.fastStream().anyMatch(e -> e < 0);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for {@link java.util.stream.Stream}, as a baseline for {@link FastStreamBenchmark}.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class JavaStreamBenchmark {
+
+    @Benchmark
+    public void map(BenchmarkSource src, Blackhole bh) {
+        src.stream().map(e -> e + 1).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void filter(BenchmarkSource src, Blackhole bh) {
+        src.stream().filter(e -> (e & 1) == 0).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void sorted(BenchmarkSource src, Blackhole bh) {
+        src.stream().sorted().forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void sortedLimit(BenchmarkSource src, Blackhole bh) {
+        src.stream().sorted().limit(50).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void distinct(BenchmarkSource src, Blackhole bh) {
+        src.stream().distinct().forEach(bh::consume);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Integer>> groupBy(BenchmarkSource src) {
+        return src.stream().collect(Collectors.groupingBy(e -> e & 15));
+    }
+
+    @Benchmark
+    public void flatMap(BenchmarkSource src, Blackhole bh) {
+        src.stream().flatMap(e -> Stream.of(e, e)).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public List<Integer> toList(BenchmarkSource src) {
+        return src.stream().map(e -> e + 1).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public boolean anyMatch(BenchmarkSource src) {
+        return src.stream().anyMatch(e -> e < 0);
+    }
+}
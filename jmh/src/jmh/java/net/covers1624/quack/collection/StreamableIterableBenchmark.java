@@ -0,0 +1,71 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link StreamableIterable}, as a baseline for {@link FastStreamBenchmark}.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+@SuppressWarnings ("deprecation")
+public class StreamableIterableBenchmark {
+
+    @Benchmark
+    public void map(BenchmarkSource src, Blackhole bh) {
+        src.streamable().map(e -> e + 1).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void filter(BenchmarkSource src, Blackhole bh) {
+        src.streamable().filter(e -> (e & 1) == 0).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void sorted(BenchmarkSource src, Blackhole bh) {
+        // StreamableIterable has no sorted operation, collect and sort instead.
+        ArrayList<Integer> list = src.streamable().toList();
+        Collections.sort(list);
+        list.forEach(bh::consume);
+    }
+
+    @Benchmark
+    public void distinct(BenchmarkSource src, Blackhole bh) {
+        src.streamable().distinct().forEach(bh::consume);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Integer>> groupBy(BenchmarkSource src) {
+        return src.streamable().groupBy(e -> e & 15);
+    }
+
+    @Benchmark
+    public void flatMap(BenchmarkSource src, Blackhole bh) {
+        src.streamable().flatMap(e -> Arrays.asList(e, e)).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public List<Integer> toList(BenchmarkSource src) {
+        return src.streamable().map(e -> e + 1).toList();
+    }
+
+    @Benchmark
+    public boolean anyMatch(BenchmarkSource src) {
+        return src.streamable().anyMatch(e -> e < 0);
+    }
+}
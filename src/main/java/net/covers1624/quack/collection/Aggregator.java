@@ -0,0 +1,227 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.function.*;
+
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * Reduces a sequence of elements into a single result, via a mutable accumulator.
+ * <p>
+ * Used by {@link FastStream#groupBy(Function, Aggregator)} to aggregate each group
+ * without retaining the group's elements. Built-in aggregators accumulate into primitive
+ * holders, only boxing their result once per group.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ *
+ * @param <T> The type of element.
+ * @param <A> The type of the mutable accumulator.
+ * @param <R> The type of the result.
+ */
+public interface Aggregator<T, A, R> {
+
+    /**
+     * Create a new, empty, accumulator.
+     *
+     * @return The accumulator.
+     */
+    A create();
+
+    /**
+     * Accumulate an element.
+     *
+     * @param acc   The accumulator.
+     * @param value The element.
+     */
+    void accumulate(A acc, T value);
+
+    /**
+     * Combine two accumulators.
+     * <p>
+     * The elements accumulated into {@code b} were encountered after those of {@code a}.
+     *
+     * @param a The first accumulator.
+     * @param b The second accumulator.
+     * @return The combined accumulator, may be {@code a} or {@code b}.
+     */
+    A combine(A a, A b);
+
+    /**
+     * Compute the final result from an accumulator.
+     *
+     * @param acc The accumulator.
+     * @return The result.
+     */
+    R finish(A acc);
+
+    /**
+     * Creates a custom {@link Aggregator}.
+     *
+     * @param create     The accumulator factory.
+     * @param accumulate The accumulate function.
+     * @param combine    The combine function.
+     * @param finish     The finish function.
+     * @return The {@link Aggregator}.
+     */
+    static <T, A, R> Aggregator<T, A, R> of(Supplier<A> create, BiConsumer<A, ? super T> accumulate, BinaryOperator<A> combine, Function<A, R> finish) {
+        return new Aggregator<T, A, R>() {
+            // @formatter:off
+            @Override public A create() { return create.get(); }
+            @Override public void accumulate(A acc, T value) { accumulate.accept(acc, value); }
+            @Override public A combine(A a, A b) { return combine.apply(a, b); }
+            @Override public R finish(A acc) { return finish.apply(acc); }
+            // @formatter:on
+        };
+    }
+
+    /**
+     * Counts the number of elements.
+     *
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, Long> counting() {
+        return longSum(e -> 1);
+    }
+
+    /**
+     * Sums the elements as integers.
+     *
+     * @param func The function to extract the int value.
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, Integer> intSum(ToIntFunction<? super T> func) {
+        return new Aggregator<T, int[], Integer>() {
+            // @formatter:off
+            @Override public int[] create() { return new int[1]; }
+            @Override public void accumulate(int[] acc, T value) { acc[0] += func.applyAsInt(value); }
+            @Override public int[] combine(int[] a, int[] b) { a[0] += b[0]; return a; }
+            @Override public Integer finish(int[] acc) { return acc[0]; }
+            // @formatter:on
+        };
+    }
+
+    /**
+     * Sums the elements as longs.
+     *
+     * @param func The function to extract the long value.
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, Long> longSum(ToLongFunction<? super T> func) {
+        return new Aggregator<T, long[], Long>() {
+            // @formatter:off
+            @Override public long[] create() { return new long[1]; }
+            @Override public void accumulate(long[] acc, T value) { acc[0] += func.applyAsLong(value); }
+            @Override public long[] combine(long[] a, long[] b) { a[0] += b[0]; return a; }
+            @Override public Long finish(long[] acc) { return acc[0]; }
+            // @formatter:on
+        };
+    }
+
+    /**
+     * Sums the elements as doubles.
+     *
+     * @param func The function to extract the double value.
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, Double> doubleSum(ToDoubleFunction<? super T> func) {
+        return new Aggregator<T, double[], Double>() {
+            // @formatter:off
+            @Override public double[] create() { return new double[1]; }
+            @Override public void accumulate(double[] acc, T value) { acc[0] += func.applyAsDouble(value); }
+            @Override public double[] combine(double[] a, double[] b) { a[0] += b[0]; return a; }
+            @Override public Double finish(double[] acc) { return acc[0]; }
+            // @formatter:on
+        };
+    }
+
+    /**
+     * Selects the smallest element, as determined by the provided comparator.
+     * <p>
+     * In the event of a tie, the first element is selected.
+     *
+     * @param comparator The {@link Comparator}.
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, @Nullable T> minBy(Comparator<? super T> comparator) {
+        return reducing((a, b) -> comparator.compare(b, a) < 0 ? b : a);
+    }
+
+    /**
+     * Selects the largest element, as determined by the provided comparator.
+     * <p>
+     * In the event of a tie, the first element is selected.
+     *
+     * @param comparator The {@link Comparator}.
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, @Nullable T> maxBy(Comparator<? super T> comparator) {
+        return reducing((a, b) -> comparator.compare(b, a) > 0 ? b : a);
+    }
+
+    /**
+     * Selects the first element.
+     *
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, @Nullable T> first() {
+        return reducing((a, b) -> a);
+    }
+
+    /**
+     * Selects the last element.
+     *
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, @Nullable T> last() {
+        return reducing((a, b) -> b);
+    }
+
+    /**
+     * Reduces the elements with the given function.
+     * <p>
+     * The result is {@code null} if no elements were accumulated.
+     *
+     * @param func The reduction function, given the current and next element.
+     * @return The {@link Aggregator}.
+     */
+    static <T> Aggregator<T, ?, @Nullable T> reducing(BinaryOperator<T> func) {
+        class Holder {
+
+            boolean present;
+            @Nullable T value;
+        }
+        return new Aggregator<T, Holder, @Nullable T>() {
+            @Override
+            public Holder create() {
+                return new Holder();
+            }
+
+            @Override
+            public void accumulate(Holder acc, T value) {
+                if (acc.present) {
+                    acc.value = func.apply(unsafeCast(acc.value), value);
+                } else {
+                    acc.present = true;
+                    acc.value = value;
+                }
+            }
+
+            @Override
+            public Holder combine(Holder a, Holder b) {
+                if (!b.present) return a;
+                accumulate(a, unsafeCast(b.value));
+                return a;
+            }
+
+            @Override
+            public @Nullable T finish(Holder acc) {
+                return acc.value;
+            }
+        };
+    }
+}
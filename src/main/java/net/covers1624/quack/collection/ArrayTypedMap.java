@@ -0,0 +1,210 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.TypedMap.Key;
+import net.covers1624.quack.collection.primitive.Int2ObjectOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * A map of {@link Key} to values, indexed by each key's {@link Key#getId() dense id}.
+ * <p>
+ * Values are stored in a flat array, each access is a single array load, without
+ * hashing or comparing keys. Should this map only hold a few keys with large ids,
+ * it instead falls back to a primitive hash map of ids to values, which it retains
+ * until cleared.
+ * <p>
+ * {@code null} values are not supported, putting {@code null} removes the key.
+ * <p>
+ * This map is not thread safe, see {@link CopyOnWriteArrayTypedMap} for read mostly maps,
+ * and {@link ConcurrentTypedMap} for maps which are frequently written concurrently.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public class ArrayTypedMap {
+
+    private static final Object[] EMPTY = new Object[0];
+    // Ids below this are always stored densely.
+    private static final int DENSE_MIN = 16;
+    // Dense storage may be at most this many slots per entry.
+    private static final int SPARSE_RATIO = 4;
+
+    private Object[] values = EMPTY;
+    private @Nullable Int2ObjectOpenHashMap<Object> sparse;
+    private int size;
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return If the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key The key.
+     * @return If the map contains the given key.
+     */
+    public boolean containsKey(Key<?> key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key The key.
+     * @return The value for the given key, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T get(Key<T> key) {
+        int id = key.getId();
+        if (sparse != null) return unsafeCast(sparse.get(id));
+
+        Object[] values = this.values;
+        return id < values.length ? unsafeCast(values[id]) : null;
+    }
+
+    /**
+     * @param key The key.
+     * @param def The value to return if the key is absent.
+     * @return The value for the given key, or {@code def} if absent.
+     */
+    public <T> T getOrDefault(Key<T> key, T def) {
+        T value = get(key);
+        return value != null ? value : def;
+    }
+
+    /**
+     * Associate the given key with the given value.
+     *
+     * @param key   The key.
+     * @param value The value, {@code null} to remove the key.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T put(Key<T> key, @Nullable T value) {
+        if (value == null) return remove(key);
+
+        int id = key.getId();
+        Object prev;
+        if (sparse == null && id >= values.length) {
+            grow(id);
+        }
+        if (sparse != null) {
+            prev = sparse.put(id, value);
+        } else {
+            prev = values[id];
+            values[id] = value;
+        }
+        if (prev == null) {
+            size++;
+        }
+        return unsafeCast(prev);
+    }
+
+    /**
+     * Gets the value associated with the given key, computing it if absent.
+     *
+     * @param key  The key.
+     * @param func Computes the value for the key.
+     * @return The value.
+     */
+    public <T> T computeIfAbsent(Key<T> key, Function<? super Key<T>, ? extends T> func) {
+        T value = get(key);
+        if (value == null) {
+            value = func.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Remove the given key from the map.
+     *
+     * @param key The key.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T remove(Key<T> key) {
+        int id = key.getId();
+        Object prev;
+        if (sparse != null) {
+            prev = sparse.remove(id);
+        } else {
+            if (id >= values.length) return null;
+            prev = values[id];
+            values[id] = null;
+        }
+        if (prev != null) {
+            size--;
+        }
+        return unsafeCast(prev);
+    }
+
+    /**
+     * Remove all entries from the map.
+     */
+    public void clear() {
+        values = EMPTY;
+        sparse = null;
+        size = 0;
+    }
+
+    /**
+     * Visit each entry in the map.
+     * <p>
+     * The keys provided are the first key created for each id, equal to the key used to insert the value.
+     *
+     * @param action The action to perform on each key and value.
+     */
+    public void forEach(BiConsumer<? super Key<?>, Object> action) {
+        if (sparse != null) {
+            sparse.forEach((id, v) -> action.accept(Key.byId(id), v));
+            return;
+        }
+        Object[] values = this.values;
+        for (int id = 0; id < values.length; id++) {
+            Object value = values[id];
+            if (value != null) {
+                action.accept(Key.byId(id), value);
+            }
+        }
+    }
+
+    private void grow(int id) {
+        int required = id + 1;
+        if (required > DENSE_MIN && required > (size + 1) * SPARSE_RATIO) {
+            Int2ObjectOpenHashMap<Object> sparse = new Int2ObjectOpenHashMap<>(size + 1);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    sparse.put(i, values[i]);
+                }
+            }
+            this.sparse = sparse;
+            values = EMPTY;
+            return;
+        }
+        values = Arrays.copyOf(values, Math.max(required, Math.min(values.length * 2, (size + 1) * SPARSE_RATIO)));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+}
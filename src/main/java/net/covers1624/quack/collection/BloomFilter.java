@@ -0,0 +1,53 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+/**
+ * Backing implementation for {@link FastStream#probablyDistinct(long, double)}.
+ * <p>
+ * A bit set sized for the expected number of insertions and false positive probability.
+ * Bit indexes are derived from a single 64 bit hash, via double hashing.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+
+    BloomFilter(long expected, double fpp) {
+        double ln2 = Math.log(2);
+        long m = Math.max(64, (long) Math.ceil(-expected * Math.log(fpp) / (ln2 * ln2)));
+        long words = (m + 63) >>> 6;
+        if (words > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Bloom filter for " + expected + " elements at " + fpp + " fpp is too large.");
+
+        bits = new long[(int) words];
+        numBits = words * 64;
+        numHashes = Math.max(1, (int) Math.round((double) numBits / expected * ln2));
+    }
+
+    /**
+     * Insert a hash into the filter.
+     *
+     * @param hash The hash.
+     * @return {@code true} if the hash was definitely not present.
+     */
+    boolean put(long hash) {
+        long h2 = FastStream.Internal.mix64(hash + 0x9E3779B97F4A7C15L);
+        long combined = hash;
+        boolean changed = false;
+        for (int i = 0; i < numHashes; i++) {
+            long index = (combined & Long.MAX_VALUE) % numBits;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                changed = true;
+            }
+            combined += h2;
+        }
+        return changed;
+    }
+}
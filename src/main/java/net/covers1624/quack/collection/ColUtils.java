@@ -223,6 +223,8 @@ public class ColUtils {
     @Nullable
     @Contract ("_,!null -> !null")
     public static <T> T headOrDefault(Iterable<T> col, @Nullable T _default) {
+        if (col instanceof FastStream) return ((FastStream<T>) col).firstOrDefault(_default);
+
         class Cons implements Consumer<T> {
 
             @Nullable
@@ -762,6 +764,8 @@ public class ColUtils {
     @Nullable
     @Contract ("_,!null -> !null")
     public static <T> T onlyOrDefault(Iterable<T> iterable, @Nullable T _default) {
+        if (iterable instanceof FastStream) return ((FastStream<T>) iterable).onlyOrDefault(_default);
+
         final class Cons implements Consumer<T> {
 
             @Nullable
@@ -0,0 +1,309 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.TypedMap.Key;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * A thread safe map of {@link Key} to values, indexed by each key's {@link Key#getId() dense id}.
+ * <p>
+ * Values are stored in fixed size chunks of atomic slots, reached through a directory
+ * indexed by id. Reads never lock, writes to an existing chunk are a single CAS. Only
+ * the first write to each range of 16 ids locks, to install its chunk.
+ * Chunks are never copied, so growing the directory can't lose a concurrent write.
+ * <p>
+ * {@code null} values are not supported, putting {@code null} removes the key.
+ * <p>
+ * Iteration via {@link #forEach} is weakly consistent, as with {@link java.util.concurrent.ConcurrentHashMap}.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ *
+ * @see ArrayTypedMap
+ */
+public class ConcurrentTypedMap {
+
+    private static final int CHUNK_BITS = 4;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final AtomicReferenceArray<?>[] EMPTY = new AtomicReferenceArray<?>[0];
+
+    private final Object lock = new Object();
+    // Replaced, never modified, under the lock.
+    private volatile AtomicReferenceArray<?>[] chunks = EMPTY;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return If the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * @param key The key.
+     * @return If the map contains the given key.
+     */
+    public boolean containsKey(Key<?> key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key The key.
+     * @return The value for the given key, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T get(Key<T> key) {
+        int id = key.getId();
+        AtomicReferenceArray<Object> chunk = chunk(id);
+        return chunk != null ? unsafeCast(value(chunk.get(id & CHUNK_MASK))) : null;
+    }
+
+    /**
+     * @param key The key.
+     * @param def The value to return if the key is absent.
+     * @return The value for the given key, or {@code def} if absent.
+     */
+    public <T> T getOrDefault(Key<T> key, T def) {
+        T value = get(key);
+        return value != null ? value : def;
+    }
+
+    /**
+     * Associate the given key with the given value.
+     *
+     * @param key   The key.
+     * @param value The value, {@code null} to remove the key.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T put(Key<T> key, @Nullable T value) {
+        if (value == null) return remove(key);
+
+        int id = key.getId();
+        Object prev = value(chunkForWrite(id).getAndSet(id & CHUNK_MASK, value));
+        if (prev == null) {
+            size.incrementAndGet();
+        }
+        return unsafeCast(prev);
+    }
+
+    /**
+     * Atomically associate the given key with the given value, if the key is absent.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The existing value, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T putIfAbsent(Key<T> key, T value) {
+        Objects.requireNonNull(value, "Null values are not supported.");
+        int id = key.getId();
+        AtomicReferenceArray<Object> chunk = chunkForWrite(id);
+        int slot = id & CHUNK_MASK;
+        while (true) {
+            if (chunk.compareAndSet(slot, null, value)) {
+                size.incrementAndGet();
+                return null;
+            }
+            Object existing = chunk.get(slot);
+            if (existing instanceof Computing) {
+                existing = ((Computing) existing).await();
+            }
+            // Otherwise, removed since our CAS, or the computation failed, try again.
+            if (existing != null) return unsafeCast(existing);
+        }
+    }
+
+    /**
+     * Atomically gets the value associated with the given key, computing it if absent.
+     * <p>
+     * The supplier is called at most once per absent key, without holding any lock.
+     * Other threads computing the same key wait for its result, reads of the key
+     * never wait and find it absent until computed. The supplier must not compute
+     * the same key recursively.
+     *
+     * @param key      The key.
+     * @param supplier Computes the value for the key.
+     * @return The value.
+     */
+    public <T> T computeIfAbsent(Key<T> key, Supplier<? extends T> supplier) {
+        T value = get(key);
+        if (value != null) return value;
+
+        int id = key.getId();
+        AtomicReferenceArray<Object> chunk = chunkForWrite(id);
+        int slot = id & CHUNK_MASK;
+        Computing computing = null;
+        while (true) {
+            Object existing = chunk.get(slot);
+            if (existing instanceof Computing) {
+                Object result = ((Computing) existing).await();
+                // Otherwise, the computation failed, try again.
+                if (result != null) return unsafeCast(result);
+                continue;
+            }
+            if (existing != null) return unsafeCast(existing);
+
+            if (computing == null) {
+                computing = new Computing();
+            }
+            if (chunk.compareAndSet(slot, null, computing)) break;
+        }
+
+        try {
+            value = Objects.requireNonNull(supplier.get(), "Supplier returned null.");
+        } catch (Throwable ex) {
+            chunk.compareAndSet(slot, computing, null);
+            computing.complete(null);
+            throw ex;
+        }
+        // Plain puts may replace the placeholder, they still win.
+        if (chunk.compareAndSet(slot, computing, value)) {
+            size.incrementAndGet();
+        }
+        computing.complete(value);
+        return value;
+    }
+
+    /**
+     * Remove the given key from the map.
+     *
+     * @param key The key.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T remove(Key<T> key) {
+        int id = key.getId();
+        AtomicReferenceArray<Object> chunk = chunk(id);
+        if (chunk == null) return null;
+
+        int slot = id & CHUNK_MASK;
+        while (true) {
+            Object prev = value(chunk.get(slot));
+            if (prev == null) return null;
+
+            if (chunk.compareAndSet(slot, prev, null)) {
+                size.decrementAndGet();
+                return unsafeCast(prev);
+            }
+        }
+    }
+
+    /**
+     * Remove all entries from the map.
+     * <p>
+     * Entries added concurrently may or may not be removed.
+     */
+    public void clear() {
+        for (AtomicReferenceArray<?> chunk : chunks) {
+            if (chunk == null) continue;
+
+            AtomicReferenceArray<Object> slots = unsafeCast(chunk);
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                Object value = value(slots.get(i));
+                if (value != null && slots.compareAndSet(i, value, null)) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit each entry in the map.
+     * <p>
+     * The keys provided are the first key created for each id, equal to the key used to insert the value.
+     *
+     * @param action The action to perform on each key and value.
+     */
+    public void forEach(BiConsumer<? super Key<?>, Object> action) {
+        AtomicReferenceArray<?>[] chunks = this.chunks;
+        for (int c = 0; c < chunks.length; c++) {
+            AtomicReferenceArray<?> chunk = chunks[c];
+            if (chunk == null) continue;
+
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                Object value = value(chunk.get(i));
+                if (value != null) {
+                    action.accept(Key.byId((c << CHUNK_BITS) | i), value);
+                }
+            }
+        }
+    }
+
+    // Values being computed are absent.
+    @Nullable
+    private static Object value(@Nullable Object slot) {
+        return slot instanceof Computing ? null : slot;
+    }
+
+    @Nullable
+    private AtomicReferenceArray<Object> chunk(int id) {
+        AtomicReferenceArray<?>[] chunks = this.chunks;
+        int c = id >>> CHUNK_BITS;
+        return c < chunks.length ? unsafeCast(chunks[c]) : null;
+    }
+
+    private AtomicReferenceArray<Object> chunkForWrite(int id) {
+        AtomicReferenceArray<Object> chunk = chunk(id);
+        if (chunk != null) return chunk;
+
+        synchronized (lock) {
+            chunk = chunk(id);
+            if (chunk != null) return chunk;
+
+            int c = id >>> CHUNK_BITS;
+            AtomicReferenceArray<?>[] chunks = Arrays.copyOf(this.chunks, Math.max(this.chunks.length, c + 1));
+            chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+            chunks[c] = chunk;
+            this.chunks = chunks;
+            return chunk;
+        }
+    }
+
+    /**
+     * Placeholder for a value being computed by {@link #computeIfAbsent}.
+     * <p>
+     * Completed with the computed value, or {@code null} if the computation failed.
+     */
+    private static final class Computing extends CompletableFuture<Object> {
+
+        private final Thread owner = Thread.currentThread();
+
+        @Nullable
+        Object await() {
+            if (owner == Thread.currentThread()) throw new IllegalStateException("Recursive computeIfAbsent for the same key.");
+
+            return join();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.TypedMap.Key;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * A thread safe variant of {@link ArrayTypedMap}.
+ * <p>
+ * Reads are a single volatile array load, without locking. Each modification copies
+ * the array under a lock, as such this is best suited to maps which are read far more
+ * than they are written. Values are always stored densely, the array only ever spans
+ * up to the largest key id present.
+ * <p>
+ * {@code null} values are not supported, putting {@code null} removes the key.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public class CopyOnWriteArrayTypedMap {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Object lock = new Object();
+    private volatile Object[] values = EMPTY;
+    private volatile int size;
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return If the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key The key.
+     * @return If the map contains the given key.
+     */
+    public boolean containsKey(Key<?> key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key The key.
+     * @return The value for the given key, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T get(Key<T> key) {
+        int id = key.getId();
+        Object[] values = this.values;
+        return id < values.length ? unsafeCast(values[id]) : null;
+    }
+
+    /**
+     * @param key The key.
+     * @param def The value to return if the key is absent.
+     * @return The value for the given key, or {@code def} if absent.
+     */
+    public <T> T getOrDefault(Key<T> key, T def) {
+        T value = get(key);
+        return value != null ? value : def;
+    }
+
+    /**
+     * Associate the given key with the given value.
+     *
+     * @param key   The key.
+     * @param value The value, {@code null} to remove the key.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T put(Key<T> key, @Nullable T value) {
+        synchronized (lock) {
+            return unsafeCast(set(key.getId(), value));
+        }
+    }
+
+    /**
+     * Gets the value associated with the given key, computing it if absent.
+     * <p>
+     * The function is called at most once per absent key, whilst holding this map's lock.
+     *
+     * @param key  The key.
+     * @param func Computes the value for the key.
+     * @return The value.
+     */
+    public <T> T computeIfAbsent(Key<T> key, Function<? super Key<T>, ? extends T> func) {
+        T value = get(key);
+        if (value != null) return value;
+
+        synchronized (lock) {
+            value = get(key);
+            if (value == null) {
+                value = func.apply(key);
+                set(key.getId(), value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Remove the given key from the map.
+     *
+     * @param key The key.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public <T> T remove(Key<T> key) {
+        if (get(key) == null) return null;
+
+        synchronized (lock) {
+            return unsafeCast(set(key.getId(), null));
+        }
+    }
+
+    /**
+     * Remove all entries from the map.
+     */
+    public void clear() {
+        synchronized (lock) {
+            values = EMPTY;
+            size = 0;
+        }
+    }
+
+    /**
+     * Visit each entry in a snapshot of the map.
+     * <p>
+     * The keys provided are the first key created for each id, equal to the key used to insert the value.
+     *
+     * @param action The action to perform on each key and value.
+     */
+    public void forEach(BiConsumer<? super Key<?>, Object> action) {
+        Object[] values = this.values;
+        for (int id = 0; id < values.length; id++) {
+            Object value = values[id];
+            if (value != null) {
+                action.accept(Key.byId(id), value);
+            }
+        }
+    }
+
+    // Must hold the lock.
+    @Nullable
+    private Object set(int id, @Nullable Object value) {
+        Object[] values = this.values;
+        Object prev = id < values.length ? values[id] : null;
+        if (prev == value) return prev;
+
+        int len = values.length;
+        if (value == null) {
+            // Trim trailing free slots, if we removed the last one.
+            if (id == len - 1) {
+                do {
+                    len--;
+                } while (len > 0 && values[len - 1] == null);
+            }
+        } else {
+            len = Math.max(len, id + 1);
+        }
+        Object[] copy = Arrays.copyOf(values, len);
+        if (id < len) {
+            copy[id] = value;
+        }
+        if (prev == null) {
+            size++;
+        } else if (value == null) {
+            size--;
+        }
+        this.values = copy;
+        return prev;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+/**
+ * Tracks the variance and approximate percentiles of a sequence of values, for {@link IntStats},
+ * {@link LongStats} and {@link DoubleStats}.
+ * <p>
+ * Variance is computed in a single pass with Welford's algorithm. Percentiles are estimated with
+ * a mergeable sketch, counting values in logarithmically sized buckets. Any percentile estimate
+ * is within {@link #RELATIVE_ACCURACY} of the true value, regardless of the distribution.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+final class Distribution {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Values smaller in magnitude than this are counted as zero.
+    private static final double MIN_INDEXABLE = 1e-9;
+    private static final int MAX_INDEX = (int) Math.ceil(Math.log(Double.MAX_VALUE) / LOG_GAMMA);
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    private final Store positive = new Store();
+    private final Store negative = new Store();
+    private long zeros;
+
+    void accept(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+
+        if (value > MIN_INDEXABLE) {
+            positive.add(index(value), 1);
+        } else if (value < -MIN_INDEXABLE) {
+            negative.add(index(-value), 1);
+        } else if (value == value) {
+            zeros++;
+        }
+    }
+
+    void combine(Distribution other) {
+        if (other.count == 0) return;
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+
+        positive.combine(other.positive);
+        negative.combine(other.negative);
+        zeros += other.zeros;
+    }
+
+    double variance() {
+        return count < 1 ? 0 : m2 / count;
+    }
+
+    double sampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    double percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+
+        long total = negative.total + zeros + positive.total;
+        if (total == 0) return Double.NaN;
+
+        long rank = (long) (percentile / 100 * (total - 1));
+        if (rank < negative.total) {
+            // Negative values are stored by magnitude, walk from largest.
+            return -value(negative.indexAtRank(negative.total - 1 - rank));
+        }
+        rank -= negative.total;
+        if (rank < zeros) return 0;
+
+        return value(positive.indexAtRank(rank - zeros));
+    }
+
+    private static int index(double value) {
+        return (int) Math.min(MAX_INDEX, Math.ceil(Math.log(value) / LOG_GAMMA));
+    }
+
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    /**
+     * Counts of values per bucket index, over a contiguous range of indexes.
+     */
+    private static final class Store {
+
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        void add(int index, long n) {
+            if (counts.length == 0) {
+                counts = new long[32];
+                offset = index - 16;
+            } else if (index < offset || index >= offset + counts.length) {
+                grow(index);
+            }
+            counts[index - offset] += n;
+            total += n;
+        }
+
+        void combine(Store other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        int indexAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) return offset + i;
+            }
+            throw new IllegalStateException("Rank out of bounds.");
+        }
+
+        private void grow(int index) {
+            int lo = Math.min(offset, index);
+            int hi = Math.max(offset + counts.length - 1, index);
+            int len = Math.max(hi - lo + 1, counts.length * 2);
+            // Leave the extra space on the side we grew towards.
+            int newOffset = index < offset ? hi - len + 1 : lo;
+            long[] newCounts = new long[len];
+            System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+            counts = newCounts;
+            offset = newOffset;
+        }
+    }
+}
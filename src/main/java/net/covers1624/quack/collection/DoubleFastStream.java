@@ -0,0 +1,1329 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * A primitive {@code double} specialization of {@link FastStream}.
+ * <p>
+ * All operations are performed with primitive functional interfaces, elements
+ * are never boxed unless explicitly requested via {@link #boxed()} or {@link #mapToObj}.
+ * <p>
+ * As with {@link FastStream}, the fast path is {@link #forEach(DoubleConsumer)}, which is
+ * recommended if you intend on consuming the entire stream.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public interface DoubleFastStream {
+
+    // region Creation and Constants.
+
+    /**
+     * Static empty instance.
+     */
+    DoubleFastStream EMPTY = new Internal.Empty();
+
+    /**
+     * Returns an empty {@link DoubleFastStream} singleton.
+     *
+     * @return An empty {@link DoubleFastStream}.
+     */
+    static DoubleFastStream empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Overload of {@link #empty()} for convenience.
+     *
+     * @return An empty {@link DoubleFastStream}.
+     */
+    static DoubleFastStream of() {
+        return empty();
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} for an array of doubles.
+     * <p>
+     * The array is not copied.
+     *
+     * @param things The doubles.
+     * @return The {@link DoubleFastStream}.
+     */
+    static DoubleFastStream of(double... things) {
+        return of(things, 0, things.length);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} for a slice of an array of doubles.
+     * <p>
+     * The array is not copied.
+     *
+     * @param things The doubles.
+     * @param from   The start index, inclusive.
+     * @param until  The end index, exclusive.
+     * @return The {@link DoubleFastStream}.
+     */
+    static DoubleFastStream of(double[] things, int from, int until) {
+        if (from < 0 || until > things.length || from > until) throw new IndexOutOfBoundsException();
+        if (from == until) return empty();
+
+        return new OfN(things, from, until);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} with the provided stream concatenated after.
+     *
+     * @param other The other.
+     * @return The concatenated {@link DoubleFastStream}.
+     */
+    default DoubleFastStream concat(DoubleFastStream other) {
+        if (other == EMPTY) return this;
+
+        return new Concatenated(this, other);
+    }
+    // endregion
+
+    // region Abstract.
+
+    /**
+     * @return A primitive {@link PrimitiveIterator.OfDouble} over the stream.
+     */
+    PrimitiveIterator.OfDouble iterator();
+
+    /**
+     * Consume all elements in the stream.
+     * <p>
+     * This is the fast path for the stream.
+     *
+     * @param action The action to perform on each element.
+     */
+    void forEach(DoubleConsumer action);
+    // endregion
+
+    // region Stream operations
+
+    /**
+     * Returns a {@link DoubleFastStream} containing all elements that pass
+     * the provided {@link DoublePredicate} filter.
+     *
+     * @param pred The {@link DoublePredicate} to apply.
+     * @return The filtered {@link DoubleFastStream}.
+     */
+    default DoubleFastStream filter(DoublePredicate pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filter", s -> new Filtered(s, pred));
+        return new Filtered(this, pred);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} containing all elements that fail
+     * the provided {@link DoublePredicate} filter.
+     *
+     * @param pred The {@link DoublePredicate} to apply.
+     * @return The filtered {@link DoubleFastStream}.
+     */
+    default DoubleFastStream filterNot(DoublePredicate pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filterNot", s -> new Filtered(s, pred.negate()));
+        return new Filtered(this, pred.negate());
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} with each element transformed by
+     * the provided {@link DoubleUnaryOperator}.
+     *
+     * @param func The {@link DoubleUnaryOperator} to apply.
+     * @return The transformed {@link DoubleFastStream}.
+     */
+    default DoubleFastStream map(DoubleUnaryOperator func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "map", s -> new Mapped(s, func));
+        return new Mapped(this, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by
+     * the provided {@link DoubleFunction}.
+     *
+     * @param func The {@link DoubleFunction} to apply.
+     * @return The transformed {@link FastStream}.
+     */
+    default <R> FastStream<R> mapToObj(DoubleFunction<? extends R> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToObj", s -> new MappedToObj<>(s, func));
+        return new MappedToObj<>(this, func);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} with each element transformed by
+     * the provided {@link DoubleToIntFunction}.
+     *
+     * @param func The {@link DoubleToIntFunction} to apply.
+     * @return The transformed {@link IntFastStream}.
+     */
+    default IntFastStream mapToInt(DoubleToIntFunction func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToInt", s -> new MappedToInt(s, func));
+        return new MappedToInt(this, func);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} with each element transformed by
+     * the provided {@link DoubleToLongFunction}.
+     *
+     * @param func The {@link DoubleToLongFunction} to apply.
+     * @return The transformed {@link LongFastStream}.
+     */
+    default LongFastStream mapToLong(DoubleToLongFunction func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToLong", s -> new MappedToLong(s, func));
+        return new MappedToLong(this, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} of each element boxed to an {@link Double}.
+     *
+     * @return The boxed {@link FastStream}.
+     */
+    default FastStream<Double> boxed() {
+        return mapToObj(Double::valueOf);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} containing all unique elements.
+     *
+     * @return The distinct filtered {@link DoubleFastStream}.
+     */
+    default DoubleFastStream distinct() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "distinct", Distinct::new);
+        return new Distinct(this);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} sorted in ascending order.
+     *
+     * @return The sorted {@link DoubleFastStream}.
+     */
+    default DoubleFastStream sorted() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "sorted", Sorted::new);
+        return new Sorted(this);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} which listens to all the elements which pass to the next operation.
+     *
+     * @param cons The listener {@link DoubleConsumer}.
+     * @return The {@link DoubleFastStream}.
+     */
+    default DoubleFastStream peek(DoubleConsumer cons) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "peek", s -> new Peeked(s, cons));
+        return new Peeked(this, cons);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} which will let at most {@code max} elements pass.
+     * <p>
+     * A special case of {@code -1} is provided to indicate no max limit.
+     *
+     * @param max The maximum amount of elements to pass through, or {@code -1}.
+     * @return The limited {@link DoubleFastStream}.
+     */
+    default DoubleFastStream limit(@Range (from = -1, to = Integer.MAX_VALUE) int max) {
+        if (max == -1) return this;
+        if (max <= 0) return empty();
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "limit", s -> new Sliced(s, 0, max));
+        return new Sliced(this, 0, max);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} which will skip {@code n} number of elements.
+     *
+     * @param n The number of elements to skip.
+     * @return The skipping {@link DoubleFastStream}.
+     */
+    default DoubleFastStream skip(@Range (from = 0, to = Integer.MAX_VALUE) int n) {
+        if (n == 0) return this;
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "skip", s -> new Sliced(s, n, Integer.MAX_VALUE));
+        return new Sliced(this, n, Integer.MAX_VALUE);
+    }
+    // endregion
+
+    // region Queries.
+
+    /**
+     * Performs the given action for each element of the stream, until the action returns {@code true}.
+     * <p>
+     * This is the short-circuiting counterpart to {@link #forEach}, stopping is cooperative and
+     * does not throw.
+     *
+     * @param action The action. Returning {@code true} stops evaluation.
+     * @return {@code true} if evaluation was stopped by the action.
+     * @see FastStream#forEachUntil
+     */
+    default boolean forEachUntil(DoublePredicate action) {
+        PrimitiveIterator.OfDouble itr = iterator();
+        while (itr.hasNext()) {
+            if (action.test(itr.nextDouble())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tests if any element in the {@link DoubleFastStream} matches the provided {@link DoublePredicate}.
+     *
+     * @param pred The {@link DoublePredicate} to apply.
+     * @return If any element matches the {@link DoublePredicate}.
+     */
+    default boolean anyMatch(DoublePredicate pred) {
+        return forEachUntil(pred);
+    }
+
+    /**
+     * Tests if all elements in the {@link DoubleFastStream} match the provided {@link DoublePredicate}.
+     *
+     * @param pred The {@link DoublePredicate} to apply.
+     * @return If all elements match the {@link DoublePredicate}.
+     */
+    default boolean allMatch(DoublePredicate pred) {
+        return !anyMatch(pred.negate());
+    }
+
+    /**
+     * Tests if no elements in the {@link DoubleFastStream} match the provided {@link DoublePredicate}.
+     *
+     * @param pred The {@link DoublePredicate} to apply.
+     * @return If no elements match the {@link DoublePredicate}.
+     */
+    default boolean noneMatch(DoublePredicate pred) {
+        return !anyMatch(pred);
+    }
+
+    /**
+     * Tests if the stream is empty.
+     *
+     * @return If the stream is empty.
+     */
+    default boolean isEmpty() {
+        return knownLength() == 0 || !iterator().hasNext();
+    }
+
+    /**
+     * Returns the known length for the stream.
+     *
+     * @return The known length, or {@code -1}
+     * @see FastStream#knownLength()
+     */
+    default int knownLength() {
+        return knownLength(false);
+    }
+
+    /**
+     * Returns the known length for the stream.
+     *
+     * @param consumeToCalculate If the caller intends to consume the entire stream via {@link #forEach} after calling.
+     * @return The known length for the stream. {code -1} if the length is not known.
+     * @see FastStream#knownLength(boolean)
+     */
+    default int knownLength(boolean consumeToCalculate) {
+        return -1;
+    }
+
+    /**
+     * Evaluates the stream, counting the number of elements contained within.
+     *
+     * @return The number of elements in the stream.
+     */
+    default int count() {
+        int len = knownLength(true);
+        if (len >= 0) return len;
+
+        final class Cons implements DoubleConsumer {
+
+            private int count;
+
+            @Override
+            public void accept(double t) {
+                count++;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.count;
+    }
+    // endregion
+
+    // region Terminal operations
+
+    /**
+     * Returns the result of a folding operation applied to the {@link DoubleFastStream} contents.
+     *
+     * @param identity    The initial value.
+     * @param accumulator The {@link DoubleBinaryOperator} responsible for merging elements in the stream together.
+     * @return The result of the fold operation.
+     */
+    default double fold(double identity, DoubleBinaryOperator accumulator) {
+        final class Cons implements DoubleConsumer {
+
+            double ret = identity;
+
+            @Override
+            public void accept(double t) {
+                ret = accumulator.applyAsDouble(ret, t);
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.ret;
+    }
+
+    /**
+     * Returns the result of a folding operation applied to the {@link DoubleFastStream} contents.
+     *
+     * @param accumulator The {@link DoubleBinaryOperator} responsible for merging elements in the stream together.
+     * @return Optionally, the result of the fold operation.
+     * Will be empty if the {@link DoubleFastStream} contained no elements.
+     */
+    default OptionalDouble fold(DoubleBinaryOperator accumulator) {
+        final class Cons implements DoubleConsumer {
+
+            double ret;
+            boolean found = false;
+
+            @Override
+            public void accept(double t) {
+                if (!found) {
+                    ret = t;
+                } else {
+                    ret = accumulator.applyAsDouble(ret, t);
+                }
+                found = true;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.found ? OptionalDouble.of(cons.ret) : OptionalDouble.empty();
+    }
+
+    /**
+     * Sum all elements in the stream.
+     *
+     * @return The sum of the elements.
+     */
+    default double sum() {
+        final class Cons implements DoubleConsumer {
+
+            private double sum;
+
+            @Override
+            public void accept(double t) {
+                sum += t;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.sum;
+    }
+
+    /**
+     * @return Optionally, the smallest element in the stream.
+     */
+    default OptionalDouble min() {
+        return fold(Math::min);
+    }
+
+    /**
+     * @return Optionally, the largest element in the stream.
+     */
+    default OptionalDouble max() {
+        return fold(Math::max);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass.
+     *
+     * @return The {@link DoubleStats}.
+     */
+    default DoubleStats stats() {
+        return stats(false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass.
+     *
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link DoubleStats}.
+     */
+    default DoubleStats stats(boolean distribution) {
+        DoubleStats stats = new DoubleStats(distribution);
+        forEach(stats);
+        return stats;
+    }
+
+    /**
+     * @return Optionally, the first element in the stream.
+     */
+    default OptionalDouble findFirst() {
+        class Pred implements DoublePredicate {
+
+            boolean found;
+            double value;
+
+            @Override
+            public boolean test(double t) {
+                found = true;
+                value = t;
+                return true;
+            }
+        }
+        Pred pred = new Pred();
+        forEachUntil(pred);
+        return pred.found ? OptionalDouble.of(pred.value) : OptionalDouble.empty();
+    }
+
+    /**
+     * @return The first element in the stream.
+     */
+    default double first() {
+        return findFirst().orElseThrow(() -> new IllegalArgumentException("Not found."));
+    }
+
+    /**
+     * @param _default The default value to return if the stream is empty.
+     * @return The first element in the stream, or {@code _default}.
+     */
+    default double firstOrDefault(double _default) {
+        return findFirst().orElse(_default);
+    }
+    // endregion
+
+    // region Collecting
+
+    /**
+     * Collects this stream into an {@code double[]}.
+     *
+     * @return The {@code double[]}.
+     */
+    default double[] toArray() {
+        int len = knownLength(true);
+        if (len >= 0) {
+            double[] array = new double[len];
+            forEach(new DoubleConsumer() {
+                int i = 0;
+
+                @Override
+                public void accept(double t) {
+                    array[i++] = t;
+                }
+            });
+            return array;
+        }
+
+        final class Cons implements DoubleConsumer {
+
+            private double[] array = new double[16];
+            private int size;
+
+            @Override
+            public void accept(double t) {
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size * 2);
+                }
+                array[size++] = t;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return Arrays.copyOf(cons.array, cons.size);
+    }
+    // endregion
+
+    // region Creation and Composition implementations.
+
+    /**
+     * A {@link DoubleFastStream} for an array slice.
+     */
+    final class OfN implements DoubleFastStream {
+
+        private final double[] things;
+        private final int from;
+        private final int until;
+
+        private OfN(double[] things, int from, int until) {
+            this.things = things;
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new PrimitiveIterator.OfDouble() {
+                int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < until;
+                }
+
+                @Override
+                public double nextDouble() {
+                    if (i >= until) throw new NoSuchElementException();
+                    return things[i++];
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            for (int i = from; i < until; i++) {
+                action.accept(things[i]);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            for (int i = from; i < until; i++) {
+                if (action.test(things[i])) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return until - from;
+        }
+
+        @Override
+        public double[] toArray() {
+            return Arrays.copyOfRange(things, from, until);
+        }
+    }
+
+    /**
+     * Two {@link DoubleFastStream}s concatenated together.
+     */
+    final class Concatenated implements DoubleFastStream {
+
+        private final DoubleFastStream a;
+        private final DoubleFastStream b;
+
+        private Concatenated(DoubleFastStream a, DoubleFastStream b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new Internal.AbstractDoubleIterator() {
+                private PrimitiveIterator.OfDouble itr = a.iterator();
+                private boolean second;
+
+                @Override
+                protected double computeNext() {
+                    while (true) {
+                        if (itr.hasNext()) return itr.nextDouble();
+                        if (second) return endOfData();
+                        itr = b.iterator();
+                        second = true;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            a.forEach(action);
+            b.forEach(action);
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            return a.forEachUntil(action) || b.forEachUntil(action);
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int aLen = a.knownLength(consumeToCalculate);
+            if (aLen < 0) return -1;
+            int bLen = b.knownLength(consumeToCalculate);
+            if (bLen < 0) return -1;
+            return aLen + bLen;
+        }
+    }
+    // endregion
+
+    // region Stream operation implementations.
+
+    /**
+     * A {@link DoubleFastStream} with a filtering function applied.
+     */
+    final class Filtered implements DoubleFastStream {
+
+        private final DoubleFastStream parent;
+        private final DoublePredicate pred;
+
+        private Filtered(DoubleFastStream parent, DoublePredicate pred) {
+            this.parent = parent;
+            this.pred = pred;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new Internal.AbstractDoubleIterator() {
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+
+                @Override
+                protected double computeNext() {
+                    while (itr.hasNext()) {
+                        double e = itr.nextDouble();
+                        if (pred.test(e)) {
+                            return e;
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            parent.forEach(e -> {
+                if (pred.test(e)) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            return parent.forEachUntil(e -> pred.test(e) && action.test(e));
+        }
+    }
+
+    /**
+     * A {@link DoubleFastStream} with a mapping function applied.
+     */
+    final class Mapped implements DoubleFastStream {
+
+        private final DoubleFastStream parent;
+        private final DoubleUnaryOperator func;
+
+        private Mapped(DoubleFastStream parent, DoubleUnaryOperator func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new PrimitiveIterator.OfDouble() {
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public double nextDouble() {
+                    return func.applyAsDouble(itr.nextDouble());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsDouble(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsDouble(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link FastStream} with a mapping function applied to each double.
+     */
+    final class MappedToObj<R> implements FastStream<R> {
+
+        private final DoubleFastStream parent;
+        private final DoubleFunction<? extends R> func;
+
+        private MappedToObj(DoubleFastStream parent, DoubleFunction<? extends R> func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new Iterator<R>() {
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public R next() {
+                    return func.apply(itr.nextDouble());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            parent.forEach(e -> action.accept(func.apply(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            return parent.forEachUntil(e -> action.test(func.apply(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} with a mapping function applied to each double.
+     */
+    final class MappedToInt implements IntFastStream {
+
+        private final DoubleFastStream parent;
+        private final DoubleToIntFunction func;
+
+        private MappedToInt(DoubleFastStream parent, DoubleToIntFunction func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public int nextInt() {
+                    return func.applyAsInt(itr.nextDouble());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsInt(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsInt(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} with a mapping function applied to each double.
+     */
+    final class MappedToLong implements LongFastStream {
+
+        private final DoubleFastStream parent;
+        private final DoubleToLongFunction func;
+
+        private MappedToLong(DoubleFastStream parent, DoubleToLongFunction func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new PrimitiveIterator.OfLong() {
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public long nextLong() {
+                    return func.applyAsLong(itr.nextDouble());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsLong(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsLong(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link DoubleFastStream} containing only unique elements.
+     * <p>
+     * Elements are compared as per {@link Double#equals}.
+     */
+    final class Distinct implements DoubleFastStream {
+
+        private final DoubleFastStream parent;
+
+        private int knownLength = -1;
+
+        private Distinct(DoubleFastStream parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new Internal.AbstractDoubleIterator() {
+                private final LongFastStream.Internal.LongSet set = new LongFastStream.Internal.LongSet();
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+
+                @Override
+                protected double computeNext() {
+                    while (itr.hasNext()) {
+                        double e = itr.nextDouble();
+                        if (set.add(Double.doubleToLongBits(e))) {
+                            return e;
+                        }
+                    }
+                    knownLength = set.size();
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            LongFastStream.Internal.LongSet set = new LongFastStream.Internal.LongSet();
+            parent.forEach(e -> {
+                if (set.add(Double.doubleToLongBits(e))) {
+                    action.accept(e);
+                }
+            });
+            knownLength = set.size();
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            LongFastStream.Internal.LongSet set = new LongFastStream.Internal.LongSet();
+            if (parent.forEachUntil(e -> set.add(Double.doubleToLongBits(e)) && action.test(e))) return true;
+
+            knownLength = set.size();
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return knownLength;
+        }
+    }
+
+    /**
+     * A {@link DoubleFastStream} sorted in ascending order.
+     */
+    final class Sorted implements DoubleFastStream {
+
+        private final DoubleFastStream parent;
+
+        private double @Nullable [] sorted = null;
+
+        private Sorted(DoubleFastStream parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            double[] sorted = getSorted();
+            return new OfN(sorted, 0, sorted.length).iterator();
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            for (double t : getSorted()) {
+                action.accept(t);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            for (double t : getSorted()) {
+                if (action.test(t)) return true;
+            }
+            return false;
+        }
+
+        private double[] getSorted() {
+            if (sorted == null) {
+                sorted = parent.toArray();
+                Arrays.sort(sorted);
+            }
+            return sorted;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return consumeToCalculate ? getSorted().length : parent.knownLength(false);
+        }
+
+        @Override
+        public double[] toArray() {
+            return getSorted().clone();
+        }
+    }
+
+    /**
+     * A {@link DoubleFastStream} with a listener attached.
+     */
+    final class Peeked implements DoubleFastStream {
+
+        private final DoubleFastStream parent;
+        private final DoubleConsumer cons;
+
+        private Peeked(DoubleFastStream parent, DoubleConsumer cons) {
+            this.parent = parent;
+            this.cons = cons;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new PrimitiveIterator.OfDouble() {
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public double nextDouble() {
+                    double n = itr.nextDouble();
+                    cons.accept(n);
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            parent.forEach(e -> {
+                cons.accept(e);
+                action.accept(e);
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            return parent.forEachUntil(e -> {
+                cons.accept(e);
+                return action.test(e);
+            });
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * An {@link DoubleFastStream} recording the elements produced by a stage, for {@link Profiler}.
+     */
+    final class Probed implements DoubleFastStream, Profiler.ProbedStage {
+
+        private final DoubleFastStream stage;
+        private final Profiler.Probe probe;
+
+        Probed(DoubleFastStream stage, Profiler profiler, String op, Profiler.@Nullable ProbedStage upstream) {
+            this.stage = stage;
+            probe = new Profiler.Probe(profiler, op, upstream, stage.knownLength(false));
+        }
+
+        @Override
+        public Profiler.Probe probe() {
+            return probe;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            PrimitiveIterator.OfDouble itr;
+            scope.enter();
+            try {
+                itr = stage.iterator();
+            } finally {
+                scope.exit();
+            }
+            return new PrimitiveIterator.OfDouble() {
+                @Override
+                public boolean hasNext() {
+                    boolean hasNext;
+                    long start = scope.beginCall();
+                    try {
+                        hasNext = itr.hasNext();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    if (!hasNext) {
+                        scope.report();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public double nextDouble() {
+                    double n;
+                    long start = scope.beginCall();
+                    try {
+                        n = itr.nextDouble();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    scope.produced();
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            class Cons extends Profiler.Sampler implements DoubleConsumer {
+
+                @Override
+                public void accept(double n) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        action.accept(n);
+                        sampled(System.nanoTime() - start);
+                    } else {
+                        action.accept(n);
+                    }
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Cons cons = new Cons();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                stage.forEach(cons);
+            } finally {
+                scope.end(System.nanoTime() - start, cons);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            class Pred extends Profiler.Sampler implements DoublePredicate {
+
+                @Override
+                public boolean test(double n) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        boolean ret = action.test(n);
+                        sampled(System.nanoTime() - start);
+                        return ret;
+                    }
+                    return action.test(n);
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Pred pred = new Pred();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                return stage.forEachUntil(pred);
+            } finally {
+                scope.end(System.nanoTime() - start, pred);
+            }
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return stage.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link DoubleFastStream} with a min/max filter applied.
+     */
+    final class Sliced implements DoubleFastStream {
+
+        private final DoubleFastStream parent;
+        private final int min;
+        private final int max;
+
+        private Sliced(DoubleFastStream parent, int min, int max) {
+            this.parent = parent;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new Internal.AbstractDoubleIterator() {
+                private final PrimitiveIterator.OfDouble itr = parent.iterator();
+                private int i;
+
+                @Override
+                protected double computeNext() {
+                    while (i < min && itr.hasNext()) {
+                        itr.nextDouble();
+                        i++;
+                    }
+                    if (i++ >= max || !itr.hasNext()) return endOfData();
+                    return itr.nextDouble();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            forEachUntil(e -> {
+                action.accept(e);
+                return false;
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            class Pred implements DoublePredicate {
+
+                int i = 0;
+                boolean stopped;
+
+                @Override
+                public boolean test(double t) {
+                    int n = i++;
+                    if (n < min) return false;
+                    if (action.test(t)) {
+                        stopped = true;
+                        return true;
+                    }
+                    // Stop as soon as the last element has been consumed.
+                    return i >= max;
+                }
+            }
+            Pred pred = new Pred();
+            parent.forEachUntil(pred);
+            return pred.stopped;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int pLen = parent.knownLength(consumeToCalculate);
+            if (pLen == -1) return -1;
+
+            return Math.min(Math.max(pLen - min, 0), max);
+        }
+    }
+    // endregion
+
+    // region Internal.
+    class Internal {
+
+        private Internal() { }
+
+        /**
+         * Primitive form of {@link AbstractIterator}.
+         */
+        abstract static class AbstractDoubleIterator implements PrimitiveIterator.OfDouble {
+
+            private static final int CONSUMED = 0;
+            private static final int HAS_NEXT = 1;
+            private static final int END_OF_DATA = 2;
+
+            private int state;
+            private double next;
+
+            protected abstract double computeNext();
+
+            @Override
+            public final boolean hasNext() {
+                if (state == END_OF_DATA) return false;
+                if (state == CONSUMED) {
+                    state = HAS_NEXT;
+                    next = computeNext();
+                }
+                return state == HAS_NEXT;
+            }
+
+            @Override
+            public final double nextDouble() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                state = CONSUMED;
+                return next;
+            }
+
+            protected final double endOfData() {
+                state = END_OF_DATA;
+                return 0;
+            }
+        }
+
+        // @formatter:off
+        private static class Empty implements DoubleFastStream {
+            @Override public PrimitiveIterator.OfDouble iterator() { return new OfN(new double[0], 0, 0).iterator(); }
+            @Override public void forEach(DoubleConsumer action) { }
+            @Override public boolean forEachUntil(DoublePredicate action) { return false; }
+            @Override public DoubleFastStream concat(DoubleFastStream other) { return other; }
+            @Override public DoubleFastStream filter(DoublePredicate pred) { return this; }
+            @Override public DoubleFastStream filterNot(DoublePredicate pred) { return this; }
+            @Override public DoubleFastStream map(DoubleUnaryOperator func) { return this; }
+            @Override public <R> FastStream<R> mapToObj(DoubleFunction<? extends R> func) { return FastStream.empty(); }
+            @Override public IntFastStream mapToInt(DoubleToIntFunction func) { return IntFastStream.empty(); }
+            @Override public LongFastStream mapToLong(DoubleToLongFunction func) { return LongFastStream.empty(); }
+            @Override public DoubleFastStream distinct() { return this; }
+            @Override public DoubleFastStream sorted() { return this; }
+            @Override public DoubleFastStream peek(DoubleConsumer cons) { return this; }
+            @Override public DoubleFastStream limit(int max) { return this; }
+            @Override public DoubleFastStream skip(int n) { return this; }
+            @Override public boolean anyMatch(DoublePredicate pred) { return false; }
+            @Override public boolean allMatch(DoublePredicate pred) { return true; }
+            @Override public boolean noneMatch(DoublePredicate pred) { return true; }
+            @Override public boolean isEmpty() { return true; }
+            @Override public int knownLength() { return 0; }
+            @Override public int knownLength(boolean consumeToCalculate) { return 0; }
+            @Override public int count() { return 0; }
+            @Override public double fold(double identity, DoubleBinaryOperator accumulator) { return identity; }
+            @Override public OptionalDouble fold(DoubleBinaryOperator accumulator) { return OptionalDouble.empty(); }
+            @Override public double sum() { return 0; }
+            @Override public OptionalDouble min() { return OptionalDouble.empty(); }
+            @Override public OptionalDouble max() { return OptionalDouble.empty(); }
+            @Override public OptionalDouble findFirst() { return OptionalDouble.empty(); }
+            @Override public double first() { throw new IllegalArgumentException("Not found."); }
+            @Override public double firstOrDefault(double _default) { return _default; }
+            @Override public double[] toArray() { return new double[0]; }
+            // @formatter:on
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Summary statistics for a sequence of double values, computed in a single pass.
+ * <p>
+ * Obtained via {@link FastStream#doubleStats(ToDoubleFunction)} or {@link DoubleFastStream#stats()}.
+ * Optionally, the variance and approximate percentiles of the values are also tracked.
+ * <p>
+ * The sum is accumulated with Kahan summation, reducing the error over many values.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public final class DoubleStats implements DoubleConsumer {
+
+    private long count;
+    private double sum;
+    private double compensation;
+    // Uncompensated, in case compensation results in NaN from infinite values.
+    private double simpleSum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final @Nullable Distribution distribution;
+
+    /**
+     * Create a new, empty, {@link DoubleStats}, without tracking the distribution.
+     */
+    public DoubleStats() {
+        this(false);
+    }
+
+    /**
+     * Create a new, empty, {@link DoubleStats}.
+     *
+     * @param distribution If the variance and percentiles should be tracked.
+     */
+    public DoubleStats(boolean distribution) {
+        this.distribution = distribution ? new Distribution() : null;
+    }
+
+    @Override
+    public void accept(double value) {
+        count++;
+        simpleSum += value;
+        add(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (distribution != null) {
+            distribution.accept(value);
+        }
+    }
+
+    /**
+     * Combine the values of another {@link DoubleStats} into this one.
+     *
+     * @param other The other {@link DoubleStats}.
+     * @return This {@link DoubleStats}.
+     */
+    public DoubleStats combine(DoubleStats other) {
+        count += other.count;
+        simpleSum += other.simpleSum;
+        add(other.sum);
+        add(-other.compensation);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (distribution != null) {
+            if (other.distribution == null) throw new IllegalArgumentException("Other stats do not track their distribution.");
+            distribution.combine(other.distribution);
+        }
+        return this;
+    }
+
+    private void add(double value) {
+        double y = value - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+
+    /**
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The sum of all values, or zero if there are none.
+     */
+    public double getSum() {
+        double sum = this.sum - compensation;
+        if (Double.isNaN(sum) && Double.isInfinite(simpleSum)) return simpleSum;
+        return sum;
+    }
+
+    /**
+     * @return The smallest value, {@link Double#NaN} if any value was {@link Double#NaN},
+     * or {@link Double#POSITIVE_INFINITY} if there are none.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return The largest value, {@link Double#NaN} if any value was {@link Double#NaN},
+     * or {@link Double#NEGATIVE_INFINITY} if there are none.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return The arithmetic mean of all values, or zero if there are none.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : getSum() / count;
+    }
+
+    /**
+     * @return The population variance of all values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getVariance() {
+        return distribution().variance();
+    }
+
+    /**
+     * @return The sample variance of all values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getSampleVariance() {
+        return distribution().sampleVariance();
+    }
+
+    /**
+     * @return The population standard deviation of all values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Estimate the given percentile of all values.
+     * <p>
+     * The estimate is within 1% of the true value. The 0th and 100th percentiles are exact.
+     * Magnitudes below {@code 1e-9} are treated as zero, and {@link Double#NaN} values are ignored.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The estimated value, or {@link Double#NaN} if there are no values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getPercentile(double percentile) {
+        double value = distribution().percentile(percentile);
+        if (Double.isNaN(value)) return value;
+        // The extremes are known exactly.
+        if (percentile == 0) return min;
+        if (percentile == 100) return max;
+
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private Distribution distribution() {
+        if (distribution == null) throw new IllegalStateException("Distribution is not tracked.");
+        return distribution;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DoubleStats{count=%d, sum=%f, min=%f, mean=%f, max=%f}", count, getSum(), min, getMean(), max);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.util.SneakyUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * Backing implementation for {@link FastStream#sortedExternal}.
+ * <p>
+ * Elements are buffered until the memory budget is reached, at which point the buffer
+ * is sorted and spilled to a temporary file as a run. The final run is kept in memory.
+ * Runs are then lazily k-way merged. As runs are spilled in encounter order, and ties
+ * are broken by run index, the sort is stable.
+ * <p>
+ * To bound the number of open files, spilled runs are merged by level. Once {@link #MAX_FAN_IN}
+ * runs of the same level exist, they are merged into a single run of the next level. Each
+ * element is therefore rewritten once per level, {@code O(log(n / memoryBudget))} times.
+ * Should more than {@link #MAX_FAN_IN} runs remain across all levels once the input is
+ * consumed, the youngest runs are merged in batches of at most {@link #MAX_FAN_IN} before
+ * the final merge.
+ * <p>
+ * Spilled files are deleted once the merge is exhausted or closed, and are otherwise
+ * deleted on exit, should an iterator be abandoned.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+final class ExternalSort<T> extends AbstractIterator<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FAN_IN = 128;
+
+    private final Comparator<? super T> comparator;
+    private final FastStream.Serializer<T> serializer;
+    private final Path tempDir;
+    private final int memoryBudget;
+
+    private final List<Path> files = new ArrayList<>();
+    // Spilled runs by level, each in encounter order. Higher levels hold older elements.
+    private final List<List<Run<T>>> levels = new ArrayList<>();
+    private final List<Run<T>> runs = new ArrayList<>();
+    private @Nullable PriorityQueue<Run<T>> queue;
+    private boolean closed;
+
+    private Object[] buffer;
+    private int size;
+
+    private ExternalSort(Comparator<? super T> comparator, FastStream.Serializer<T> serializer, Path tempDir, int memoryBudget, int expected) {
+        this.comparator = comparator;
+        this.serializer = serializer;
+        this.tempDir = tempDir;
+        this.memoryBudget = memoryBudget;
+        buffer = new Object[Math.max(1, Math.min(memoryBudget, expected >= 0 ? expected : 1024))];
+    }
+
+    /**
+     * Consume the parent stream, spilling runs as required, and prepare to merge.
+     * <p>
+     * The returned iterator must be exhausted or closed to delete the spilled runs.
+     *
+     * @param parent       The stream to sort.
+     * @param comparator   The comparator.
+     * @param serializer   The serializer for spilled runs.
+     * @param tempDir      The directory to spill runs into.
+     * @param memoryBudget The maximum number of elements to buffer in memory.
+     * @return The merging iterator.
+     */
+    static <T> ExternalSort<T> sort(FastStream<T> parent, Comparator<? super T> comparator, FastStream.Serializer<T> serializer, Path tempDir, int memoryBudget) {
+        ExternalSort<T> sort = new ExternalSort<>(comparator, serializer, tempDir, memoryBudget, parent.knownLength(false));
+        try {
+            parent.forEach(sort::add);
+            sort.prepareMerge();
+        } catch (Throwable ex) {
+            sort.closeQuietly(ex);
+            SneakyUtils.throwUnchecked(ex);
+        }
+        return sort;
+    }
+
+    private void add(T t) {
+        if (size == buffer.length) {
+            if (size == memoryBudget) {
+                spill();
+            } else {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(memoryBudget, buffer.length * 2L));
+            }
+        }
+        buffer[size++] = t;
+    }
+
+    private void spill() {
+        T[] sorted = sortBuffer();
+        try {
+            Path file = newFile();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+                for (T t : sorted) {
+                    serializer.write(out, t);
+                }
+            }
+            addRun(0, new FileRun<>(file, sorted.length, serializer));
+        } catch (IOException ex) {
+            SneakyUtils.throwUnchecked(ex);
+        }
+        Arrays.fill(buffer, null);
+        size = 0;
+    }
+
+    private T[] sortBuffer() {
+        T[] sorted = unsafeCast(size == buffer.length ? buffer : Arrays.copyOf(buffer, size));
+        Arrays.sort(sorted, comparator);
+        return sorted;
+    }
+
+    private void addRun(int level, Run<T> run) throws IOException {
+        if (level == levels.size()) {
+            levels.add(new ArrayList<>());
+        }
+        List<Run<T>> runs = levels.get(level);
+        runs.add(run);
+        if (runs.size() == MAX_FAN_IN) {
+            Run<T> merged = merge(runs);
+            runs.clear();
+            addRun(level + 1, merged);
+        }
+    }
+
+    private Run<T> merge(List<Run<T>> runs) throws IOException {
+        Path file = newFile();
+        long length = 0;
+        try {
+            PriorityQueue<Run<T>> queue = openRuns(runs);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+                Run<T> run;
+                while ((run = queue.poll()) != null) {
+                    serializer.write(out, run.head);
+                    length++;
+                    if (run.advance()) {
+                        queue.add(run);
+                    } else {
+                        run.close();
+                    }
+                }
+            }
+        } finally {
+            for (Run<T> run : runs) {
+                run.close();
+            }
+        }
+        for (Run<T> run : runs) {
+            FileRun<T> fileRun = (FileRun<T>) run;
+            Files.delete(fileRun.file);
+            files.remove(fileRun.file);
+        }
+        return new FileRun<>(file, length, serializer);
+    }
+
+    private Path newFile() throws IOException {
+        Path file = Files.createTempFile(tempDir, "sort", ".run");
+        files.add(file);
+        // In case the iterator is abandoned before being exhausted or closed.
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private void prepareMerge() throws IOException {
+        // Oldest first, so ties are broken by encounter order.
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            runs.addAll(levels.get(i));
+        }
+        levels.clear();
+        // Leave room for the memory run.
+        int limit = size != 0 ? MAX_FAN_IN - 1 : MAX_FAN_IN;
+        while (runs.size() > limit) {
+            // The youngest runs are the smallest, merge them in batches, keeping them contiguous.
+            int batch = Math.min(MAX_FAN_IN, runs.size() - limit + 1);
+            List<Run<T>> youngest = runs.subList(runs.size() - batch, runs.size());
+            Run<T> merged = merge(youngest);
+            youngest.clear();
+            runs.add(merged);
+        }
+        if (size != 0) {
+            runs.add(new MemoryRun<>(sortBuffer()));
+        }
+        buffer = null;
+        queue = openRuns(runs);
+    }
+
+    private PriorityQueue<Run<T>> openRuns(List<Run<T>> runs) throws IOException {
+        PriorityQueue<Run<T>> queue = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+            int c = comparator.compare(a.head, b.head);
+            return c != 0 ? c : Integer.compare(a.index, b.index);
+        });
+        for (int i = 0; i < runs.size(); i++) {
+            Run<T> run = runs.get(i);
+            run.index = i;
+            if (run.advance()) {
+                queue.add(run);
+            }
+        }
+        return queue;
+    }
+
+    @Nullable
+    @Override
+    protected T computeNext() {
+        if (closed) return endOfData();
+
+        assert queue != null;
+        Run<T> run = queue.poll();
+        if (run == null) {
+            close();
+            return endOfData();
+        }
+        T t = run.head;
+        try {
+            if (run.advance()) {
+                queue.add(run);
+            } else {
+                run.close();
+            }
+        } catch (Throwable ex) {
+            closeQuietly(ex);
+            SneakyUtils.throwUnchecked(ex);
+        }
+        return t;
+    }
+
+    /**
+     * Close any open runs and delete all spilled files.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        IOException ex = null;
+        for (Run<T> run : runs) {
+            try {
+                run.close();
+            } catch (IOException e) {
+                if (ex == null) ex = e;
+                else ex.addSuppressed(e);
+            }
+        }
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                if (ex == null) ex = e;
+                else ex.addSuppressed(e);
+            }
+        }
+        if (ex != null) {
+            SneakyUtils.throwUnchecked(ex);
+        }
+    }
+
+    private void closeQuietly(Throwable cause) {
+        try {
+            close();
+        } catch (Throwable ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    private static abstract class Run<T> implements Closeable {
+
+        // Position in encounter order amongst the runs being merged.
+        int index;
+        @Nullable
+        T head;
+
+        /**
+         * Advance to the next element of this run, storing it in {@link #head}.
+         *
+         * @return {@code false} if this run is exhausted.
+         */
+        abstract boolean advance() throws IOException;
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    private static final class MemoryRun<T> extends Run<T> {
+
+        private final T[] elements;
+        private int idx;
+
+        MemoryRun(T[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        boolean advance() {
+            if (idx != 0) {
+                // Allow the previous element to be collected.
+                elements[idx - 1] = null;
+            }
+            if (idx == elements.length) return false;
+
+            head = elements[idx++];
+            return true;
+        }
+    }
+
+    private static final class FileRun<T> extends Run<T> {
+
+        private final Path file;
+        private final FastStream.Serializer<T> serializer;
+        private long remaining;
+        private @Nullable DataInputStream in;
+
+        FileRun(Path file, long length, FastStream.Serializer<T> serializer) {
+            this.file = file;
+            this.serializer = serializer;
+            remaining = length;
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+
+            if (in == null) {
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            }
+            head = serializer.read(in);
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            remaining = 0;
+            head = null;
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import net.covers1624.quack.annotation.ReplaceWith;
 import net.covers1624.quack.annotation.Requires;
+import net.covers1624.quack.collection.primitive.Int2ObjectOpenHashMap;
+import net.covers1624.quack.collection.primitive.Object2IntOpenHashMap;
 import net.covers1624.quack.util.SneakyUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.jetbrains.annotations.ApiStatus;
@@ -15,7 +17,14 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 import java.util.stream.Stream;
 
@@ -30,7 +39,8 @@ import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
  * <p>
  * {@link FastStream} supports multiple evaluation, however, it is undefined what will happen
  * if the backing collections/Iterables change between evaluations. Specific operations
- * may perform internal caching, others may not.
+ * may perform internal caching, others may not. Use {@link #cached()} to explicitly
+ * cache the result of a pipeline which is evaluated multiple times.
  * <p>
  * This Iterable implements both a fast path, and the regular iteration path.
  * <p>
@@ -118,7 +128,8 @@ public interface FastStream<T> extends Iterable<T> {
      * Where possible, raw {@link Spliterator} or {@link Iterator} inputs should be used.
      * <p>
      * NOTE: Using Java {@link Stream} operations combined with {@link FastStream}
-     * operations may result in poor performance.
+     * operations may result in poor performance. To read the lines of a file,
+     * use {@link #lines(Path, Charset)} instead of {@code Files.lines}.
      *
      * @param stream The stream.
      * @return The {@link FastStream}
@@ -179,6 +190,39 @@ public interface FastStream<T> extends Iterable<T> {
         return new OfN<>(things);
     }
 
+    /**
+     * Returns an {@link IntFastStream} for an array of ints.
+     *
+     * @param things The ints.
+     * @return The {@link IntFastStream}.
+     * @see IntFastStream#of(int...)
+     */
+    static IntFastStream of(int[] things) {
+        return IntFastStream.of(things);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} for an array of longs.
+     *
+     * @param things The longs.
+     * @return The {@link LongFastStream}.
+     * @see LongFastStream#of(long...)
+     */
+    static LongFastStream of(long[] things) {
+        return LongFastStream.of(things);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} for an array of doubles.
+     *
+     * @param things The doubles.
+     * @return The {@link DoubleFastStream}.
+     * @see DoubleFastStream#of(double...)
+     */
+    static DoubleFastStream of(double[] things) {
+        return DoubleFastStream.of(things);
+    }
+
     /**
      * Returns a concatenated {@link FastStream} containing the elements from
      * the provided {@link Iterable} array.
@@ -194,7 +238,8 @@ public interface FastStream<T> extends Iterable<T> {
         int nonEmptyCount = 0;
         Iterable<? extends T> lastNonEmpty = null;
         for (Iterable<? extends T> iterable : iterables) {
-            if (Internal.knownLength(iterable, false) != 0) {
+            // Concatenations are never empty, and summing their length is linear.
+            if (iterable instanceof ConcatenatedN || Internal.knownLength(iterable, false) != 0) {
                 nonEmptyCount++;
                 lastNonEmpty = iterable;
             }
@@ -202,7 +247,7 @@ public interface FastStream<T> extends Iterable<T> {
         if (nonEmptyCount == 0) return empty();
         if (nonEmptyCount == 1) return of(lastNonEmpty);
 
-        return new ConcatenatedN<>(iterables);
+        return ConcatenatedN.of(iterables);
     }
 
     /**
@@ -216,6 +261,83 @@ public interface FastStream<T> extends Iterable<T> {
         return new Concatenated<>(iterables);
     }
 
+    /**
+     * Returns a {@link FastStream} lazily merging the elements from the provided
+     * {@link Iterable} array, each of which must already be sorted by the provided comparator.
+     * <p>
+     * Evaluates in {@code O(n log k)} time, only holding one element per {@link Iterable}.
+     * Equal elements are taken from earlier {@link Iterable}s first.
+     *
+     * @param comparator The {@link Comparator} each {@link Iterable} is sorted by.
+     * @param iterables  The {@link Iterable}s to merge.
+     * @return The merged {@link FastStream}.
+     */
+    @SafeVarargs
+    static <T> FastStream<T> mergeSorted(Comparator<? super T> comparator, Iterable<? extends T>... iterables) {
+        if (iterables.length == 0) return empty();
+        if (iterables.length == 1) return of(iterables[0]);
+
+        return new MergeSorted<>(comparator, Arrays.asList(iterables));
+    }
+
+    /**
+     * Returns a {@link FastStream} lazily merging the elements from the provided
+     * {@link Iterable}s {@link Iterable}, each of which must already be sorted by the provided comparator.
+     *
+     * @param comparator The {@link Comparator} each {@link Iterable} is sorted by.
+     * @param iterables  The {@link Iterable}s to merge.
+     * @return The merged {@link FastStream}.
+     * @see #mergeSorted(Comparator, Iterable[])
+     */
+    static <T> FastStream<T> mergeSortedMany(Comparator<? super T> comparator, Iterable<? extends Iterable<? extends T>> iterables) {
+        return new MergeSorted<>(comparator, iterables);
+    }
+
+    /**
+     * Returns a {@link FastStream} of the lines in the given file.
+     * <p>
+     * The file is memory mapped and scanned for line terminators at the byte level, each line
+     * is only decoded once it is consumed. As with {@link java.io.BufferedReader#readLine()},
+     * lines are terminated by {@code '\n'}, {@code '\r'} or {@code "\r\n"}.
+     * <p>
+     * Only charsets which encode line terminators as single bytes, never appearing within another
+     * character, are supported. Such as {@code UTF-8}, {@code US-ASCII} and {@code ISO-8859-1}.
+     * Malformed input is replaced, as with {@link String#String(byte[], Charset)}.
+     * <p>
+     * The file is read each time the stream is evaluated. The {@link ParallelFastStream} can split
+     * the file at line boundaries without reading it.
+     *
+     * @param path    The file.
+     * @param charset The {@link Charset} of the file.
+     * @return The {@link FastStream}.
+     * @throws IllegalArgumentException If the charset is not supported.
+     * @see #lineSequences(Path, Charset)
+     */
+    static FastStream<String> lines(Path path, Charset charset) {
+        LineScanner.checkCharset(charset);
+        return new MappedLines<>(path, charset, false, 0, -1);
+    }
+
+    /**
+     * Returns a {@link FastStream} of {@link CharSequence} views of the lines in the given file.
+     * <p>
+     * Lines which can be read directly from the mapped file, those in {@code ISO-8859-1},
+     * or only containing ASCII in an ASCII compatible charset, are never decoded to a
+     * {@link String}. Other lines are decoded on first access.
+     * <p>
+     * Each view retains the mapped region of the file it was read from.
+     *
+     * @param path    The file.
+     * @param charset The {@link Charset} of the file.
+     * @return The {@link FastStream}.
+     * @throws IllegalArgumentException If the charset is not supported.
+     * @see #lines(Path, Charset)
+     */
+    static FastStream<CharSequence> lineSequences(Path path, Charset charset) {
+        LineScanner.checkCharset(charset);
+        return new MappedLines<>(path, charset, true, 0, -1);
+    }
+
     /**
      * Returns a {@link FastStream} with the provided {@link Iterable} concatenated
      * after.
@@ -240,7 +362,8 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The filtered {@link FastStream}.
      */
     default FastStream<T> filter(Predicate<? super T> pred) {
-        return new Filtered<>(this, pred);
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filter", s -> Fused.append(s, Fused.FILTER, pred));
+        return Fused.append(this, Fused.FILTER, pred);
     }
 
     /**
@@ -251,7 +374,8 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The filtered {@link FastStream}.
      */
     default FastStream<T> filterNot(Predicate<? super T> pred) {
-        return new Filtered<>(this, pred.negate());
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filterNot", s -> Fused.append(s, Fused.FILTER, pred.negate()));
+        return Fused.append(this, Fused.FILTER, pred.negate());
     }
 
     /**
@@ -274,7 +398,137 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The transformed {@link FastStream}.
      */
     default <R> FastStream<R> map(Function<? super T, ? extends R> func) {
-        return new Mapped<>(this, func);
+        if (Profiler.enabled(this)) return Profiler.stage(this, "map", s -> Fused.append(s, Fused.MAP, func));
+        return Fused.append(this, Fused.MAP, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by
+     * the provided {@link IndexedFunction}, given the element and its index.
+     *
+     * @param func The {@link IndexedFunction} to apply.
+     * @return The transformed {@link FastStream}.
+     */
+    default <R> FastStream<R> mapIndexed(IndexedFunction<? super T, ? extends R> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapIndexed", s -> new MappedIndexed<>(s, func));
+        return new MappedIndexed<>(this, func);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} with each element transformed by
+     * the provided {@link ToIntFunction}.
+     *
+     * @param func The {@link ToIntFunction} to apply.
+     * @return The transformed {@link IntFastStream}.
+     */
+    default IntFastStream mapToInt(ToIntFunction<? super T> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToInt", s -> new MappedToInt<>(s, func));
+        return new MappedToInt<>(this, func);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} with each element transformed by
+     * the provided {@link ToLongFunction}.
+     *
+     * @param func The {@link ToLongFunction} to apply.
+     * @return The transformed {@link LongFastStream}.
+     */
+    default LongFastStream mapToLong(ToLongFunction<? super T> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToLong", s -> new MappedToLong<>(s, func));
+        return new MappedToLong<>(this, func);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} with each element transformed by
+     * the provided {@link ToDoubleFunction}.
+     *
+     * @param func The {@link ToDoubleFunction} to apply.
+     * @return The transformed {@link DoubleFastStream}.
+     */
+    default DoubleFastStream mapToDouble(ToDoubleFunction<? super T> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToDouble", s -> new MappedToDouble<>(s, func));
+        return new MappedToDouble<>(this, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by the provided
+     * asynchronous function, with at most {@code maxInFlight} futures outstanding.
+     * <p>
+     * Elements are pulled from this stream as results are consumed, keeping up to
+     * {@code maxInFlight} futures in flight. Results are produced in encounter order,
+     * blocking until the next result is available.
+     * <p>
+     * If a future completes exceptionally, or the function throws, the exception is propagated
+     * once the failed element is reached and all outstanding futures are cancelled. Outstanding
+     * futures are also cancelled if evaluation is stopped early by a short-circuiting operation.
+     * Iterators which are abandoned before being exhausted do not cancel their futures.
+     *
+     * @param func        The function to apply.
+     * @param maxInFlight The maximum number of outstanding futures.
+     * @return The transformed {@link FastStream}.
+     * @throws IllegalArgumentException If {@code maxInFlight} is less than 1.
+     * @see #mapAsyncUnordered(Function, int)
+     */
+    default <R> FastStream<R> mapAsync(Function<? super T, ? extends CompletableFuture<? extends R>> func, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be at least 1.");
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapAsync", s -> new MappedAsync<>(s, func, maxInFlight, true));
+        return new MappedAsync<>(this, func, maxInFlight, true);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by the provided
+     * asynchronous function, with at most {@code maxInFlight} futures outstanding.
+     * <p>
+     * Unlike {@link #mapAsync(Function, int)}, results are produced in the order their futures
+     * complete. A slow element does not hold back the results of other elements, and failures
+     * are propagated as soon as they are reached.
+     *
+     * @param func        The function to apply.
+     * @param maxInFlight The maximum number of outstanding futures.
+     * @return The transformed {@link FastStream}.
+     * @throws IllegalArgumentException If {@code maxInFlight} is less than 1.
+     */
+    default <R> FastStream<R> mapAsyncUnordered(Function<? super T, ? extends CompletableFuture<? extends R>> func, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be at least 1.");
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapAsyncUnordered", s -> new MappedAsync<>(s, func, maxInFlight, false));
+        return new MappedAsync<>(this, func, maxInFlight, false);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by the provided
+     * function on the given {@link Executor}, with at most {@code maxInFlight} tasks outstanding.
+     * <p>
+     * Results are produced in encounter order. Cancelled tasks which have not started are
+     * skipped, running tasks are not interrupted.
+     *
+     * @param func        The function to apply.
+     * @param executor    The {@link Executor} to run the function on.
+     * @param maxInFlight The maximum number of outstanding tasks.
+     * @return The transformed {@link FastStream}.
+     * @throws IllegalArgumentException If {@code maxInFlight} is less than 1.
+     * @see #mapAsync(Function, int)
+     */
+    default <R> FastStream<R> mapParallel(Function<? super T, ? extends R> func, Executor executor, int maxInFlight) {
+        return mapAsync(e -> CompletableFuture.supplyAsync(() -> func.apply(e), executor), maxInFlight);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by the provided
+     * function on the given {@link Executor}, with at most {@code maxInFlight} tasks outstanding.
+     * <p>
+     * Results are produced in the order their tasks complete.
+     *
+     * @param func        The function to apply.
+     * @param executor    The {@link Executor} to run the function on.
+     * @param maxInFlight The maximum number of outstanding tasks.
+     * @return The transformed {@link FastStream}.
+     * @throws IllegalArgumentException If {@code maxInFlight} is less than 1.
+     * @see #mapAsyncUnordered(Function, int)
+     */
+    default <R> FastStream<R> mapParallelUnordered(Function<? super T, ? extends R> func, Executor executor, int maxInFlight) {
+        return mapAsyncUnordered(e -> CompletableFuture.supplyAsync(() -> func.apply(e), executor), maxInFlight);
     }
 
     /**
@@ -285,7 +539,8 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The transformed {@link FastStream}
      */
     default <R> FastStream<@NonNull R> ofType(Class<? extends R> clazz) {
-        return new OfType<>(this, clazz);
+        if (Profiler.enabled(this)) return Profiler.stage(this, "ofType", s -> Fused.append(s, Fused.OF_TYPE, clazz));
+        return Fused.append(this, Fused.OF_TYPE, clazz);
     }
 
     /**
@@ -309,19 +564,126 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The flat mapped {@link FastStream}.
      */
     default <R> FastStream<R> flatMap(Function<? super T, ? extends Iterable<? extends R>> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "flatMap", s -> new FlatMapped<>(s, func));
         return new FlatMapped<>(this, func);
     }
 
+    /**
+     * Returns a {@link FastStream} combining each element of this stream with the element
+     * at the same position in the provided {@link Iterable}.
+     * <p>
+     * The resulting stream ends when either input ends.
+     *
+     * @param other The {@link Iterable} to zip with.
+     * @param func  The {@link BiFunction} to combine each pair of elements.
+     * @return The zipped {@link FastStream}.
+     */
+    default <U, R> FastStream<R> zip(Iterable<? extends U> other, BiFunction<? super T, ? super U, ? extends R> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "zip", s -> new Zipped<>(s, other, func));
+        return new Zipped<>(this, other, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} of the running results of a folding operation.
+     * <p>
+     * The resulting stream starts with {@code identity}, followed by the result of
+     * accumulating each element. For example, {@code [1, 2, 3].scan(0, Integer::sum)}
+     * results in {@code [0, 1, 3, 6]}.
+     *
+     * @param identity    The initial value.
+     * @param accumulator The {@link BiFunction} responsible for accumulating each element.
+     * @return The {@link FastStream} of running results.
+     * @see #fold(Object, BiFunction)
+     */
+    default <U> FastStream<U> scan(U identity, BiFunction<? super U, ? super T, ? extends U> accumulator) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "scan", s -> new Scanned<>(s, identity, accumulator));
+        return new Scanned<>(this, identity, accumulator);
+    }
+
     /**
      * Returns a {@link FastStream} containing all elements that are unique
      * according to their {@link Object#hashCode()}/{@link Object#equals} identity.
+     * <p>
+     * All unique elements are retained in memory. For sorted input see {@link #distinctSorted()},
+     * or for approximate de-duplication in bounded memory see {@link #probablyDistinct(long, double)}.
      *
      * @return The distinct filtered {@link FastStream}.
      */
     default FastStream<T> distinct() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "distinct", Distinct::new);
         return new Distinct<>(this);
     }
 
+    /**
+     * Returns a {@link FastStream} containing the first element for each unique key,
+     * according to the key's {@link Object#hashCode()}/{@link Object#equals} identity.
+     * <p>
+     * Only the keys are retained in memory.
+     *
+     * @param keyFunc The function to extract the key.
+     * @return The distinct filtered {@link FastStream}.
+     */
+    default <K> FastStream<T> distinctBy(Function<? super T, ? extends K> keyFunc) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "distinctBy", s -> new DistinctBy<>(s, keyFunc));
+        return new DistinctBy<>(this, keyFunc);
+    }
+
+    /**
+     * Returns a {@link FastStream} with consecutive equal elements removed.
+     * <p>
+     * This uses constant memory, only comparing each element to the previous. When
+     * this stream is sorted, or equal elements are otherwise adjacent, this is
+     * equivalent to {@link #distinct()}.
+     *
+     * @return The distinct filtered {@link FastStream}.
+     */
+    default FastStream<T> distinctSorted() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "distinctSorted", DistinctSorted::new);
+        return new DistinctSorted<>(this);
+    }
+
+    /**
+     * Returns a {@link FastStream} approximately filtered to distinct elements, using a bloom filter.
+     * <p>
+     * Duplicate elements are always removed, however, unique elements may be falsely dropped
+     * with probability {@code fpp}, once {@code expected} elements have been seen. Memory is
+     * fixed at around {@code 1.44 * log2(1 / fpp)} bits per expected element, 9.6 bits
+     * per element for a 1% false drop rate.
+     * <p>
+     * Elements are hashed to 64 bits, {@link String} and {@link Long} elements are hashed
+     * by value, other elements are hashed via their {@link Object#hashCode()}. Use
+     * {@link #probablyDistinct(long, double, ToLongFunction)} to provide a better hash.
+     *
+     * @param expected The expected number of distinct elements.
+     * @param fpp      The desired probability of falsely dropping an element, between 0 and 1.
+     * @return The distinct filtered {@link FastStream}.
+     * @throws IllegalArgumentException If {@code expected} is less than 1, or {@code fpp} is not between 0 and 1.
+     */
+    default FastStream<T> probablyDistinct(long expected, double fpp) {
+        return probablyDistinct(expected, fpp, Internal::hash64);
+    }
+
+    /**
+     * Returns a {@link FastStream} approximately filtered to distinct elements, using a bloom filter.
+     * <p>
+     * The provided hash function should be well distributed over all 64 bits, elements with equal
+     * hashes are considered equal.
+     *
+     * @param expected The expected number of distinct elements.
+     * @param fpp      The desired probability of falsely dropping an element, between 0 and 1.
+     * @param hasher   The function to hash each element.
+     * @return The distinct filtered {@link FastStream}.
+     * @throws IllegalArgumentException If {@code expected} is less than 1, or {@code fpp} is not between 0 and 1.
+     * @see #probablyDistinct(long, double)
+     */
+    default FastStream<T> probablyDistinct(long expected, double fpp, ToLongFunction<? super T> hasher) {
+        if (expected < 1) throw new IllegalArgumentException("Expected must be at least 1.");
+        if (!(fpp > 0 && fpp < 1)) throw new IllegalArgumentException("fpp must be between 0 and 1.");
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "probablyDistinct", s -> new ProbablyDistinct<>(s, expected, fpp, hasher));
+        return new ProbablyDistinct<>(this, expected, fpp, hasher);
+    }
+
     /**
      * Returns a {@link FastStream} containing all elements grouped by
      * a key. The provided {@link Function} is used to extract the key from the element.
@@ -330,6 +692,7 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The Grouped {@link FastStream}
      */
     default <K> FastStream<Group<K, T>> groupBy(Function<? super T, ? extends K> keyFunc) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "groupBy", s -> new Grouped<>(s, keyFunc, Function.identity()));
         return new Grouped<>(this, keyFunc, Function.identity());
     }
 
@@ -342,19 +705,184 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The Grouped {@link FastStream}
      */
     default <K, V> FastStream<Group<K, V>> groupBy(Function<? super T, ? extends K> keyFunc, Function<? super T, ? extends V> valueFunc) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "groupBy", s -> new Grouped<>(s, keyFunc, valueFunc));
         return new Grouped<>(this, keyFunc, valueFunc);
     }
 
+    /**
+     * Returns a {@link FastStream} of each pair of elements between this stream and another
+     * {@link Iterable} with equal keys, combined by the provided function.
+     * <p>
+     * The smaller side, as determined by {@link #knownLength}, is loaded into a hash table.
+     * The other side is streamed, with results produced in its encounter order. A side of
+     * unknown length is preferred for streaming. If neither length is known, {@code other} is loaded.
+     * <p>
+     * {@code null} keys never match.
+     *
+     * @param other    The other {@link Iterable}.
+     * @param leftKey  The key {@link Function} for elements of this stream.
+     * @param rightKey The key {@link Function} for elements of {@code other}.
+     * @param combiner The {@link BiFunction} to combine each matching pair.
+     * @return The joined {@link FastStream}.
+     */
+    default <U, K, R> FastStream<R> join(Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey, BiFunction<? super T, ? super U, ? extends R> combiner) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "join", s -> new Joined<>(s, other, leftKey, rightKey, combiner, false));
+        return new Joined<>(this, other, leftKey, rightKey, combiner, false);
+    }
+
+    /**
+     * Returns a {@link FastStream} of each element of this stream, combined with each element of another
+     * {@link Iterable} with an equal key.
+     * <p>
+     * Elements of this stream without a match are combined with {@code null}.
+     * <p>
+     * {@code other} is loaded into a hash table, this stream is streamed, with
+     * results produced in its encounter order.
+     * <p>
+     * {@code null} keys never match.
+     *
+     * @param other    The other {@link Iterable}.
+     * @param leftKey  The key {@link Function} for elements of this stream.
+     * @param rightKey The key {@link Function} for elements of {@code other}.
+     * @param combiner The {@link BiFunction} to combine each pair.
+     * @return The joined {@link FastStream}.
+     */
+    default <U, K, R> FastStream<R> leftJoin(Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey, BiFunction<? super T, ? super @Nullable U, ? extends R> combiner) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "leftJoin", s -> new Joined<>(s, other, leftKey, rightKey, combiner, true));
+        return new Joined<>(this, other, leftKey, rightKey, combiner, true);
+    }
+
+    /**
+     * Returns a {@link FastStream} of the elements of this stream with a key
+     * present in another {@link Iterable}.
+     * <p>
+     * {@code null} keys never match.
+     *
+     * @param other    The other {@link Iterable}.
+     * @param leftKey  The key {@link Function} for elements of this stream.
+     * @param rightKey The key {@link Function} for elements of {@code other}.
+     * @return The filtered {@link FastStream}.
+     */
+    default <U, K> FastStream<T> semiJoin(Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "semiJoin", s -> new KeyFiltered<>(s, other, leftKey, rightKey, true));
+        return new KeyFiltered<>(this, other, leftKey, rightKey, true);
+    }
+
+    /**
+     * Returns a {@link FastStream} of the elements of this stream with a key
+     * not present in another {@link Iterable}.
+     * <p>
+     * {@code null} keys never match.
+     *
+     * @param other    The other {@link Iterable}.
+     * @param leftKey  The key {@link Function} for elements of this stream.
+     * @param rightKey The key {@link Function} for elements of {@code other}.
+     * @return The filtered {@link FastStream}.
+     */
+    default <U, K> FastStream<T> antiJoin(Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "antiJoin", s -> new KeyFiltered<>(s, other, leftKey, rightKey, false));
+        return new KeyFiltered<>(this, other, leftKey, rightKey, false);
+    }
+
+    /**
+     * Groups the elements of this stream and another {@link Iterable} by key.
+     * <p>
+     * Every key of either side produces a {@link CoGroup}, keys of this stream first,
+     * then keys only present in {@code other}, each in encounter order.
+     *
+     * @param other    The other {@link Iterable}.
+     * @param leftKey  The key {@link Function} for elements of this stream.
+     * @param rightKey The key {@link Function} for elements of {@code other}.
+     * @return A {@link FastStream} of the computed groups.
+     */
+    default <U, K> FastStream<CoGroup<K, T, U>> coGroup(Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "coGroup", s -> new CoGrouped<>(s, other, leftKey, rightKey));
+        return new CoGrouped<>(this, other, leftKey, rightKey);
+    }
+
     /**
      * Returns a {@link FastStream} partitioned into buckets of a specific size.
+     * <p>
+     * This stream is consumed entirely before the first bucket is produced,
+     * see {@link #chunked(int)} for a lazy alternative.
      *
      * @param amount The amount to store in each bucket.
      * @return The partitioned {@link FastStream}
      */
     default FastStream<FastStream<T>> partition(int amount) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "partition", s -> new Partitioned<>(s, amount));
         return new Partitioned<>(this, amount);
     }
 
+    /**
+     * Returns a {@link FastStream} of consecutive chunks of a specific size.
+     * <p>
+     * Chunks are produced lazily as this stream is consumed. The last chunk
+     * may be smaller.
+     *
+     * @param size The size of each chunk.
+     * @return The chunked {@link FastStream}.
+     */
+    default FastStream<List<T>> chunked(@Range (from = 1, to = Integer.MAX_VALUE) int size) {
+        return chunked(size, false);
+    }
+
+    /**
+     * Returns a {@link FastStream} of consecutive chunks of a specific size.
+     * <p>
+     * Chunks are produced lazily as this stream is consumed. The last chunk
+     * may be smaller.
+     * <p>
+     * If {@code reuse} is {@code true}, the same {@link List} instance is provided for each chunk,
+     * it must not be retained or modified, and is only valid until the next chunk is requested.
+     *
+     * @param size  The size of each chunk.
+     * @param reuse If the chunk {@link List} should be reused.
+     * @return The chunked {@link FastStream}.
+     */
+    default FastStream<List<T>> chunked(@Range (from = 1, to = Integer.MAX_VALUE) int size, boolean reuse) {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive.");
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "chunked", s -> new Windowed<>(s, size, size, true, reuse));
+        return new Windowed<>(this, size, size, true, reuse);
+    }
+
+    /**
+     * Returns a {@link FastStream} of sliding windows of a specific size, each
+     * starting {@code step} elements after the previous.
+     * <p>
+     * Windows are produced lazily as this stream is consumed. Only full windows are produced.
+     *
+     * @param size The size of each window.
+     * @param step The number of elements between the start of each window.
+     * @return The windowed {@link FastStream}.
+     */
+    default FastStream<List<T>> windowed(@Range (from = 1, to = Integer.MAX_VALUE) int size, @Range (from = 1, to = Integer.MAX_VALUE) int step) {
+        return windowed(size, step, false);
+    }
+
+    /**
+     * Returns a {@link FastStream} of sliding windows of a specific size, each
+     * starting {@code step} elements after the previous.
+     * <p>
+     * Windows are produced lazily as this stream is consumed. Only full windows are produced.
+     * <p>
+     * If {@code reuse} is {@code true}, the same {@link List} instance is provided for each window,
+     * it must not be retained or modified, and is only valid until the next window is requested.
+     *
+     * @param size  The size of each window.
+     * @param step  The number of elements between the start of each window.
+     * @param reuse If the window {@link List} should be reused.
+     * @return The windowed {@link FastStream}.
+     */
+    default FastStream<List<T>> windowed(@Range (from = 1, to = Integer.MAX_VALUE) int size, @Range (from = 1, to = Integer.MAX_VALUE) int step, boolean reuse) {
+        if (size <= 0) throw new IllegalArgumentException("Size must be positive.");
+        if (step <= 0) throw new IllegalArgumentException("Step must be positive.");
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "windowed", s -> new Windowed<>(s, size, step, false, reuse));
+        return new Windowed<>(this, size, step, false, reuse);
+    }
+
     /**
      * Returns a {@link FastStream} sorted based on the elements natural sort order.
      * <p>
@@ -364,6 +892,7 @@ public interface FastStream<T> extends Iterable<T> {
      */
     default FastStream<T> sorted() {
         // Will throw CCE when we try to sort if T is not Comparable
+        if (Profiler.enabled(this)) return Profiler.stage(this, "sorted", s -> new Sorted<>(s, unsafeCast(Comparator.naturalOrder())));
         return new Sorted<>(this, unsafeCast(Comparator.naturalOrder()));
     }
 
@@ -374,15 +903,76 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The sorted {@link FastStream}.
      */
     default FastStream<T> sorted(Comparator<? super T> comparator) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "sorted", s -> new Sorted<>(s, comparator));
         return new Sorted<>(this, comparator);
     }
 
+    /**
+     * Returns a {@link FastStream} sorted based on the provided comparator, without requiring
+     * the entire stream to fit in memory.
+     * <p>
+     * Elements are sorted in runs of at most {@code memoryBudget} elements, with each full run
+     * spilled to a temporary file in {@code tempDir}. The runs are then lazily merged.
+     * <p>
+     * The stream is re-sorted each time it is evaluated. Temporary files are deleted once
+     * evaluation completes. When using {@link #iterator()}, the iterator must be exhausted,
+     * otherwise the files are only deleted on exit.
+     *
+     * @param comparator   The {@link Comparator} to apply.
+     * @param serializer   The {@link Serializer} used to spill and read back runs.
+     * @param tempDir      The directory to create temporary files in.
+     * @param memoryBudget The maximum number of elements to hold in memory at once.
+     * @return The sorted {@link FastStream}.
+     */
+    default FastStream<T> sortedExternal(Comparator<? super T> comparator, Serializer<T> serializer, Path tempDir, @Range (from = 1, to = Integer.MAX_VALUE) int memoryBudget) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("Memory budget must be positive.");
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "sortedExternal", s -> new SortedExternal<>(s, comparator, serializer, tempDir, memoryBudget));
+        return new SortedExternal<>(this, comparator, serializer, tempDir, memoryBudget);
+    }
+
+    /**
+     * Returns a {@link FastStream} of the {@code k} smallest elements, as determined by the provided comparator,
+     * in ascending order.
+     * <p>
+     * This is equivalent to {@code sorted(comparator).limit(k)}, however uses a bounded heap, only
+     * ever holding {@code k} elements, instead of sorting the entire stream.
+     * Equal elements retain their encounter order.
+     *
+     * @param k          The number of elements.
+     * @param comparator The {@link Comparator} to apply.
+     * @return The {@link FastStream}.
+     */
+    default FastStream<T> bottom(@Range (from = 0, to = Integer.MAX_VALUE) int k, Comparator<? super T> comparator) {
+        if (k <= 0) return empty();
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "bottom", s -> new SortedLimited<>(s, k, comparator));
+        return new SortedLimited<>(this, k, comparator);
+    }
+
+    /**
+     * Returns a {@link FastStream} of the {@code k} largest elements, as determined by the provided comparator,
+     * in descending order.
+     * <p>
+     * This is equivalent to {@code sorted(comparator.reversed()).limit(k)}, however uses a bounded heap, only
+     * ever holding {@code k} elements, instead of sorting the entire stream.
+     * Equal elements retain their encounter order.
+     *
+     * @param k          The number of elements.
+     * @param comparator The {@link Comparator} to apply.
+     * @return The {@link FastStream}.
+     */
+    default FastStream<T> top(@Range (from = 0, to = Integer.MAX_VALUE) int k, Comparator<? super T> comparator) {
+        return bottom(k, comparator.reversed());
+    }
+
     /**
      * Returns a {@link FastStream} in reverse order.
      *
      * @return The reversed {@link FastStream}.
      */
     default FastStream<T> reversed() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "reversed", Reversed::new);
         return new Reversed<>(this);
     }
 
@@ -393,7 +983,38 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The {@link FastStream}.
      */
     default FastStream<T> peek(Consumer<? super T> cons) {
-        return new Peeked<>(this, cons);
+        if (Profiler.enabled(this)) return Profiler.stage(this, "peek", s -> Fused.append(s, Fused.PEEK, cons));
+        return Fused.append(this, Fused.PEEK, cons);
+    }
+
+    /**
+     * Returns a {@link FastStream} which caches the elements of this stream.
+     * <p>
+     * The first evaluation consumes this stream entirely into a buffer, subsequent
+     * evaluations replay the buffer without re-evaluating this stream.
+     *
+     * @return The cached {@link FastStream}.
+     */
+    default FastStream<T> cached() {
+        return cached(false);
+    }
+
+    /**
+     * Returns a {@link FastStream} which caches the elements of this stream.
+     * <p>
+     * The first evaluation consumes this stream entirely into a buffer, subsequent
+     * evaluations replay the buffer without re-evaluating this stream.
+     * <p>
+     * If {@code soft} is {@code true}, the buffer is only softly referenced, allowing
+     * it to be reclaimed under memory pressure. Should that happen, the next evaluation
+     * re-evaluates this stream.
+     *
+     * @param soft If the buffer should be softly referenced.
+     * @return The cached {@link FastStream}.
+     */
+    default FastStream<T> cached(boolean soft) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "cached", s -> new Cached<>(s, soft));
+        return new Cached<>(this, soft);
     }
 
     /**
@@ -408,7 +1029,7 @@ public interface FastStream<T> extends Iterable<T> {
         if (max == -1) return this;
         if (max <= 0) return empty();
 
-        // TODO, special implementation if underlying stream is 'sorted'
+        if (Profiler.enabled(this)) return Profiler.stage(this, "limit", s -> new Sliced<>(s, 0, max));
         return new Sliced<>(this, 0, max);
     }
 
@@ -421,6 +1042,7 @@ public interface FastStream<T> extends Iterable<T> {
     default FastStream<T> skip(@Range (from = 0, to = Integer.MAX_VALUE) int n) {
         if (n == 0) return this;
 
+        if (Profiler.enabled(this)) return Profiler.stage(this, "skip", s -> new Sliced<>(s, n, Integer.MAX_VALUE));
         return new Sliced<>(this, n, Integer.MAX_VALUE);
     }
 
@@ -432,6 +1054,7 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The filtered {@link FastStream}.
      */
     default FastStream<T> takeWhile(Predicate<? super T> pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "takeWhile", s -> new TakenWhile<>(s, pred));
         return new TakenWhile<>(this, pred);
     }
 
@@ -456,6 +1079,7 @@ public interface FastStream<T> extends Iterable<T> {
      * @return The filtered {@link FastStream}.
      */
     default FastStream<T> dropWhile(Predicate<? super T> pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "dropWhile", s -> new DroppedWhile<>(s, pred));
         return new DroppedWhile<>(this, pred);
     }
 
@@ -471,9 +1095,121 @@ public interface FastStream<T> extends Iterable<T> {
     default FastStream<T> dropUntil(Predicate<? super T> pred) {
         return dropWhile(pred.negate());
     }
-    // endregion
-
-    // region Queries.
+
+    /**
+     * Returns a {@link ParallelFastStream} which evaluates this stream
+     * in parallel using the {@link ForkJoinPool#commonPool()}.
+     *
+     * @return The {@link ParallelFastStream}.
+     * @see ParallelFastStream
+     */
+    default ParallelFastStream<T> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a {@link ParallelFastStream} which evaluates this stream
+     * in parallel using the provided {@link ForkJoinPool}.
+     *
+     * @param pool The {@link ForkJoinPool} to evaluate on.
+     * @return The {@link ParallelFastStream}.
+     * @see ParallelFastStream
+     */
+    default ParallelFastStream<T> parallel(ForkJoinPool pool) {
+        return new ParallelFastStream<>(this, pool);
+    }
+
+    /**
+     * Compiles this stream's pipeline into a single generated loop.
+     * <p>
+     * The source and all stateless operations ({@link #filter}, {@link #map}, {@link #peek},
+     * {@link #ofType} and friends) directly applied to it are emitted as one straight-line
+     * loop, in a class generated once per pipeline shape and cached. Any other operation
+     * acts as the source of the compiled loop.
+     * <p>
+     * Compilation has an up-front cost, this is intended for pipelines which are built once
+     * and evaluated many times. The returned stream may be evaluated as many times as the
+     * source permits. Iteration via {@link #iterator()} is not compiled.
+     *
+     * @return The compiled {@link FastStream}.
+     */
+    @Requires ("org.ow2.asm:asm")
+    default FastStream<T> compile() {
+        return Internal.compile(this);
+    }
+
+    /**
+     * Returns a {@link FastStream} which profiles each subsequent stage applied to it.
+     * <p>
+     * For each stage, the number of elements produced, whether {@link #knownLength} was lost,
+     * and the estimated wall time spent in the stage is recorded. Once a pipeline has been
+     * evaluated via its final stage, a {@link PipelineProfile} is logged.
+     * <p>
+     * Profiling may also be enabled for all pipelines with the {@code quack.faststream.profile}
+     * system property. When disabled, stages are constructed without any profiling overhead.
+     * <p>
+     * Profiled stages are not fused or otherwise optimized with their neighbours.
+     *
+     * @param name The name of the pipeline.
+     * @return The {@link FastStream}.
+     */
+    default FastStream<T> profile(String name) {
+        return new Probed<>(this, new Profiler(name, null), "source", null);
+    }
+
+    /**
+     * Returns a {@link FastStream} which profiles each subsequent stage applied to it.
+     * <p>
+     * Once a pipeline has been evaluated via its final stage, its {@link PipelineProfile}
+     * is provided to {@code reporter}.
+     *
+     * @param name     The name of the pipeline.
+     * @param reporter The {@link Consumer} to report to.
+     * @return The {@link FastStream}.
+     * @see #profile(String)
+     */
+    default FastStream<T> profile(String name, Consumer<PipelineProfile> reporter) {
+        return new Probed<>(this, new Profiler(name, reporter), "source", null);
+    }
+    // endregion
+
+    // region Queries.
+
+    /**
+     * Performs the given action for each element of the stream, until the action returns {@code true}.
+     * <p>
+     * This is the short-circuiting counterpart to {@link #forEach}, used by {@link #anyMatch},
+     * {@link #findFirst}, {@link #limit}, {@link #takeWhile} and friends. Stopping is cooperative,
+     * every operation stops evaluating its source as soon as the action asks it to, without
+     * throwing.
+     *
+     * @param action The action. Returning {@code true} stops evaluation.
+     * @return {@code true} if evaluation was stopped by the action.
+     */
+    default boolean forEachUntil(Predicate<? super T> action) {
+        for (T t : this) {
+            if (action.test(t)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Performs the given action for each element of the stream, along with its index.
+     *
+     * @param action The action.
+     */
+    default void forEachIndexed(ObjIntConsumer<? super T> action) {
+        final class Cons implements Consumer<T> {
+
+            private int index;
+
+            @Override
+            public void accept(T t) {
+                action.accept(t, index++);
+            }
+        }
+        forEach(new Cons());
+    }
 
     /**
      * Tests if any element in the {@link FastStream} matches the provided {@link Predicate}.
@@ -482,16 +1218,7 @@ public interface FastStream<T> extends Iterable<T> {
      * @return If any element matches the {@link Predicate}.
      */
     default boolean anyMatch(Predicate<? super T> pred) {
-        try {
-            forEach(e -> {
-                if (pred.test(e)) {
-                    throw new ForEachAbort();
-                }
-            });
-        } catch (ForEachAbort ignored) {
-            return true;
-        }
-        return false;
+        return forEachUntil(pred);
     }
 
     /**
@@ -575,6 +1302,34 @@ public interface FastStream<T> extends Iterable<T> {
         forEach(cons);
         return cons.count;
     }
+
+    /**
+     * Evaluates the stream, estimating the number of distinct elements using HyperLogLog.
+     * <p>
+     * Uses a fixed 16KB of memory, with a standard error of around 0.8%.
+     * Elements are hashed as described by {@link #probablyDistinct(long, double)}.
+     *
+     * @return The estimated number of distinct elements.
+     */
+    default long countDistinct() {
+        return countDistinct(Internal::hash64);
+    }
+
+    /**
+     * Evaluates the stream, estimating the number of distinct elements using HyperLogLog.
+     * <p>
+     * The provided hash function should be well distributed over all 64 bits, elements with equal
+     * hashes are considered equal.
+     *
+     * @param hasher The function to hash each element.
+     * @return The estimated number of distinct elements.
+     * @see #countDistinct()
+     */
+    default long countDistinct(ToLongFunction<? super T> hasher) {
+        HyperLogLog hll = new HyperLogLog();
+        forEach(e -> hll.add(hasher.applyAsLong(e)));
+        return hll.estimate();
+    }
     //endregion
 
     // region Terminal operations
@@ -702,18 +1457,103 @@ public interface FastStream<T> extends Iterable<T> {
         return cons.sum;
     }
 
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToIntFunction} to convert each element to an int.
+     *
+     * @param func The {@link ToIntFunction} to apply.
+     * @return The {@link IntStats}.
+     */
+    default IntStats intStats(ToIntFunction<? super T> func) {
+        return intStats(func, false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToIntFunction} to convert each element to an int.
+     * <p>
+     * Optionally, also tracks the variance and approximate percentiles of the elements.
+     *
+     * @param func         The {@link ToIntFunction} to apply.
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link IntStats}.
+     */
+    default IntStats intStats(ToIntFunction<? super T> func, boolean distribution) {
+        IntStats stats = new IntStats(distribution);
+        forEach(e -> stats.accept(func.applyAsInt(e)));
+        return stats;
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToLongFunction} to convert each element to a long.
+     *
+     * @param func The {@link ToLongFunction} to apply.
+     * @return The {@link LongStats}.
+     */
+    default LongStats longStats(ToLongFunction<? super T> func) {
+        return longStats(func, false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToLongFunction} to convert each element to a long.
+     * <p>
+     * Optionally, also tracks the variance and approximate percentiles of the elements.
+     *
+     * @param func         The {@link ToLongFunction} to apply.
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link LongStats}.
+     */
+    default LongStats longStats(ToLongFunction<? super T> func, boolean distribution) {
+        LongStats stats = new LongStats(distribution);
+        forEach(e -> stats.accept(func.applyAsLong(e)));
+        return stats;
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToDoubleFunction} to convert each element to a double.
+     *
+     * @param func The {@link ToDoubleFunction} to apply.
+     * @return The {@link DoubleStats}.
+     */
+    default DoubleStats doubleStats(ToDoubleFunction<? super T> func) {
+        return doubleStats(func, false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToDoubleFunction} to convert each element to a double.
+     * <p>
+     * Optionally, also tracks the variance and approximate percentiles of the elements.
+     *
+     * @param func         The {@link ToDoubleFunction} to apply.
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link DoubleStats}.
+     */
+    default DoubleStats doubleStats(ToDoubleFunction<? super T> func, boolean distribution) {
+        DoubleStats stats = new DoubleStats(distribution);
+        forEach(e -> stats.accept(func.applyAsDouble(e)));
+        return stats;
+    }
+
     /**
      * @return Optionally, the first element in the stream.
      */
     default Optional<T> findFirst() {
-        return ColUtils.headOption(this);
+        return Optional.ofNullable(firstOrDefault());
     }
 
     /**
      * @return The first element in the stream.
      */
     default T first() {
-        return ColUtils.head(this);
+        T first = firstOrDefault();
+        if (first == null) {
+            throw new IllegalArgumentException("Not found.");
+        }
+        return first;
     }
 
     /**
@@ -721,7 +1561,7 @@ public interface FastStream<T> extends Iterable<T> {
      */
     @Nullable
     default T firstOrDefault() {
-        return ColUtils.headOrDefault(this);
+        return firstOrDefault(null);
     }
 
     /**
@@ -731,7 +1571,12 @@ public interface FastStream<T> extends Iterable<T> {
     @Nullable
     @Contract ("!null -> !null")
     default T firstOrDefault(@Nullable T _default) {
-        return ColUtils.headOrDefault(this, _default);
+        Object[] first = { _default };
+        forEachUntil(e -> {
+            first[0] = e;
+            return true;
+        });
+        return unsafeCast(first[0]);
     }
 
     /**
@@ -790,7 +1635,26 @@ public interface FastStream<T> extends Iterable<T> {
     @Nullable
     @Contract ("!null->!null")
     default T onlyOrDefault(@Nullable T _default) {
-        return ColUtils.onlyOrDefault(this, _default);
+        class Pred implements Predicate<T> {
+
+            @Nullable
+            T thing = _default;
+            boolean found;
+
+            @Override
+            public boolean test(T t) {
+                if (found) {
+                    thing = _default;
+                    return true;
+                }
+                found = true;
+                thing = t;
+                return false;
+            }
+        }
+        Pred pred = new Pred();
+        forEachUntil(pred);
+        return pred.thing;
     }
 
     /**
@@ -1541,6 +2405,50 @@ public interface FastStream<T> extends Iterable<T> {
         return map;
     }
 
+    /**
+     * Collects this stream into an {@link Object2IntOpenHashMap}, without boxing the values.
+     * <p>
+     * In the event of a collision, the first value will be used.
+     *
+     * @param kFunc The {@link Function} to extracting the key.
+     * @param vFunc The {@link ToIntFunction} to extracting the value.
+     * @return The {@link Object2IntOpenHashMap}.
+     */
+    default <K> Object2IntOpenHashMap<K> toObject2IntMap(Function<? super T, ? extends K> kFunc, ToIntFunction<? super T> vFunc) {
+        Object2IntOpenHashMap<K> map = new Object2IntOpenHashMap<>(Math.max(0, knownLength()));
+        forEach(t -> map.putIfAbsent(kFunc.apply(t), vFunc.applyAsInt(t)));
+        return map;
+    }
+
+    /**
+     * Collects this stream into an {@link Object2IntOpenHashMap}, without boxing the values.
+     *
+     * @param kFunc     The {@link Function} to extracting the key.
+     * @param vFunc     The {@link ToIntFunction} to extracting the value.
+     * @param mergeFunc The {@link IntBinaryOperator} to resolve merge conflicts.
+     * @return The {@link Object2IntOpenHashMap}.
+     */
+    default <K> Object2IntOpenHashMap<K> toObject2IntMap(Function<? super T, ? extends K> kFunc, ToIntFunction<? super T> vFunc, IntBinaryOperator mergeFunc) {
+        Object2IntOpenHashMap<K> map = new Object2IntOpenHashMap<>(Math.max(0, knownLength()));
+        forEach(t -> map.merge(kFunc.apply(t), vFunc.applyAsInt(t), mergeFunc));
+        return map;
+    }
+
+    /**
+     * Collects this stream into an {@link Int2ObjectOpenHashMap}, without boxing the keys.
+     * <p>
+     * In the event of a collision, the first value will be used.
+     *
+     * @param kFunc The {@link ToIntFunction} to extracting the key.
+     * @param vFunc The {@link Function} to extracting the value.
+     * @return The {@link Int2ObjectOpenHashMap}.
+     */
+    default <V> Int2ObjectOpenHashMap<V> toInt2ObjectMap(ToIntFunction<? super T> kFunc, Function<? super T, ? extends V> vFunc) {
+        Int2ObjectOpenHashMap<V> map = new Int2ObjectOpenHashMap<>(Math.max(0, knownLength()));
+        forEach(t -> map.putIfAbsent(kFunc.applyAsInt(t), vFunc.apply(t)));
+        return map;
+    }
+
     /**
      * Join all elements of this stream together into a {@link String},
      * separated by {@code sep}.
@@ -1570,6 +2478,29 @@ public interface FastStream<T> extends Iterable<T> {
         forEach(cons);
         return cons.builder.toString();
     }
+
+    /**
+     * Groups all elements in this stream by a key, aggregating each group.
+     * <p>
+     * Unlike {@link #groupBy(Function)}, only a single accumulator is held per key, the
+     * elements of each group are not retained.
+     * <p>
+     * Keys retain encounter order.
+     *
+     * @param keyFunc    The key {@link Function}.
+     * @param aggregator The {@link Aggregator} to apply to each group.
+     * @return A {@link LinkedHashMap} of each key to its aggregated result.
+     */
+    default <K, A, R> LinkedHashMap<K, R> groupBy(Function<? super T, ? extends K> keyFunc, Aggregator<? super T, A, R> aggregator) {
+        LinkedHashMap<K, A> accumulators = new LinkedHashMap<>();
+        Function<K, A> create = k -> aggregator.create();
+        forEach(t -> aggregator.accumulate(accumulators.computeIfAbsent(keyFunc.apply(t), create), t));
+
+        // Finish in place, avoiding a second map.
+        LinkedHashMap<K, Object> results = unsafeCast(accumulators);
+        results.replaceAll((k, acc) -> aggregator.finish(unsafeCast(acc)));
+        return unsafeCast(results);
+    }
     // endregion
 
     // region Creation and Composition implementations.
@@ -1597,6 +2528,11 @@ public interface FastStream<T> extends Iterable<T> {
             _itr.forEach(action);
         }
 
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            return Internal.forEachUntil(_itr, action);
+        }
+
         @Override
         public int knownLength(boolean consumeToCalculate) {
             return knownLength;
@@ -1637,6 +2573,24 @@ public interface FastStream<T> extends Iterable<T> {
             _itr.forEachRemaining(action);
         }
 
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            class Cons implements Consumer<T> {
+
+                boolean stop;
+
+                @Override
+                public void accept(T t) {
+                    stop = action.test(t);
+                }
+            }
+            Cons cons = new Cons();
+            while (!cons.stop && _itr.tryAdvance(cons)) {
+                // Advance until stopped or exhausted.
+            }
+            return cons.stop;
+        }
+
         @Override
         public int knownLength(boolean consumeToCalculate) {
             return knownLength;
@@ -1685,6 +2639,11 @@ public interface FastStream<T> extends Iterable<T> {
             action.accept(thing);
         }
 
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            return action.test(thing);
+        }
+
         @Override
         public int knownLength(boolean consumeToCalculate) {
             return 1;
@@ -1714,6 +2673,14 @@ public interface FastStream<T> extends Iterable<T> {
             }
         }
 
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            for (T t : things) {
+                if (action.test(t)) return true;
+            }
+            return false;
+        }
+
         @Override
         public int knownLength(boolean consumeToCalculate) {
             return things.length;
@@ -1722,64 +2689,98 @@ public interface FastStream<T> extends Iterable<T> {
 
     /**
      * A {@link FastStream} for an array of concatenated {@link Iterable}s.
+     * <p>
+     * Nested {@link ConcatenatedN}s are flattened on construction. Repeatedly concatenating
+     * onto the same stream appends to a shared array in amortized constant time, each instance
+     * only ever reads its own prefix of the array.
      */
     final class ConcatenatedN<T> implements FastStream<T> {
 
         private final Iterable<? extends T>[] iterables;
+        private final int count;
+        // The number of used slots in the shared array, only the instance ending at the tip may append in place.
+        private final int[] tip;
 
-        private ConcatenatedN(Iterable<? extends T>[] iterables) {
+        private ConcatenatedN(Iterable<? extends T>[] iterables, int count, int[] tip) {
             this.iterables = iterables;
+            this.count = count;
+            this.tip = tip;
         }
 
-        @Override
-        public Iterator<T> iterator() {
-            return new AbstractIterator<T>() {
-
-                private int i = 0;
+        private static <T> ConcatenatedN<T> of(Iterable<? extends T>[] iterables) {
+            if (iterables[0] instanceof ConcatenatedN) {
+                ConcatenatedN<T> first = unsafeCast(iterables[0]);
+                return first.append(iterables, 1);
+            }
+            return new ConcatenatedN<T>(unsafeCast(new Iterable<?>[0]), 0, new int[1]).append(iterables, 0);
+        }
 
-                @Nullable
-                private Iterator<? extends T> working;
+        private ConcatenatedN<T> append(Iterable<? extends T>[] others, int from) {
+            int needed = 0;
+            for (int i = from; i < others.length; i++) {
+                if (others[i] instanceof ConcatenatedN) {
+                    needed += ((ConcatenatedN<?>) others[i]).count;
+                } else if (Internal.knownLength(others[i], false) != 0) {
+                    needed++;
+                }
+            }
 
-                @Override
-                protected T computeNext() {
-                    while (true) {
-                        if (working == null) {
-                            if (i >= iterables.length) break;
-                            working = iterables[i++].iterator();
-                        }
-                        if (working.hasNext()) {
-                            return working.next();
-                        }
-                        working = null;
+            synchronized (tip) {
+                Iterable<? extends T>[] iterables = this.iterables;
+                int[] tip = this.tip;
+                if (tip[0] != count || count + needed > iterables.length) {
+                    // Another instance already appended, or we are out of space, fork the array.
+                    iterables = Arrays.copyOf(iterables, Math.max(count + needed, count * 2));
+                    tip = new int[1];
+                }
+                int ptr = count;
+                for (int i = from; i < others.length; i++) {
+                    if (others[i] instanceof ConcatenatedN) {
+                        ConcatenatedN<? extends T> other = unsafeCast(others[i]);
+                        System.arraycopy(other.iterables, 0, iterables, ptr, other.count);
+                        ptr += other.count;
+                    } else if (Internal.knownLength(others[i], false) != 0) {
+                        iterables[ptr++] = others[i];
                     }
-                    return endOfData();
                 }
-            };
+                tip[0] = ptr;
+                return new ConcatenatedN<>(iterables, ptr, tip);
+            }
         }
 
         @Override
-        public void forEach(Consumer<? super T> action) {
-            for (Iterable<? extends T> iterable : iterables) {
-                iterable.forEach(action);
-            }
+        public Iterator<T> iterator() {
+            return new Internal.FlatIterator<>(new Internal.FlatSources<>(sources()));
         }
 
         @Override
-        public int knownLength(boolean consumeToCalculate) {
-            int len = 0;
-            for (Iterable<? extends T> iterable : iterables) {
-                int ilen = Internal.knownLength(iterable, consumeToCalculate);
-                if (ilen < 0) return -1;
+        public void forEach(Consumer<? super T> action) {
+            new Internal.FlatSources<T>(sources()).forEachRemaining(e -> e.forEach(action));
+        }
 
-                len += ilen;
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            Iterator<Iterable<? extends T>> itr = new Internal.FlatSources<>(sources());
+            while (itr.hasNext()) {
+                if (Internal.forEachUntil(itr.next(), action)) return true;
             }
+            return false;
+        }
 
-            return len;
+        private Iterator<? extends Iterable<? extends T>> sources() {
+            return ColUtils.iterator(iterables, 0, count);
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return new Internal.FlatSources<T>(sources()).knownLength(consumeToCalculate);
         }
     }
 
     /**
      * A {@link FastStream} for an {@link Iterable} of concatenated {@link Iterable}s.
+     * <p>
+     * Nested concatenations are flattened during evaluation, without recursion.
      */
     final class Concatenated<T> implements FastStream<T> {
 
@@ -1791,58 +2792,137 @@ public interface FastStream<T> extends Iterable<T> {
 
         @Override
         public Iterator<T> iterator() {
-            return new AbstractIterator<T>() {
-                private final Iterator<? extends Iterable<? extends T>> itr = iterables.iterator();
-
-                @Nullable
-                private Iterator<? extends T> working;
-
-                @Override
-                protected T computeNext() {
-                    while (true) {
-                        if (working == null) {
-                            if (!itr.hasNext()) break;
-                            working = itr.next().iterator();
-                        }
-                        if (working.hasNext()) {
-                            return working.next();
-                        }
-                        working = null;
-                    }
-                    return endOfData();
-                }
-            };
+            return new Internal.FlatIterator<>(new Internal.FlatSources<>(iterables.iterator()));
         }
 
         @Override
         public void forEach(Consumer<? super T> action) {
-            iterables.forEach(e -> e.forEach(action));
+            new Internal.FlatSources<T>(iterables.iterator()).forEachRemaining(e -> e.forEach(action));
         }
 
         @Override
-        public int knownLength(boolean consumeToCalculate) {
-            int len = 0;
-            for (Iterable<? extends T> iterable : iterables) {
-                int ilen = Internal.knownLength(iterable, consumeToCalculate);
-                if (ilen < 0) return -1;
-
-                len += ilen;
+        public boolean forEachUntil(Predicate<? super T> action) {
+            Iterator<Iterable<? extends T>> itr = new Internal.FlatSources<>(iterables.iterator());
+            while (itr.hasNext()) {
+                if (Internal.forEachUntil(itr.next(), action)) return true;
             }
+            return false;
+        }
 
-            return len;
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return new Internal.FlatSources<T>(iterables.iterator()).knownLength(consumeToCalculate);
         }
     }
-    // endregion
-
-    // region Stream operation implementations.
 
     /**
-     * A {@link FastStream} with a filtering function applied.
+     * A {@link FastStream} merging multiple sorted {@link Iterable}s.
      */
-    final class Filtered<T> implements FastStream<T> {
-
-        private final FastStream<T> parent;
-        private final Predicate<? super T> pred;
+    final class MergeSorted<T> implements FastStream<T> {
+
+        private final Comparator<? super T> comparator;
+        private final Iterable<? extends Iterable<? extends T>> iterables;
+
+        private MergeSorted(Comparator<? super T> comparator, Iterable<? extends Iterable<? extends T>> iterables) {
+            this.comparator = comparator;
+            this.iterables = iterables;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Internal.MergingIterator<>(comparator, iterables);
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            new Internal.MergingIterator<T>(comparator, iterables).forEachRemaining(action);
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            Iterator<T> itr = new Internal.MergingIterator<>(comparator, iterables);
+            while (itr.hasNext()) {
+                if (action.test(itr.next())) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int len = 0;
+            for (Iterable<? extends T> iterable : iterables) {
+                int ilen = Internal.knownLength(iterable, consumeToCalculate);
+                if (ilen < 0) return -1;
+
+                len += ilen;
+            }
+
+            return len;
+        }
+    }
+
+    /**
+     * A {@link FastStream} over the lines of a memory mapped file.
+     */
+    final class MappedLines<T> implements FastStream<T> {
+
+        private final Path path;
+        private final Charset charset;
+        private final boolean views;
+        private final long from;
+        private final long until;
+
+        private MappedLines(Path path, Charset charset, boolean views, long from, long until) {
+            this.path = path;
+            this.charset = charset;
+            this.views = views;
+            this.from = from;
+            this.until = until;
+        }
+
+        private LineScanner<T> scanner() {
+            return new LineScanner<>(path, charset, views, from, until != -1 ? until : LineScanner.size(path));
+        }
+
+        FastStream<T>[] split(int parts) {
+            long[] bounds = LineScanner.split(path, from, until != -1 ? until : LineScanner.size(path), parts);
+            FastStream<T>[] segments = unsafeCast(new FastStream<?>[bounds.length - 1]);
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = new MappedLines<>(path, charset, views, bounds[i], bounds[i + 1]);
+            }
+            return segments;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return scanner();
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            scanner().forEachRemaining(action);
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            Iterator<T> itr = scanner();
+            while (itr.hasNext()) {
+                if (action.test(itr.next())) return true;
+            }
+            return false;
+        }
+    }
+    // endregion
+
+    // region Stream operation implementations.
+
+    /**
+     * A {@link FastStream} with a filtering function applied.
+     */
+    final class Filtered<T> implements FastStream<T> {
+
+        private final FastStream<T> parent;
+        private final Predicate<? super T> pred;
 
         private Filtered(FastStream<T> parent, Predicate<? super T> pred) {
             this.parent = parent;
@@ -1875,6 +2955,11 @@ public interface FastStream<T> extends Iterable<T> {
                 }
             });
         }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            return parent.forEachUntil(e -> pred.test(e) && action.test(e));
+        }
     }
 
     /**
@@ -1912,6 +2997,11 @@ public interface FastStream<T> extends Iterable<T> {
             parent.forEach(e -> action.accept(func.apply(e)));
         }
 
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            return parent.forEachUntil(e -> action.test(func.apply(e)));
+        }
+
         @Override
         public int knownLength(boolean consumeToCalculate) {
             return parent.knownLength(consumeToCalculate);
@@ -1920,251 +3010,1360 @@ public interface FastStream<T> extends Iterable<T> {
     }
 
     /**
-     * A {@link FastStream} with a type filter and mapping applied.
+     * An {@link IntFastStream} with a mapping function applied to each element.
      */
-    final class OfType<T, R> implements FastStream<R> {
+    final class MappedToInt<T> implements IntFastStream {
 
         private final FastStream<T> parent;
-        private final Class<? extends R> clazz;
+        private final ToIntFunction<? super T> func;
 
-        public OfType(FastStream<T> parent, Class<? extends R> clazz) {
+        private MappedToInt(FastStream<T> parent, ToIntFunction<? super T> func) {
             this.parent = parent;
-            this.clazz = clazz;
+            this.func = func;
         }
 
         @Override
-        public Iterator<R> iterator() {
-            return new AbstractIterator<R>() {
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
                 private final Iterator<T> itr = parent.iterator();
 
                 @Override
-                protected R computeNext() {
-                    while (itr.hasNext()) {
-                        T e = itr.next();
-                        if (clazz.isInstance(e)) {
-                            return clazz.cast(e);
-                        }
-                    }
-                    return endOfData();
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public int nextInt() {
+                    return func.applyAsInt(itr.next());
                 }
             };
         }
 
         @Override
-        public void forEach(Consumer<? super R> action) {
-            parent.forEach(e -> {
-                if (clazz.isInstance(e)) {
-                    action.accept(clazz.cast(e));
-                }
-            });
+        public void forEach(IntConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsInt(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsInt(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
         }
     }
 
     /**
-     * A {@link FastStream} with a flat mapping option applied
-     * to each element flattened together.
+     * A {@link LongFastStream} with a mapping function applied to each element.
      */
-    final class FlatMapped<T, R> implements FastStream<R> {
+    final class MappedToLong<T> implements LongFastStream {
 
         private final FastStream<T> parent;
-        private final Function<? super T, ? extends Iterable<? extends R>> func;
+        private final ToLongFunction<? super T> func;
 
-        private FlatMapped(FastStream<T> parent, Function<? super T, ? extends Iterable<? extends R>> func) {
+        private MappedToLong(FastStream<T> parent, ToLongFunction<? super T> func) {
             this.parent = parent;
             this.func = func;
         }
 
         @Override
-        public Iterator<R> iterator() {
-            return new AbstractIterator<R>() {
-
+        public PrimitiveIterator.OfLong iterator() {
+            return new PrimitiveIterator.OfLong() {
                 private final Iterator<T> itr = parent.iterator();
 
-                @Nullable
-                private Iterator<? extends R> working;
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
 
                 @Override
-                protected R computeNext() {
-                    while (true) {
-                        if (working == null) {
-                            if (!itr.hasNext()) break;
-                            working = func.apply(itr.next()).iterator();
-                        }
-                        if (working.hasNext()) {
-                            return working.next();
-                        }
-                        working = null;
-                    }
-                    return endOfData();
+                public long nextLong() {
+                    return func.applyAsLong(itr.next());
                 }
             };
         }
 
         @Override
-        public void forEach(Consumer<? super R> action) {
-            parent.forEach(e -> func.apply(e).forEach(action));
+        public void forEach(LongConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsLong(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsLong(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
         }
     }
 
     /**
-     * A {@link FastStream} filtered using {@link Object#hashCode()}/{@link Object#equals} identity.
+     * A {@link DoubleFastStream} with a mapping function applied to each element.
      */
-    final class Distinct<T> implements FastStream<T> {
+    final class MappedToDouble<T> implements DoubleFastStream {
 
         private final FastStream<T> parent;
+        private final ToDoubleFunction<? super T> func;
 
-        private Distinct(FastStream<T> parent) {
+        private MappedToDouble(FastStream<T> parent, ToDoubleFunction<? super T> func) {
             this.parent = parent;
+            this.func = func;
         }
 
-        private int knownLength = -1;
-
         @Override
-        public Iterator<T> iterator() {
-            return new AbstractIterator<T>() {
-                private final Set<T> set = new HashSet<>();
+        public PrimitiveIterator.OfDouble iterator() {
+            return new PrimitiveIterator.OfDouble() {
                 private final Iterator<T> itr = parent.iterator();
 
                 @Override
-                protected T computeNext() {
-                    while (itr.hasNext()) {
-                        T e = itr.next();
-                        if (set.add(e)) {
-                            return e;
-                        }
-                    }
-                    knownLength = set.size();
-                    return endOfData();
+                public boolean hasNext() {
+                    return itr.hasNext();
                 }
-            };
-        }
 
-        @Override
-        public void forEach(Consumer<? super T> action) {
-            Set<T> set = new HashSet<>();
-            parent.forEach(e -> {
-                if (set.add(e)) {
-                    action.accept(e);
+                @Override
+                public double nextDouble() {
+                    return func.applyAsDouble(itr.next());
                 }
-            });
-            knownLength = set.size();
-        }
-
-        @Override
-        public int knownLength(boolean consumeToCalculate) {
-            return knownLength;
+            };
         }
 
         @Override
-        public HashSet<T> toSet() {
-            return parent.toSet();
+        public void forEach(DoubleConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsDouble(e)));
         }
 
         @Override
-        public LinkedHashSet<T> toLinkedHashSet() {
-            return parent.toLinkedHashSet();
+        public boolean forEachUntil(DoublePredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsDouble(e)));
         }
 
         @Override
-        public ImmutableSet<T> toGuavaImmutableSet() {
-            return parent.toGuavaImmutableSet();
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
         }
     }
 
     /**
-     * Represents a Key to sequence of values in a {@link #groupBy} grouping.
+     * A {@link FastStream} with an indexed mapping function applied.
      */
-    final class Group<K, V> implements FastStream<V> {
+    final class MappedIndexed<T, R> implements FastStream<R> {
 
-        private final K key;
-        private int size;
-        private Object[] values = new Object[1];
+        private final FastStream<T> parent;
+        private final IndexedFunction<? super T, ? extends R> func;
 
-        public Group(K key) {
-            this.key = key;
+        private MappedIndexed(FastStream<T> parent, IndexedFunction<? super T, ? extends R> func) {
+            this.parent = parent;
+            this.func = func;
         }
 
         @Override
-        @SuppressWarnings ("unchecked")
-        public Iterator<V> iterator() {
-            return ColUtils.iterator((V[]) values, 0, size);
-        }
+        public Iterator<R> iterator() {
+            return new Iterator<R>() {
+                private final Iterator<T> itr = parent.iterator();
+                private int index;
 
-        @Override
-        @SuppressWarnings ("unchecked")
-        public void forEach(Consumer<? super V> action) {
-            for (int i = 0; i < size; i++) {
-                action.accept((V) values[i]);
-            }
-        }
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
 
-        @Override
-        public int knownLength(boolean consumeToCalculate) {
-            return size;
+                @Override
+                public R next() {
+                    return func.apply(itr.next(), index++);
+                }
+            };
         }
 
-        public K getKey() {
-            return key;
-        }
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            final class Cons implements Consumer<T> {
 
-        private void add(V value) {
-            resize();
-            values[size++] = value;
-        }
+                private int index;
 
-        private void resize() {
-            if (size < values.length) return; // No need for resize.
-            values = Arrays.copyOf(values, size > 1024 ? size * 2 : size * 4);
+                @Override
+                public void accept(T t) {
+                    action.accept(func.apply(t, index++));
+                }
+            }
+            parent.forEach(new Cons());
         }
 
         @Override
-        @SuppressWarnings ({ "unchecked", "SuspiciousSystemArraycopy" })
-        public V[] toArray(V[] arr) {
-            if (arr.length >= size) {
-                System.arraycopy(values, 0, arr, 0, size);
-                if (arr.length >= size + 1) {
-                    arr[size + 1] = null;
+        public boolean forEachUntil(Predicate<? super R> action) {
+            final class Pred implements Predicate<T> {
+
+                private int index;
+
+                @Override
+                public boolean test(T t) {
+                    return action.test(func.apply(t, index++));
                 }
-                return arr;
             }
+            return parent.forEachUntil(new Pred());
+        }
 
-            return (V[]) Arrays.copyOf(values, size, arr.getClass());
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
         }
     }
 
     /**
-     * A {@link FastStream} of elements grouped by a specific key.
+     * A {@link FastStream} with an asynchronous mapping function applied.
      */
-    final class Grouped<T, K, V> implements FastStream<Group<K, V>> {
+    final class MappedAsync<T, R> implements FastStream<R> {
+
+        private final FastStream<T> parent;
+        private final Function<? super T, ? extends CompletableFuture<? extends R>> func;
+        private final int maxInFlight;
+        private final boolean ordered;
+
+        private MappedAsync(FastStream<T> parent, Function<? super T, ? extends CompletableFuture<? extends R>> func, int maxInFlight, boolean ordered) {
+            this.parent = parent;
+            this.func = func;
+            this.maxInFlight = maxInFlight;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new Internal.AsyncMappingIterator<>(parent.iterator(), func, maxInFlight, ordered);
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            Internal.AsyncMappingIterator<T, R> itr = new Internal.AsyncMappingIterator<>(parent.iterator(), func, maxInFlight, ordered);
+            try {
+                itr.forEachRemaining(action);
+            } catch (Throwable ex) {
+                itr.cancel();
+                throw ex;
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            Internal.AsyncMappingIterator<T, R> itr = new Internal.AsyncMappingIterator<>(parent.iterator(), func, maxInFlight, ordered);
+            try {
+                while (itr.hasNext()) {
+                    if (action.test(itr.next())) {
+                        itr.cancel();
+                        return true;
+                    }
+                }
+                return false;
+            } catch (Throwable ex) {
+                itr.cancel();
+                throw ex;
+            }
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link FastStream} pairing the elements of two sources.
+     */
+    final class Zipped<T, U, R> implements FastStream<R> {
+
+        private final FastStream<T> parent;
+        private final Iterable<? extends U> other;
+        private final BiFunction<? super T, ? super U, ? extends R> func;
+
+        private Zipped(FastStream<T> parent, Iterable<? extends U> other, BiFunction<? super T, ? super U, ? extends R> func) {
+            this.parent = parent;
+            this.other = other;
+            this.func = func;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new Iterator<R>() {
+                private final Iterator<T> left = parent.iterator();
+                private final Iterator<? extends U> right = other.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return left.hasNext() && right.hasNext();
+                }
+
+                @Override
+                public R next() {
+                    return func.apply(left.next(), right.next());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            Iterator<? extends U> right = other.iterator();
+            if (!right.hasNext()) return;
+
+            parent.forEachUntil(t -> {
+                action.accept(func.apply(t, right.next()));
+                return !right.hasNext();
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            final class Pred implements Predicate<T> {
+
+                private final Iterator<? extends U> right = other.iterator();
+                private boolean stopped;
+
+                @Override
+                public boolean test(T t) {
+                    if (action.test(func.apply(t, right.next()))) {
+                        stopped = true;
+                        return true;
+                    }
+                    return !right.hasNext();
+                }
+            }
+            Pred pred = new Pred();
+            if (!pred.right.hasNext()) return false;
+
+            parent.forEachUntil(pred);
+            return pred.stopped;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int left = parent.knownLength(consumeToCalculate);
+            if (left < 0) return -1;
+            int right = Internal.knownLength(other, consumeToCalculate);
+            if (right < 0) return -1;
+
+            return Math.min(left, right);
+        }
+    }
+
+    /**
+     * A {@link FastStream} of the running results of a fold.
+     */
+    final class Scanned<T, U> implements FastStream<U> {
+
+        private final FastStream<T> parent;
+        private final U identity;
+        private final BiFunction<? super U, ? super T, ? extends U> accumulator;
+
+        private Scanned(FastStream<T> parent, U identity, BiFunction<? super U, ? super T, ? extends U> accumulator) {
+            this.parent = parent;
+            this.identity = identity;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        public Iterator<U> iterator() {
+            return new Iterator<U>() {
+                private final Iterator<T> itr = parent.iterator();
+                private boolean first = true;
+                private U acc = identity;
+
+                @Override
+                public boolean hasNext() {
+                    return first || itr.hasNext();
+                }
+
+                @Override
+                public U next() {
+                    if (first) {
+                        first = false;
+                    } else {
+                        acc = accumulator.apply(acc, itr.next());
+                    }
+                    return acc;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super U> action) {
+            final class Cons implements Consumer<T> {
+
+                private U acc = identity;
+
+                @Override
+                public void accept(T t) {
+                    acc = accumulator.apply(acc, t);
+                    action.accept(acc);
+                }
+            }
+            action.accept(identity);
+            parent.forEach(new Cons());
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super U> action) {
+            final class Pred implements Predicate<T> {
+
+                private U acc = identity;
+
+                @Override
+                public boolean test(T t) {
+                    acc = accumulator.apply(acc, t);
+                    return action.test(acc);
+                }
+            }
+            if (action.test(identity)) return true;
+
+            return parent.forEachUntil(new Pred());
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int len = parent.knownLength(consumeToCalculate);
+            if (len < 0 || len == Integer.MAX_VALUE) return -1;
+
+            return len + 1;
+        }
+    }
+
+    /**
+     * A {@link FastStream} with a type filter and mapping applied.
+     */
+    final class OfType<T, R> implements FastStream<R> {
+
+        private final FastStream<T> parent;
+        private final Class<? extends R> clazz;
+
+        public OfType(FastStream<T> parent, Class<? extends R> clazz) {
+            this.parent = parent;
+            this.clazz = clazz;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new AbstractIterator<R>() {
+                private final Iterator<T> itr = parent.iterator();
+
+                @Override
+                protected R computeNext() {
+                    while (itr.hasNext()) {
+                        T e = itr.next();
+                        if (clazz.isInstance(e)) {
+                            return clazz.cast(e);
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            parent.forEach(e -> {
+                if (clazz.isInstance(e)) {
+                    action.accept(clazz.cast(e));
+                }
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            return parent.forEachUntil(e -> clazz.isInstance(e) && action.test(clazz.cast(e)));
+        }
+    }
+
+    /**
+     * A {@link FastStream} with a flat mapping option applied
+     * to each element flattened together.
+     */
+    final class FlatMapped<T, R> implements FastStream<R> {
+
+        private final FastStream<T> parent;
+        private final Function<? super T, ? extends Iterable<? extends R>> func;
+
+        private FlatMapped(FastStream<T> parent, Function<? super T, ? extends Iterable<? extends R>> func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new AbstractIterator<R>() {
+
+                private final Iterator<T> itr = parent.iterator();
+
+                @Nullable
+                private Iterator<? extends R> working;
+
+                @Override
+                protected R computeNext() {
+                    while (true) {
+                        if (working == null) {
+                            if (!itr.hasNext()) break;
+                            working = func.apply(itr.next()).iterator();
+                        }
+                        if (working.hasNext()) {
+                            return working.next();
+                        }
+                        working = null;
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            parent.forEach(e -> func.apply(e).forEach(action));
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            return parent.forEachUntil(e -> Internal.forEachUntil(func.apply(e), action));
+        }
+    }
+
+    /**
+     * A {@link FastStream} filtered using {@link Object#hashCode()}/{@link Object#equals} identity.
+     */
+    final class Distinct<T> implements FastStream<T> {
+
+        private final FastStream<T> parent;
+
+        private Distinct(FastStream<T> parent) {
+            this.parent = parent;
+        }
+
+        private int knownLength = -1;
+
+        @Override
+        public Iterator<T> iterator() {
+            return new AbstractIterator<T>() {
+                private final Set<T> set = new HashSet<>();
+                private final Iterator<T> itr = parent.iterator();
+
+                @Override
+                protected T computeNext() {
+                    while (itr.hasNext()) {
+                        T e = itr.next();
+                        if (set.add(e)) {
+                            return e;
+                        }
+                    }
+                    knownLength = set.size();
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            Set<T> set = new HashSet<>();
+            parent.forEach(e -> {
+                if (set.add(e)) {
+                    action.accept(e);
+                }
+            });
+            knownLength = set.size();
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            Set<T> set = new HashSet<>();
+            if (parent.forEachUntil(e -> set.add(e) && action.test(e))) return true;
+
+            knownLength = set.size();
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return knownLength;
+        }
+
+        @Override
+        public HashSet<T> toSet() {
+            return parent.toSet();
+        }
+
+        @Override
+        public LinkedHashSet<T> toLinkedHashSet() {
+            return parent.toLinkedHashSet();
+        }
+
+        @Override
+        public ImmutableSet<T> toGuavaImmutableSet() {
+            return parent.toGuavaImmutableSet();
+        }
+    }
+
+    /**
+     * A {@link FastStream} with all elements with duplicate keys removed.
+     */
+    final class DistinctBy<T, K> implements FastStream<T> {
+
+        private final FastStream<T> parent;
+        private final Function<? super T, ? extends K> keyFunc;
+
+        private int knownLength = -1;
+
+        private DistinctBy(FastStream<T> parent, Function<? super T, ? extends K> keyFunc) {
+            this.parent = parent;
+            this.keyFunc = keyFunc;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new AbstractIterator<T>() {
+                private final Set<K> seen = new HashSet<>();
+                private final Iterator<T> itr = parent.iterator();
+
+                @Override
+                protected T computeNext() {
+                    while (itr.hasNext()) {
+                        T e = itr.next();
+                        if (seen.add(keyFunc.apply(e))) {
+                            return e;
+                        }
+                    }
+                    knownLength = seen.size();
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            Set<K> seen = new HashSet<>();
+            parent.forEach(e -> {
+                if (seen.add(keyFunc.apply(e))) {
+                    action.accept(e);
+                }
+            });
+            knownLength = seen.size();
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            Set<K> seen = new HashSet<>();
+            if (parent.forEachUntil(e -> seen.add(keyFunc.apply(e)) && action.test(e))) return true;
+
+            knownLength = seen.size();
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return knownLength;
+        }
+    }
+
+    /**
+     * A {@link FastStream} with consecutive duplicate elements removed.
+     */
+    final class DistinctSorted<T> implements FastStream<T> {
+
+        private final FastStream<T> parent;
+
+        private DistinctSorted(FastStream<T> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new AbstractIterator<T>() {
+                private final Iterator<T> itr = parent.iterator();
+                private boolean first = true;
+                private @Nullable T prev;
+
+                @Override
+                protected T computeNext() {
+                    while (itr.hasNext()) {
+                        T e = itr.next();
+                        if (first || !Objects.equals(prev, e)) {
+                            first = false;
+                            prev = e;
+                            return e;
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            final class Cons implements Consumer<T> {
+
+                private boolean first = true;
+                private @Nullable T prev;
+
+                @Override
+                public void accept(T t) {
+                    if (first || !Objects.equals(prev, t)) {
+                        first = false;
+                        prev = t;
+                        action.accept(t);
+                    }
+                }
+            }
+            parent.forEach(new Cons());
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            final class Pred implements Predicate<T> {
+
+                private boolean first = true;
+                private @Nullable T prev;
+
+                @Override
+                public boolean test(T t) {
+                    if (first || !Objects.equals(prev, t)) {
+                        first = false;
+                        prev = t;
+                        return action.test(t);
+                    }
+                    return false;
+                }
+            }
+            return parent.forEachUntil(new Pred());
+        }
+    }
+
+    /**
+     * A {@link FastStream} approximately filtered to distinct elements by a {@link BloomFilter}.
+     */
+    final class ProbablyDistinct<T> implements FastStream<T> {
+
+        private final FastStream<T> parent;
+        private final long expected;
+        private final double fpp;
+        private final ToLongFunction<? super T> hasher;
+
+        private ProbablyDistinct(FastStream<T> parent, long expected, double fpp, ToLongFunction<? super T> hasher) {
+            this.parent = parent;
+            this.expected = expected;
+            this.fpp = fpp;
+            this.hasher = hasher;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new AbstractIterator<T>() {
+                private final BloomFilter filter = new BloomFilter(expected, fpp);
+                private final Iterator<T> itr = parent.iterator();
+
+                @Override
+                protected T computeNext() {
+                    while (itr.hasNext()) {
+                        T e = itr.next();
+                        if (filter.put(hasher.applyAsLong(e))) {
+                            return e;
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            BloomFilter filter = new BloomFilter(expected, fpp);
+            parent.forEach(e -> {
+                if (filter.put(hasher.applyAsLong(e))) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            BloomFilter filter = new BloomFilter(expected, fpp);
+            return parent.forEachUntil(e -> filter.put(hasher.applyAsLong(e)) && action.test(e));
+        }
+    }
+
+    /**
+     * A function given an element and its index, for {@link #mapIndexed}.
+     */
+    interface IndexedFunction<T, R> {
+
+        /**
+         * Apply this function.
+         *
+         * @param t     The element.
+         * @param index The index of the element.
+         * @return The result.
+         */
+        R apply(T t, int index);
+    }
+
+    /**
+     * Writes and reads elements for {@link #sortedExternal}.
+     */
+    interface Serializer<T> {
+
+        /**
+         * Write an element.
+         *
+         * @param out   The output to write to.
+         * @param value The element.
+         * @throws IOException If an IO error occurs.
+         */
+        void write(DataOutput out, T value) throws IOException;
+
+        /**
+         * Read an element previously written with {@link #write}.
+         *
+         * @param in The input to read from.
+         * @return The element.
+         * @throws IOException If an IO error occurs.
+         */
+        T read(DataInput in) throws IOException;
+    }
+
+    /**
+     * Represents a Key to sequence of values in a {@link #groupBy} grouping.
+     */
+    final class Group<K, V> implements FastStream<V> {
+
+        private final K key;
+        private int size;
+        private Object[] values = new Object[1];
+
+        public Group(K key) {
+            this.key = key;
+        }
+
+        @Override
+        @SuppressWarnings ("unchecked")
+        public Iterator<V> iterator() {
+            return ColUtils.iterator((V[]) values, 0, size);
+        }
+
+        @Override
+        @SuppressWarnings ("unchecked")
+        public void forEach(Consumer<? super V> action) {
+            for (int i = 0; i < size; i++) {
+                action.accept((V) values[i]);
+            }
+        }
+
+        @Override
+        @SuppressWarnings ("unchecked")
+        public boolean forEachUntil(Predicate<? super V> action) {
+            for (int i = 0; i < size; i++) {
+                if (action.test((V) values[i])) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return size;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        void add(V value) {
+            resize();
+            values[size++] = value;
+        }
+
+        void addAll(Group<K, V> other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, size + other.size);
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        private void resize() {
+            if (size < values.length) return; // No need for resize.
+            values = Arrays.copyOf(values, size > 1024 ? size * 2 : size * 4);
+        }
+
+        @Override
+        @SuppressWarnings ({ "unchecked", "SuspiciousSystemArraycopy" })
+        public V[] toArray(V[] arr) {
+            if (arr.length >= size) {
+                System.arraycopy(values, 0, arr, 0, size);
+                if (arr.length >= size + 1) {
+                    arr[size + 1] = null;
+                }
+                return arr;
+            }
+
+            return (V[]) Arrays.copyOf(values, size, arr.getClass());
+        }
+    }
+
+    /**
+     * Represents a Key to the sequences of values from both sides of a {@link #coGroup} grouping.
+     */
+    final class CoGroup<K, L, R> {
+
+        private final K key;
+        private final Group<K, L> left;
+        private final Group<K, R> right;
+
+        private CoGroup(K key) {
+            this.key = key;
+            left = new Group<>(key);
+            right = new Group<>(key);
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * @return The values from the left side, may be empty.
+         */
+        public Group<K, L> getLeft() {
+            return left;
+        }
+
+        /**
+         * @return The values from the right side, may be empty.
+         */
+        public Group<K, R> getRight() {
+            return right;
+        }
+    }
+
+    /**
+     * A {@link FastStream} of elements grouped by a specific key.
+     */
+    final class Grouped<T, K, V> implements FastStream<Group<K, V>> {
 
         private final FastStream<T> parent;
         private final Function<? super T, ? extends K> keyFunc;
         private final Function<? super T, ? extends V> valueFunc;
 
         @Nullable
-        private Map<K, Group<K, V>> groups = null;
+        private Map<K, Group<K, V>> groups = null;
+
+        public Grouped(FastStream<T> parent, Function<? super T, ? extends K> keyFunc, Function<? super T, ? extends V> valueFunc) {
+            this.parent = parent;
+            this.keyFunc = keyFunc;
+            this.valueFunc = valueFunc;
+        }
+
+        @Override
+        public Iterator<Group<K, V>> iterator() {
+            return getGroups().values().iterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super Group<K, V>> action) {
+            getGroups().values().forEach(action);
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super Group<K, V>> action) {
+            return Internal.forEachUntil(getGroups().values(), action);
+        }
+
+        private Map<K, Group<K, V>> getGroups() {
+            if (groups == null) {
+                groups = new LinkedHashMap<>();
+                parent.forEach(e -> groups.computeIfAbsent(keyFunc.apply(e), Group::new)
+                        .add(valueFunc.apply(e)));
+            }
+            return groups;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return consumeToCalculate ? getGroups().size() : -1;
+        }
+    }
+
+    /**
+     * Represents a bucket of values, of a specific size.
+     */
+    final class Bucket<V> implements FastStream<V> {
+
+        private final V[] values;
+        private final int start;
+        private final int end;
+
+        public Bucket(V[] values, int start, int end) {
+            this.values = values;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return ColUtils.iterator(values, start, end);
+        }
+
+        @Override
+        public void forEach(Consumer<? super V> action) {
+            for (int i = start; i < end; i++) {
+                action.accept(values[i]);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super V> action) {
+            for (int i = start; i < end; i++) {
+                if (action.test(values[i])) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return end - start;
+        }
+    }
+
+    /**
+     * A {@link FastStream} of elements grouped into buckets of a specific size.
+     */
+    final class Partitioned<V> implements FastStream<FastStream<V>> {
+
+        private final FastStream<V> parent;
+        private final int amount;
+
+        private Bucket<V> @Nullable [] buckets = null;
+
+        public Partitioned(FastStream<V> parent, int amount) {
+            this.parent = parent;
+            this.amount = amount;
+        }
+
+        @Override
+        public Iterator<FastStream<V>> iterator() {
+            return ColUtils.iterator(buckets());
+        }
+
+        @Override
+        public void forEach(Consumer<? super FastStream<V>> action) {
+            for (Bucket<V> bucket : buckets()) {
+                action.accept(bucket);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super FastStream<V>> action) {
+            for (Bucket<V> bucket : buckets()) {
+                if (action.test(bucket)) return true;
+            }
+            return false;
+        }
+
+        @SuppressWarnings ("unchecked")
+        private Bucket<V>[] buckets() {
+            if (buckets == null) {
+                V[] values = unsafeCast(parent.toArray());
+                buckets = new Bucket[(int) Math.ceil((double) values.length / amount)];
+                int ptr = 0;
+                for (int i = 0; i < buckets().length; i++) {
+                    buckets[i] = new Bucket<>(values, ptr, Math.min(ptr + amount, values.length));
+                    ptr += buckets[i].knownLength();
+                }
+            }
+            return buckets;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return consumeToCalculate ? buckets().length : -1;
+        }
+    }
+
+    /**
+     * A {@link FastStream} of windows over its parent.
+     */
+    final class Windowed<T> implements FastStream<List<T>> {
+
+        private final FastStream<T> parent;
+        private final int size;
+        private final int step;
+        private final boolean partial;
+        private final boolean reuse;
+
+        private Windowed(FastStream<T> parent, int size, int step, boolean partial, boolean reuse) {
+            this.parent = parent;
+            this.size = size;
+            this.step = step;
+            this.partial = partial;
+            this.reuse = reuse;
+        }
+
+        @Override
+        public Iterator<List<T>> iterator() {
+            return new AbstractIterator<List<T>>() {
+                private final Iterator<T> itr = parent.iterator();
+                private final Internal.WindowBuffer<T> buffer = newBuffer();
+                private boolean done;
+
+                @Nullable
+                @Override
+                protected List<T> computeNext() {
+                    while (itr.hasNext()) {
+                        if (buffer.add(itr.next())) return buffer.take();
+                    }
+                    if (!done) {
+                        done = true;
+                        List<T> remainder = buffer.remainder();
+                        if (remainder != null) return remainder;
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super List<T>> action) {
+            Internal.WindowBuffer<T> buffer = newBuffer();
+            parent.forEach(t -> {
+                if (buffer.add(t)) {
+                    action.accept(buffer.take());
+                }
+            });
+            List<T> remainder = buffer.remainder();
+            if (remainder != null) {
+                action.accept(remainder);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super List<T>> action) {
+            Internal.WindowBuffer<T> buffer = newBuffer();
+            if (parent.forEachUntil(t -> buffer.add(t) && action.test(buffer.take()))) return true;
+
+            List<T> remainder = buffer.remainder();
+            return remainder != null && action.test(remainder);
+        }
+
+        private Internal.WindowBuffer<T> newBuffer() {
+            return new Internal.WindowBuffer<>(size, step, partial, reuse);
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int len = parent.knownLength(consumeToCalculate);
+            if (len < 0) return -1;
+            if (partial) return (int) ((len + (long) step - 1) / step);
+
+            return len < size ? 0 : (len - size) / step + 1;
+        }
+    }
+
+    /**
+     * A {@link FastStream} hash joined with another {@link Iterable}.
+     */
+    final class Joined<T, U, K, R> implements FastStream<R> {
+
+        private final FastStream<T> parent;
+        private final Iterable<? extends U> other;
+        private final Function<? super T, ? extends K> leftKey;
+        private final Function<? super U, ? extends K> rightKey;
+        private final BiFunction<? super T, ? super U, ? extends R> combiner;
+        private final boolean outer;
+
+        private Joined(FastStream<T> parent, Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey, BiFunction<? super T, ? super U, ? extends R> combiner, boolean outer) {
+            this.parent = parent;
+            this.other = other;
+            this.leftKey = leftKey;
+            this.rightKey = rightKey;
+            this.combiner = combiner;
+            this.outer = outer;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            if (buildLeft()) {
+                return iterator(other, rightKey, Internal.HashTable.build(parent, leftKey), (u, t) -> combiner.apply(t, u));
+            }
+            return iterator(parent, leftKey, Internal.HashTable.build(other, rightKey), combiner);
+        }
+
+        private <P, B> Iterator<R> iterator(Iterable<? extends P> probe, Function<? super P, ? extends K> probeKey, Internal.HashTable<K, B> table, BiFunction<? super P, ? super B, ? extends R> combine) {
+            return new AbstractIterator<R>() {
+                private final Iterator<? extends P> itr = probe.iterator();
+                private @Nullable Internal.HashTable.Multi matches;
+                private int index;
+                private @Nullable P current;
+
+                @Override
+                protected R computeNext() {
+                    while (true) {
+                        if (matches != null && index < matches.size()) return combine.apply(unsafeCast(current), unsafeCast(matches.get(index++)));
+                        if (!itr.hasNext()) return endOfData();
+
+                        current = itr.next();
+                        matches = null;
+                        Object match = table.get(probeKey.apply(current));
+                        if (match instanceof Internal.HashTable.Multi) {
+                            matches = (Internal.HashTable.Multi) match;
+                            index = 0;
+                        } else if (match != Internal.HashTable.ABSENT) {
+                            return combine.apply(current, Internal.HashTable.single(match));
+                        } else if (outer) {
+                            return combine.apply(current, null);
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            forEachUntil(e -> {
+                action.accept(e);
+                return false;
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            if (buildLeft()) {
+                return forEachUntil(other, rightKey, Internal.HashTable.build(parent, leftKey), (u, t) -> combiner.apply(t, u), action);
+            }
+            return forEachUntil(parent, leftKey, Internal.HashTable.build(other, rightKey), combiner, action);
+        }
+
+        private <P, B> boolean forEachUntil(Iterable<? extends P> probe, Function<? super P, ? extends K> probeKey, Internal.HashTable<K, B> table, BiFunction<? super P, ? super B, ? extends R> combine, Predicate<? super R> action) {
+            return Internal.forEachUntil(probe, p -> {
+                Object match = table.get(probeKey.apply(p));
+                if (match == Internal.HashTable.ABSENT) return outer && action.test(combine.apply(p, null));
+                if (!(match instanceof Internal.HashTable.Multi)) return action.test(combine.apply(p, Internal.HashTable.single(match)));
+
+                for (Object b : (Internal.HashTable.Multi) match) {
+                    if (action.test(combine.apply(p, unsafeCast(b)))) return true;
+                }
+                return false;
+            });
+        }
+
+        // Outer joins must stream this side. Otherwise, build from the side known to be smaller.
+        private boolean buildLeft() {
+            if (outer) return false;
+
+            int leftLen = parent.knownLength(false);
+            if (leftLen < 0) return false;
+
+            int rightLen = Internal.knownLength(other, false);
+            return rightLen < 0 || leftLen < rightLen;
+        }
+    }
+
+    /**
+     * A {@link FastStream} filtered by the presence of its keys in another {@link Iterable}.
+     */
+    final class KeyFiltered<T, U, K> implements FastStream<T> {
+
+        private final FastStream<T> parent;
+        private final Iterable<? extends U> other;
+        private final Function<? super T, ? extends K> leftKey;
+        private final Function<? super U, ? extends K> rightKey;
+        private final boolean present;
+
+        private KeyFiltered(FastStream<T> parent, Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey, boolean present) {
+            this.parent = parent;
+            this.other = other;
+            this.leftKey = leftKey;
+            this.rightKey = rightKey;
+            this.present = present;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new AbstractIterator<T>() {
+                private final Iterator<T> itr = parent.iterator();
+                private final Set<K> keys = keys();
+
+                @Override
+                protected T computeNext() {
+                    while (itr.hasNext()) {
+                        T t = itr.next();
+                        if (test(keys, t)) return t;
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            Set<K> keys = keys();
+            parent.forEach(t -> {
+                if (test(keys, t)) {
+                    action.accept(t);
+                }
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            Set<K> keys = keys();
+            return parent.forEachUntil(t -> test(keys, t) && action.test(t));
+        }
+
+        private boolean test(Set<K> keys, T t) {
+            K key = leftKey.apply(t);
+            if (key == null) return !present;
+
+            return keys.contains(key) == present;
+        }
+
+        private Set<K> keys() {
+            Set<K> keys = new HashSet<>();
+            other.forEach(u -> keys.add(rightKey.apply(u)));
+            return keys;
+        }
+    }
+
+    /**
+     * A {@link FastStream} of elements from two sides, grouped by a specific key.
+     */
+    final class CoGrouped<T, U, K> implements FastStream<CoGroup<K, T, U>> {
+
+        private final FastStream<T> parent;
+        private final Iterable<? extends U> other;
+        private final Function<? super T, ? extends K> leftKey;
+        private final Function<? super U, ? extends K> rightKey;
+
+        @Nullable
+        private Map<K, CoGroup<K, T, U>> groups = null;
 
-        public Grouped(FastStream<T> parent, Function<? super T, ? extends K> keyFunc, Function<? super T, ? extends V> valueFunc) {
+        private CoGrouped(FastStream<T> parent, Iterable<? extends U> other, Function<? super T, ? extends K> leftKey, Function<? super U, ? extends K> rightKey) {
             this.parent = parent;
-            this.keyFunc = keyFunc;
-            this.valueFunc = valueFunc;
+            this.other = other;
+            this.leftKey = leftKey;
+            this.rightKey = rightKey;
         }
 
         @Override
-        public Iterator<Group<K, V>> iterator() {
+        public Iterator<CoGroup<K, T, U>> iterator() {
             return getGroups().values().iterator();
         }
 
         @Override
-        public void forEach(Consumer<? super Group<K, V>> action) {
+        public void forEach(Consumer<? super CoGroup<K, T, U>> action) {
             getGroups().values().forEach(action);
         }
 
-        private Map<K, Group<K, V>> getGroups() {
+        @Override
+        public boolean forEachUntil(Predicate<? super CoGroup<K, T, U>> action) {
+            return Internal.forEachUntil(getGroups().values(), action);
+        }
+
+        private Map<K, CoGroup<K, T, U>> getGroups() {
             if (groups == null) {
                 groups = new LinkedHashMap<>();
-                parent.forEach(e -> groups.computeIfAbsent(keyFunc.apply(e), Group::new)
-                        .add(valueFunc.apply(e)));
+                parent.forEach(e -> groups.computeIfAbsent(leftKey.apply(e), CoGroup::new).getLeft().add(e));
+                other.forEach(e -> groups.computeIfAbsent(rightKey.apply(e), CoGroup::new).getRight().add(e));
             }
             return groups;
         }
@@ -2176,97 +4375,160 @@ public interface FastStream<T> extends Iterable<T> {
     }
 
     /**
-     * Represents a bucket of values, of a specific size.
+     * A {@link FastStream} sorted by a comparator.
      */
-    final class Bucket<V> implements FastStream<V> {
+    final class Sorted<T> implements FastStream<T> {
 
-        private final V[] values;
-        private final int start;
-        private final int end;
+        private final FastStream<T> parent;
+        private final Comparator<? super T> comparator;
 
-        public Bucket(V[] values, int start, int end) {
-            this.values = values;
-            this.start = start;
-            this.end = end;
+        T @Nullable [] sorted = null;
+
+        private Sorted(FastStream<T> parent, Comparator<? super T> comparator) {
+            this.parent = parent;
+            this.comparator = comparator;
         }
 
         @Override
-        public Iterator<V> iterator() {
-            return ColUtils.iterator(values, start, end);
+        public Iterator<T> iterator() {
+            return ColUtils.iterator(getSorted());
         }
 
         @Override
-        public void forEach(Consumer<? super V> action) {
-            for (int i = start; i < end; i++) {
-                action.accept(values[i]);
+        public void forEach(Consumer<? super T> action) {
+            for (T t : getSorted()) {
+                action.accept(t);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            for (T t : getSorted()) {
+                if (action.test(t)) return true;
             }
+            return false;
+        }
+
+        private T[] getSorted() {
+            if (sorted == null) {
+                sorted = unsafeCast(parent.toArray());
+                Arrays.sort(sorted, comparator);
+            }
+            return sorted;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return consumeToCalculate ? getSorted().length : parent.knownLength(false);
+        }
+
+        @Override
+        public T[] toArray(T[] arr) {
+            T[] sorted = getSorted();
+            if (arr.getClass() == sorted.getClass()) {
+                this.sorted = null;
+                return sorted;
+            }
+            //noinspection unchecked
+            return (T[]) Arrays.copyOf(sorted, sorted.length, arr.getClass());
+        }
+
+        @Override
+        public ArrayList<T> toList() {
+            return new ArrayList<>(Arrays.asList(getSorted()));
+        }
+
+        @Override
+        public ImmutableList<T> toGuavaImmutableList() {
+            return ImmutableList.copyOf(getSorted());
         }
 
         @Override
-        public int knownLength(boolean consumeToCalculate) {
-            return end - start;
+        public FastStream<T> limit(@Range (from = -1, to = Integer.MAX_VALUE) int max) {
+            // If we have already sorted, or will need every element anyway, a full sort is fine.
+            if (sorted != null || max == -1) return FastStream.super.limit(max);
+            int len = parent.knownLength(false);
+            if (len >= 0 && max >= len) return this;
+
+            return parent.bottom(max, comparator);
         }
     }
 
     /**
-     * A {@link FastStream} of elements grouped into buckets of a specific size.
+     * A {@link FastStream} sorted by a comparator, spilling sorted runs to disk.
      */
-    final class Partitioned<V> implements FastStream<FastStream<V>> {
-
-        private final FastStream<V> parent;
-        private final int amount;
+    final class SortedExternal<T> implements FastStream<T> {
 
-        private Bucket<V> @Nullable [] buckets = null;
+        private final FastStream<T> parent;
+        private final Comparator<? super T> comparator;
+        private final Serializer<T> serializer;
+        private final Path tempDir;
+        private final int memoryBudget;
 
-        public Partitioned(FastStream<V> parent, int amount) {
+        private SortedExternal(FastStream<T> parent, Comparator<? super T> comparator, Serializer<T> serializer, Path tempDir, int memoryBudget) {
             this.parent = parent;
-            this.amount = amount;
+            this.comparator = comparator;
+            this.serializer = serializer;
+            this.tempDir = tempDir;
+            this.memoryBudget = memoryBudget;
         }
 
         @Override
-        public Iterator<FastStream<V>> iterator() {
-            return ColUtils.iterator(buckets());
+        public Iterator<T> iterator() {
+            return sort();
         }
 
         @Override
-        public void forEach(Consumer<? super FastStream<V>> action) {
-            for (Bucket<V> bucket : buckets()) {
-                action.accept(bucket);
+        public void forEach(Consumer<? super T> action) {
+            try (ExternalSort<T> itr = sort()) {
+                while (itr.hasNext()) {
+                    action.accept(itr.next());
+                }
             }
         }
 
-        @SuppressWarnings ("unchecked")
-        private Bucket<V>[] buckets() {
-            if (buckets == null) {
-                V[] values = unsafeCast(parent.toArray());
-                buckets = new Bucket[(int) Math.ceil((double) values.length / amount)];
-                int ptr = 0;
-                for (int i = 0; i < buckets().length; i++) {
-                    buckets[i] = new Bucket<>(values, ptr, Math.min(ptr + amount, values.length));
-                    ptr += buckets[i].knownLength();
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            try (ExternalSort<T> itr = sort()) {
+                while (itr.hasNext()) {
+                    if (action.test(itr.next())) return true;
                 }
             }
-            return buckets;
+            return false;
+        }
+
+        private ExternalSort<T> sort() {
+            return ExternalSort.sort(parent, comparator, serializer, tempDir, memoryBudget);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            // Sorting can't change emptiness, don't spill runs just to check.
+            return parent.isEmpty();
         }
 
         @Override
         public int knownLength(boolean consumeToCalculate) {
-            return consumeToCalculate ? buckets().length : -1;
+            return parent.knownLength(consumeToCalculate);
         }
     }
 
     /**
-     * A {@link FastStream} sorted by a comparator.
+     * A {@link FastStream} of the first {@code k} elements of its parent, as if sorted by a comparator.
+     * <p>
+     * Evaluates in {@code O(n log k)} time and {@code O(k)} memory using a bounded heap.
      */
-    final class Sorted<T> implements FastStream<T> {
+    final class SortedLimited<T> implements FastStream<T> {
 
         private final FastStream<T> parent;
+        private final int k;
         private final Comparator<? super T> comparator;
 
         T @Nullable [] sorted = null;
 
-        private Sorted(FastStream<T> parent, Comparator<? super T> comparator) {
+        private SortedLimited(FastStream<T> parent, int k, Comparator<? super T> comparator) {
             this.parent = parent;
+            this.k = k;
             this.comparator = comparator;
         }
 
@@ -2282,38 +4544,29 @@ public interface FastStream<T> extends Iterable<T> {
             }
         }
 
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            for (T t : getSorted()) {
+                if (action.test(t)) return true;
+            }
+            return false;
+        }
+
         private T[] getSorted() {
             if (sorted == null) {
-                sorted = unsafeCast(parent.toArray());
-                Arrays.sort(sorted, comparator);
+                Internal.BoundedHeap<T> heap = new Internal.BoundedHeap<>(k, parent.knownLength(false), comparator);
+                parent.forEach(heap);
+                sorted = heap.drain();
             }
             return sorted;
         }
 
         @Override
         public int knownLength(boolean consumeToCalculate) {
-            return consumeToCalculate ? getSorted().length : parent.knownLength(false);
-        }
-
-        @Override
-        public T[] toArray(T[] arr) {
-            T[] sorted = getSorted();
-            if (arr.getClass() == sorted.getClass()) {
-                this.sorted = null;
-                return sorted;
-            }
-            //noinspection unchecked
-            return (T[]) Arrays.copyOf(sorted, sorted.length, arr.getClass());
-        }
-
-        @Override
-        public ArrayList<T> toList() {
-            return new ArrayList<>(Arrays.asList(getSorted()));
-        }
+            if (consumeToCalculate) return getSorted().length;
 
-        @Override
-        public ImmutableList<T> toGuavaImmutableList() {
-            return ImmutableList.copyOf(getSorted());
+            int len = parent.knownLength(false);
+            return len < 0 ? -1 : Math.min(len, k);
         }
     }
 
@@ -2342,6 +4595,14 @@ public interface FastStream<T> extends Iterable<T> {
             }
         }
 
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            for (T t : getReversed()) {
+                if (action.test(t)) return true;
+            }
+            return false;
+        }
+
         private T[] getReversed() {
             if (reversed == null) {
                 reversed = unsafeCast(parent.toArray());
@@ -2367,6 +4628,187 @@ public interface FastStream<T> extends Iterable<T> {
         }
     }
 
+    /**
+     * A {@link FastStream} caching the elements of its parent.
+     */
+    final class Cached<T> implements FastStream<T> {
+
+        private final FastStream<T> parent;
+        private final boolean soft;
+
+        // Either the buffer, or a SoftReference to it.
+        private @Nullable Object cache;
+
+        private Cached(FastStream<T> parent, boolean soft) {
+            this.parent = parent;
+            this.soft = soft;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return getBuffer().iterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            getBuffer().forEach(action);
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            return getBuffer().forEachUntil(action);
+        }
+
+        @Override
+        public FastStream<T> cached(boolean soft) {
+            // Only the strong cache is stronger.
+            if (!soft && this.soft) return FastStream.super.cached(false);
+
+            return this;
+        }
+
+        private Internal.ChunkedBuffer<T> getBuffer() {
+            Internal.ChunkedBuffer<T> buffer = peekBuffer();
+            if (buffer == null) {
+                buffer = new Internal.ChunkedBuffer<>(parent.knownLength(false));
+                parent.forEach(buffer);
+                buffer.trim();
+                cache = soft ? new SoftReference<>(buffer) : buffer;
+            }
+            return buffer;
+        }
+
+        private Internal.@Nullable ChunkedBuffer<T> peekBuffer() {
+            if (cache instanceof SoftReference) return unsafeCast(((SoftReference<?>) cache).get());
+            return unsafeCast(cache);
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            Internal.ChunkedBuffer<T> buffer = consumeToCalculate ? getBuffer() : peekBuffer();
+            if (buffer != null) return buffer.size();
+
+            return parent.knownLength(false);
+        }
+    }
+
+    /**
+     * A {@link FastStream} recording the elements produced by a stage, for {@link Profiler}.
+     */
+    final class Probed<T> implements FastStream<T>, Profiler.ProbedStage {
+
+        private final FastStream<T> stage;
+        private final Profiler.Probe probe;
+
+        Probed(FastStream<T> stage, Profiler profiler, String op, Profiler.@Nullable ProbedStage upstream) {
+            this.stage = stage;
+            probe = new Profiler.Probe(profiler, op, upstream, stage.knownLength(false));
+        }
+
+        @Override
+        public Profiler.Probe probe() {
+            return probe;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Iterator<T> itr;
+            scope.enter();
+            try {
+                itr = stage.iterator();
+            } finally {
+                scope.exit();
+            }
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    boolean hasNext;
+                    long start = scope.beginCall();
+                    try {
+                        hasNext = itr.hasNext();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    if (!hasNext) {
+                        scope.report();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public T next() {
+                    T t;
+                    long start = scope.beginCall();
+                    try {
+                        t = itr.next();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    scope.produced();
+                    return t;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            class Cons extends Profiler.Sampler implements Consumer<T> {
+
+                @Override
+                public void accept(T t) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        action.accept(t);
+                        sampled(System.nanoTime() - start);
+                    } else {
+                        action.accept(t);
+                    }
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Cons cons = new Cons();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                stage.forEach(cons);
+            } finally {
+                scope.end(System.nanoTime() - start, cons);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            class Pred extends Profiler.Sampler implements Predicate<T> {
+
+                @Override
+                public boolean test(T t) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        boolean ret = action.test(t);
+                        sampled(System.nanoTime() - start);
+                        return ret;
+                    }
+                    return action.test(t);
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Pred pred = new Pred();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                return stage.forEachUntil(pred);
+            } finally {
+                scope.end(System.nanoTime() - start, pred);
+            }
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return stage.knownLength(consumeToCalculate);
+        }
+    }
+
     /**
      * A {@link FastStream} with a listener attached.
      */
@@ -2401,15 +4843,224 @@ public interface FastStream<T> extends Iterable<T> {
 
         @Override
         public void forEach(Consumer<? super T> action) {
-            parent.forEach(e -> {
-                cons.accept(e);
-                action.accept(e);
-            });
+            parent.forEach(e -> {
+                cons.accept(e);
+                action.accept(e);
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            return parent.forEachUntil(e -> {
+                cons.accept(e);
+                return action.test(e);
+            });
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link FastStream} with multiple adjacent stateless operations fused
+     * into a single stage.
+     * <p>
+     * Instead of a nested wrapper per operation, each element is passed through
+     * a flat array of operations, keeping the call depth constant regardless of
+     * how many operations are chained together.
+     */
+    final class Fused<T, R> implements FastStream<R> {
+
+        static final byte FILTER = 0;
+        static final byte MAP = 1;
+        static final byte PEEK = 2;
+        static final byte OF_TYPE = 3;
+
+        // Marker for an element which has been filtered out.
+        private static final Object ABORT = new Object();
+
+        private final FastStream<T> parent;
+        private final byte[] ops;
+        private final Object[] funcs;
+
+        private Fused(FastStream<T> parent, byte[] ops, Object[] funcs) {
+            this.parent = parent;
+            this.ops = ops;
+            this.funcs = funcs;
+        }
+
+        /**
+         * Apply the given stateless operation to the stream.
+         * <p>
+         * If the stream is already a stateless operation, the two are fused
+         * together, otherwise the regular single operation stage is returned.
+         *
+         * @param stream The stream to apply the operation to.
+         * @param op     The operation.
+         * @param func   The function for the operation.
+         * @return The new stream.
+         */
+        @SuppressWarnings ({ "unchecked", "rawtypes" })
+        static <T, R> FastStream<R> append(FastStream<T> stream, byte op, Object func) {
+            if (stream instanceof Fused) {
+                Fused<?, T> fused = (Fused<?, T>) stream;
+                int len = fused.ops.length;
+                byte[] ops = Arrays.copyOf(fused.ops, len + 1);
+                Object[] funcs = Arrays.copyOf(fused.funcs, len + 1);
+                ops[len] = op;
+                funcs[len] = func;
+                return new Fused<>(fused.parent, ops, funcs);
+            }
+            if (stream instanceof Filtered) {
+                Filtered<T> f = (Filtered<T>) stream;
+                return new Fused<>(f.parent, new byte[] { FILTER, op }, new Object[] { f.pred, func });
+            }
+            if (stream instanceof Mapped) {
+                Mapped<?, T> m = (Mapped<?, T>) stream;
+                return new Fused<>(m.parent, new byte[] { MAP, op }, new Object[] { m.func, func });
+            }
+            if (stream instanceof Peeked) {
+                Peeked<T> p = (Peeked<T>) stream;
+                return new Fused<>(p.parent, new byte[] { PEEK, op }, new Object[] { p.cons, func });
+            }
+            if (stream instanceof OfType) {
+                OfType<?, T> o = (OfType<?, T>) stream;
+                return new Fused<>(o.parent, new byte[] { OF_TYPE, op }, new Object[] { o.clazz, func });
+            }
+            switch (op) {
+                case FILTER:
+                    return (FastStream<R>) new Filtered<>(stream, (Predicate<? super T>) func);
+                case MAP:
+                    return new Mapped<>(stream, (Function<? super T, ? extends R>) func);
+                case PEEK:
+                    return (FastStream<R>) new Peeked<>(stream, (Consumer<? super T>) func);
+                case OF_TYPE:
+                    return new OfType<>(stream, (Class<? extends R>) func);
+                default:
+                    throw new IllegalArgumentException("Unknown op: " + op);
+            }
+        }
+
+        /**
+         * Re-apply the fused operations to a different parent stream.
+         *
+         * @param parent The new parent.
+         * @return The new stream.
+         */
+        FastStream<R> withParent(FastStream<T> parent) {
+            return new Fused<>(parent, ops, funcs);
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new AbstractIterator<R>() {
+                private final Iterator<T> itr = parent.iterator();
+
+                @Override
+                protected R computeNext() {
+                    while (itr.hasNext()) {
+                        Object e = apply(itr.next());
+                        if (e != ABORT) {
+                            return unsafeCast(e);
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            parent.forEach(e -> {
+                Object r = apply(e);
+                if (r != ABORT) {
+                    action.accept(unsafeCast(r));
+                }
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            return parent.forEachUntil(e -> {
+                Object r = apply(e);
+                return r != ABORT && action.test(unsafeCast(r));
+            });
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            for (byte op : ops) {
+                if (op == FILTER || op == OF_TYPE) return -1;
+            }
+            return parent.knownLength(consumeToCalculate);
+        }
+
+        @SuppressWarnings ("unchecked")
+        private @Nullable Object apply(@Nullable Object e) {
+            byte[] ops = this.ops;
+            Object[] funcs = this.funcs;
+            for (int i = 0; i < ops.length; i++) {
+                switch (ops[i]) {
+                    case FILTER:
+                        if (!((Predicate<Object>) funcs[i]).test(e)) return ABORT;
+                        break;
+                    case MAP:
+                        e = ((Function<Object, Object>) funcs[i]).apply(e);
+                        break;
+                    case PEEK:
+                        ((Consumer<Object>) funcs[i]).accept(e);
+                        break;
+                    case OF_TYPE:
+                        if (!((Class<?>) funcs[i]).isInstance(e)) return ABORT;
+                        break;
+                }
+            }
+            return e;
+        }
+    }
+
+    /**
+     * A {@link FastStream} evaluated by a generated loop.
+     *
+     * @see FastStreamCompiler
+     */
+    final class Compiled<T> implements FastStream<T> {
+
+        private final FastStream<T> pipeline;
+        private final Consumer<Consumer<? super T>> loop;
+        private final Predicate<Predicate<? super T>> untilLoop;
+
+        private Compiled(FastStream<T> pipeline, Object loop) {
+            this.pipeline = pipeline;
+            this.loop = unsafeCast(loop);
+            untilLoop = unsafeCast(loop);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return pipeline.iterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            loop.accept(action);
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            return untilLoop.test(action);
         }
 
         @Override
         public int knownLength(boolean consumeToCalculate) {
-            return parent.knownLength(consumeToCalculate);
+            return pipeline.knownLength(consumeToCalculate);
+        }
+
+        @Override
+        public FastStream<T> compile() {
+            return this;
         }
     }
 
@@ -2449,24 +5100,34 @@ public interface FastStream<T> extends Iterable<T> {
 
         @Override
         public void forEach(Consumer<? super T> action) {
-            ForEachAbort abort = new ForEachAbort();
-            try {
-                parent.forEach(new Consumer<T>() {
-                    int i = 0;
+            forEachUntil(e -> {
+                action.accept(e);
+                return false;
+            });
+        }
 
-                    @Override
-                    public void accept(T t) {
-                        int n = i++;
-                        if (n < min) return;
-                        if (n >= max) throw abort;
-                        action.accept(t);
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            class Pred implements Predicate<T> {
+
+                int i = 0;
+                boolean stopped;
+
+                @Override
+                public boolean test(T t) {
+                    int n = i++;
+                    if (n < min) return false;
+                    if (action.test(t)) {
+                        stopped = true;
+                        return true;
                     }
-                });
-            } catch (ForEachAbort ex) {
-                if (ex != abort) {
-                    throw ex;
+                    // Stop as soon as the last element has been consumed.
+                    return i >= max;
                 }
             }
+            Pred pred = new Pred();
+            parent.forEachUntil(pred);
+            return pred.stopped;
         }
 
         @Override
@@ -2511,18 +5172,31 @@ public interface FastStream<T> extends Iterable<T> {
 
         @Override
         public void forEach(Consumer<? super T> action) {
-            ForEachAbort abort = new ForEachAbort();
-            try {
-                parent.forEach(e -> {
-                    if (!pred.test(e)) throw abort;
+            parent.forEachUntil(e -> {
+                if (!pred.test(e)) return true;
 
-                    action.accept(e);
-                });
-            } catch (ForEachAbort ex) {
-                if (ex != abort) {
-                    throw ex;
+                action.accept(e);
+                return false;
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            class Pred implements Predicate<T> {
+
+                boolean stopped;
+
+                @Override
+                public boolean test(T t) {
+                    if (!pred.test(t)) return true;
+
+                    stopped = action.test(t);
+                    return stopped;
                 }
             }
+            Pred p = new Pred();
+            parent.forEachUntil(p);
+            return p.stopped;
         }
     }
 
@@ -2575,6 +5249,24 @@ public interface FastStream<T> extends Iterable<T> {
             }
             parent.forEach(new Cons());
         }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super T> action) {
+            class Pred implements Predicate<T> {
+
+                boolean stopDropping;
+
+                @Override
+                public boolean test(T t) {
+                    if (stopDropping || !pred.test(t)) {
+                        stopDropping = true;
+                        return action.test(t);
+                    }
+                    return false;
+                }
+            }
+            return parent.forEachUntil(new Pred());
+        }
     }
     // endregion
 
@@ -2602,21 +5294,866 @@ public interface FastStream<T> extends Iterable<T> {
             return -1;
         }
 
+        /**
+         * Performs {@link FastStream#forEachUntil} over an arbitrary {@link Iterable}.
+         *
+         * @param itr    The {@link Iterable}.
+         * @param action The action. Returning {@code true} stops evaluation.
+         * @return {@code true} if evaluation was stopped by the action.
+         */
+        static <T> boolean forEachUntil(Iterable<? extends T> itr, Predicate<? super T> action) {
+            if (itr instanceof FastStream) return ((FastStream<? extends T>) itr).forEachUntil(action);
+
+            for (T t : itr) {
+                if (action.test(t)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Split the given stream into at most {@code parts} segments, for use by {@link ParallelFastStream}.
+         * <p>
+         * Evaluating all segments in order is equivalent to evaluating the provided stream.
+         * If the stream, or one of its stateful stages can't be split, that stage is buffered
+         * and the buffer split instead.
+         *
+         * @param stream The stream to split.
+         * @param parts  The maximum number of segments.
+         * @return The segments. Always contains at least one segment.
+         */
+        static <T> FastStream<T>[] split(FastStream<T> stream, int parts) {
+            FastStream<T>[] split = trySplit(stream, parts);
+            if (split != null) return split;
+
+            T[] buffer = unsafeCast(stream.toArray());
+            return splitArray(buffer, 0, buffer.length, parts);
+        }
+
+        @SuppressWarnings ({ "unchecked", "rawtypes" })
+        private static <T> FastStream<T> @Nullable [] trySplit(FastStream<T> stream, int parts) {
+            if (stream instanceof Empty) return new FastStream[] { stream };
+            if (stream instanceof OfSingle) return new FastStream[] { stream };
+            if (stream instanceof OfN) {
+                T[] things = ((OfN<T>) stream).things;
+                return splitArray(things, 0, things.length, parts);
+            }
+            if (stream instanceof Bucket) {
+                Bucket<T> bucket = (Bucket<T>) stream;
+                return splitArray(bucket.values, bucket.start, bucket.end, parts);
+            }
+            if (stream instanceof Sorted) {
+                T[] sorted = ((Sorted<T>) stream).getSorted();
+                return splitArray(sorted, 0, sorted.length, parts);
+            }
+            if (stream instanceof Reversed) {
+                T[] reversed = ((Reversed<T>) stream).getReversed();
+                return splitArray(reversed, 0, reversed.length, parts);
+            }
+            if (stream instanceof MappedLines) {
+                return ((MappedLines<T>) stream).split(parts);
+            }
+            if (stream instanceof Partitioned) {
+                Bucket<?>[] buckets = ((Partitioned<?>) stream).buckets();
+                return (FastStream<T>[]) splitArray(buckets, 0, buckets.length, parts);
+            }
+            if (stream instanceof Wrapped) {
+                Iterable<T> itr = ((Wrapped<T>) stream)._itr;
+                if (itr instanceof List && itr instanceof RandomAccess) {
+                    return splitList((List<T>) itr, parts);
+                }
+                return null;
+            }
+            // Stateless operations, split the parent and re-apply.
+            if (stream instanceof Filtered) {
+                Filtered<T> f = (Filtered<T>) stream;
+                return rewrap(split(f.parent, parts), s -> new Filtered<>(s, f.pred));
+            }
+            if (stream instanceof Mapped) {
+                Mapped<Object, T> m = (Mapped<Object, T>) stream;
+                return rewrap(split(m.parent, parts), s -> new Mapped<>(s, m.func));
+            }
+            if (stream instanceof OfType) {
+                OfType<Object, T> o = (OfType<Object, T>) stream;
+                return rewrap(split(o.parent, parts), s -> new OfType<>(s, o.clazz));
+            }
+            if (stream instanceof FlatMapped) {
+                FlatMapped<Object, T> m = (FlatMapped<Object, T>) stream;
+                return rewrap(split(m.parent, parts), s -> new FlatMapped<>(s, m.func));
+            }
+            if (stream instanceof Peeked) {
+                Peeked<T> p = (Peeked<T>) stream;
+                return rewrap(split(p.parent, parts), s -> new Peeked<>(s, p.cons));
+            }
+            if (stream instanceof Fused) {
+                Fused<Object, T> f = (Fused<Object, T>) stream;
+                return rewrap(split(f.parent, parts), f::withParent);
+            }
+            return IntFastStream.Internal.trySplit(stream, parts);
+        }
+
+        private static <T> FastStream<T>[] splitArray(T[] array, int from, int until, int parts) {
+            int len = until - from;
+            int n = Math.max(1, Math.min(parts, len));
+            @SuppressWarnings ("rawtypes")
+            FastStream<T>[] segments = unsafeCast(new FastStream[n]);
+            for (int i = 0; i < n; i++) {
+                int start = from + (int) ((long) len * i / n);
+                int end = from + (int) ((long) len * (i + 1) / n);
+                segments[i] = new Bucket<>(array, start, end);
+            }
+            return segments;
+        }
+
+        private static <T> FastStream<T>[] splitList(List<T> list, int parts) {
+            int len = list.size();
+            int n = Math.max(1, Math.min(parts, len));
+            @SuppressWarnings ("rawtypes")
+            FastStream<T>[] segments = unsafeCast(new FastStream[n]);
+            for (int i = 0; i < n; i++) {
+                int start = (int) ((long) len * i / n);
+                int end = (int) ((long) len * (i + 1) / n);
+                segments[i] = new Wrapped<>(list.subList(start, end), end - start);
+            }
+            return segments;
+        }
+
+        @Requires ("org.ow2.asm:asm")
+        static <T> FastStream<T> compile(FastStream<T> stream) {
+            List<Byte> ops = new ArrayList<>();
+            List<Object> funcs = new ArrayList<>();
+            FastStream<?> source = stream;
+            // Walk down the stateless stages, collecting their operations in reverse.
+            while (true) {
+                if (source instanceof Fused) {
+                    Fused<?, ?> f = (Fused<?, ?>) source;
+                    for (int i = f.ops.length - 1; i >= 0; i--) {
+                        ops.add(f.ops[i]);
+                        funcs.add(f.funcs[i]);
+                    }
+                    source = f.parent;
+                } else if (source instanceof Filtered) {
+                    ops.add(Fused.FILTER);
+                    funcs.add(((Filtered<?>) source).pred);
+                    source = ((Filtered<?>) source).parent;
+                } else if (source instanceof Mapped) {
+                    ops.add(Fused.MAP);
+                    funcs.add(((Mapped<?, ?>) source).func);
+                    source = ((Mapped<?, ?>) source).parent;
+                } else if (source instanceof Peeked) {
+                    ops.add(Fused.PEEK);
+                    funcs.add(((Peeked<?>) source).cons);
+                    source = ((Peeked<?>) source).parent;
+                } else if (source instanceof OfType) {
+                    ops.add(Fused.OF_TYPE);
+                    funcs.add(((OfType<?, ?>) source).clazz);
+                    source = ((OfType<?, ?>) source).parent;
+                } else {
+                    break;
+                }
+            }
+            Collections.reverse(ops);
+            Collections.reverse(funcs);
+
+            byte[] opsArr = new byte[ops.size()];
+            for (int i = 0; i < opsArr.length; i++) {
+                opsArr[i] = ops.get(i);
+            }
+            Object[] funcsArr = funcs.toArray();
+
+            Object loop;
+            if (source instanceof OfN) {
+                Object[] things = ((OfN<?>) source).things;
+                loop = FastStreamCompiler.compile(FastStreamCompiler.SOURCE_ARRAY, things, 0, things.length, opsArr, funcsArr);
+            } else if (source instanceof Bucket) {
+                Bucket<?> bucket = (Bucket<?>) source;
+                loop = FastStreamCompiler.compile(FastStreamCompiler.SOURCE_ARRAY, bucket.values, bucket.start, bucket.end, opsArr, funcsArr);
+            } else if (source instanceof Wrapped && ((Wrapped<?>) source)._itr instanceof List && ((Wrapped<?>) source)._itr instanceof RandomAccess) {
+                loop = FastStreamCompiler.compile(FastStreamCompiler.SOURCE_LIST, ((Wrapped<?>) source)._itr, 0, 0, opsArr, funcsArr);
+            } else {
+                // Retain the source's own forEach.
+                loop = FastStreamCompiler.compile(FastStreamCompiler.SOURCE_STREAM, source, 0, 0, opsArr, funcsArr);
+            }
+            return new Compiled<>(stream, loop);
+        }
+
+        private static <S, T> FastStream<T>[] rewrap(FastStream<S>[] segments, Function<FastStream<S>, FastStream<T>> func) {
+            @SuppressWarnings ("rawtypes")
+            FastStream<T>[] wrapped = unsafeCast(new FastStream[segments.length]);
+            for (int i = 0; i < segments.length; i++) {
+                wrapped[i] = func.apply(segments[i]);
+            }
+            return wrapped;
+        }
+
+        /**
+         * A binary heap bounded to {@code k} elements, retaining the {@code k} smallest elements it accepts.
+         * <p>
+         * Ties are broken by encounter order, the earliest accepted element is considered smaller.
+         */
+        static final class BoundedHeap<T> implements Consumer<T> {
+
+            private final int k;
+            private final Comparator<? super T> comparator;
+
+            private Object[] elements;
+            private long[] seqs;
+            private int size;
+            private long seq;
+
+            BoundedHeap(int k, int expected, Comparator<? super T> comparator) {
+                this.k = k;
+                this.comparator = comparator;
+                int capacity = Math.max(1, Math.min(k, expected >= 0 ? expected : 16));
+                elements = new Object[capacity];
+                seqs = new long[capacity];
+            }
+
+            @Override
+            public void accept(T t) {
+                long s = seq++;
+                if (size < k) {
+                    if (size == elements.length) {
+                        int capacity = (int) Math.min(k, elements.length * 2L);
+                        elements = Arrays.copyOf(elements, capacity);
+                        seqs = Arrays.copyOf(seqs, capacity);
+                    }
+                    elements[size] = t;
+                    seqs[size] = s;
+                    siftUp(size++);
+                } else if (comparator.compare(t, element(0)) < 0) {
+                    // The root is the largest retained element. Equal elements are never
+                    // replaced, as the retained element was encountered first.
+                    elements[0] = t;
+                    seqs[0] = s;
+                    siftDown(0);
+                }
+            }
+
+            /**
+             * Empty the heap, returning its elements in ascending order.
+             *
+             * @return The elements.
+             */
+            T[] drain() {
+                Object[] out = new Object[size];
+                for (int i = size - 1; i >= 0; i--) {
+                    out[i] = elements[0];
+                    size--;
+                    elements[0] = elements[size];
+                    seqs[0] = seqs[size];
+                    elements[size] = null;
+                    siftDown(0);
+                }
+                return unsafeCast(out);
+            }
+
+            private T element(int i) {
+                return unsafeCast(elements[i]);
+            }
+
+            private int compare(int a, int b) {
+                int c = comparator.compare(element(a), element(b));
+                return c != 0 ? c : Long.compare(seqs[a], seqs[b]);
+            }
+
+            private void siftUp(int i) {
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (compare(i, parent) <= 0) break;
+                    swap(i, parent);
+                    i = parent;
+                }
+            }
+
+            private void siftDown(int i) {
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && compare(child + 1, child) > 0) {
+                        child++;
+                    }
+                    if (compare(child, i) <= 0) break;
+                    swap(i, child);
+                    i = child;
+                }
+            }
+
+            private void swap(int a, int b) {
+                Object e = elements[a];
+                elements[a] = elements[b];
+                elements[b] = e;
+                long s = seqs[a];
+                seqs[a] = seqs[b];
+                seqs[b] = s;
+            }
+        }
+
+        /**
+         * Lazily merges sorted {@link Iterator}s using a binary heap of the iterators current heads.
+         * <p>
+         * Ties are broken by iterator index, earlier iterators win.
+         */
+        static final class MergingIterator<T> implements Iterator<T> {
+
+            private final Comparator<? super T> comparator;
+            private @Nullable Iterable<? extends Iterable<? extends T>> iterables;
+
+            private Iterator<? extends T> @Nullable [] itrs;
+            private Object @Nullable [] heads;
+            private int @Nullable [] heap;
+            private int size;
+
+            MergingIterator(Comparator<? super T> comparator, Iterable<? extends Iterable<? extends T>> iterables) {
+                this.comparator = comparator;
+                this.iterables = iterables;
+            }
+
+            private void init() {
+                assert iterables != null;
+                List<Iterator<? extends T>> itrs = new ArrayList<>();
+                for (Iterable<? extends T> iterable : iterables) {
+                    itrs.add(iterable.iterator());
+                }
+                iterables = null;
+
+                this.itrs = unsafeCast(itrs.toArray(new Iterator<?>[0]));
+                heads = new Object[itrs.size()];
+                heap = new int[itrs.size()];
+                for (int i = 0; i < itrs.size(); i++) {
+                    Iterator<? extends T> itr = itrs.get(i);
+                    if (itr.hasNext()) {
+                        heads[i] = itr.next();
+                        heap[size++] = i;
+                    }
+                }
+                for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                    siftDown(i);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (heap == null) init();
+                return size != 0;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                assert itrs != null && heads != null && heap != null;
+
+                int top = heap[0];
+                T t = unsafeCast(heads[top]);
+                Iterator<? extends T> itr = itrs[top];
+                if (itr.hasNext()) {
+                    heads[top] = itr.next();
+                } else {
+                    heads[top] = null;
+                    heap[0] = heap[--size];
+                }
+                siftDown(0);
+                return t;
+            }
+
+            private boolean less(int a, int b) {
+                assert heads != null;
+                int c = comparator.compare(unsafeCast(heads[a]), unsafeCast(heads[b]));
+                return c != 0 ? c < 0 : a < b;
+            }
+
+            private void siftDown(int i) {
+                assert heap != null;
+                int e = heap[i];
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                        child++;
+                    }
+                    if (!less(heap[child], e)) break;
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = e;
+            }
+        }
+
+        /**
+         * An append-only buffer of elements, stored in chunks to avoid copying when growing.
+         */
+        static final class ChunkedBuffer<T> implements Consumer<T> {
+
+            private static final int MIN_CHUNK = 16;
+            private static final int MAX_CHUNK = 1 << 16;
+
+            private Object[][] chunks = new Object[4][];
+            private int chunkCount;
+            private Object[] current;
+            private int index;
+            private int size;
+
+            ChunkedBuffer(int expected) {
+                current = new Object[expected >= 0 ? expected : MIN_CHUNK];
+                chunks[chunkCount++] = current;
+            }
+
+            @Override
+            public void accept(T t) {
+                if (index == current.length) {
+                    current = new Object[Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, current.length * 2))];
+                    if (chunkCount == chunks.length) {
+                        chunks = Arrays.copyOf(chunks, chunkCount * 2);
+                    }
+                    chunks[chunkCount++] = current;
+                    index = 0;
+                }
+                current[index++] = t;
+                size++;
+            }
+
+            /**
+             * Trim the last chunk to size, every chunk is full after this call.
+             */
+            void trim() {
+                if (index != current.length) {
+                    current = Arrays.copyOf(current, index);
+                    chunks[chunkCount - 1] = current;
+                }
+            }
+
+            int size() {
+                return size;
+            }
+
+            void forEach(Consumer<? super T> action) {
+                for (int c = 0; c < chunkCount; c++) {
+                    for (Object o : chunks[c]) {
+                        action.accept(unsafeCast(o));
+                    }
+                }
+            }
+
+            boolean forEachUntil(Predicate<? super T> action) {
+                for (int c = 0; c < chunkCount; c++) {
+                    for (Object o : chunks[c]) {
+                        if (action.test(unsafeCast(o))) return true;
+                    }
+                }
+                return false;
+            }
+
+            Iterator<T> iterator() {
+                return new AbstractIterator<T>() {
+                    private int c;
+                    private int i;
+
+                    @Override
+                    protected T computeNext() {
+                        while (c < chunkCount) {
+                            Object[] chunk = chunks[c];
+                            if (i < chunk.length) return unsafeCast(chunk[i++]);
+                            c++;
+                            i = 0;
+                        }
+                        return endOfData();
+                    }
+                };
+            }
+        }
+
+        /**
+         * Accumulates elements into windows for {@link Windowed}.
+         * <p>
+         * Advancing to the next window is deferred until the next element is added, as
+         * a reused window must remain intact whilst the consumer processes it.
+         */
+        static final class WindowBuffer<T> {
+
+            private final int size;
+            private final int step;
+            private final boolean partial;
+            private final boolean reuse;
+
+            private ArrayList<T> window;
+            private int skip;
+            private boolean advance;
+
+            WindowBuffer(int size, int step, boolean partial, boolean reuse) {
+                this.size = size;
+                this.step = step;
+                this.partial = partial;
+                this.reuse = reuse;
+                window = newWindow();
+            }
+
+            /**
+             * Add an element to the window.
+             *
+             * @param t The element.
+             * @return {@code true} if the window is now full, and should be taken.
+             */
+            boolean add(T t) {
+                if (advance) advance();
+                if (skip > 0) {
+                    skip--;
+                    return false;
+                }
+                window.add(t);
+                return window.size() == size;
+            }
+
+            /**
+             * Take the current full window.
+             *
+             * @return The window.
+             */
+            List<T> take() {
+                advance = true;
+                if (reuse) return window;
+                if (step < size) return new ArrayList<>(window);
+
+                // Non overlapping, hand over the window instead of copying it.
+                List<T> taken = window;
+                window = newWindow();
+                return taken;
+            }
+
+            /**
+             * Take the final partial window, if any.
+             *
+             * @return The window, or {@code null}.
+             */
+            @Nullable
+            List<T> remainder() {
+                if (advance) advance();
+                if (!partial || window.isEmpty()) return null;
+
+                advance = true;
+                return window;
+            }
+
+            private void advance() {
+                advance = false;
+                if (step >= size) {
+                    window.clear();
+                    skip = step - size;
+                } else {
+                    window.subList(0, step).clear();
+                }
+            }
+
+            private ArrayList<T> newWindow() {
+                return new ArrayList<>(Math.min(size, 1024));
+            }
+        }
+
+        /**
+         * A hash table from key to the values with that key, for {@link Joined}.
+         * <p>
+         * Keys with a single value store it directly, only keys with multiple values
+         * allocate a list. {@code null} keys are not stored.
+         */
+        static final class HashTable<K, V> {
+
+            /**
+             * Returned from {@link #get} for keys without any values.
+             */
+            static final Object ABSENT = new Object();
+            private static final Object NULL = new Object();
+
+            private final HashMap<K, Object> map = new HashMap<>();
+
+            static <K, V> HashTable<K, V> build(Iterable<? extends V> itr, Function<? super V, ? extends K> keyFunc) {
+                HashTable<K, V> table = new HashTable<>();
+                itr.forEach(v -> table.put(keyFunc.apply(v), v));
+                return table;
+            }
+
+            private void put(@Nullable K key, @Nullable V value) {
+                if (key == null) return;
+
+                Object val = value == null ? NULL : value;
+                Object existing = map.putIfAbsent(key, val);
+                if (existing instanceof Multi) {
+                    ((Multi) existing).add(value);
+                } else if (existing != null) {
+                    Multi multi = new Multi();
+                    multi.add(existing == NULL ? null : existing);
+                    multi.add(value);
+                    map.put(key, multi);
+                }
+            }
+
+            /**
+             * Get the values for the given key.
+             * <p>
+             * A single value is returned as is, without allocating, and must be unwrapped via {@link #single}.
+             *
+             * @param key The key.
+             * @return {@link #ABSENT} if the key has no values, a {@link Multi} if it has
+             * multiple values, otherwise its single value.
+             */
+            Object get(@Nullable K key) {
+                if (key == null) return ABSENT;
+
+                Object val = map.get(key);
+                return val != null ? val : ABSENT;
+            }
+
+            /**
+             * Unwrap a single value returned from {@link #get}.
+             *
+             * @param val The value.
+             * @return The value.
+             */
+            @Nullable
+            static <V> V single(Object val) {
+                return val == NULL ? null : unsafeCast(val);
+            }
+
+            /**
+             * Multiple values for a key.
+             * <p>
+             * Distinguishes multiple values from a single value which happens to be a list.
+             */
+            static final class Multi extends ArrayList<Object> {
+
+                private static final long serialVersionUID = 1L;
+
+                Multi() {
+                    super(2);
+                }
+            }
+        }
+
+        /**
+         * Iterates the leaf sources of a concatenation, expanding nested
+         * {@link ConcatenatedN} and {@link Concatenated} sources with an explicit stack.
+         */
+        static final class FlatSources<T> extends AbstractIterator<Iterable<? extends T>> {
+
+            private Iterator<? extends Iterable<? extends T>> current;
+            private @Nullable ArrayDeque<Iterator<? extends Iterable<? extends T>>> stack;
+
+            FlatSources(Iterator<? extends Iterable<? extends T>> sources) {
+                current = sources;
+            }
+
+            @Override
+            protected Iterable<? extends T> computeNext() {
+                while (true) {
+                    if (current.hasNext()) {
+                        Iterable<? extends T> next = current.next();
+                        Iterator<? extends Iterable<? extends T>> nested = nestedSources(next);
+                        if (nested == null) return next;
+
+                        if (stack == null) stack = new ArrayDeque<>();
+                        stack.push(current);
+                        current = nested;
+                    } else {
+                        if (stack == null || stack.isEmpty()) return endOfData();
+                        current = stack.pop();
+                    }
+                }
+            }
+
+            /**
+             * Sum the known length of each remaining source.
+             *
+             * @param consumeToCalculate Passed to each source.
+             * @return The total length, or {@code -1} if any source length is unknown.
+             */
+            int knownLength(boolean consumeToCalculate) {
+                int len = 0;
+                while (hasNext()) {
+                    int ilen = Internal.knownLength(next(), consumeToCalculate);
+                    if (ilen < 0) return -1;
+
+                    len += ilen;
+                }
+                return len;
+            }
+
+            private static <T> @Nullable Iterator<? extends Iterable<? extends T>> nestedSources(Iterable<? extends T> itr) {
+                if (itr instanceof ConcatenatedN) return SneakyUtils.<ConcatenatedN<T>>unsafeCast(itr).sources();
+                if (itr instanceof Concatenated) return SneakyUtils.<Concatenated<T>>unsafeCast(itr).iterables.iterator();
+                return null;
+            }
+        }
+
+        /**
+         * Iterates the elements of each source from a {@link FlatSources}.
+         */
+        static final class FlatIterator<T> extends AbstractIterator<T> {
+
+            private final Iterator<Iterable<? extends T>> sources;
+            private @Nullable Iterator<? extends T> working;
+
+            FlatIterator(Iterator<Iterable<? extends T>> sources) {
+                this.sources = sources;
+            }
+
+            @Override
+            protected T computeNext() {
+                while (true) {
+                    if (working == null) {
+                        if (!sources.hasNext()) break;
+                        working = sources.next().iterator();
+                    }
+                    if (working.hasNext()) {
+                        return working.next();
+                    }
+                    working = null;
+                }
+                return endOfData();
+            }
+        }
+
+        /**
+         * Hash the given object to 64 bits.
+         * <p>
+         * {@link String} and {@link Long} are hashed by value, other objects by their {@link Object#hashCode()}.
+         *
+         * @param obj The object.
+         * @return The hash.
+         */
+        static long hash64(@Nullable Object obj) {
+            if (obj instanceof String) {
+                String str = (String) obj;
+                // FNV-1a over each char.
+                long hash = 0xCBF29CE484222325L;
+                for (int i = 0; i < str.length(); i++) {
+                    hash = (hash ^ str.charAt(i)) * 0x100000001B3L;
+                }
+                return mix64(hash);
+            }
+            if (obj instanceof Long) return mix64((Long) obj);
+
+            return mix64(Objects.hashCode(obj));
+        }
+
+        /**
+         * The MurmurHash3 64 bit finalizer, distributing entropy over all bits.
+         *
+         * @param hash The value to mix.
+         * @return The mixed value.
+         */
+        static long mix64(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB9FE1A85EC53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+
+        /**
+         * Maps elements to futures, keeping up to {@code maxInFlight} outstanding.
+         * <p>
+         * When ordered, results are taken from the oldest future. Otherwise, futures
+         * add themselves to a queue on completion, which results are taken from.
+         * <p>
+         * Each element occupies its own slot, the same future may be returned for multiple elements.
+         */
+        static final class AsyncMappingIterator<T, R> extends AbstractIterator<R> {
+
+            private final Iterator<? extends T> source;
+            private final Function<? super T, ? extends CompletableFuture<? extends R>> func;
+            private final int maxInFlight;
+            private final boolean ordered;
+
+            // The future for each outstanding element, in encounter order.
+            private final ArrayDeque<CompletableFuture<? extends R>> inFlight = new ArrayDeque<>();
+            // Unordered, the future for each element which has completed.
+            private final BlockingQueue<CompletableFuture<? extends R>> completed = new LinkedBlockingQueue<>();
+
+            AsyncMappingIterator(Iterator<? extends T> source, Function<? super T, ? extends CompletableFuture<? extends R>> func, int maxInFlight, boolean ordered) {
+                this.source = source;
+                this.func = func;
+                this.maxInFlight = maxInFlight;
+                this.ordered = ordered;
+            }
+
+            @Override
+            protected R computeNext() {
+                try {
+                    fill();
+                    if (inFlight.isEmpty()) return endOfData();
+
+                    CompletableFuture<? extends R> future;
+                    if (ordered) {
+                        future = inFlight.remove();
+                    } else {
+                        future = completed.take();
+                        inFlight.removeFirstOccurrence(future);
+                    }
+                    return future.get();
+                } catch (Throwable ex) {
+                    cancel();
+                    if (ex instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    Throwable cause = ex;
+                    if (cause instanceof ExecutionException || cause instanceof CompletionException) {
+                        if (cause.getCause() != null) cause = cause.getCause();
+                    }
+                    SneakyUtils.throwUnchecked(cause);
+                    return null;
+                }
+            }
+
+            private void fill() {
+                while (inFlight.size() < maxInFlight && source.hasNext()) {
+                    CompletableFuture<? extends R> future = Objects.requireNonNull(func.apply(source.next()), "Function returned null future.");
+                    inFlight.add(future);
+                    if (!ordered) {
+                        future.whenComplete((r, ex) -> completed.add(future));
+                    }
+                }
+            }
+
+            /**
+             * Cancel all outstanding futures.
+             */
+            void cancel() {
+                for (CompletableFuture<? extends R> future : inFlight) {
+                    future.cancel(true);
+                }
+                inFlight.clear();
+                completed.clear();
+            }
+        }
+
         // @formatter:off
         private static class Empty<T> implements FastStream<T> {
             @Override public Iterator<T> iterator() { return Collections.emptyIterator(); }
             @Override public void forEach(Consumer<? super T> action) { }
+            @Override public boolean forEachUntil(Predicate<? super T> action) { return false; }
+            @Override public FastStream<T> sortedExternal(Comparator<? super T> comparator, Serializer<T> serializer, Path tempDir, int memoryBudget) { return this; }
+            @Override public FastStream<T> bottom(int k, Comparator<? super T> comparator) { return this; }
+            @Override public FastStream<T> top(int k, Comparator<? super T> comparator) { return this; }
+            @Override public FastStream<T> compile() { return this; }
             @Override public FastStream<T> concat(Iterable<? extends T> other) { return of(other); }
             @Override public FastStream<T> filter(Predicate<? super T> pred) { return this; }
             @Override public FastStream<T> filterNot(Predicate<? super T> pred) { return this; }
             @Override public <R> FastStream<R> map(Function<? super T, ? extends R> func) { return empty(); }
+            @Override public <R> FastStream<R> mapIndexed(IndexedFunction<? super T, ? extends R> func) { return empty(); }
+            @Override public <U, R> FastStream<R> zip(Iterable<? extends U> other, BiFunction<? super T, ? super U, ? extends R> func) { return empty(); }
+            @Override public IntFastStream mapToInt(ToIntFunction<? super T> func) { return IntFastStream.empty(); }
+            @Override public LongFastStream mapToLong(ToLongFunction<? super T> func) { return LongFastStream.empty(); }
+            @Override public DoubleFastStream mapToDouble(ToDoubleFunction<? super T> func) { return DoubleFastStream.empty(); }
+            @Override public <R> FastStream<R> mapAsync(Function<? super T, ? extends CompletableFuture<? extends R>> func, int maxInFlight) { return empty(); }
+            @Override public <R> FastStream<R> mapAsyncUnordered(Function<? super T, ? extends CompletableFuture<? extends R>> func, int maxInFlight) { return empty(); }
             @Override public <R> FastStream<R> flatMap(Function<? super T, ? extends Iterable<? extends R>> func) { return empty(); }
             @Override public FastStream<T> distinct() { return this; }
+            @Override public <K> FastStream<T> distinctBy(Function<? super T, ? extends K> keyFunc) { return this; }
+            @Override public FastStream<T> distinctSorted() { return this; }
             @Override public <K> FastStream<Group<K, T>> groupBy(Function<? super T, ? extends K> keyFunc) { return empty(); }
             @Override public <K, V> FastStream<Group<K, V>> groupBy(Function<? super T, ? extends K> keyFunc, Function<? super T, ? extends V> valueFunc) { return empty(); }
             @Override public FastStream<T> sorted() { return this; }
             @Override public FastStream<T> sorted(Comparator<? super T> comparator) { return this; }
             @Override public FastStream<T> peek(Consumer<? super T> cons) { return this; }
+            @Override public FastStream<T> cached(boolean soft) { return this; }
             @Override public FastStream<T> limit(int max) { return this; }
             @Override public FastStream<T> skip(int n) { return this; }
             @Override @Nullable public <U> U fold(@Nullable U identity, BiFunction<? super @Nullable U, ? super T, ? extends U> accumulator) { return identity; }
@@ -2628,6 +6165,7 @@ public interface FastStream<T> extends Iterable<T> {
             @Override public int knownLength() { return 0; }
             @Override public int knownLength(boolean consumeToCalculate) { return 0; }
             @Override public int count() { return 0; }
+            @Override public long countDistinct() { return 0; }
             @Override public int intSum(ToIntFunction<? super T> func) { return 0; }
             @Override public long longSum(ToLongFunction<? super T> func) { return 0; }
             @Override public double doubleSum(ToDoubleFunction<? super T> func) { return 0; }
@@ -0,0 +1,427 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.annotation.Requires;
+import net.covers1624.quack.asm.ClassBuilder;
+import net.covers1624.quack.asm.ClassBuilder.FieldBuilder;
+import net.covers1624.quack.asm.MethodBuilder.BodyGenerator;
+import net.covers1624.quack.asm.MethodBuilder.BodyGenerator.Var;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static net.covers1624.quack.collection.FastStream.Fused.*;
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates straight-line loops for {@link FastStream#compile()}.
+ * <p>
+ * A single class is generated per pipeline shape, the kind of source and the
+ * sequence of stateless operations applied to it. The generated class implements
+ * {@link Consumer} and {@link Predicate}, accepting or testing the terminal action,
+ * each containing the entire loop inside a single method. The functions applied by
+ * each stage are held in final fields of the generated class, so the same class is
+ * reused by every pipeline with the same shape.
+ * <p>
+ * Other {@link FastStream} sources are not looped over directly, so their own
+ * {@link FastStream#forEach} fast paths are retained. Instead, a sink is generated,
+ * applying every operation to a single element before passing it to the terminal
+ * action, which is passed to the source's {@link FastStream#forEach} or
+ * {@link FastStream#forEachUntil}.
+ * <p>
+ * As Quack targets Java 8, hidden classes and {@code Lookup#defineClass} are not
+ * available. Generated classes are instead defined in a private {@link ClassLoader},
+ * they only reference JDK types, so this works regardless of where Quack was loaded from.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+@Requires ("org.ow2.asm:asm")
+final class FastStreamCompiler {
+
+    static final byte SOURCE_ARRAY = 0;
+    static final byte SOURCE_LIST = 1;
+    static final byte SOURCE_STREAM = 2;
+
+    private static final Type OBJECT = Type.getType(Object.class);
+    private static final Type OBJECT_ARRAY = Type.getType(Object[].class);
+    private static final Type LIST = Type.getType(List.class);
+    private static final Type CONSUMER = Type.getType(Consumer.class);
+    private static final Type FUNCTION = Type.getType(Function.class);
+    private static final Type PREDICATE = Type.getType(Predicate.class);
+    private static final Type CLASS = Type.getType(Class.class);
+
+    private static final PipelineClassLoader LOADER = new PipelineClassLoader();
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final Map<String, Constructor<?>> CACHE = new ConcurrentHashMap<>();
+
+    private FastStreamCompiler() {
+    }
+
+    /**
+     * Compile a loop for the given pipeline.
+     *
+     * @param kind   The kind of source. One of {@link #SOURCE_ARRAY}, {@link #SOURCE_LIST} or {@link #SOURCE_STREAM}.
+     * @param source The source. An {@code Object[]}, {@link List} or {@link FastStream} respectively.
+     * @param from   The start index for array sources.
+     * @param until  The end index for array sources.
+     * @param ops    The operations to apply, as defined by {@link FastStream.Fused}.
+     * @param funcs  The functions for each operation.
+     * @return The compiled loop. A {@link Consumer} accepting the terminal action for {@link FastStream#forEach},
+     * and a {@link Predicate} testing the terminal action for {@link FastStream#forEachUntil}.
+     */
+    static Object compile(byte kind, Object source, int from, int until, byte[] ops, Object[] funcs) {
+        Constructor<?> ctor = CACHE.computeIfAbsent(shape(kind, ops), e -> kind == SOURCE_STREAM ? generateSink(ops) : generate(kind, ops));
+        if (kind == SOURCE_STREAM) return new StreamLoop((FastStream<?>) source, ctor, funcs);
+
+        try {
+            return ctor.newInstance(source, from, until, funcs);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException ex) {
+            throw new RuntimeException("Failed to instantiate compiled pipeline.", ex);
+        }
+    }
+
+    /**
+     * @return The number of distinct pipeline shapes which have been compiled.
+     */
+    static int compiledShapes() {
+        return CACHE.size();
+    }
+
+    private static String shape(byte kind, byte[] ops) {
+        StringBuilder sb = new StringBuilder(ops.length + 2);
+        sb.append(kind).append(':');
+        for (byte op : ops) {
+            sb.append((char) ('0' + op));
+        }
+        return sb.toString();
+    }
+
+    private static Constructor<?> generate(byte kind, byte[] ops) {
+        Type name = Type.getObjectType("net/covers1624/quack/collection/generated/CompiledPipeline$" + COUNTER.getAndIncrement());
+        Class<?> sourceClass = kind == SOURCE_ARRAY ? Object[].class : List.class;
+        Type sourceType = Type.getType(sourceClass);
+
+        ClassBuilder builder = new ClassBuilder(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, name)
+                .withInterface(CONSUMER)
+                .withInterface(PREDICATE);
+        FieldBuilder sourceField = builder.addField(ACC_PRIVATE | ACC_FINAL, "source", sourceType);
+        FieldBuilder fromField = builder.addField(ACC_PRIVATE | ACC_FINAL, "from", Type.INT_TYPE);
+        FieldBuilder untilField = builder.addField(ACC_PRIVATE | ACC_FINAL, "until", Type.INT_TYPE);
+        FieldBuilder[] funcFields = new FieldBuilder[ops.length];
+        for (int i = 0; i < ops.length; i++) {
+            funcFields[i] = builder.addField(ACC_PRIVATE | ACC_FINAL, "func" + i, funcType(ops[i]));
+        }
+
+        builder.addMethod(ACC_PUBLIC, "<init>", Type.getMethodType(Type.VOID_TYPE, sourceType, Type.INT_TYPE, Type.INT_TYPE, OBJECT_ARRAY))
+                .withBody(gen -> {
+                    gen.loadThis();
+                    gen.methodInsn(INVOKESPECIAL, OBJECT, "<init>", Type.getMethodType(Type.VOID_TYPE), false);
+                    gen.loadThis();
+                    gen.loadParam(0);
+                    gen.putField(sourceField);
+                    gen.loadThis();
+                    gen.loadParam(1);
+                    gen.putField(fromField);
+                    gen.loadThis();
+                    gen.loadParam(2);
+                    gen.putField(untilField);
+                    for (int i = 0; i < ops.length; i++) {
+                        gen.loadThis();
+                        gen.loadParam(3);
+                        gen.ldcInt(i);
+                        gen.insn(AALOAD);
+                        gen.typeInsn(CHECKCAST, funcFields[i].desc());
+                        gen.putField(funcFields[i]);
+                    }
+                    gen.insn(RETURN);
+                });
+
+        builder.addMethod(ACC_PUBLIC, "accept", Type.getMethodType(Type.VOID_TYPE, OBJECT))
+                .withBody(gen -> emitLoop(gen, kind, ops, sourceField, fromField, untilField, funcFields, false));
+        builder.addMethod(ACC_PUBLIC, "test", Type.getMethodType(Type.BOOLEAN_TYPE, OBJECT))
+                .withBody(gen -> emitLoop(gen, kind, ops, sourceField, fromField, untilField, funcFields, true));
+
+        byte[] bytes = builder.build();
+        try {
+            return LOADER.define(name.getClassName(), bytes)
+                    .getConstructor(sourceClass, int.class, int.class, Object[].class);
+        } catch (NoSuchMethodException ex) {
+            throw new RuntimeException("Failed to find constructor for compiled pipeline.", ex);
+        }
+    }
+
+    private static void emitLoop(BodyGenerator gen, byte kind, byte[] ops, FieldBuilder sourceField, FieldBuilder fromField, FieldBuilder untilField, FieldBuilder[] funcFields, boolean shortCircuit) {
+        Type actionType = shortCircuit ? PREDICATE : CONSUMER;
+        Var action = gen.newVar(actionType);
+        gen.loadParam(0);
+        gen.typeInsn(CHECKCAST, actionType);
+        gen.store(action);
+
+        // Hoist all functions into locals.
+        Var[] funcs = new Var[ops.length];
+        for (int i = 0; i < ops.length; i++) {
+            funcs[i] = gen.newVar(funcFields[i].desc());
+            gen.loadThis();
+            gen.getField(funcFields[i]);
+            gen.store(funcs[i]);
+        }
+
+        Var e = gen.newVar(OBJECT);
+        Label loop = new Label();
+        Label end = new Label();
+        switch (kind) {
+            case SOURCE_ARRAY: {
+                Var array = gen.newVar(OBJECT_ARRAY);
+                Var idx = gen.newVar(Type.INT_TYPE);
+                Var until = gen.newVar(Type.INT_TYPE);
+                gen.loadThis();
+                gen.getField(sourceField);
+                gen.store(array);
+                gen.loadThis();
+                gen.getField(fromField);
+                gen.store(idx);
+                gen.loadThis();
+                gen.getField(untilField);
+                gen.store(until);
+
+                gen.label(loop);
+                gen.load(idx);
+                gen.load(until);
+                gen.jump(IF_ICMPGE, end);
+                gen.load(array);
+                gen.load(idx);
+                gen.insn(AALOAD);
+                gen.store(e);
+                gen.iinc(idx.getIndex(), 1);
+                break;
+            }
+            case SOURCE_LIST: {
+                Var list = gen.newVar(LIST);
+                Var idx = gen.newVar(Type.INT_TYPE);
+                gen.loadThis();
+                gen.getField(sourceField);
+                gen.store(list);
+                gen.ldcInt(0);
+                gen.store(idx);
+
+                gen.label(loop);
+                gen.load(idx);
+                gen.load(list);
+                gen.methodInsn(INVOKEINTERFACE, LIST, "size", Type.getMethodType(Type.INT_TYPE), true);
+                gen.jump(IF_ICMPGE, end);
+                gen.load(list);
+                gen.load(idx);
+                gen.methodInsn(INVOKEINTERFACE, LIST, "get", Type.getMethodType(OBJECT, Type.INT_TYPE), true);
+                gen.store(e);
+                gen.iinc(idx.getIndex(), 1);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown source kind: " + kind);
+        }
+
+        for (int i = 0; i < ops.length; i++) {
+            emitOp(gen, ops[i], funcs[i], e, loop);
+        }
+
+        gen.load(action);
+        gen.load(e);
+        if (shortCircuit) {
+            gen.methodInsn(INVOKEINTERFACE, PREDICATE, "test", Type.getMethodType(Type.BOOLEAN_TYPE, OBJECT), true);
+            gen.jump(IFEQ, loop);
+            gen.insn(ICONST_1);
+            gen.insn(IRETURN);
+            gen.label(end);
+            gen.insn(ICONST_0);
+            gen.insn(IRETURN);
+        } else {
+            gen.methodInsn(INVOKEINTERFACE, CONSUMER, "accept", Type.getMethodType(Type.VOID_TYPE, OBJECT), true);
+            gen.jump(GOTO, loop);
+            gen.label(end);
+            gen.insn(RETURN);
+        }
+    }
+
+    private static Constructor<?> generateSink(byte[] ops) {
+        Type name = Type.getObjectType("net/covers1624/quack/collection/generated/CompiledSink$" + COUNTER.getAndIncrement());
+
+        ClassBuilder builder = new ClassBuilder(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, name)
+                .withInterface(CONSUMER)
+                .withInterface(PREDICATE);
+        FieldBuilder actionField = builder.addField(ACC_PRIVATE | ACC_FINAL, "action", OBJECT);
+        FieldBuilder[] funcFields = new FieldBuilder[ops.length];
+        for (int i = 0; i < ops.length; i++) {
+            funcFields[i] = builder.addField(ACC_PRIVATE | ACC_FINAL, "func" + i, funcType(ops[i]));
+        }
+
+        builder.addMethod(ACC_PUBLIC, "<init>", Type.getMethodType(Type.VOID_TYPE, OBJECT, OBJECT_ARRAY))
+                .withBody(gen -> {
+                    gen.loadThis();
+                    gen.methodInsn(INVOKESPECIAL, OBJECT, "<init>", Type.getMethodType(Type.VOID_TYPE), false);
+                    gen.loadThis();
+                    gen.loadParam(0);
+                    gen.putField(actionField);
+                    for (int i = 0; i < ops.length; i++) {
+                        gen.loadThis();
+                        gen.loadParam(1);
+                        gen.ldcInt(i);
+                        gen.insn(AALOAD);
+                        gen.typeInsn(CHECKCAST, funcFields[i].desc());
+                        gen.putField(funcFields[i]);
+                    }
+                    gen.insn(RETURN);
+                });
+
+        builder.addMethod(ACC_PUBLIC, "accept", Type.getMethodType(Type.VOID_TYPE, OBJECT))
+                .withBody(gen -> emitSink(gen, ops, actionField, funcFields, false));
+        builder.addMethod(ACC_PUBLIC, "test", Type.getMethodType(Type.BOOLEAN_TYPE, OBJECT))
+                .withBody(gen -> emitSink(gen, ops, actionField, funcFields, true));
+
+        byte[] bytes = builder.build();
+        try {
+            return LOADER.define(name.getClassName(), bytes)
+                    .getConstructor(Object.class, Object[].class);
+        } catch (NoSuchMethodException ex) {
+            throw new RuntimeException("Failed to find constructor for compiled sink.", ex);
+        }
+    }
+
+    private static void emitSink(BodyGenerator gen, byte[] ops, FieldBuilder actionField, FieldBuilder[] funcFields, boolean shortCircuit) {
+        Var e = gen.newVar(OBJECT);
+        gen.loadParam(0);
+        gen.store(e);
+
+        Label skip = new Label();
+        for (int i = 0; i < ops.length; i++) {
+            Var func = gen.newVar(funcFields[i].desc());
+            gen.loadThis();
+            gen.getField(funcFields[i]);
+            gen.store(func);
+            emitOp(gen, ops[i], func, e, skip);
+        }
+
+        Type actionType = shortCircuit ? PREDICATE : CONSUMER;
+        gen.loadThis();
+        gen.getField(actionField);
+        gen.typeInsn(CHECKCAST, actionType);
+        gen.load(e);
+        if (shortCircuit) {
+            gen.methodInsn(INVOKEINTERFACE, PREDICATE, "test", Type.getMethodType(Type.BOOLEAN_TYPE, OBJECT), true);
+            gen.insn(IRETURN);
+            gen.label(skip);
+            gen.insn(ICONST_0);
+            gen.insn(IRETURN);
+        } else {
+            gen.methodInsn(INVOKEINTERFACE, CONSUMER, "accept", Type.getMethodType(Type.VOID_TYPE, OBJECT), true);
+            gen.insn(RETURN);
+            gen.label(skip);
+            gen.insn(RETURN);
+        }
+    }
+
+    private static void emitOp(BodyGenerator gen, byte op, Var func, Var e, Label skip) {
+        switch (op) {
+            case FILTER:
+                gen.load(func);
+                gen.load(e);
+                gen.methodInsn(INVOKEINTERFACE, PREDICATE, "test", Type.getMethodType(Type.BOOLEAN_TYPE, OBJECT), true);
+                gen.jump(IFEQ, skip);
+                break;
+            case MAP:
+                gen.load(func);
+                gen.load(e);
+                gen.methodInsn(INVOKEINTERFACE, FUNCTION, "apply", Type.getMethodType(OBJECT, OBJECT), true);
+                gen.store(e);
+                break;
+            case PEEK:
+                gen.load(func);
+                gen.load(e);
+                gen.methodInsn(INVOKEINTERFACE, CONSUMER, "accept", Type.getMethodType(Type.VOID_TYPE, OBJECT), true);
+                break;
+            case OF_TYPE:
+                gen.load(func);
+                gen.load(e);
+                gen.methodInsn(INVOKEVIRTUAL, CLASS, "isInstance", Type.getMethodType(Type.BOOLEAN_TYPE, OBJECT), false);
+                gen.jump(IFEQ, skip);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    private static Type funcType(byte op) {
+        switch (op) {
+            case FILTER:
+                return PREDICATE;
+            case MAP:
+                return FUNCTION;
+            case PEEK:
+                return CONSUMER;
+            case OF_TYPE:
+                return CLASS;
+            default:
+                throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    /**
+     * A compiled loop over a {@link FastStream} source, passing a generated sink to its {@link FastStream#forEach}.
+     */
+    private static final class StreamLoop implements Consumer<Object>, Predicate<Object> {
+
+        private final FastStream<Object> source;
+        private final Constructor<?> sink;
+        private final Object[] funcs;
+
+        private StreamLoop(FastStream<?> source, Constructor<?> sink, Object[] funcs) {
+            this.source = unsafeCast(source);
+            this.sink = sink;
+            this.funcs = funcs;
+        }
+
+        @Override
+        public void accept(Object action) {
+            source.forEach(unsafeCast(newSink(action)));
+        }
+
+        @Override
+        public boolean test(Object action) {
+            return source.forEachUntil(unsafeCast(newSink(action)));
+        }
+
+        private Object newSink(Object action) {
+            try {
+                return sink.newInstance(action, funcs);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException ex) {
+                throw new RuntimeException("Failed to instantiate compiled sink.", ex);
+            }
+        }
+    }
+
+    private static final class PipelineClassLoader extends ClassLoader {
+
+        static {
+            registerAsParallelCapable();
+        }
+
+        private PipelineClassLoader() {
+            super(FastStreamCompiler.class.getClassLoader());
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
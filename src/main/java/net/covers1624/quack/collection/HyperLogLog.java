@@ -0,0 +1,94 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+/**
+ * Backing implementation for {@link FastStream#countDistinct()}.
+ * <p>
+ * A HyperLogLog sketch of {@code 2^14} single byte registers. Each 64 bit hash selects
+ * a register by its top bits, which records the longest run of leading zeros seen in
+ * the remaining bits. Cardinality is estimated from the histogram of register values
+ * using Ertl's improved estimator, which corrects the bias of the raw harmonic mean
+ * estimate at both ends of its range without empirical tables. This is nearly unbiased
+ * across all cardinalities, with a standard error of around 0.8%.
+ * <p>
+ * See: Otmar Ertl, New cardinality estimation algorithms for HyperLogLog sketches, 2017.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+final class HyperLogLog {
+
+    private static final int PRECISION = 14;
+    private static final int REGISTERS = 1 << PRECISION;
+    // The maximum register value is Q + 1.
+    private static final int Q = 64 - PRECISION;
+    private static final double ALPHA_INF = 1 / (2 * Math.log(2));
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Guard bit, so the run of zeros is bounded.
+        long remaining = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    long estimate() {
+        int[] counts = new int[Q + 2];
+        for (byte register : registers) {
+            counts[register]++;
+        }
+        double m = REGISTERS;
+        double z = m * tau(1 - counts[Q + 1] / m);
+        for (int k = Q; k >= 1; k--) {
+            z = 0.5 * (z + counts[k]);
+        }
+        z += m * sigma(counts[0] / m);
+        return Math.round(ALPHA_INF * m * m / z);
+    }
+
+    // Corrects for registers which have seen no elements.
+    private static double sigma(double x) {
+        if (x == 1) return Double.POSITIVE_INFINITY;
+
+        double y = 1;
+        double z = x;
+        double prev;
+        do {
+            x *= x;
+            prev = z;
+            z += x * y;
+            y += y;
+        } while (z != prev);
+        return z;
+    }
+
+    // Corrects for registers which have saturated.
+    private static double tau(double x) {
+        if (x == 0 || x == 1) return 0;
+
+        double y = 1;
+        double z = 1 - x;
+        double prev;
+        do {
+            x = Math.sqrt(x);
+            prev = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != prev);
+        return z / 3;
+    }
+}
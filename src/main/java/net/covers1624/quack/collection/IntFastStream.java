@@ -0,0 +1,1520 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.primitive.IntArrayList;
+import net.covers1624.quack.collection.primitive.IntOpenHashSet;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * A primitive {@code int} specialization of {@link FastStream}.
+ * <p>
+ * All operations are performed with primitive functional interfaces, elements
+ * are never boxed unless explicitly requested via {@link #boxed()} or {@link #mapToObj}.
+ * <p>
+ * As with {@link FastStream}, the fast path is {@link #forEach(IntConsumer)}, which is
+ * recommended if you intend on consuming the entire stream.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public interface IntFastStream {
+
+    // region Creation and Constants.
+
+    /**
+     * Static empty instance.
+     */
+    IntFastStream EMPTY = new Internal.Empty();
+
+    /**
+     * Returns an empty {@link IntFastStream} singleton.
+     *
+     * @return An empty {@link IntFastStream}.
+     */
+    static IntFastStream empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Overload of {@link #empty()} for convenience.
+     *
+     * @return An empty {@link IntFastStream}.
+     */
+    static IntFastStream of() {
+        return empty();
+    }
+
+    /**
+     * Returns an {@link IntFastStream} for an array of ints.
+     * <p>
+     * The array is not copied.
+     *
+     * @param things The ints.
+     * @return The {@link IntFastStream}.
+     */
+    static IntFastStream of(int... things) {
+        return of(things, 0, things.length);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} for a slice of an array of ints.
+     * <p>
+     * The array is not copied.
+     *
+     * @param things The ints.
+     * @param from   The start index, inclusive.
+     * @param until  The end index, exclusive.
+     * @return The {@link IntFastStream}.
+     */
+    static IntFastStream of(int[] things, int from, int until) {
+        if (from < 0 || until > things.length || from > until) throw new IndexOutOfBoundsException();
+        if (from == until) return empty();
+
+        return new OfN(things, from, until);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} for all ints between {@code from} and {@code until}.
+     *
+     * @param from  The start, inclusive.
+     * @param until The end, exclusive.
+     * @return The {@link IntFastStream}.
+     */
+    static IntFastStream range(int from, int until) {
+        if (from >= until) return empty();
+
+        return new Ranged(from, until);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} for all ints between {@code from} and {@code to}.
+     *
+     * @param from The start, inclusive.
+     * @param to   The end, inclusive.
+     * @return The {@link IntFastStream}.
+     */
+    static IntFastStream rangeClosed(int from, int to) {
+        if (from > to) return empty();
+        if (to == Integer.MAX_VALUE) {
+            // Can't express as an exclusive range.
+            return range(from, to).concat(of(to));
+        }
+        return range(from, to + 1);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} with the provided stream concatenated after.
+     *
+     * @param other The other.
+     * @return The concatenated {@link IntFastStream}.
+     */
+    default IntFastStream concat(IntFastStream other) {
+        if (other == EMPTY) return this;
+
+        return new Concatenated(this, other);
+    }
+    // endregion
+
+    // region Abstract.
+
+    /**
+     * @return A primitive {@link PrimitiveIterator.OfInt} over the stream.
+     */
+    PrimitiveIterator.OfInt iterator();
+
+    /**
+     * Consume all elements in the stream.
+     * <p>
+     * This is the fast path for the stream.
+     *
+     * @param action The action to perform on each element.
+     */
+    void forEach(IntConsumer action);
+    // endregion
+
+    // region Stream operations
+
+    /**
+     * Returns an {@link IntFastStream} containing all elements that pass
+     * the provided {@link IntPredicate} filter.
+     *
+     * @param pred The {@link IntPredicate} to apply.
+     * @return The filtered {@link IntFastStream}.
+     */
+    default IntFastStream filter(IntPredicate pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filter", s -> new Filtered(s, pred));
+        return new Filtered(this, pred);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} containing all elements that fail
+     * the provided {@link IntPredicate} filter.
+     *
+     * @param pred The {@link IntPredicate} to apply.
+     * @return The filtered {@link IntFastStream}.
+     */
+    default IntFastStream filterNot(IntPredicate pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filterNot", s -> new Filtered(s, pred.negate()));
+        return new Filtered(this, pred.negate());
+    }
+
+    /**
+     * Returns an {@link IntFastStream} with each element transformed by
+     * the provided {@link IntUnaryOperator}.
+     *
+     * @param func The {@link IntUnaryOperator} to apply.
+     * @return The transformed {@link IntFastStream}.
+     */
+    default IntFastStream map(IntUnaryOperator func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "map", s -> new Mapped(s, func));
+        return new Mapped(this, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by
+     * the provided {@link IntFunction}.
+     *
+     * @param func The {@link IntFunction} to apply.
+     * @return The transformed {@link FastStream}.
+     */
+    default <R> FastStream<R> mapToObj(IntFunction<? extends R> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToObj", s -> new MappedToObj<>(s, func));
+        return new MappedToObj<>(this, func);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} with each element transformed by
+     * the provided {@link IntToLongFunction}.
+     *
+     * @param func The {@link IntToLongFunction} to apply.
+     * @return The transformed {@link LongFastStream}.
+     */
+    default LongFastStream mapToLong(IntToLongFunction func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToLong", s -> new MappedToLong(s, func));
+        return new MappedToLong(this, func);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} with each element transformed by
+     * the provided {@link IntToDoubleFunction}.
+     *
+     * @param func The {@link IntToDoubleFunction} to apply.
+     * @return The transformed {@link DoubleFastStream}.
+     */
+    default DoubleFastStream mapToDouble(IntToDoubleFunction func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToDouble", s -> new MappedToDouble(s, func));
+        return new MappedToDouble(this, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} of each element boxed to an {@link Integer}.
+     *
+     * @return The boxed {@link FastStream}.
+     */
+    default FastStream<Integer> boxed() {
+        return mapToObj(Integer::valueOf);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} containing all unique elements.
+     *
+     * @return The distinct filtered {@link IntFastStream}.
+     */
+    default IntFastStream distinct() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "distinct", Distinct::new);
+        return new Distinct(this);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} sorted in ascending order.
+     *
+     * @return The sorted {@link IntFastStream}.
+     */
+    default IntFastStream sorted() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "sorted", Sorted::new);
+        return new Sorted(this);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} which listens to all the elements which pass to the next operation.
+     *
+     * @param cons The listener {@link IntConsumer}.
+     * @return The {@link IntFastStream}.
+     */
+    default IntFastStream peek(IntConsumer cons) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "peek", s -> new Peeked(s, cons));
+        return new Peeked(this, cons);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} which will let at most {@code max} elements pass.
+     * <p>
+     * A special case of {@code -1} is provided to indicate no max limit.
+     *
+     * @param max The maximum amount of elements to pass through, or {@code -1}.
+     * @return The limited {@link IntFastStream}.
+     */
+    default IntFastStream limit(@Range (from = -1, to = Integer.MAX_VALUE) int max) {
+        if (max == -1) return this;
+        if (max <= 0) return empty();
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "limit", s -> new Sliced(s, 0, max));
+        return new Sliced(this, 0, max);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} which will skip {@code n} number of elements.
+     *
+     * @param n The number of elements to skip.
+     * @return The skipping {@link IntFastStream}.
+     */
+    default IntFastStream skip(@Range (from = 0, to = Integer.MAX_VALUE) int n) {
+        if (n == 0) return this;
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "skip", s -> new Sliced(s, n, Integer.MAX_VALUE));
+        return new Sliced(this, n, Integer.MAX_VALUE);
+    }
+    // endregion
+
+    // region Queries.
+
+    /**
+     * Performs the given action for each element of the stream, until the action returns {@code true}.
+     * <p>
+     * This is the short-circuiting counterpart to {@link #forEach}, stopping is cooperative and
+     * does not throw.
+     *
+     * @param action The action. Returning {@code true} stops evaluation.
+     * @return {@code true} if evaluation was stopped by the action.
+     * @see FastStream#forEachUntil
+     */
+    default boolean forEachUntil(IntPredicate action) {
+        PrimitiveIterator.OfInt itr = iterator();
+        while (itr.hasNext()) {
+            if (action.test(itr.nextInt())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tests if any element in the {@link IntFastStream} matches the provided {@link IntPredicate}.
+     *
+     * @param pred The {@link IntPredicate} to apply.
+     * @return If any element matches the {@link IntPredicate}.
+     */
+    default boolean anyMatch(IntPredicate pred) {
+        return forEachUntil(pred);
+    }
+
+    /**
+     * Tests if all elements in the {@link IntFastStream} match the provided {@link IntPredicate}.
+     *
+     * @param pred The {@link IntPredicate} to apply.
+     * @return If all elements match the {@link IntPredicate}.
+     */
+    default boolean allMatch(IntPredicate pred) {
+        return !anyMatch(pred.negate());
+    }
+
+    /**
+     * Tests if no elements in the {@link IntFastStream} match the provided {@link IntPredicate}.
+     *
+     * @param pred The {@link IntPredicate} to apply.
+     * @return If no elements match the {@link IntPredicate}.
+     */
+    default boolean noneMatch(IntPredicate pred) {
+        return !anyMatch(pred);
+    }
+
+    /**
+     * Tests if the stream is empty.
+     *
+     * @return If the stream is empty.
+     */
+    default boolean isEmpty() {
+        return knownLength() == 0 || !iterator().hasNext();
+    }
+
+    /**
+     * Returns the known length for the stream.
+     *
+     * @return The known length, or {@code -1}
+     * @see FastStream#knownLength()
+     */
+    default int knownLength() {
+        return knownLength(false);
+    }
+
+    /**
+     * Returns the known length for the stream.
+     *
+     * @param consumeToCalculate If the caller intends to consume the entire stream via {@link #forEach} after calling.
+     * @return The known length for the stream. {code -1} if the length is not known.
+     * @see FastStream#knownLength(boolean)
+     */
+    default int knownLength(boolean consumeToCalculate) {
+        return -1;
+    }
+
+    /**
+     * Evaluates the stream, counting the number of elements contained within.
+     *
+     * @return The number of elements in the stream.
+     */
+    default int count() {
+        int len = knownLength(true);
+        if (len >= 0) return len;
+
+        final class Cons implements IntConsumer {
+
+            private int count;
+
+            @Override
+            public void accept(int t) {
+                count++;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.count;
+    }
+    // endregion
+
+    // region Terminal operations
+
+    /**
+     * Returns the result of a folding operation applied to the {@link IntFastStream} contents.
+     *
+     * @param identity    The initial value.
+     * @param accumulator The {@link IntBinaryOperator} responsible for merging elements in the stream together.
+     * @return The result of the fold operation.
+     */
+    default int fold(int identity, IntBinaryOperator accumulator) {
+        final class Cons implements IntConsumer {
+
+            int ret = identity;
+
+            @Override
+            public void accept(int t) {
+                ret = accumulator.applyAsInt(ret, t);
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.ret;
+    }
+
+    /**
+     * Returns the result of a folding operation applied to the {@link IntFastStream} contents.
+     *
+     * @param accumulator The {@link IntBinaryOperator} responsible for merging elements in the stream together.
+     * @return Optionally, the result of the fold operation.
+     * Will be empty if the {@link IntFastStream} contained no elements.
+     */
+    default OptionalInt fold(IntBinaryOperator accumulator) {
+        final class Cons implements IntConsumer {
+
+            int ret;
+            boolean found = false;
+
+            @Override
+            public void accept(int t) {
+                if (!found) {
+                    ret = t;
+                } else {
+                    ret = accumulator.applyAsInt(ret, t);
+                }
+                found = true;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.found ? OptionalInt.of(cons.ret) : OptionalInt.empty();
+    }
+
+    /**
+     * Sum all elements in the stream.
+     *
+     * @return The sum of the elements.
+     */
+    default int sum() {
+        final class Cons implements IntConsumer {
+
+            private int sum;
+
+            @Override
+            public void accept(int t) {
+                sum += t;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.sum;
+    }
+
+    /**
+     * Sum all elements in the stream to a long.
+     * <p>
+     * Unlike {@link #sum()}, this will not overflow for large streams.
+     *
+     * @return The sum of the elements.
+     */
+    default long longSum() {
+        final class Cons implements IntConsumer {
+
+            private long sum;
+
+            @Override
+            public void accept(int t) {
+                sum += t;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.sum;
+    }
+
+    /**
+     * @return Optionally, the smallest element in the stream.
+     */
+    default OptionalInt min() {
+        return fold(Math::min);
+    }
+
+    /**
+     * @return Optionally, the largest element in the stream.
+     */
+    default OptionalInt max() {
+        return fold(Math::max);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass.
+     *
+     * @return The {@link IntStats}.
+     */
+    default IntStats stats() {
+        return stats(false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass.
+     *
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link IntStats}.
+     */
+    default IntStats stats(boolean distribution) {
+        IntStats stats = new IntStats(distribution);
+        forEach(stats);
+        return stats;
+    }
+
+    /**
+     * @return Optionally, the first element in the stream.
+     */
+    default OptionalInt findFirst() {
+        class Pred implements IntPredicate {
+
+            boolean found;
+            int value;
+
+            @Override
+            public boolean test(int t) {
+                found = true;
+                value = t;
+                return true;
+            }
+        }
+        Pred pred = new Pred();
+        forEachUntil(pred);
+        return pred.found ? OptionalInt.of(pred.value) : OptionalInt.empty();
+    }
+
+    /**
+     * @return The first element in the stream.
+     */
+    default int first() {
+        return findFirst().orElseThrow(() -> new IllegalArgumentException("Not found."));
+    }
+
+    /**
+     * @param _default The default value to return if the stream is empty.
+     * @return The first element in the stream, or {@code _default}.
+     */
+    default int firstOrDefault(int _default) {
+        return findFirst().orElse(_default);
+    }
+    // endregion
+
+    // region Collecting
+
+    /**
+     * Collects this stream into an {@code int[]}.
+     *
+     * @return The {@code int[]}.
+     */
+    default int[] toArray() {
+        int len = knownLength(true);
+        if (len >= 0) {
+            int[] array = new int[len];
+            forEach(new IntConsumer() {
+                int i = 0;
+
+                @Override
+                public void accept(int t) {
+                    array[i++] = t;
+                }
+            });
+            return array;
+        }
+
+        final class Cons implements IntConsumer {
+
+            private int[] array = new int[16];
+            private int size;
+
+            @Override
+            public void accept(int t) {
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size * 2);
+                }
+                array[size++] = t;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return Arrays.copyOf(cons.array, cons.size);
+    }
+
+    /**
+     * Collects this stream into an {@link IntArrayList}.
+     *
+     * @return The {@link IntArrayList}.
+     */
+    default IntArrayList toList() {
+        IntArrayList list = new IntArrayList(Math.max(0, knownLength()));
+        forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Collects this stream into an {@link IntOpenHashSet}.
+     *
+     * @return The {@link IntOpenHashSet}.
+     */
+    default IntOpenHashSet toSet() {
+        IntOpenHashSet set = new IntOpenHashSet(Math.max(0, knownLength()));
+        forEach(set::add);
+        return set;
+    }
+    // endregion
+
+    // region Creation and Composition implementations.
+
+    /**
+     * An {@link IntFastStream} for an array slice.
+     */
+    final class OfN implements IntFastStream {
+
+        private final int[] things;
+        private final int from;
+        private final int until;
+
+        private OfN(int[] things, int from, int until) {
+            this.things = things;
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < until;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (i >= until) throw new NoSuchElementException();
+                    return things[i++];
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int i = from; i < until; i++) {
+                action.accept(things[i]);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            for (int i = from; i < until; i++) {
+                if (action.test(things[i])) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return until - from;
+        }
+
+        @Override
+        public int[] toArray() {
+            return Arrays.copyOfRange(things, from, until);
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} for a range of ints.
+     */
+    final class Ranged implements IntFastStream {
+
+        private final int from;
+        private final int until;
+
+        private Ranged(int from, int until) {
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < until;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (i >= until) throw new NoSuchElementException();
+                    return i++;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int i = from; i < until; i++) {
+                action.accept(i);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            for (int i = from; i < until; i++) {
+                if (action.test(i)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            long len = (long) until - from;
+            return len > Integer.MAX_VALUE ? -1 : (int) len;
+        }
+    }
+
+    /**
+     * Two {@link IntFastStream}s concatenated together.
+     */
+    final class Concatenated implements IntFastStream {
+
+        private final IntFastStream a;
+        private final IntFastStream b;
+
+        private Concatenated(IntFastStream a, IntFastStream b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new Internal.AbstractIntIterator() {
+                private PrimitiveIterator.OfInt itr = a.iterator();
+                private boolean second;
+
+                @Override
+                protected int computeNext() {
+                    while (true) {
+                        if (itr.hasNext()) return itr.nextInt();
+                        if (second) return endOfData();
+                        itr = b.iterator();
+                        second = true;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            a.forEach(action);
+            b.forEach(action);
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            return a.forEachUntil(action) || b.forEachUntil(action);
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int aLen = a.knownLength(consumeToCalculate);
+            if (aLen < 0) return -1;
+            int bLen = b.knownLength(consumeToCalculate);
+            if (bLen < 0) return -1;
+            return aLen + bLen;
+        }
+    }
+    // endregion
+
+    // region Stream operation implementations.
+
+    /**
+     * An {@link IntFastStream} with a filtering function applied.
+     */
+    final class Filtered implements IntFastStream {
+
+        private final IntFastStream parent;
+        private final IntPredicate pred;
+
+        private Filtered(IntFastStream parent, IntPredicate pred) {
+            this.parent = parent;
+            this.pred = pred;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new Internal.AbstractIntIterator() {
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+
+                @Override
+                protected int computeNext() {
+                    while (itr.hasNext()) {
+                        int e = itr.nextInt();
+                        if (pred.test(e)) {
+                            return e;
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            parent.forEach(e -> {
+                if (pred.test(e)) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            return parent.forEachUntil(e -> pred.test(e) && action.test(e));
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} with a mapping function applied.
+     */
+    final class Mapped implements IntFastStream {
+
+        private final IntFastStream parent;
+        private final IntUnaryOperator func;
+
+        private Mapped(IntFastStream parent, IntUnaryOperator func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public int nextInt() {
+                    return func.applyAsInt(itr.nextInt());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsInt(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsInt(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link FastStream} with a mapping function applied to each int.
+     */
+    final class MappedToObj<R> implements FastStream<R> {
+
+        private final IntFastStream parent;
+        private final IntFunction<? extends R> func;
+
+        private MappedToObj(IntFastStream parent, IntFunction<? extends R> func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new Iterator<R>() {
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public R next() {
+                    return func.apply(itr.nextInt());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            parent.forEach(e -> action.accept(func.apply(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            return parent.forEachUntil(e -> action.test(func.apply(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} with a mapping function applied to each int.
+     */
+    final class MappedToLong implements LongFastStream {
+
+        private final IntFastStream parent;
+        private final IntToLongFunction func;
+
+        private MappedToLong(IntFastStream parent, IntToLongFunction func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new PrimitiveIterator.OfLong() {
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public long nextLong() {
+                    return func.applyAsLong(itr.nextInt());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsLong(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsLong(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link DoubleFastStream} with a mapping function applied to each int.
+     */
+    final class MappedToDouble implements DoubleFastStream {
+
+        private final IntFastStream parent;
+        private final IntToDoubleFunction func;
+
+        private MappedToDouble(IntFastStream parent, IntToDoubleFunction func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new PrimitiveIterator.OfDouble() {
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public double nextDouble() {
+                    return func.applyAsDouble(itr.nextInt());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsDouble(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsDouble(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} containing only unique elements.
+     */
+    final class Distinct implements IntFastStream {
+
+        private final IntFastStream parent;
+
+        private int knownLength = -1;
+
+        private Distinct(IntFastStream parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new Internal.AbstractIntIterator() {
+                private final IntOpenHashSet set = new IntOpenHashSet();
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+
+                @Override
+                protected int computeNext() {
+                    while (itr.hasNext()) {
+                        int e = itr.nextInt();
+                        if (set.add(e)) {
+                            return e;
+                        }
+                    }
+                    knownLength = set.size();
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            IntOpenHashSet set = new IntOpenHashSet();
+            parent.forEach(e -> {
+                if (set.add(e)) {
+                    action.accept(e);
+                }
+            });
+            knownLength = set.size();
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            IntOpenHashSet set = new IntOpenHashSet();
+            if (parent.forEachUntil(e -> set.add(e) && action.test(e))) return true;
+
+            knownLength = set.size();
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return knownLength;
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} sorted in ascending order.
+     */
+    final class Sorted implements IntFastStream {
+
+        private final IntFastStream parent;
+
+        private int @Nullable [] sorted = null;
+
+        private Sorted(IntFastStream parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            int[] sorted = getSorted();
+            return new OfN(sorted, 0, sorted.length).iterator();
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int t : getSorted()) {
+                action.accept(t);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            for (int t : getSorted()) {
+                if (action.test(t)) return true;
+            }
+            return false;
+        }
+
+        private int[] getSorted() {
+            if (sorted == null) {
+                sorted = parent.toArray();
+                Arrays.sort(sorted);
+            }
+            return sorted;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return consumeToCalculate ? getSorted().length : parent.knownLength(false);
+        }
+
+        @Override
+        public int[] toArray() {
+            return getSorted().clone();
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} with a listener attached.
+     */
+    final class Peeked implements IntFastStream {
+
+        private final IntFastStream parent;
+        private final IntConsumer cons;
+
+        private Peeked(IntFastStream parent, IntConsumer cons) {
+            this.parent = parent;
+            this.cons = cons;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public int nextInt() {
+                    int n = itr.nextInt();
+                    cons.accept(n);
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            parent.forEach(e -> {
+                cons.accept(e);
+                action.accept(e);
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            return parent.forEachUntil(e -> {
+                cons.accept(e);
+                return action.test(e);
+            });
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} recording the elements produced by a stage, for {@link Profiler}.
+     */
+    final class Probed implements IntFastStream, Profiler.ProbedStage {
+
+        private final IntFastStream stage;
+        private final Profiler.Probe probe;
+
+        Probed(IntFastStream stage, Profiler profiler, String op, Profiler.@Nullable ProbedStage upstream) {
+            this.stage = stage;
+            probe = new Profiler.Probe(profiler, op, upstream, stage.knownLength(false));
+        }
+
+        @Override
+        public Profiler.Probe probe() {
+            return probe;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            PrimitiveIterator.OfInt itr;
+            scope.enter();
+            try {
+                itr = stage.iterator();
+            } finally {
+                scope.exit();
+            }
+            return new PrimitiveIterator.OfInt() {
+                @Override
+                public boolean hasNext() {
+                    boolean hasNext;
+                    long start = scope.beginCall();
+                    try {
+                        hasNext = itr.hasNext();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    if (!hasNext) {
+                        scope.report();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public int nextInt() {
+                    int n;
+                    long start = scope.beginCall();
+                    try {
+                        n = itr.nextInt();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    scope.produced();
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            class Cons extends Profiler.Sampler implements IntConsumer {
+
+                @Override
+                public void accept(int n) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        action.accept(n);
+                        sampled(System.nanoTime() - start);
+                    } else {
+                        action.accept(n);
+                    }
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Cons cons = new Cons();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                stage.forEach(cons);
+            } finally {
+                scope.end(System.nanoTime() - start, cons);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            class Pred extends Profiler.Sampler implements IntPredicate {
+
+                @Override
+                public boolean test(int n) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        boolean ret = action.test(n);
+                        sampled(System.nanoTime() - start);
+                        return ret;
+                    }
+                    return action.test(n);
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Pred pred = new Pred();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                return stage.forEachUntil(pred);
+            } finally {
+                scope.end(System.nanoTime() - start, pred);
+            }
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return stage.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} with a min/max filter applied.
+     */
+    final class Sliced implements IntFastStream {
+
+        private final IntFastStream parent;
+        private final int min;
+        private final int max;
+
+        private Sliced(IntFastStream parent, int min, int max) {
+            this.parent = parent;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new Internal.AbstractIntIterator() {
+                private final PrimitiveIterator.OfInt itr = parent.iterator();
+                private int i;
+
+                @Override
+                protected int computeNext() {
+                    while (i < min && itr.hasNext()) {
+                        itr.nextInt();
+                        i++;
+                    }
+                    if (i++ >= max || !itr.hasNext()) return endOfData();
+                    return itr.nextInt();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            forEachUntil(e -> {
+                action.accept(e);
+                return false;
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            class Pred implements IntPredicate {
+
+                int i = 0;
+                boolean stopped;
+
+                @Override
+                public boolean test(int t) {
+                    int n = i++;
+                    if (n < min) return false;
+                    if (action.test(t)) {
+                        stopped = true;
+                        return true;
+                    }
+                    // Stop as soon as the last element has been consumed.
+                    return i >= max;
+                }
+            }
+            Pred pred = new Pred();
+            parent.forEachUntil(pred);
+            return pred.stopped;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int pLen = parent.knownLength(consumeToCalculate);
+            if (pLen == -1) return -1;
+
+            return Math.min(Math.max(pLen - min, 0), max);
+        }
+    }
+    // endregion
+
+    // region Internal.
+    class Internal {
+
+        private Internal() { }
+
+        /**
+         * Attempts to split a {@link #mapToObj} stream, for use by {@link ParallelFastStream}.
+         *
+         * @param stream The stream to split.
+         * @param parts  The maximum number of segments.
+         * @return The segments, or {@code null} if the stream can't be split.
+         */
+        static <R> FastStream<R> @Nullable [] trySplit(FastStream<R> stream, int parts) {
+            if (!(stream instanceof MappedToObj)) return null;
+
+            MappedToObj<R> mapped = (MappedToObj<R>) stream;
+            IntFastStream[] split = trySplit(mapped.parent, parts);
+            if (split == null) return null;
+
+            @SuppressWarnings ({ "unchecked", "rawtypes" })
+            FastStream<R>[] segments = new FastStream[split.length];
+            for (int i = 0; i < split.length; i++) {
+                segments[i] = new MappedToObj<>(split[i], mapped.func);
+            }
+            return segments;
+        }
+
+        private static IntFastStream @Nullable [] trySplit(IntFastStream stream, int parts) {
+            if (stream instanceof OfN) {
+                OfN ofN = (OfN) stream;
+                int len = ofN.until - ofN.from;
+                int n = Math.max(1, Math.min(parts, len));
+                IntFastStream[] segments = new IntFastStream[n];
+                for (int i = 0; i < n; i++) {
+                    segments[i] = new OfN(ofN.things, ofN.from + (int) ((long) len * i / n), ofN.from + (int) ((long) len * (i + 1) / n));
+                }
+                return segments;
+            }
+            if (stream instanceof Ranged) {
+                Ranged ranged = (Ranged) stream;
+                long len = (long) ranged.until - ranged.from;
+                int n = (int) Math.max(1, Math.min(parts, len));
+                IntFastStream[] segments = new IntFastStream[n];
+                for (int i = 0; i < n; i++) {
+                    segments[i] = new Ranged((int) (ranged.from + len * i / n), (int) (ranged.from + len * (i + 1) / n));
+                }
+                return segments;
+            }
+            if (stream instanceof Filtered) {
+                Filtered filtered = (Filtered) stream;
+                IntFastStream[] split = trySplit(filtered.parent, parts);
+                if (split == null) return null;
+                for (int i = 0; i < split.length; i++) {
+                    split[i] = new Filtered(split[i], filtered.pred);
+                }
+                return split;
+            }
+            if (stream instanceof Mapped) {
+                Mapped mapped = (Mapped) stream;
+                IntFastStream[] split = trySplit(mapped.parent, parts);
+                if (split == null) return null;
+                for (int i = 0; i < split.length; i++) {
+                    split[i] = new Mapped(split[i], mapped.func);
+                }
+                return split;
+            }
+            return null;
+        }
+
+        /**
+         * Primitive form of {@link AbstractIterator}.
+         */
+        abstract static class AbstractIntIterator implements PrimitiveIterator.OfInt {
+
+            private static final int CONSUMED = 0;
+            private static final int HAS_NEXT = 1;
+            private static final int END_OF_DATA = 2;
+
+            private int state;
+            private int next;
+
+            protected abstract int computeNext();
+
+            @Override
+            public final boolean hasNext() {
+                if (state == END_OF_DATA) return false;
+                if (state == CONSUMED) {
+                    state = HAS_NEXT;
+                    next = computeNext();
+                }
+                return state == HAS_NEXT;
+            }
+
+            @Override
+            public final int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                state = CONSUMED;
+                return next;
+            }
+
+            protected final int endOfData() {
+                state = END_OF_DATA;
+                return 0;
+            }
+        }
+
+        // @formatter:off
+        private static class Empty implements IntFastStream {
+            @Override public PrimitiveIterator.OfInt iterator() { return new Ranged(0, 0).iterator(); }
+            @Override public void forEach(IntConsumer action) { }
+            @Override public boolean forEachUntil(IntPredicate action) { return false; }
+            @Override public IntFastStream concat(IntFastStream other) { return other; }
+            @Override public IntFastStream filter(IntPredicate pred) { return this; }
+            @Override public IntFastStream filterNot(IntPredicate pred) { return this; }
+            @Override public IntFastStream map(IntUnaryOperator func) { return this; }
+            @Override public <R> FastStream<R> mapToObj(IntFunction<? extends R> func) { return FastStream.empty(); }
+            @Override public LongFastStream mapToLong(IntToLongFunction func) { return LongFastStream.empty(); }
+            @Override public DoubleFastStream mapToDouble(IntToDoubleFunction func) { return DoubleFastStream.empty(); }
+            @Override public IntFastStream distinct() { return this; }
+            @Override public IntFastStream sorted() { return this; }
+            @Override public IntFastStream peek(IntConsumer cons) { return this; }
+            @Override public IntFastStream limit(int max) { return this; }
+            @Override public IntFastStream skip(int n) { return this; }
+            @Override public boolean anyMatch(IntPredicate pred) { return false; }
+            @Override public boolean allMatch(IntPredicate pred) { return true; }
+            @Override public boolean noneMatch(IntPredicate pred) { return true; }
+            @Override public boolean isEmpty() { return true; }
+            @Override public int knownLength() { return 0; }
+            @Override public int knownLength(boolean consumeToCalculate) { return 0; }
+            @Override public int count() { return 0; }
+            @Override public int fold(int identity, IntBinaryOperator accumulator) { return identity; }
+            @Override public OptionalInt fold(IntBinaryOperator accumulator) { return OptionalInt.empty(); }
+            @Override public int sum() { return 0; }
+            @Override public long longSum() { return 0; }
+            @Override public OptionalInt min() { return OptionalInt.empty(); }
+            @Override public OptionalInt max() { return OptionalInt.empty(); }
+            @Override public OptionalInt findFirst() { return OptionalInt.empty(); }
+            @Override public int first() { throw new IllegalArgumentException("Not found."); }
+            @Override public int firstOrDefault(int _default) { return _default; }
+            @Override public int[] toArray() { return new int[0]; }
+            // @formatter:on
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,324 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.util.SneakyUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.*;
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * Backing implementation for {@link FastStream#lines} and {@link FastStream#lineSequences}.
+ * <p>
+ * The file is memory mapped in windows of at most {@link #WINDOW_SIZE} bytes, which are
+ * scanned for line terminators at the byte level, 8 bytes at a time. Elements are only
+ * decoded once produced, or in the case of {@link CharSequence} views, once accessed.
+ * <p>
+ * As with {@link java.io.BufferedReader#readLine()}, lines are terminated by {@code '\n'},
+ * {@code '\r'} or {@code "\r\n"}. Only charsets which encode these as single bytes, which
+ * never appear within another character, are supported. Such as {@code UTF-8} and
+ * {@code ISO-8859-1}.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+final class LineScanner<T> extends AbstractIterator<T> {
+
+    static final int WINDOW_SIZE = 1 << 30;
+    private static final int SPLIT_READ_SIZE = 8192;
+
+    private static final long LF = 0x0A0A0A0A0A0A0A0AL;
+    private static final long CR = 0x0D0D0D0D0D0D0D0DL;
+    private static final long LOW = 0x0101010101010101L;
+    private static final long HIGH = 0x8080808080808080L;
+
+    private final Path path;
+    private final Charset charset;
+    private final boolean views;
+    private final long until;
+    private final int windowSize;
+
+    private @Nullable ByteBuffer window;
+    private long windowStart;
+    // The number of bytes in the window which may be scanned, leaving room to peek for "\r\n".
+    private int scanLimit;
+    // The file offset of the next line.
+    private long pos;
+
+    // Scratch space for decoding Strings.
+    private @Nullable ByteBuffer dup;
+    private byte[] scratch = new byte[256];
+
+    LineScanner(Path path, Charset charset, boolean views, long from, long until) {
+        this(path, charset, views, from, until, WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize The maximum number of bytes to map at once, must be at least 2.
+     *                   Each line, with its terminator, must fit within a window.
+     */
+    LineScanner(Path path, Charset charset, boolean views, long from, long until, int windowSize) {
+        if (windowSize < 2) throw new IllegalArgumentException("Window size must be at least 2.");
+
+        this.path = path;
+        this.charset = charset;
+        this.views = views;
+        this.until = until;
+        this.windowSize = windowSize;
+        pos = from;
+    }
+
+    /**
+     * Check that the given charset can be scanned for lines at the byte level.
+     *
+     * @param charset The charset.
+     * @throws IllegalArgumentException If the charset is not supported.
+     */
+    static void checkCharset(Charset charset) {
+        if (charset.equals(UTF_8) || charset.equals(US_ASCII) || charset.equals(ISO_8859_1)) return;
+
+        if (charset.canEncode()
+            && charset.newEncoder().maxBytesPerChar() == 1
+            && Arrays.equals("\r\n".getBytes(charset), new byte[] { '\r', '\n' })) {
+            return;
+        }
+        throw new IllegalArgumentException("Charset " + charset + " does not support byte level line scanning.");
+    }
+
+    /**
+     * Gets the size of the given file.
+     *
+     * @param path The file.
+     * @return The size in bytes.
+     */
+    static long size(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.size();
+        } catch (IOException ex) {
+            SneakyUtils.throwUnchecked(ex);
+            return -1;
+        }
+    }
+
+    /**
+     * Computes up to {@code parts} ranges of the given file region, each starting at the beginning of a line.
+     *
+     * @param path  The file.
+     * @param from  The start of the region, at the beginning of a line.
+     * @param until The end of the region.
+     * @param parts The maximum number of ranges.
+     * @return The boundaries of each range, starting with {@code from} and ending with {@code until}.
+     */
+    static long[] split(Path path, long from, long until, int parts) {
+        long[] bounds = new long[Math.max(1, parts) + 1];
+        int n = 0;
+        bounds[n++] = from;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(SPLIT_READ_SIZE + 1);
+            for (int i = 1; i < parts; i++) {
+                long candidate = from + (until - from) * i / parts;
+                if (candidate <= bounds[n - 1]) continue;
+
+                long start = nextLineStart(channel, buf, candidate, until);
+                if (start >= until) break;
+                bounds[n++] = start;
+            }
+        } catch (IOException ex) {
+            SneakyUtils.throwUnchecked(ex);
+        }
+        bounds[n++] = until;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    // Finds the first line start at, or after, pos.
+    private static long nextLineStart(FileChannel channel, ByteBuffer buf, long pos, long until) throws IOException {
+        // Read from the byte before pos, so we can tell if pos itself starts a line.
+        long offset = pos - 1;
+        while (offset < until) {
+            buf.clear();
+            int len = channel.read(buf, offset);
+            if (len <= 0) break;
+
+            for (int i = 0; i < len; i++) {
+                byte b = buf.get(i);
+                if (b == '\n') return offset + i + 1;
+                if (b == '\r') {
+                    if (i + 1 == len) {
+                        // Can't see the next byte, re-read from the '\r'.
+                        if (i == 0) return offset + 1;
+                        break;
+                    }
+                    if (buf.get(i + 1) != '\n') return offset + i + 1;
+                }
+            }
+            offset += len == 1 ? 1 : len - 1;
+        }
+        return until;
+    }
+
+    @Override
+    protected T computeNext() {
+        while (pos < until) {
+            ByteBuffer window = this.window;
+            if (window == null || pos >= windowStart + scanLimit) {
+                window = map(pos);
+            }
+            int start = (int) (pos - windowStart);
+            int term = indexOfTerminator(window, start, scanLimit);
+            if (term == -1) {
+                if (windowStart + window.limit() < until) {
+                    // Line continues past the window, remap from the start of the line.
+                    if (start == 0) throw new IllegalStateException("Line at offset " + pos + " exceeds " + windowSize + " bytes.");
+                    map(pos);
+                    continue;
+                }
+                // Final line, without a terminator.
+                pos = until;
+                return line(window, start, window.limit());
+            }
+            int next = term + 1;
+            if (window.get(term) == '\r' && next < window.limit() && window.get(next) == '\n') {
+                next++;
+            }
+            pos = windowStart + next;
+            return line(window, start, term);
+        }
+        return endOfData();
+    }
+
+    private ByteBuffer map(long from) {
+        long size = Math.min(windowSize, until - from);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping remains valid after the channel is closed.
+            window = channel.map(FileChannel.MapMode.READ_ONLY, from, size);
+        } catch (IOException ex) {
+            SneakyUtils.throwUnchecked(ex);
+        }
+        windowStart = from;
+        dup = null;
+        scanLimit = from + size < until ? (int) size - 1 : (int) size;
+        return window;
+    }
+
+    private T line(ByteBuffer window, int start, int end) {
+        if (views) return unsafeCast(new LineView(window, start, end, charset));
+
+        ByteBuffer dup = this.dup;
+        if (dup == null) {
+            dup = this.dup = window.duplicate();
+        }
+        int len = end - start;
+        if (scratch.length < len) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+        dup.clear();
+        dup.position(start);
+        dup.get(scratch, 0, len);
+        return unsafeCast(new String(scratch, 0, len, charset));
+    }
+
+    private static int indexOfTerminator(ByteBuffer buf, int from, int until) {
+        int i = from;
+        for (; i + 8 <= until; i += 8) {
+            long word = buf.getLong(i);
+            if (hasZeroByte(word ^ LF) || hasZeroByte(word ^ CR)) break;
+        }
+        for (; i < until; i++) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r') return i;
+        }
+        return -1;
+    }
+
+    private static boolean hasZeroByte(long word) {
+        return ((word - LOW) & ~word & HIGH) != 0;
+    }
+
+    /**
+     * A {@link CharSequence} view of a single line within a mapped window.
+     * <p>
+     * Lines in {@code ISO-8859-1}, or containing only ASCII in an ASCII compatible charset,
+     * are accessed directly from the window. Otherwise, the line is decoded on first access.
+     */
+    private static final class LineView implements CharSequence {
+
+        private final ByteBuffer window;
+        private final int start;
+        private final int end;
+        private final Charset charset;
+
+        // 0 if not yet determined, 1 if direct, 2 if decoded.
+        private byte mode;
+        private @Nullable String decoded;
+
+        private LineView(ByteBuffer window, int start, int end, Charset charset) {
+            this.window = window;
+            this.start = start;
+            this.end = end;
+            this.charset = charset;
+        }
+
+        private boolean direct() {
+            if (mode == 0) {
+                mode = isDirect() ? (byte) 1 : (byte) 2;
+            }
+            return mode == 1;
+        }
+
+        private boolean isDirect() {
+            if (charset.equals(ISO_8859_1)) return true;
+            if (!charset.equals(UTF_8) && !charset.equals(US_ASCII)) return false;
+
+            for (int i = start; i < end; i++) {
+                if (window.get(i) < 0) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int length() {
+            return direct() ? end - start : toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (!direct()) return toString().charAt(index);
+
+            if (index < 0 || index >= end - start) throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + (end - start));
+            return (char) (window.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int until) {
+            if (!direct()) return toString().subSequence(from, until);
+
+            if (from < 0 || until > end - start || from > until) throw new IndexOutOfBoundsException("Range: [" + from + ", " + until + "), Length: " + (end - start));
+            LineView view = new LineView(window, start + from, start + until, charset);
+            view.mode = 1;
+            return view;
+        }
+
+        @Override
+        public String toString() {
+            String decoded = this.decoded;
+            if (decoded == null) {
+                ByteBuffer dup = window.duplicate();
+                dup.clear();
+                dup.position(start);
+                byte[] bytes = new byte[end - start];
+                dup.get(bytes);
+                decoded = this.decoded = new String(bytes, charset);
+            }
+            return decoded;
+        }
+    }
+}
@@ -0,0 +1,1477 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.primitive.LongArrayList;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * A primitive {@code long} specialization of {@link FastStream}.
+ * <p>
+ * All operations are performed with primitive functional interfaces, elements
+ * are never boxed unless explicitly requested via {@link #boxed()} or {@link #mapToObj}.
+ * <p>
+ * As with {@link FastStream}, the fast path is {@link #forEach(LongConsumer)}, which is
+ * recommended if you intend on consuming the entire stream.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public interface LongFastStream {
+
+    // region Creation and Constants.
+
+    /**
+     * Static empty instance.
+     */
+    LongFastStream EMPTY = new Internal.Empty();
+
+    /**
+     * Returns an empty {@link LongFastStream} singleton.
+     *
+     * @return An empty {@link LongFastStream}.
+     */
+    static LongFastStream empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Overload of {@link #empty()} for convenience.
+     *
+     * @return An empty {@link LongFastStream}.
+     */
+    static LongFastStream of() {
+        return empty();
+    }
+
+    /**
+     * Returns a {@link LongFastStream} for an array of longs.
+     * <p>
+     * The array is not copied.
+     *
+     * @param things The longs.
+     * @return The {@link LongFastStream}.
+     */
+    static LongFastStream of(long... things) {
+        return of(things, 0, things.length);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} for a slice of an array of longs.
+     * <p>
+     * The array is not copied.
+     *
+     * @param things The longs.
+     * @param from   The start index, inclusive.
+     * @param until  The end index, exclusive.
+     * @return The {@link LongFastStream}.
+     */
+    static LongFastStream of(long[] things, int from, int until) {
+        if (from < 0 || until > things.length || from > until) throw new IndexOutOfBoundsException();
+        if (from == until) return empty();
+
+        return new OfN(things, from, until);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} for all longs between {@code from} and {@code until}.
+     *
+     * @param from  The start, inclusive.
+     * @param until The end, exclusive.
+     * @return The {@link LongFastStream}.
+     */
+    static LongFastStream range(long from, long until) {
+        if (from >= until) return empty();
+
+        return new Ranged(from, until);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} for all longs between {@code from} and {@code to}.
+     *
+     * @param from The start, inclusive.
+     * @param to   The end, inclusive.
+     * @return The {@link LongFastStream}.
+     */
+    static LongFastStream rangeClosed(long from, long to) {
+        if (from > to) return empty();
+        if (to == Long.MAX_VALUE) {
+            // Can't express as an exclusive range.
+            return range(from, to).concat(of(to));
+        }
+        return range(from, to + 1);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} with the provided stream concatenated after.
+     *
+     * @param other The other.
+     * @return The concatenated {@link LongFastStream}.
+     */
+    default LongFastStream concat(LongFastStream other) {
+        if (other == EMPTY) return this;
+
+        return new Concatenated(this, other);
+    }
+    // endregion
+
+    // region Abstract.
+
+    /**
+     * @return A primitive {@link PrimitiveIterator.OfLong} over the stream.
+     */
+    PrimitiveIterator.OfLong iterator();
+
+    /**
+     * Consume all elements in the stream.
+     * <p>
+     * This is the fast path for the stream.
+     *
+     * @param action The action to perform on each element.
+     */
+    void forEach(LongConsumer action);
+    // endregion
+
+    // region Stream operations
+
+    /**
+     * Returns a {@link LongFastStream} containing all elements that pass
+     * the provided {@link LongPredicate} filter.
+     *
+     * @param pred The {@link LongPredicate} to apply.
+     * @return The filtered {@link LongFastStream}.
+     */
+    default LongFastStream filter(LongPredicate pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filter", s -> new Filtered(s, pred));
+        return new Filtered(this, pred);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} containing all elements that fail
+     * the provided {@link LongPredicate} filter.
+     *
+     * @param pred The {@link LongPredicate} to apply.
+     * @return The filtered {@link LongFastStream}.
+     */
+    default LongFastStream filterNot(LongPredicate pred) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "filterNot", s -> new Filtered(s, pred.negate()));
+        return new Filtered(this, pred.negate());
+    }
+
+    /**
+     * Returns a {@link LongFastStream} with each element transformed by
+     * the provided {@link LongUnaryOperator}.
+     *
+     * @param func The {@link LongUnaryOperator} to apply.
+     * @return The transformed {@link LongFastStream}.
+     */
+    default LongFastStream map(LongUnaryOperator func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "map", s -> new Mapped(s, func));
+        return new Mapped(this, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} with each element transformed by
+     * the provided {@link LongFunction}.
+     *
+     * @param func The {@link LongFunction} to apply.
+     * @return The transformed {@link FastStream}.
+     */
+    default <R> FastStream<R> mapToObj(LongFunction<? extends R> func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToObj", s -> new MappedToObj<>(s, func));
+        return new MappedToObj<>(this, func);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} with each element transformed by
+     * the provided {@link LongToIntFunction}.
+     *
+     * @param func The {@link LongToIntFunction} to apply.
+     * @return The transformed {@link IntFastStream}.
+     */
+    default IntFastStream mapToInt(LongToIntFunction func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToInt", s -> new MappedToInt(s, func));
+        return new MappedToInt(this, func);
+    }
+
+    /**
+     * Returns a {@link DoubleFastStream} with each element transformed by
+     * the provided {@link LongToDoubleFunction}.
+     *
+     * @param func The {@link LongToDoubleFunction} to apply.
+     * @return The transformed {@link DoubleFastStream}.
+     */
+    default DoubleFastStream mapToDouble(LongToDoubleFunction func) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "mapToDouble", s -> new MappedToDouble(s, func));
+        return new MappedToDouble(this, func);
+    }
+
+    /**
+     * Returns a {@link FastStream} of each element boxed to an {@link Long}.
+     *
+     * @return The boxed {@link FastStream}.
+     */
+    default FastStream<Long> boxed() {
+        return mapToObj(Long::valueOf);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} containing all unique elements.
+     *
+     * @return The distinct filtered {@link LongFastStream}.
+     */
+    default LongFastStream distinct() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "distinct", Distinct::new);
+        return new Distinct(this);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} sorted in ascending order.
+     *
+     * @return The sorted {@link LongFastStream}.
+     */
+    default LongFastStream sorted() {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "sorted", Sorted::new);
+        return new Sorted(this);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} which listens to all the elements which pass to the next operation.
+     *
+     * @param cons The listener {@link LongConsumer}.
+     * @return The {@link LongFastStream}.
+     */
+    default LongFastStream peek(LongConsumer cons) {
+        if (Profiler.enabled(this)) return Profiler.stage(this, "peek", s -> new Peeked(s, cons));
+        return new Peeked(this, cons);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} which will let at most {@code max} elements pass.
+     * <p>
+     * A special case of {@code -1} is provided to indicate no max limit.
+     *
+     * @param max The maximum amount of elements to pass through, or {@code -1}.
+     * @return The limited {@link LongFastStream}.
+     */
+    default LongFastStream limit(@Range (from = -1, to = Integer.MAX_VALUE) int max) {
+        if (max == -1) return this;
+        if (max <= 0) return empty();
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "limit", s -> new Sliced(s, 0, max));
+        return new Sliced(this, 0, max);
+    }
+
+    /**
+     * Returns a {@link LongFastStream} which will skip {@code n} number of elements.
+     *
+     * @param n The number of elements to skip.
+     * @return The skipping {@link LongFastStream}.
+     */
+    default LongFastStream skip(@Range (from = 0, to = Integer.MAX_VALUE) int n) {
+        if (n == 0) return this;
+
+        if (Profiler.enabled(this)) return Profiler.stage(this, "skip", s -> new Sliced(s, n, Integer.MAX_VALUE));
+        return new Sliced(this, n, Integer.MAX_VALUE);
+    }
+    // endregion
+
+    // region Queries.
+
+    /**
+     * Performs the given action for each element of the stream, until the action returns {@code true}.
+     * <p>
+     * This is the short-circuiting counterpart to {@link #forEach}, stopping is cooperative and
+     * does not throw.
+     *
+     * @param action The action. Returning {@code true} stops evaluation.
+     * @return {@code true} if evaluation was stopped by the action.
+     * @see FastStream#forEachUntil
+     */
+    default boolean forEachUntil(LongPredicate action) {
+        PrimitiveIterator.OfLong itr = iterator();
+        while (itr.hasNext()) {
+            if (action.test(itr.nextLong())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tests if any element in the {@link LongFastStream} matches the provided {@link LongPredicate}.
+     *
+     * @param pred The {@link LongPredicate} to apply.
+     * @return If any element matches the {@link LongPredicate}.
+     */
+    default boolean anyMatch(LongPredicate pred) {
+        return forEachUntil(pred);
+    }
+
+    /**
+     * Tests if all elements in the {@link LongFastStream} match the provided {@link LongPredicate}.
+     *
+     * @param pred The {@link LongPredicate} to apply.
+     * @return If all elements match the {@link LongPredicate}.
+     */
+    default boolean allMatch(LongPredicate pred) {
+        return !anyMatch(pred.negate());
+    }
+
+    /**
+     * Tests if no elements in the {@link LongFastStream} match the provided {@link LongPredicate}.
+     *
+     * @param pred The {@link LongPredicate} to apply.
+     * @return If no elements match the {@link LongPredicate}.
+     */
+    default boolean noneMatch(LongPredicate pred) {
+        return !anyMatch(pred);
+    }
+
+    /**
+     * Tests if the stream is empty.
+     *
+     * @return If the stream is empty.
+     */
+    default boolean isEmpty() {
+        return knownLength() == 0 || !iterator().hasNext();
+    }
+
+    /**
+     * Returns the known length for the stream.
+     *
+     * @return The known length, or {@code -1}
+     * @see FastStream#knownLength()
+     */
+    default int knownLength() {
+        return knownLength(false);
+    }
+
+    /**
+     * Returns the known length for the stream.
+     *
+     * @param consumeToCalculate If the caller intends to consume the entire stream via {@link #forEach} after calling.
+     * @return The known length for the stream. {code -1} if the length is not known.
+     * @see FastStream#knownLength(boolean)
+     */
+    default int knownLength(boolean consumeToCalculate) {
+        return -1;
+    }
+
+    /**
+     * Evaluates the stream, counting the number of elements contained within.
+     *
+     * @return The number of elements in the stream.
+     */
+    default int count() {
+        int len = knownLength(true);
+        if (len >= 0) return len;
+
+        final class Cons implements LongConsumer {
+
+            private int count;
+
+            @Override
+            public void accept(long t) {
+                count++;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.count;
+    }
+    // endregion
+
+    // region Terminal operations
+
+    /**
+     * Returns the result of a folding operation applied to the {@link LongFastStream} contents.
+     *
+     * @param identity    The initial value.
+     * @param accumulator The {@link LongBinaryOperator} responsible for merging elements in the stream together.
+     * @return The result of the fold operation.
+     */
+    default long fold(long identity, LongBinaryOperator accumulator) {
+        final class Cons implements LongConsumer {
+
+            long ret = identity;
+
+            @Override
+            public void accept(long t) {
+                ret = accumulator.applyAsLong(ret, t);
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.ret;
+    }
+
+    /**
+     * Returns the result of a folding operation applied to the {@link LongFastStream} contents.
+     *
+     * @param accumulator The {@link LongBinaryOperator} responsible for merging elements in the stream together.
+     * @return Optionally, the result of the fold operation.
+     * Will be empty if the {@link LongFastStream} contained no elements.
+     */
+    default OptionalLong fold(LongBinaryOperator accumulator) {
+        final class Cons implements LongConsumer {
+
+            long ret;
+            boolean found = false;
+
+            @Override
+            public void accept(long t) {
+                if (!found) {
+                    ret = t;
+                } else {
+                    ret = accumulator.applyAsLong(ret, t);
+                }
+                found = true;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.found ? OptionalLong.of(cons.ret) : OptionalLong.empty();
+    }
+
+    /**
+     * Sum all elements in the stream.
+     *
+     * @return The sum of the elements.
+     */
+    default long sum() {
+        final class Cons implements LongConsumer {
+
+            private long sum;
+
+            @Override
+            public void accept(long t) {
+                sum += t;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return cons.sum;
+    }
+
+    /**
+     * @return Optionally, the smallest element in the stream.
+     */
+    default OptionalLong min() {
+        return fold(Math::min);
+    }
+
+    /**
+     * @return Optionally, the largest element in the stream.
+     */
+    default OptionalLong max() {
+        return fold(Math::max);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass.
+     *
+     * @return The {@link LongStats}.
+     */
+    default LongStats stats() {
+        return stats(false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass.
+     *
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link LongStats}.
+     */
+    default LongStats stats(boolean distribution) {
+        LongStats stats = new LongStats(distribution);
+        forEach(stats);
+        return stats;
+    }
+
+    /**
+     * @return Optionally, the first element in the stream.
+     */
+    default OptionalLong findFirst() {
+        class Pred implements LongPredicate {
+
+            boolean found;
+            long value;
+
+            @Override
+            public boolean test(long t) {
+                found = true;
+                value = t;
+                return true;
+            }
+        }
+        Pred pred = new Pred();
+        forEachUntil(pred);
+        return pred.found ? OptionalLong.of(pred.value) : OptionalLong.empty();
+    }
+
+    /**
+     * @return The first element in the stream.
+     */
+    default long first() {
+        return findFirst().orElseThrow(() -> new IllegalArgumentException("Not found."));
+    }
+
+    /**
+     * @param _default The default value to return if the stream is empty.
+     * @return The first element in the stream, or {@code _default}.
+     */
+    default long firstOrDefault(long _default) {
+        return findFirst().orElse(_default);
+    }
+    // endregion
+
+    // region Collecting
+
+    /**
+     * Collects this stream into an {@code long[]}.
+     *
+     * @return The {@code long[]}.
+     */
+    default long[] toArray() {
+        int len = knownLength(true);
+        if (len >= 0) {
+            long[] array = new long[len];
+            forEach(new LongConsumer() {
+                int i = 0;
+
+                @Override
+                public void accept(long t) {
+                    array[i++] = t;
+                }
+            });
+            return array;
+        }
+
+        final class Cons implements LongConsumer {
+
+            private long[] array = new long[16];
+            private int size;
+
+            @Override
+            public void accept(long t) {
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size * 2);
+                }
+                array[size++] = t;
+            }
+        }
+        Cons cons = new Cons();
+        forEach(cons);
+        return Arrays.copyOf(cons.array, cons.size);
+    }
+
+    /**
+     * Collects this stream into an {@link LongArrayList}.
+     *
+     * @return The {@link LongArrayList}.
+     */
+    default LongArrayList toList() {
+        LongArrayList list = new LongArrayList(Math.max(0, knownLength()));
+        forEach(list::add);
+        return list;
+    }
+    // endregion
+
+    // region Creation and Composition implementations.
+
+    /**
+     * A {@link LongFastStream} for an array slice.
+     */
+    final class OfN implements LongFastStream {
+
+        private final long[] things;
+        private final int from;
+        private final int until;
+
+        private OfN(long[] things, int from, int until) {
+            this.things = things;
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new PrimitiveIterator.OfLong() {
+                int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < until;
+                }
+
+                @Override
+                public long nextLong() {
+                    if (i >= until) throw new NoSuchElementException();
+                    return things[i++];
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            for (int i = from; i < until; i++) {
+                action.accept(things[i]);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            for (int i = from; i < until; i++) {
+                if (action.test(things[i])) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return until - from;
+        }
+
+        @Override
+        public long[] toArray() {
+            return Arrays.copyOfRange(things, from, until);
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} for a range of longs.
+     */
+    final class Ranged implements LongFastStream {
+
+        private final long from;
+        private final long until;
+
+        private Ranged(long from, long until) {
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new PrimitiveIterator.OfLong() {
+                long i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < until;
+                }
+
+                @Override
+                public long nextLong() {
+                    if (i >= until) throw new NoSuchElementException();
+                    return i++;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            for (long i = from; i < until; i++) {
+                action.accept(i);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            for (long i = from; i < until; i++) {
+                if (action.test(i)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            long len = until - from;
+            return len < 0 || len > Integer.MAX_VALUE ? -1 : (int) len;
+        }
+    }
+
+    /**
+     * Two {@link LongFastStream}s concatenated together.
+     */
+    final class Concatenated implements LongFastStream {
+
+        private final LongFastStream a;
+        private final LongFastStream b;
+
+        private Concatenated(LongFastStream a, LongFastStream b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new Internal.AbstractLongIterator() {
+                private PrimitiveIterator.OfLong itr = a.iterator();
+                private boolean second;
+
+                @Override
+                protected long computeNext() {
+                    while (true) {
+                        if (itr.hasNext()) return itr.nextLong();
+                        if (second) return endOfData();
+                        itr = b.iterator();
+                        second = true;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            a.forEach(action);
+            b.forEach(action);
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            return a.forEachUntil(action) || b.forEachUntil(action);
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int aLen = a.knownLength(consumeToCalculate);
+            if (aLen < 0) return -1;
+            int bLen = b.knownLength(consumeToCalculate);
+            if (bLen < 0) return -1;
+            return aLen + bLen;
+        }
+    }
+    // endregion
+
+    // region Stream operation implementations.
+
+    /**
+     * A {@link LongFastStream} with a filtering function applied.
+     */
+    final class Filtered implements LongFastStream {
+
+        private final LongFastStream parent;
+        private final LongPredicate pred;
+
+        private Filtered(LongFastStream parent, LongPredicate pred) {
+            this.parent = parent;
+            this.pred = pred;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new Internal.AbstractLongIterator() {
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+
+                @Override
+                protected long computeNext() {
+                    while (itr.hasNext()) {
+                        long e = itr.nextLong();
+                        if (pred.test(e)) {
+                            return e;
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            parent.forEach(e -> {
+                if (pred.test(e)) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            return parent.forEachUntil(e -> pred.test(e) && action.test(e));
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} with a mapping function applied.
+     */
+    final class Mapped implements LongFastStream {
+
+        private final LongFastStream parent;
+        private final LongUnaryOperator func;
+
+        private Mapped(LongFastStream parent, LongUnaryOperator func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new PrimitiveIterator.OfLong() {
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public long nextLong() {
+                    return func.applyAsLong(itr.nextLong());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsLong(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsLong(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link FastStream} with a mapping function applied to each long.
+     */
+    final class MappedToObj<R> implements FastStream<R> {
+
+        private final LongFastStream parent;
+        private final LongFunction<? extends R> func;
+
+        private MappedToObj(LongFastStream parent, LongFunction<? extends R> func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new Iterator<R>() {
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public R next() {
+                    return func.apply(itr.nextLong());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super R> action) {
+            parent.forEach(e -> action.accept(func.apply(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(Predicate<? super R> action) {
+            return parent.forEachUntil(e -> action.test(func.apply(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * An {@link IntFastStream} with a mapping function applied to each long.
+     */
+    final class MappedToInt implements IntFastStream {
+
+        private final LongFastStream parent;
+        private final LongToIntFunction func;
+
+        private MappedToInt(LongFastStream parent, LongToIntFunction func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public int nextInt() {
+                    return func.applyAsInt(itr.nextLong());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsInt(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(IntPredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsInt(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link DoubleFastStream} with a mapping function applied to each long.
+     */
+    final class MappedToDouble implements DoubleFastStream {
+
+        private final LongFastStream parent;
+        private final LongToDoubleFunction func;
+
+        private MappedToDouble(LongFastStream parent, LongToDoubleFunction func) {
+            this.parent = parent;
+            this.func = func;
+        }
+
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return new PrimitiveIterator.OfDouble() {
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public double nextDouble() {
+                    return func.applyAsDouble(itr.nextLong());
+                }
+            };
+        }
+
+        @Override
+        public void forEach(DoubleConsumer action) {
+            parent.forEach(e -> action.accept(func.applyAsDouble(e)));
+        }
+
+        @Override
+        public boolean forEachUntil(DoublePredicate action) {
+            return parent.forEachUntil(e -> action.test(func.applyAsDouble(e)));
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} containing only unique elements.
+     */
+    final class Distinct implements LongFastStream {
+
+        private final LongFastStream parent;
+
+        private int knownLength = -1;
+
+        private Distinct(LongFastStream parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new Internal.AbstractLongIterator() {
+                private final Internal.LongSet set = new Internal.LongSet();
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+
+                @Override
+                protected long computeNext() {
+                    while (itr.hasNext()) {
+                        long e = itr.nextLong();
+                        if (set.add(e)) {
+                            return e;
+                        }
+                    }
+                    knownLength = set.size();
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            Internal.LongSet set = new Internal.LongSet();
+            parent.forEach(e -> {
+                if (set.add(e)) {
+                    action.accept(e);
+                }
+            });
+            knownLength = set.size();
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            Internal.LongSet set = new Internal.LongSet();
+            if (parent.forEachUntil(e -> set.add(e) && action.test(e))) return true;
+
+            knownLength = set.size();
+            return false;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return knownLength;
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} sorted in ascending order.
+     */
+    final class Sorted implements LongFastStream {
+
+        private final LongFastStream parent;
+
+        private long @Nullable [] sorted = null;
+
+        private Sorted(LongFastStream parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            long[] sorted = getSorted();
+            return new OfN(sorted, 0, sorted.length).iterator();
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            for (long t : getSorted()) {
+                action.accept(t);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            for (long t : getSorted()) {
+                if (action.test(t)) return true;
+            }
+            return false;
+        }
+
+        private long[] getSorted() {
+            if (sorted == null) {
+                sorted = parent.toArray();
+                Arrays.sort(sorted);
+            }
+            return sorted;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return consumeToCalculate ? getSorted().length : parent.knownLength(false);
+        }
+
+        @Override
+        public long[] toArray() {
+            return getSorted().clone();
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} with a listener attached.
+     */
+    final class Peeked implements LongFastStream {
+
+        private final LongFastStream parent;
+        private final LongConsumer cons;
+
+        private Peeked(LongFastStream parent, LongConsumer cons) {
+            this.parent = parent;
+            this.cons = cons;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new PrimitiveIterator.OfLong() {
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public long nextLong() {
+                    long n = itr.nextLong();
+                    cons.accept(n);
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            parent.forEach(e -> {
+                cons.accept(e);
+                action.accept(e);
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            return parent.forEachUntil(e -> {
+                cons.accept(e);
+                return action.test(e);
+            });
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return parent.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * An {@link LongFastStream} recording the elements produced by a stage, for {@link Profiler}.
+     */
+    final class Probed implements LongFastStream, Profiler.ProbedStage {
+
+        private final LongFastStream stage;
+        private final Profiler.Probe probe;
+
+        Probed(LongFastStream stage, Profiler profiler, String op, Profiler.@Nullable ProbedStage upstream) {
+            this.stage = stage;
+            probe = new Profiler.Probe(profiler, op, upstream, stage.knownLength(false));
+        }
+
+        @Override
+        public Profiler.Probe probe() {
+            return probe;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            PrimitiveIterator.OfLong itr;
+            scope.enter();
+            try {
+                itr = stage.iterator();
+            } finally {
+                scope.exit();
+            }
+            return new PrimitiveIterator.OfLong() {
+                @Override
+                public boolean hasNext() {
+                    boolean hasNext;
+                    long start = scope.beginCall();
+                    try {
+                        hasNext = itr.hasNext();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    if (!hasNext) {
+                        scope.report();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public long nextLong() {
+                    long n;
+                    long start = scope.beginCall();
+                    try {
+                        n = itr.nextLong();
+                    } finally {
+                        scope.endCall(start);
+                    }
+                    scope.produced();
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            class Cons extends Profiler.Sampler implements LongConsumer {
+
+                @Override
+                public void accept(long n) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        action.accept(n);
+                        sampled(System.nanoTime() - start);
+                    } else {
+                        action.accept(n);
+                    }
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Cons cons = new Cons();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                stage.forEach(cons);
+            } finally {
+                scope.end(System.nanoTime() - start, cons);
+            }
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            class Pred extends Profiler.Sampler implements LongPredicate {
+
+                @Override
+                public boolean test(long n) {
+                    if (sample()) {
+                        long start = System.nanoTime();
+                        boolean ret = action.test(n);
+                        sampled(System.nanoTime() - start);
+                        return ret;
+                    }
+                    return action.test(n);
+                }
+            }
+            Profiler.Scope scope = new Profiler.Scope(probe);
+            Pred pred = new Pred();
+            scope.enter();
+            long start = System.nanoTime();
+            try {
+                return stage.forEachUntil(pred);
+            } finally {
+                scope.end(System.nanoTime() - start, pred);
+            }
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            return stage.knownLength(consumeToCalculate);
+        }
+    }
+
+    /**
+     * A {@link LongFastStream} with a min/max filter applied.
+     */
+    final class Sliced implements LongFastStream {
+
+        private final LongFastStream parent;
+        private final int min;
+        private final int max;
+
+        private Sliced(LongFastStream parent, int min, int max) {
+            this.parent = parent;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return new Internal.AbstractLongIterator() {
+                private final PrimitiveIterator.OfLong itr = parent.iterator();
+                private int i;
+
+                @Override
+                protected long computeNext() {
+                    while (i < min && itr.hasNext()) {
+                        itr.nextLong();
+                        i++;
+                    }
+                    if (i++ >= max || !itr.hasNext()) return endOfData();
+                    return itr.nextLong();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(LongConsumer action) {
+            forEachUntil(e -> {
+                action.accept(e);
+                return false;
+            });
+        }
+
+        @Override
+        public boolean forEachUntil(LongPredicate action) {
+            class Pred implements LongPredicate {
+
+                int i = 0;
+                boolean stopped;
+
+                @Override
+                public boolean test(long t) {
+                    int n = i++;
+                    if (n < min) return false;
+                    if (action.test(t)) {
+                        stopped = true;
+                        return true;
+                    }
+                    // Stop as soon as the last element has been consumed.
+                    return i >= max;
+                }
+            }
+            Pred pred = new Pred();
+            parent.forEachUntil(pred);
+            return pred.stopped;
+        }
+
+        @Override
+        public int knownLength(boolean consumeToCalculate) {
+            int pLen = parent.knownLength(consumeToCalculate);
+            if (pLen == -1) return -1;
+
+            return Math.min(Math.max(pLen - min, 0), max);
+        }
+    }
+    // endregion
+
+    // region Internal.
+    class Internal {
+
+        private Internal() { }
+
+        /**
+         * Primitive form of {@link AbstractIterator}.
+         */
+        abstract static class AbstractLongIterator implements PrimitiveIterator.OfLong {
+
+            private static final int CONSUMED = 0;
+            private static final int HAS_NEXT = 1;
+            private static final int END_OF_DATA = 2;
+
+            private int state;
+            private long next;
+
+            protected abstract long computeNext();
+
+            @Override
+            public final boolean hasNext() {
+                if (state == END_OF_DATA) return false;
+                if (state == CONSUMED) {
+                    state = HAS_NEXT;
+                    next = computeNext();
+                }
+                return state == HAS_NEXT;
+            }
+
+            @Override
+            public final long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                state = CONSUMED;
+                return next;
+            }
+
+            protected final long endOfData() {
+                state = END_OF_DATA;
+                return 0;
+            }
+        }
+
+        /**
+         * A minimal open addressing long set, used for {@link #distinct()}.
+         */
+        static final class LongSet {
+
+            private static final long FREE = 0;
+
+            private long[] keys = new long[16];
+            private boolean containsFree;
+            private int size;
+
+            boolean add(long k) {
+                if (k == FREE) {
+                    if (containsFree) return false;
+                    containsFree = true;
+                    size++;
+                    return true;
+                }
+                int mask = keys.length - 1;
+                int pos = mix(k) & mask;
+                while (keys[pos] != FREE) {
+                    if (keys[pos] == k) return false;
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = k;
+                if (++size >= keys.length / 2) {
+                    rehash();
+                }
+                return true;
+            }
+
+            int size() {
+                return size;
+            }
+
+            private void rehash() {
+                long[] old = keys;
+                keys = new long[old.length * 2];
+                int mask = keys.length - 1;
+                for (long k : old) {
+                    if (k == FREE) continue;
+                    int pos = mix(k) & mask;
+                    while (keys[pos] != FREE) {
+                        pos = (pos + 1) & mask;
+                    }
+                    keys[pos] = k;
+                }
+            }
+
+            private static int mix(long x) {
+                long h = x * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 32;
+                return (int) (h ^ (h >>> 16));
+            }
+        }
+
+        // @formatter:off
+        private static class Empty implements LongFastStream {
+            @Override public PrimitiveIterator.OfLong iterator() { return new Ranged(0, 0).iterator(); }
+            @Override public void forEach(LongConsumer action) { }
+            @Override public boolean forEachUntil(LongPredicate action) { return false; }
+            @Override public LongFastStream concat(LongFastStream other) { return other; }
+            @Override public LongFastStream filter(LongPredicate pred) { return this; }
+            @Override public LongFastStream filterNot(LongPredicate pred) { return this; }
+            @Override public LongFastStream map(LongUnaryOperator func) { return this; }
+            @Override public <R> FastStream<R> mapToObj(LongFunction<? extends R> func) { return FastStream.empty(); }
+            @Override public IntFastStream mapToInt(LongToIntFunction func) { return IntFastStream.empty(); }
+            @Override public DoubleFastStream mapToDouble(LongToDoubleFunction func) { return DoubleFastStream.empty(); }
+            @Override public LongFastStream distinct() { return this; }
+            @Override public LongFastStream sorted() { return this; }
+            @Override public LongFastStream peek(LongConsumer cons) { return this; }
+            @Override public LongFastStream limit(int max) { return this; }
+            @Override public LongFastStream skip(int n) { return this; }
+            @Override public boolean anyMatch(LongPredicate pred) { return false; }
+            @Override public boolean allMatch(LongPredicate pred) { return true; }
+            @Override public boolean noneMatch(LongPredicate pred) { return true; }
+            @Override public boolean isEmpty() { return true; }
+            @Override public int knownLength() { return 0; }
+            @Override public int knownLength(boolean consumeToCalculate) { return 0; }
+            @Override public int count() { return 0; }
+            @Override public long fold(long identity, LongBinaryOperator accumulator) { return identity; }
+            @Override public OptionalLong fold(LongBinaryOperator accumulator) { return OptionalLong.empty(); }
+            @Override public long sum() { return 0; }
+            @Override public OptionalLong min() { return OptionalLong.empty(); }
+            @Override public OptionalLong max() { return OptionalLong.empty(); }
+            @Override public OptionalLong findFirst() { return OptionalLong.empty(); }
+            @Override public long first() { throw new IllegalArgumentException("Not found."); }
+            @Override public long firstOrDefault(long _default) { return _default; }
+            @Override public long[] toArray() { return new long[0]; }
+            // @formatter:on
+        }
+    }
+    //endregion
+}
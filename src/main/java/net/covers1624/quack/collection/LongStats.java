@@ -0,0 +1,159 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Summary statistics for a sequence of long values, computed in a single pass.
+ * <p>
+ * Obtained via {@link FastStream#longStats(ToLongFunction)} or {@link LongFastStream#stats()}.
+ * Optionally, the variance and approximate percentiles of the values are also tracked.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public final class LongStats implements LongConsumer {
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private final @Nullable Distribution distribution;
+
+    /**
+     * Create a new, empty, {@link LongStats}, without tracking the distribution.
+     */
+    public LongStats() {
+        this(false);
+    }
+
+    /**
+     * Create a new, empty, {@link LongStats}.
+     *
+     * @param distribution If the variance and percentiles should be tracked.
+     */
+    public LongStats(boolean distribution) {
+        this.distribution = distribution ? new Distribution() : null;
+    }
+
+    @Override
+    public void accept(long value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (distribution != null) {
+            distribution.accept(value);
+        }
+    }
+
+    /**
+     * Combine the values of another {@link LongStats} into this one.
+     *
+     * @param other The other {@link LongStats}.
+     * @return This {@link LongStats}.
+     */
+    public LongStats combine(LongStats other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (distribution != null) {
+            if (other.distribution == null) throw new IllegalArgumentException("Other stats do not track their distribution.");
+            distribution.combine(other.distribution);
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The sum of all values, or zero if there are none.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The smallest value, or {@link Long#MAX_VALUE} if there are none.
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * @return The largest value, or {@link Long#MIN_VALUE} if there are none.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return The arithmetic mean of all values, or zero if there are none.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @return The population variance of all values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getVariance() {
+        return distribution().variance();
+    }
+
+    /**
+     * @return The sample variance of all values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getSampleVariance() {
+        return distribution().sampleVariance();
+    }
+
+    /**
+     * @return The population standard deviation of all values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Estimate the given percentile of all values.
+     * <p>
+     * The estimate is within 1% of the true value. The 0th and 100th percentiles are exact.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The estimated value, or {@link Double#NaN} if there are no values.
+     * @throws IllegalStateException If the distribution is not tracked.
+     */
+    public double getPercentile(double percentile) {
+        double value = distribution().percentile(percentile);
+        if (count == 0) return value;
+        // The extremes are known exactly.
+        if (percentile == 0) return min;
+        if (percentile == 100) return max;
+
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private Distribution distribution() {
+        if (distribution == null) throw new IllegalStateException("Distribution is not tracked.");
+        return distribution;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LongStats{count=%d, sum=%d, min=%d, mean=%f, max=%d}", count, sum, min, getMean(), max);
+    }
+}
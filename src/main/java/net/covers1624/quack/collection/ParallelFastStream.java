@@ -0,0 +1,638 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.FastStream.Group;
+import net.covers1624.quack.util.SneakyUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+
+/**
+ * A parallel evaluation mode for a {@link FastStream}.
+ * <p>
+ * Obtained via {@link FastStream#parallel()}. Stateless operations applied
+ * to this stream build up a regular {@link FastStream} pipeline. When a terminal
+ * operation is invoked, the pipeline is split into segments which are evaluated
+ * in parallel on the {@link ForkJoinPool}, and the per-segment results combined.
+ * <p>
+ * Sized sources can be split without evaluating them, these include arrays,
+ * {@link RandomAccess} {@link List}s, the buckets of {@link FastStream#partition},
+ * {@link IntFastStream#range}, {@link FastStream#lines} and the output of {@link FastStream#sorted()}. Splitting passes
+ * through stateless stages ({@code filter}, {@code map}, {@code flatMap}, etc.).
+ * Any stage which can't be split is first evaluated sequentially into a buffer,
+ * with the remaining pipeline evaluated in parallel over that buffer.
+ * <p>
+ * Unless otherwise specified, terminal operations retain the encounter order
+ * of the sequential pipeline. All functions provided to this stream may be
+ * called concurrently from multiple threads.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public final class ParallelFastStream<T> {
+
+    /**
+     * The number of segments to create per thread in the pool.
+     * Some over-splitting helps balance uneven work between segments.
+     */
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private final FastStream<T> pipeline;
+    private final ForkJoinPool pool;
+
+    ParallelFastStream(FastStream<T> pipeline, ForkJoinPool pool) {
+        this.pipeline = pipeline;
+        this.pool = pool;
+    }
+
+    // region Stream operations
+
+    /**
+     * Returns a {@link ParallelFastStream} containing all elements that pass
+     * the provided {@link Predicate} filter.
+     *
+     * @param pred The {@link Predicate} to apply.
+     * @return The filtered {@link ParallelFastStream}.
+     */
+    public ParallelFastStream<T> filter(Predicate<? super T> pred) {
+        return new ParallelFastStream<>(pipeline.filter(pred), pool);
+    }
+
+    /**
+     * Returns a {@link ParallelFastStream} containing all elements that fail
+     * the provided {@link Predicate} filter.
+     *
+     * @param pred The {@link Predicate} to apply.
+     * @return The filtered {@link ParallelFastStream}.
+     */
+    public ParallelFastStream<T> filterNot(Predicate<? super T> pred) {
+        return new ParallelFastStream<>(pipeline.filterNot(pred), pool);
+    }
+
+    /**
+     * Returns a {@link ParallelFastStream} with each element transformed by
+     * the provided {@link Function}.
+     *
+     * @param func The {@link Function} to apply.
+     * @return The transformed {@link ParallelFastStream}.
+     */
+    public <R> ParallelFastStream<R> map(Function<? super T, ? extends R> func) {
+        return new ParallelFastStream<>(pipeline.map(func), pool);
+    }
+
+    /**
+     * Returns a {@link ParallelFastStream} with each element transformed by
+     * the provided {@link Function}, filtering any null mapped elements from the stream.
+     *
+     * @param func The {@link Function} to apply.
+     * @return The transformed and null filtered {@link ParallelFastStream}.
+     */
+    public <R> ParallelFastStream<@NonNull R> mapNonNull(Function<? super T, ? extends @Nullable R> func) {
+        return new ParallelFastStream<>(pipeline.mapNonNull(func), pool);
+    }
+
+    /**
+     * Returns a {@link ParallelFastStream} with all elements filtered to instances
+     * of the provided class.
+     *
+     * @param clazz The class to filter by.
+     * @return The transformed {@link ParallelFastStream}
+     */
+    public <R> ParallelFastStream<@NonNull R> ofType(Class<? extends R> clazz) {
+        return new ParallelFastStream<>(pipeline.ofType(clazz), pool);
+    }
+
+    /**
+     * Returns a {@link ParallelFastStream} with each element transformed by
+     * the provided {@link Function} concatenated together.
+     *
+     * @param func The {@link Function} to apply producing the {@link Iterable} for concatenation.
+     * @return The flat mapped {@link ParallelFastStream}.
+     */
+    public <R> ParallelFastStream<R> flatMap(Function<? super T, ? extends Iterable<? extends R>> func) {
+        return new ParallelFastStream<>(pipeline.flatMap(func), pool);
+    }
+
+    /**
+     * Returns a {@link ParallelFastStream} which listens to all the elements which pass to the next operation.
+     * <p>
+     * The listener may be called concurrently and out of order.
+     *
+     * @param cons The listener {@link Consumer}.
+     * @return The {@link ParallelFastStream}.
+     */
+    public ParallelFastStream<T> peek(Consumer<? super T> cons) {
+        return new ParallelFastStream<>(pipeline.peek(cons), pool);
+    }
+
+    /**
+     * Returns the pipeline of this stream as a sequential {@link FastStream}.
+     *
+     * @return The sequential {@link FastStream}.
+     */
+    public FastStream<T> sequential() {
+        return pipeline;
+    }
+    // endregion
+
+    // region Queries.
+
+    /**
+     * Tests if any element in the stream matches the provided {@link Predicate}.
+     * <p>
+     * Once any segment finds a match, all other segments stop evaluating.
+     *
+     * @param pred The {@link Predicate} to apply.
+     * @return If any element matches the {@link Predicate}.
+     */
+    public boolean anyMatch(Predicate<? super T> pred) {
+        final class Found {
+
+            volatile boolean found;
+        }
+        Found found = new Found();
+        // A segment only reports a match if one was found by any segment.
+        return evaluate(
+                seg -> seg.anyMatch(e -> {
+                    if (found.found) return true;
+                    if (pred.test(e)) {
+                        found.found = true;
+                        return true;
+                    }
+                    return false;
+                }),
+                (a, b) -> a || b
+        );
+    }
+
+    /**
+     * Tests if all elements in the stream match the provided {@link Predicate}.
+     *
+     * @param pred The {@link Predicate} to apply.
+     * @return If all elements match the {@link Predicate}.
+     */
+    public boolean allMatch(Predicate<? super T> pred) {
+        return !anyMatch(pred.negate());
+    }
+
+    /**
+     * Tests if no elements in the stream match the provided {@link Predicate}.
+     *
+     * @param pred The {@link Predicate} to apply.
+     * @return If no elements match the {@link Predicate}.
+     */
+    public boolean noneMatch(Predicate<? super T> pred) {
+        return !anyMatch(pred);
+    }
+
+    /**
+     * Evaluates the stream, counting the number of elements contained within.
+     *
+     * @return The number of elements in the stream.
+     */
+    public int count() {
+        return evaluate(FastStream::count, Integer::sum);
+    }
+
+    /**
+     * Estimates the number of distinct elements in the stream, using HyperLogLog.
+     * <p>
+     * Each segment builds its own sketch, which are then merged.
+     *
+     * @return The estimated number of distinct elements.
+     * @see FastStream#countDistinct()
+     */
+    public long countDistinct() {
+        return countDistinct(FastStream.Internal::hash64);
+    }
+
+    /**
+     * Estimates the number of distinct elements in the stream, using HyperLogLog.
+     *
+     * @param hasher The function to hash each element.
+     * @return The estimated number of distinct elements.
+     * @see FastStream#countDistinct(ToLongFunction)
+     */
+    public long countDistinct(ToLongFunction<? super T> hasher) {
+        HyperLogLog merged = evaluate(seg -> {
+            HyperLogLog hll = new HyperLogLog();
+            seg.forEach(e -> hll.add(hasher.applyAsLong(e)));
+            return hll;
+        }, HyperLogLog::merge);
+        return merged.estimate();
+    }
+    // endregion
+
+    // region Terminal operations
+
+    /**
+     * Performs the provided action for each element in the stream.
+     * <p>
+     * The action is called concurrently and in no particular order.
+     *
+     * @param action The action.
+     */
+    public void forEach(Consumer<? super T> action) {
+        evaluate(seg -> {
+            seg.forEach(action);
+            return null;
+        }, (a, b) -> null);
+    }
+
+    /**
+     * Returns the result of a folding operation applied to the stream contents.
+     * <p>
+     * Each segment is folded separately starting from {@code identity}, the results
+     * are then merged together, in order, using the {@code combiner}.
+     *
+     * @param identity    The initial value. This must be an identity for the {@code combiner}.
+     * @param accumulator The {@link Function} responsible for merging elements in the stream together.
+     * @param combiner    The {@link BinaryOperator} responsible for merging two fold results together.
+     * @return The result of the fold operation.
+     */
+    @Nullable
+    @Contract ("!null,_,_ -> !null")
+    public <U> U fold(@Nullable U identity, BiFunction<? super @Nullable U, ? super T, ? extends U> accumulator, BinaryOperator<@Nullable U> combiner) {
+        return evaluate(seg -> seg.fold(identity, accumulator), combiner);
+    }
+
+    /**
+     * Returns the result of a folding operation applied to the stream contents.
+     * <p>
+     * The accumulator must be associative.
+     *
+     * @param accumulator The {@link Function} responsible for merging elements in the stream together.
+     * @return Optionally, the result of the fold operation.
+     * Will be empty if the stream contained no elements.
+     */
+    public Optional<T> fold(BinaryOperator<T> accumulator) {
+        return evaluate(seg -> seg.fold(accumulator), (a, b) -> {
+            if (!a.isPresent()) return b;
+            if (!b.isPresent()) return a;
+            return Optional.ofNullable(accumulator.apply(a.get(), b.get()));
+        });
+    }
+
+    /**
+     * Sum all elements in the stream to an integer, using the
+     * provided {@link ToIntFunction} to convert each element to
+     * an integer.
+     *
+     * @param func The {@link ToIntFunction} to apply.
+     * @return The sum of the elements.
+     */
+    public int intSum(ToIntFunction<? super T> func) {
+        return evaluate(seg -> seg.intSum(func), Integer::sum);
+    }
+
+    /**
+     * Sum all elements in the stream to a long, using the
+     * provided {@link ToLongFunction} to convert each element to
+     * a long.
+     *
+     * @param func The {@link ToLongFunction} to apply.
+     * @return The sum of the elements.
+     */
+    public long longSum(ToLongFunction<? super T> func) {
+        return evaluate(seg -> seg.longSum(func), Long::sum);
+    }
+
+    /**
+     * Sum all elements in the stream to a double, using the
+     * provided {@link ToDoubleFunction} to convert each element to
+     * a double.
+     *
+     * @param func The {@link ToDoubleFunction} to apply.
+     * @return The sum of the elements.
+     */
+    public double doubleSum(ToDoubleFunction<? super T> func) {
+        return evaluate(seg -> seg.doubleSum(func), Double::sum);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToIntFunction} to convert each element to an int.
+     *
+     * @param func The {@link ToIntFunction} to apply.
+     * @return The {@link IntStats}.
+     * @see #intStats(ToIntFunction, boolean)
+     */
+    public IntStats intStats(ToIntFunction<? super T> func) {
+        return intStats(func, false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToIntFunction} to convert each element to an int.
+     * <p>
+     * Each segment computes its own statistics, which are then combined.
+     *
+     * @param func         The {@link ToIntFunction} to apply.
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link IntStats}.
+     * @see FastStream#intStats(ToIntFunction, boolean)
+     */
+    public IntStats intStats(ToIntFunction<? super T> func, boolean distribution) {
+        return evaluate(seg -> seg.intStats(func, distribution), IntStats::combine);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToLongFunction} to convert each element to a long.
+     *
+     * @param func The {@link ToLongFunction} to apply.
+     * @return The {@link LongStats}.
+     * @see #longStats(ToLongFunction, boolean)
+     */
+    public LongStats longStats(ToLongFunction<? super T> func) {
+        return longStats(func, false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToLongFunction} to convert each element to a long.
+     * <p>
+     * Each segment computes its own statistics, which are then combined.
+     *
+     * @param func         The {@link ToLongFunction} to apply.
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link LongStats}.
+     * @see FastStream#longStats(ToLongFunction, boolean)
+     */
+    public LongStats longStats(ToLongFunction<? super T> func, boolean distribution) {
+        return evaluate(seg -> seg.longStats(func, distribution), LongStats::combine);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToDoubleFunction} to convert each element to a double.
+     *
+     * @param func The {@link ToDoubleFunction} to apply.
+     * @return The {@link DoubleStats}.
+     * @see #doubleStats(ToDoubleFunction, boolean)
+     */
+    public DoubleStats doubleStats(ToDoubleFunction<? super T> func) {
+        return doubleStats(func, false);
+    }
+
+    /**
+     * Computes the count, sum, min, max and mean of all elements in a single pass, using the
+     * provided {@link ToDoubleFunction} to convert each element to a double.
+     * <p>
+     * Each segment computes its own statistics, which are then combined.
+     *
+     * @param func         The {@link ToDoubleFunction} to apply.
+     * @param distribution If the variance and percentiles should also be tracked.
+     * @return The {@link DoubleStats}.
+     * @see FastStream#doubleStats(ToDoubleFunction, boolean)
+     */
+    public DoubleStats doubleStats(ToDoubleFunction<? super T> func, boolean distribution) {
+        return evaluate(seg -> seg.doubleStats(func, distribution), DoubleStats::combine);
+    }
+
+    /**
+     * Finds the first element in the stream.
+     * <p>
+     * Once any segment finds an element, segments after it which have not yet started are skipped.
+     *
+     * @return Optionally, the first element in the stream.
+     */
+    public Optional<T> findFirst() {
+        // The lowest index of any segment which has found an element.
+        AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE);
+        return evaluateIndexed(
+                (i, seg) -> {
+                    if (found.get() < i) return Optional.empty();
+
+                    Optional<T> first = seg.findFirst();
+                    if (first.isPresent()) {
+                        found.accumulateAndGet(i, Math::min);
+                    }
+                    return first;
+                },
+                (a, b) -> a.isPresent() ? a : b
+        );
+    }
+    // endregion
+
+    // region Collecting
+
+    /**
+     * Collects this stream into an {@link ArrayList}, retaining encounter order.
+     *
+     * @return The {@link ArrayList}.
+     */
+    public ArrayList<T> toList() {
+        return evaluate(FastStream::toList, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
+    }
+
+    /**
+     * Collects this stream into a {@link HashSet}.
+     *
+     * @return The {@link HashSet}.
+     */
+    public HashSet<T> toSet() {
+        return evaluate(FastStream::toSet, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
+    }
+
+    /**
+     * Collects this stream into a {@link LinkedHashMap}.
+     * <p>
+     * In the event of a collision, the first value will be used.
+     *
+     * @param kFunc The {@link Function} to extracting the key.
+     * @param vFunc The {@link Function} to extracting the value.
+     * @return The {@link LinkedHashMap}.
+     */
+    public <K, V> LinkedHashMap<K, V> toMap(Function<? super T, ? extends K> kFunc, Function<? super T, ? extends V> vFunc) {
+        return toMap(kFunc, vFunc, SneakyUtils.first());
+    }
+
+    /**
+     * Collects this stream into a {@link LinkedHashMap}.
+     *
+     * @param kFunc     The {@link Function} to extracting the key.
+     * @param vFunc     The {@link Function} to extracting the value.
+     * @param mergeFunc The {@link BinaryOperator} to resolve merge conflicts.
+     * @return The {@link LinkedHashMap}.
+     */
+    public <K, V> LinkedHashMap<K, V> toMap(Function<? super T, ? extends K> kFunc, Function<? super T, ? extends V> vFunc, BinaryOperator<V> mergeFunc) {
+        return evaluate(seg -> seg.toLinkedHashMap(kFunc, vFunc, mergeFunc), (a, b) -> {
+            b.forEach((k, v) -> {
+                V existing = a.get(k);
+                a.put(k, existing == null ? v : mergeFunc.apply(existing, v));
+            });
+            return a;
+        });
+    }
+
+    /**
+     * Groups all elements in this stream by a key.
+     * <p>
+     * Groups, and the values within each group, retain encounter order.
+     *
+     * @param keyFunc The key {@link Function}.
+     * @return A {@link FastStream} of the computed groups.
+     * @see FastStream#groupBy(Function)
+     */
+    public <K> FastStream<Group<K, T>> groupBy(Function<? super T, ? extends K> keyFunc) {
+        return groupBy(keyFunc, Function.identity());
+    }
+
+    /**
+     * Groups all elements in this stream by a key.
+     * <p>
+     * Groups, and the values within each group, retain encounter order.
+     *
+     * @param keyFunc   The key {@link Function}.
+     * @param valueFunc The value {@link Function}.
+     * @return A {@link FastStream} of the computed groups.
+     * @see FastStream#groupBy(Function, Function)
+     */
+    public <K, V> FastStream<Group<K, V>> groupBy(Function<? super T, ? extends K> keyFunc, Function<? super T, ? extends V> valueFunc) {
+        LinkedHashMap<K, Group<K, V>> groups = evaluate(
+                seg -> {
+                    LinkedHashMap<K, Group<K, V>> map = new LinkedHashMap<>();
+                    seg.forEach(e -> map.computeIfAbsent(keyFunc.apply(e), Group::new).add(valueFunc.apply(e)));
+                    return map;
+                },
+                (a, b) -> {
+                    b.forEach((k, g) -> a.computeIfAbsent(k, Group::new).addAll(g));
+                    return a;
+                }
+        );
+        return FastStream.of(groups.values());
+    }
+
+    /**
+     * Groups all elements in this stream by a key, aggregating each group.
+     * <p>
+     * Each segment aggregates independently, segment accumulators are then combined.
+     * Keys retain encounter order.
+     *
+     * @param keyFunc    The key {@link Function}.
+     * @param aggregator The {@link Aggregator} to apply to each group.
+     * @return A {@link LinkedHashMap} of each key to its aggregated result.
+     * @see FastStream#groupBy(Function, Aggregator)
+     */
+    public <K, A, R> LinkedHashMap<K, R> groupBy(Function<? super T, ? extends K> keyFunc, Aggregator<? super T, A, R> aggregator) {
+        Function<K, A> create = k -> aggregator.create();
+        LinkedHashMap<K, A> accumulators = evaluate(
+                seg -> {
+                    LinkedHashMap<K, A> map = new LinkedHashMap<>();
+                    seg.forEach(e -> aggregator.accumulate(map.computeIfAbsent(keyFunc.apply(e), create), e));
+                    return map;
+                },
+                (a, b) -> {
+                    b.forEach((k, acc) -> a.merge(k, acc, aggregator::combine));
+                    return a;
+                }
+        );
+        LinkedHashMap<K, R> results = new LinkedHashMap<>(accumulators.size());
+        accumulators.forEach((k, acc) -> results.put(k, aggregator.finish(acc)));
+        return results;
+    }
+
+    /**
+     * Returns the {@code k} smallest elements, as determined by the provided comparator, in ascending order.
+     * <p>
+     * Each segment retains its own {@code k} smallest elements, which are then merged.
+     *
+     * @param k          The number of elements.
+     * @param comparator The {@link Comparator} to apply.
+     * @return A {@link FastStream} of the elements.
+     * @see FastStream#bottom(int, Comparator)
+     */
+    public FastStream<T> bottom(int k, Comparator<? super T> comparator) {
+        if (k <= 0) return FastStream.empty();
+
+        ArrayList<T> candidates = evaluate(seg -> seg.bottom(k, comparator).toList(), (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
+        return FastStream.of(candidates).bottom(k, comparator);
+    }
+
+    /**
+     * Returns the {@code k} largest elements, as determined by the provided comparator, in descending order.
+     *
+     * @param k          The number of elements.
+     * @param comparator The {@link Comparator} to apply.
+     * @return A {@link FastStream} of the elements.
+     * @see FastStream#top(int, Comparator)
+     */
+    public FastStream<T> top(int k, Comparator<? super T> comparator) {
+        return bottom(k, comparator.reversed());
+    }
+    // endregion
+
+    private <R> R evaluate(Function<FastStream<T>, R> leaf, BinaryOperator<R> combiner) {
+        return evaluateIndexed((i, seg) -> leaf.apply(seg), combiner);
+    }
+
+    private <R> R evaluateIndexed(SegmentFunction<T, R> leaf, BinaryOperator<R> combiner) {
+        FastStream<T>[] segments = FastStream.Internal.split(pipeline, pool.getParallelism() * SEGMENTS_PER_THREAD);
+        return pool.invoke(new SegmentTask<>(segments, 0, segments.length, leaf, combiner));
+    }
+
+    /**
+     * Evaluates a single segment.
+     */
+    private interface SegmentFunction<T, R> {
+
+        /**
+         * @param index   The index of the segment, in encounter order.
+         * @param segment The segment.
+         * @return The result for the segment.
+         */
+        R apply(int index, FastStream<T> segment);
+    }
+
+    /**
+     * Evaluates a range of segments, combining the results in order.
+     * <p>
+     * The left half is evaluated by the current thread, so earlier segments tend to be evaluated first.
+     */
+    private static final class SegmentTask<T, R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FastStream<T>[] segments;
+        private final int from;
+        private final int until;
+        private final SegmentFunction<T, R> leaf;
+        private final BinaryOperator<R> combiner;
+
+        private SegmentTask(FastStream<T>[] segments, int from, int until, SegmentFunction<T, R> leaf, BinaryOperator<R> combiner) {
+            this.segments = segments;
+            this.from = from;
+            this.until = until;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (until - from == 1) return leaf.apply(from, segments[from]);
+
+            int mid = (from + until) >>> 1;
+            SegmentTask<T, R> right = new SegmentTask<>(segments, mid, until, leaf, combiner);
+            right.fork();
+            R left = new SegmentTask<>(segments, from, mid, leaf, combiner).compute();
+            return combiner.apply(left, right.join());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of profiling a single evaluation of a {@link FastStream} pipeline.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ *
+ * @see FastStream#profile(String)
+ */
+public final class PipelineProfile {
+
+    private final String name;
+    private final List<Stage> stages;
+
+    PipelineProfile(String name, List<Stage> stages) {
+        this.name = name;
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * @return The name of the profiled pipeline.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Each stage of the pipeline, starting with the source.
+     */
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Pipeline '").append(name).append("':");
+        long in = -1;
+        for (Stage stage : stages) {
+            sb.append(String.format("%n  %-12s in: %12s out: %12d time: %10.3fms",
+                    stage.getOperation(),
+                    in == -1 ? "-" : String.valueOf(in),
+                    stage.getElements(),
+                    stage.getNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1)
+            ));
+            if (stage.isKnownLengthLost()) {
+                sb.append(" (knownLength lost)");
+            }
+            in = stage.getElements();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A single stage of a profiled pipeline.
+     */
+    public static final class Stage {
+
+        private final String operation;
+        private final long elements;
+        private final long nanos;
+        private final boolean knownLengthLost;
+
+        Stage(String operation, long elements, long nanos, boolean knownLengthLost) {
+            this.operation = operation;
+            this.elements = elements;
+            this.nanos = nanos;
+            this.knownLengthLost = knownLengthLost;
+        }
+
+        /**
+         * @return The name of the operation.
+         */
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * The number of elements produced by this stage.
+         * <p>
+         * The number of elements consumed by this stage is the number produced by the previous stage.
+         *
+         * @return The number of elements.
+         */
+        public long getElements() {
+            return elements;
+        }
+
+        /**
+         * The estimated wall time spent in this stage, excluding previous and subsequent stages.
+         * <p>
+         * Downstream time is sampled, this is only an estimate.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return If this stage does not know its length, whilst the previous stage did.
+         */
+        public boolean isKnownLengthLost() {
+            return knownLengthLost;
+        }
+    }
+}
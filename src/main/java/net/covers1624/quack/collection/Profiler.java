@@ -0,0 +1,324 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * A profiling session for a single {@link FastStream} pipeline.
+ * <p>
+ * Profiling is enabled per pipeline via {@link FastStream#profile(String)}, or
+ * globally via the {@code quack.faststream.profile} system property. When enabled,
+ * each stage is wrapped in a {@link ProbedStage}, recording the elements which pass
+ * through it. Otherwise, stages are constructed as normal.
+ * <p>
+ * Each evaluation of a pipeline records into its own {@link Evaluation}, reported once
+ * the stage it was evaluated from is exhausted.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+final class Profiler {
+
+    /**
+     * If all pipelines should be profiled.
+     */
+    static final boolean GLOBAL = Boolean.getBoolean("quack.faststream.profile");
+
+    // Downstream time is measured for every 64th element.
+    private static final int SAMPLE_MASK = 63;
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    // The evaluation in progress on this thread, joined by stages upstream of its final stage.
+    private static final ThreadLocal<Evaluation> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final @Nullable Consumer<PipelineProfile> reporter;
+
+    Profiler(String name, @Nullable Consumer<PipelineProfile> reporter) {
+        this.name = name;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Checks if stages applied to the given stream should be profiled.
+     * <p>
+     * Operations check this before calling {@link #stage}, constructing the stage
+     * directly otherwise, so no factory is allocated when profiling is disabled.
+     *
+     * @param upstream The stream a stage is being applied to.
+     * @return If the stage should be constructed via {@link #stage}.
+     */
+    static boolean enabled(Object upstream) {
+        return GLOBAL || upstream instanceof ProbedStage;
+    }
+
+    /**
+     * Construct a stage, wrapping it in a {@link ProbedStage}.
+     * <p>
+     * Supports {@link FastStream}, {@link IntFastStream}, {@link LongFastStream} and
+     * {@link DoubleFastStream} stages, which may differ from the type of their upstream.
+     *
+     * @param upstream The stream the stage is being applied to.
+     * @param op       The name of the operation.
+     * @param factory  Constructs the stage from its (possibly probed) parent.
+     * @return The stage.
+     * @see #enabled
+     */
+    static <S, R> R stage(S upstream, String op, Function<? super S, ? extends R> factory) {
+        ProbedStage parent;
+        if (upstream instanceof ProbedStage) {
+            parent = (ProbedStage) upstream;
+        } else {
+            parent = probe(upstream, new Profiler(upstream.getClass().getSimpleName(), null), "source", null);
+        }
+        R stage = factory.apply(unsafeCast(parent));
+        // Some operations return their input, or the empty stream, as is.
+        if (stage == parent || stage instanceof ProbedStage) return stage;
+
+        return unsafeCast(probe(stage, parent.probe().profiler, op, parent));
+    }
+
+    private static ProbedStage probe(Object stage, Profiler profiler, String op, @Nullable ProbedStage upstream) {
+        if (stage instanceof FastStream) return new FastStream.Probed<>((FastStream<?>) stage, profiler, op, upstream);
+        if (stage instanceof IntFastStream) return new IntFastStream.Probed((IntFastStream) stage, profiler, op, upstream);
+        if (stage instanceof LongFastStream) return new LongFastStream.Probed((LongFastStream) stage, profiler, op, upstream);
+        if (stage instanceof DoubleFastStream) return new DoubleFastStream.Probed((DoubleFastStream) stage, profiler, op, upstream);
+
+        throw new IllegalArgumentException("Unable to profile stage: " + stage.getClass().getName());
+    }
+
+    /**
+     * Report the profile of a single evaluation of a pipeline, from its source to the given stage.
+     *
+     * @param tail       The final stage of the pipeline.
+     * @param evaluation The evaluation.
+     */
+    void report(Probe tail, Evaluation evaluation) {
+        List<PipelineProfile.Stage> stages = new ArrayList<>();
+        for (Probe probe = tail; probe != null; probe = probe.upstream) {
+            Counters counters = evaluation.counters(probe);
+            long self = counters.inclusiveNanos() - (probe.upstream != null ? evaluation.counters(probe.upstream).inclusiveNanos() : 0);
+            stages.add(new PipelineProfile.Stage(probe.op, counters.elements, Math.max(0, self), probe.knownLengthLost));
+        }
+        Collections.reverse(stages);
+        PipelineProfile profile = new PipelineProfile(name, stages);
+        if (reporter != null) {
+            reporter.accept(profile);
+        } else {
+            Log.LOGGER.info("{}", profile);
+        }
+    }
+
+    // Only initialized once a profile is reported, as every stage checks if profiling is enabled.
+    private static final class Log {
+
+        private static final Logger LOGGER = LoggerFactory.getLogger(Profiler.class);
+    }
+
+    /**
+     * A stream which records the elements produced by its stage.
+     * <p>
+     * Implemented by the {@code Probed} stream of each stream type.
+     */
+    interface ProbedStage {
+
+        /**
+         * @return The stage being recorded.
+         */
+        Probe probe();
+
+        /**
+         * @see FastStream#knownLength(boolean)
+         */
+        int knownLength(boolean consumeToCalculate);
+    }
+
+    /**
+     * A single stage of a profiled pipeline.
+     */
+    static final class Probe {
+
+        final Profiler profiler;
+        final String op;
+        final @Nullable Probe upstream;
+        final boolean knownLengthLost;
+
+        Probe(Profiler profiler, String op, @Nullable ProbedStage upstream, int knownLength) {
+            this.profiler = profiler;
+            this.op = op;
+            this.upstream = upstream != null ? upstream.probe() : null;
+            knownLengthLost = upstream != null && upstream.knownLength(false) >= 0 && knownLength < 0;
+        }
+    }
+
+    /**
+     * The counters recorded by a single evaluation of a pipeline.
+     */
+    static final class Evaluation {
+
+        private final Profiler profiler;
+        private final Map<Probe, Counters> counters = new IdentityHashMap<>();
+
+        private Evaluation(Profiler profiler) {
+            this.profiler = profiler;
+        }
+
+        Counters counters(Probe probe) {
+            return counters.computeIfAbsent(probe, e -> new Counters());
+        }
+    }
+
+    /**
+     * The elements produced by, and time spent in, a single stage.
+     */
+    static final class Counters {
+
+        long elements;
+        long nanos;
+        long sampledNanos;
+        long samples;
+        long calls;
+
+        // The time spent in this stage, and all upstream stages.
+        long inclusiveNanos() {
+            return nanos + (samples == 0 ? 0 : sampledNanos * calls / samples);
+        }
+    }
+
+    /**
+     * Counts the elements passed downstream by a stage's {@code forEach}, sampling the time spent downstream.
+     */
+    static abstract class Sampler {
+
+        long count;
+        long sampled;
+        long samples;
+
+        /**
+         * Count an element.
+         *
+         * @return If the time spent downstream should be sampled for this element.
+         */
+        final boolean sample() {
+            return (count++ & SAMPLE_MASK) == 0;
+        }
+
+        final void sampled(long nanos) {
+            sampled += nanos;
+            samples++;
+        }
+    }
+
+    /**
+     * A single evaluation of a probed stage, via {@code forEach} or its iterator.
+     * <p>
+     * If an evaluation of the same pipeline is in progress on this thread, the stage is
+     * upstream of the stage being evaluated and joins it. Otherwise, the stage is the final
+     * stage of a new evaluation, which is made current whilst the stage is evaluating, and
+     * reported once it ends.
+     */
+    static final class Scope {
+
+        private final Probe probe;
+        private final Evaluation evaluation;
+        private final Counters counters;
+        private final boolean tail;
+        private @Nullable Evaluation outer;
+        private boolean reported;
+
+        Scope(Probe probe) {
+            Evaluation current = CURRENT.get();
+            this.probe = probe;
+            tail = current == null || current.profiler != probe.profiler;
+            evaluation = tail ? new Evaluation(probe.profiler) : current;
+            counters = evaluation.counters(probe);
+        }
+
+        /**
+         * Make the evaluation current on this thread, if this is its final stage.
+         */
+        void enter() {
+            if (!tail) return;
+
+            outer = CURRENT.get();
+            CURRENT.set(evaluation);
+        }
+
+        /**
+         * Restore the evaluation which was current before {@link #enter}.
+         */
+        void exit() {
+            if (!tail) return;
+
+            if (outer != null) {
+                CURRENT.set(outer);
+                outer = null;
+            } else {
+                CURRENT.remove();
+            }
+        }
+
+        /**
+         * Begin a call to the stage's iterator.
+         *
+         * @return The start time, if the call is sampled.
+         */
+        long beginCall() {
+            enter();
+            return (counters.calls++ & SAMPLE_MASK) == 0 ? System.nanoTime() : NOT_SAMPLED;
+        }
+
+        /**
+         * End a call to the stage's iterator.
+         *
+         * @param start The value returned from {@link #beginCall}.
+         */
+        void endCall(long start) {
+            if (start != NOT_SAMPLED) {
+                counters.sampledNanos += System.nanoTime() - start;
+                counters.samples++;
+            }
+            exit();
+        }
+
+        /**
+         * Count an element produced by the stage's iterator.
+         */
+        void produced() {
+            counters.elements++;
+        }
+
+        /**
+         * End an evaluation via {@code forEach}, excluding the time estimated to be spent downstream.
+         *
+         * @param elapsed The total time spent evaluating.
+         * @param sampler The sampler passed downstream.
+         */
+        void end(long elapsed, Sampler sampler) {
+            long downstream = sampler.samples == 0 ? 0 : sampler.sampled * sampler.count / sampler.samples;
+            counters.elements += sampler.count;
+            counters.nanos += Math.max(0, elapsed - downstream);
+            exit();
+            report();
+        }
+
+        /**
+         * Report the evaluation, if this is its final stage.
+         */
+        void report() {
+            if (!tail || reported) return;
+
+            reported = true;
+            probe.profiler.report(probe, evaluation);
+        }
+    }
+}
@@ -6,10 +6,7 @@ package net.covers1624.quack.collection;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
 
@@ -53,12 +50,65 @@ public class TypedMap implements Map<Object, Object> {
     @NotNull @Override public Set<Entry<Object, Object>> entrySet() { return delegate.entrySet(); }
     //@formatter:on
 
+    /**
+     * A typed key.
+     * <p>
+     * Each key name is assigned a dense id from a global registry when first created,
+     * keys with the same name share the same id. Keys are compared by this id.
+     *
+     * @see ArrayTypedMap
+     */
     public static class Key<T> {
 
+        private static final Map<String, Integer> IDS = new HashMap<>();
+        // The first key created for each id, indexed up to the size of IDS.
+        // Grown geometrically, republished on each registration.
+        private static volatile Key<?>[] byId = new Key<?>[16];
+
         private final String name;
+        private final int id;
 
         public Key(String name) {
             this.name = name;
+            synchronized (IDS) {
+                Integer existing = IDS.get(name);
+                if (existing != null) {
+                    id = existing;
+                } else {
+                    id = IDS.size();
+                    IDS.put(name, id);
+                    Key<?>[] keys = byId;
+                    if (id == keys.length) {
+                        keys = Arrays.copyOf(keys, keys.length * 2);
+                    }
+                    keys[id] = this;
+                    byId = keys;
+                }
+            }
+        }
+
+        /**
+         * Gets the first key created with the given id.
+         *
+         * @param id The id.
+         * @return The key.
+         */
+        static Key<?> byId(int id) {
+            return byId[id];
+        }
+
+        /**
+         * @return The name of this key.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The dense id of this key.
+         */
+        public int getId() {
+            return id;
         }
 
         @Override
@@ -70,14 +120,12 @@ public class TypedMap implements Map<Object, Object> {
                 return false;
             }
             Key<?> other = (Key<?>) obj;
-            return other.name.equals(name);
+            return other.id == id;
         }
 
         @Override
         public int hashCode() {
-            int i = 0;
-            i = 31 * i + name.hashCode();
-            return i;
+            return id;
         }
 
         @Override
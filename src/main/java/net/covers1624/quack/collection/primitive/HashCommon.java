@@ -0,0 +1,53 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection.primitive;
+
+/**
+ * Shared sizing and hashing for the open addressing collections in this package.
+ * <p>
+ * Tables are a power of two in size, filled to at most {@link #LOAD_FACTOR}, and
+ * probed linearly. Hashes are scrambled first, so that sequential keys and poor
+ * {@link Object#hashCode()} implementations still spread over the table.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+final class HashCommon {
+
+    static final float LOAD_FACTOR = 0.75F;
+    private static final int MAX_SIZE = 1 << 30;
+
+    private HashCommon() {
+    }
+
+    static int mix(int x) {
+        int h = x * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Compute the table size for the given number of elements.
+     *
+     * @param expected The number of elements.
+     * @return The table size, a power of two.
+     */
+    static int arraySize(int expected) {
+        long size = Math.max(2, nextPowerOfTwo((long) Math.ceil(expected / LOAD_FACTOR)));
+        if (size > MAX_SIZE) throw new IllegalArgumentException("Too large, " + expected + " expected elements.");
+        return (int) size;
+    }
+
+    /**
+     * Compute the maximum number of elements before the given table size must grow.
+     *
+     * @param n The table size.
+     * @return The maximum number of elements.
+     */
+    static int maxFill(int n) {
+        return Math.min((int) Math.ceil(n * LOAD_FACTOR), n - 1);
+    }
+
+    private static long nextPowerOfTwo(long x) {
+        return x <= 1 ? 1 : Long.highestOneBit(x - 1) << 1;
+    }
+}
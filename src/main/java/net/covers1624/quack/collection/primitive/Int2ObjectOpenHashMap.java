@@ -0,0 +1,296 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection.primitive;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import static net.covers1624.quack.collection.primitive.HashCommon.*;
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * A map of primitive int keys to Object values, without boxing.
+ * <p>
+ * Keys and values are stored in parallel arrays, using open addressing with linear probing.
+ * Unlike {@link java.util.HashMap}, no entry objects are allocated, and removals shift
+ * following entries back instead of leaving tombstones.
+ * <p>
+ * Absent keys are reported as {@code null}, as such {@code null} values are not supported.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ *
+ * @param <V> The type of value.
+ */
+public class Int2ObjectOpenHashMap<V> {
+
+    // Free slots are 0, the 0 key lives in the extra slot at index n.
+    private int[] keys;
+    private @Nullable Object[] values;
+    private int n;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private boolean containsZeroKey;
+
+    /**
+     * Create a new, empty, map.
+     */
+    public Int2ObjectOpenHashMap() {
+        this(16);
+    }
+
+    /**
+     * Create a new, empty, map, which can hold the given number of entries without growing.
+     *
+     * @param expected The number of entries.
+     */
+    public Int2ObjectOpenHashMap(int expected) {
+        if (expected < 0) throw new IllegalArgumentException("Expected size must not be negative.");
+        n = arraySize(expected);
+        mask = n - 1;
+        maxFill = maxFill(n);
+        keys = new int[n + 1];
+        values = new Object[n + 1];
+    }
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return If the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key The key.
+     * @return If the map contains the given key.
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @param key The key.
+     * @return The value for the given key, or {@code null} if absent.
+     */
+    @Nullable
+    public V get(int key) {
+        int pos = find(key);
+        return pos >= 0 ? unsafeCast(values[pos]) : null;
+    }
+
+    /**
+     * @param key The key.
+     * @param def The value to return if the key is absent.
+     * @return The value for the given key, or {@code def} if absent.
+     */
+    public V getOrDefault(int key, V def) {
+        int pos = find(key);
+        return pos >= 0 ? unsafeCast(values[pos]) : def;
+    }
+
+    /**
+     * Associate the given key with the given value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public V put(int key, V value) {
+        int pos = find(key);
+        if (pos >= 0) {
+            V prev = unsafeCast(values[pos]);
+            values[pos] = value;
+            return prev;
+        }
+        insert(-pos - 1, key, value);
+        return null;
+    }
+
+    /**
+     * Associate the given key with the given value, if the key is absent.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The existing value, or {@code null} if absent.
+     */
+    @Nullable
+    public V putIfAbsent(int key, V value) {
+        int pos = find(key);
+        if (pos >= 0) return unsafeCast(values[pos]);
+
+        insert(-pos - 1, key, value);
+        return null;
+    }
+
+    /**
+     * Gets the value associated with the given key, computing it if absent.
+     *
+     * @param key  The key.
+     * @param func Computes the value for the key.
+     * @return The value.
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> func) {
+        int pos = find(key);
+        if (pos >= 0) return unsafeCast(values[pos]);
+
+        V value = func.apply(key);
+        // The function may have modified the map.
+        pos = find(key);
+        if (pos >= 0) {
+            values[pos] = value;
+        } else {
+            insert(-pos - 1, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Remove the given key from the map.
+     *
+     * @param key The key.
+     * @return The previous value, or {@code null} if absent.
+     */
+    @Nullable
+    public V remove(int key) {
+        int pos = find(key);
+        if (pos < 0) return null;
+
+        V prev = unsafeCast(values[pos]);
+        if (pos == n) {
+            containsZeroKey = false;
+            values[n] = null;
+        } else {
+            shiftKeys(pos);
+        }
+        size--;
+        return prev;
+    }
+
+    /**
+     * Remove all entries from the map.
+     */
+    public void clear() {
+        if (size == 0) return;
+
+        size = 0;
+        containsZeroKey = false;
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * Visit each entry in the map, in no particular order.
+     *
+     * @param action The action to perform on each key and value.
+     */
+    public void forEach(IntObjConsumer<? super V> action) {
+        if (containsZeroKey) {
+            action.accept(0, unsafeCast(values[n]));
+        }
+        for (int i = 0; i < n; i++) {
+            int key = keys[i];
+            if (key != 0) {
+                action.accept(key, unsafeCast(values[i]));
+            }
+        }
+    }
+
+    // Returns the slot of the key, or -(insertion slot + 1) if absent.
+    private int find(int key) {
+        if (key == 0) return containsZeroKey ? n : -(n + 1);
+
+        int pos = mix(key) & mask;
+        int curr;
+        while ((curr = keys[pos]) != 0) {
+            if (curr == key) return pos;
+            pos = (pos + 1) & mask;
+        }
+        return -(pos + 1);
+    }
+
+    private void insert(int pos, int key, V value) {
+        if (pos == n) {
+            containsZeroKey = true;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (size++ >= maxFill) {
+            rehash(arraySize(size + 1));
+        }
+    }
+
+    // Backward shift deletion, moves each following entry in the probe run into the hole if it may occupy it.
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            int curr;
+            while (true) {
+                if ((curr = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+                int slot = mix(curr) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = curr;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newN) {
+        int newMask = newN - 1;
+        int[] newKeys = new int[newN + 1];
+        Object[] newValues = new Object[newN + 1];
+        for (int i = 0; i < n; i++) {
+            int key = keys[i];
+            if (key == 0) continue;
+
+            int pos = mix(key) & newMask;
+            while (newKeys[pos] != 0) {
+                pos = (pos + 1) & newMask;
+            }
+            newKeys[pos] = key;
+            newValues[pos] = values[i];
+        }
+        newValues[newN] = values[n];
+        n = newN;
+        mask = newMask;
+        maxFill = maxFill(n);
+        keys = newKeys;
+        values = newValues;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    /**
+     * An operation accepting a primitive int and an Object.
+     *
+     * @param <V> The type of Object.
+     */
+    public interface IntObjConsumer<V> {
+
+        void accept(int i, V v);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection.primitive;
+
+import net.covers1624.quack.collection.IntFastStream;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A growable list of primitive ints, without boxing.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public class IntArrayList {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] a;
+    private int size;
+
+    /**
+     * Create a new, empty, list.
+     */
+    public IntArrayList() {
+        a = EMPTY;
+    }
+
+    /**
+     * Create a new, empty, list, which can hold the given number of elements without growing.
+     *
+     * @param capacity The number of elements.
+     */
+    public IntArrayList(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity must not be negative.");
+        a = capacity == 0 ? EMPTY : new int[capacity];
+    }
+
+    /**
+     * @return The number of elements in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return If the list has no elements.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append the given element to the list.
+     *
+     * @param k The element.
+     */
+    public void add(int k) {
+        if (size == a.length) {
+            grow(size + 1);
+        }
+        a[size++] = k;
+    }
+
+    /**
+     * @param index The index.
+     * @return The element at the given index.
+     */
+    public int getInt(int index) {
+        checkIndex(index);
+        return a[index];
+    }
+
+    /**
+     * Replace the element at the given index.
+     *
+     * @param index The index.
+     * @param k     The element.
+     * @return The previous element.
+     */
+    public int set(int index, int k) {
+        checkIndex(index);
+        int prev = a[index];
+        a[index] = k;
+        return prev;
+    }
+
+    /**
+     * Remove the element at the given index, shifting following elements down.
+     *
+     * @param index The index.
+     * @return The removed element.
+     */
+    public int removeInt(int index) {
+        checkIndex(index);
+        int prev = a[index];
+        size--;
+        System.arraycopy(a, index + 1, a, index, size - index);
+        return prev;
+    }
+
+    /**
+     * @param k The element.
+     * @return The index of the first occurrence of the given element, or {@code -1}.
+     */
+    public int indexOf(int k) {
+        for (int i = 0; i < size; i++) {
+            if (a[i] == k) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param k The element.
+     * @return If the list contains the given element.
+     */
+    public boolean contains(int k) {
+        return indexOf(k) != -1;
+    }
+
+    /**
+     * Remove all elements from the list, retaining its capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Ensure the list can hold the given number of elements without growing.
+     *
+     * @param capacity The number of elements.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > a.length) {
+            grow(capacity);
+        }
+    }
+
+    /**
+     * Shrink the list's capacity to its size.
+     */
+    public void trim() {
+        if (size < a.length) {
+            a = size == 0 ? EMPTY : Arrays.copyOf(a, size);
+        }
+    }
+
+    /**
+     * Visit each element in the list, in order.
+     *
+     * @param action The action to perform on each element.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(a[i]);
+        }
+    }
+
+    /**
+     * @return A new array containing every element in the list, in order.
+     */
+    public int[] toIntArray() {
+        return Arrays.copyOf(a, size);
+    }
+
+    /**
+     * Returns an {@link IntFastStream} over the list.
+     * <p>
+     * The stream is backed by this list, which must not be modified whilst it is evaluated.
+     *
+     * @return The {@link IntFastStream}.
+     */
+    public IntFastStream stream() {
+        return IntFastStream.of(a, 0, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private void grow(int capacity) {
+        // Grow by half again, as ArrayList does.
+        long newCapacity = Math.max(capacity, Math.max(10, a.length + (long) (a.length >> 1)));
+        a = Arrays.copyOf(a, (int) Math.min(Integer.MAX_VALUE - 8, newCapacity));
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof IntArrayList)) return false;
+
+        IntArrayList other = (IntArrayList) obj;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (a[i] != other.a[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + a[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i != 0) sb.append(", ");
+            sb.append(a[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection.primitive;
+
+import net.covers1624.quack.collection.IntFastStream;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+import static net.covers1624.quack.collection.primitive.HashCommon.*;
+
+/**
+ * A set of primitive ints, without boxing.
+ * <p>
+ * Elements are stored in a single array, using open addressing with linear probing.
+ * Removals shift following elements back instead of leaving tombstones.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ */
+public class IntOpenHashSet {
+
+    // Free slots are 0, 0 itself is tracked separately.
+    private int[] keys;
+    private int n;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private boolean containsZero;
+
+    /**
+     * Create a new, empty, set.
+     */
+    public IntOpenHashSet() {
+        this(16);
+    }
+
+    /**
+     * Create a new, empty, set, which can hold the given number of elements without growing.
+     *
+     * @param expected The number of elements.
+     */
+    public IntOpenHashSet(int expected) {
+        if (expected < 0) throw new IllegalArgumentException("Expected size must not be negative.");
+        n = arraySize(expected);
+        mask = n - 1;
+        maxFill = maxFill(n);
+        keys = new int[n];
+    }
+
+    /**
+     * @return The number of elements in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return If the set has no elements.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param k The element.
+     * @return If the set contains the given element.
+     */
+    public boolean contains(int k) {
+        if (k == 0) return containsZero;
+
+        int pos = mix(k) & mask;
+        int curr;
+        while ((curr = keys[pos]) != 0) {
+            if (curr == k) return true;
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Add the given element to the set.
+     *
+     * @param k The element.
+     * @return {@code true} if the element was not already present.
+     */
+    public boolean add(int k) {
+        if (k == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+        } else {
+            int pos = mix(k) & mask;
+            int curr;
+            while ((curr = keys[pos]) != 0) {
+                if (curr == k) return false;
+                pos = (pos + 1) & mask;
+            }
+            keys[pos] = k;
+        }
+        if (size++ >= maxFill) {
+            rehash(arraySize(size + 1));
+        }
+        return true;
+    }
+
+    /**
+     * Remove the given element from the set.
+     *
+     * @param k The element.
+     * @return {@code true} if the element was present.
+     */
+    public boolean remove(int k) {
+        if (k == 0) {
+            if (!containsZero) return false;
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int pos = mix(k) & mask;
+        int curr;
+        while ((curr = keys[pos]) != 0) {
+            if (curr == k) {
+                shiftKeys(pos);
+                size--;
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Remove all elements from the set.
+     */
+    public void clear() {
+        if (size == 0) return;
+
+        size = 0;
+        containsZero = false;
+        Arrays.fill(keys, 0);
+    }
+
+    /**
+     * Visit each element in the set, in no particular order.
+     *
+     * @param action The action to perform on each element.
+     */
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                action.accept(k);
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the set, in no particular order.
+     * <p>
+     * The set must not be modified whilst iterating.
+     *
+     * @return The iterator.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            // -1 represents the zero element.
+            private int pos = containsZero ? -1 : advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return pos < n;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                int k = pos == -1 ? 0 : keys[pos];
+                pos = advance(pos + 1);
+                return k;
+            }
+
+            private int advance(int pos) {
+                while (pos < n && keys[pos] == 0) {
+                    pos++;
+                }
+                return pos;
+            }
+        };
+    }
+
+    /**
+     * @return A new array containing every element in the set, in no particular order.
+     */
+    public int[] toIntArray() {
+        int[] arr = new int[size];
+        int i = 0;
+        if (containsZero) {
+            arr[i++] = 0;
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                arr[i++] = k;
+            }
+        }
+        return arr;
+    }
+
+    /**
+     * @return An {@link IntFastStream} over a snapshot of the set.
+     */
+    public IntFastStream stream() {
+        return IntFastStream.of(toIntArray());
+    }
+
+    // Backward shift deletion, moves each following element in the probe run into the hole if it may occupy it.
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            int curr;
+            while (true) {
+                if ((curr = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int slot = mix(curr) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = curr;
+        }
+    }
+
+    private void rehash(int newN) {
+        int newMask = newN - 1;
+        int[] newKeys = new int[newN];
+        for (int k : keys) {
+            if (k == 0) continue;
+
+            int pos = mix(k) & newMask;
+            while (newKeys[pos] != 0) {
+                pos = (pos + 1) & newMask;
+            }
+            newKeys[pos] = k;
+        }
+        n = newN;
+        mask = newMask;
+        maxFill = maxFill(n);
+        keys = newKeys;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        forEach(k -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(k);
+        });
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection.primitive;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+import static net.covers1624.quack.collection.primitive.HashCommon.*;
+import static net.covers1624.quack.util.SneakyUtils.unsafeCast;
+
+/**
+ * A map of Object keys to primitive int values, without boxing.
+ * <p>
+ * Keys and values are stored in parallel arrays, using open addressing with linear probing.
+ * Unlike {@link java.util.HashMap}, no entry objects are allocated, and removals shift
+ * following entries back instead of leaving tombstones.
+ * <p>
+ * Absent keys are reported via the {@link #defaultReturnValue(int) default return value},
+ * zero unless otherwise specified. A {@code null} key is supported.
+ * <p>
+ * Created by covers1624 on 16/10/26.
+ *
+ * @param <K> The type of key.
+ */
+public class Object2IntOpenHashMap<K> {
+
+    // Free slots are null, the null key lives in the extra slot at index n.
+    private Object[] keys;
+    private int[] values;
+    private int n;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private boolean containsNullKey;
+    private int defaultReturnValue;
+
+    /**
+     * Create a new, empty, map.
+     */
+    public Object2IntOpenHashMap() {
+        this(16);
+    }
+
+    /**
+     * Create a new, empty, map, which can hold the given number of entries without growing.
+     *
+     * @param expected The number of entries.
+     */
+    public Object2IntOpenHashMap(int expected) {
+        if (expected < 0) throw new IllegalArgumentException("Expected size must not be negative.");
+        n = arraySize(expected);
+        mask = n - 1;
+        maxFill = maxFill(n);
+        keys = new Object[n + 1];
+        values = new int[n + 1];
+    }
+
+    /**
+     * Sets the value returned for absent keys.
+     *
+     * @param defaultReturnValue The value.
+     * @return This map.
+     */
+    public Object2IntOpenHashMap<K> defaultReturnValue(int defaultReturnValue) {
+        this.defaultReturnValue = defaultReturnValue;
+        return this;
+    }
+
+    /**
+     * @return The value returned for absent keys.
+     */
+    public int defaultReturnValue() {
+        return defaultReturnValue;
+    }
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return If the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key The key.
+     * @return If the map contains the given key.
+     */
+    public boolean containsKey(@Nullable K key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @param key The key.
+     * @return The value for the given key, or the default return value if absent.
+     */
+    public int getInt(@Nullable K key) {
+        return getOrDefault(key, defaultReturnValue);
+    }
+
+    /**
+     * @param key The key.
+     * @param def The value to return if the key is absent.
+     * @return The value for the given key, or {@code def} if absent.
+     */
+    public int getOrDefault(@Nullable K key, int def) {
+        int pos = find(key);
+        return pos >= 0 ? values[pos] : def;
+    }
+
+    /**
+     * Associate the given key with the given value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The previous value, or the default return value if absent.
+     */
+    public int put(@Nullable K key, int value) {
+        int pos = find(key);
+        if (pos >= 0) {
+            int prev = values[pos];
+            values[pos] = value;
+            return prev;
+        }
+        insert(-pos - 1, key, value);
+        return defaultReturnValue;
+    }
+
+    /**
+     * Associate the given key with the given value, if the key is absent.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The existing value, or the default return value if absent.
+     */
+    public int putIfAbsent(@Nullable K key, int value) {
+        int pos = find(key);
+        if (pos >= 0) return values[pos];
+
+        insert(-pos - 1, key, value);
+        return defaultReturnValue;
+    }
+
+    /**
+     * Add to the value associated with the given key.
+     * <p>
+     * Absent keys are treated as having the default return value.
+     *
+     * @param key       The key.
+     * @param increment The amount to add.
+     * @return The previous value, or the default return value if absent.
+     */
+    public int addTo(@Nullable K key, int increment) {
+        int pos = find(key);
+        if (pos >= 0) {
+            int prev = values[pos];
+            values[pos] = prev + increment;
+            return prev;
+        }
+        insert(-pos - 1, key, defaultReturnValue + increment);
+        return defaultReturnValue;
+    }
+
+    /**
+     * Associate the given key with the given value, or merge it with the existing value.
+     *
+     * @param key       The key.
+     * @param value     The value.
+     * @param mergeFunc Merges the existing value with the given value.
+     * @return The new value.
+     */
+    public int merge(@Nullable K key, int value, IntBinaryOperator mergeFunc) {
+        int pos = find(key);
+        if (pos >= 0) {
+            return values[pos] = mergeFunc.applyAsInt(values[pos], value);
+        }
+        insert(-pos - 1, key, value);
+        return value;
+    }
+
+    /**
+     * Gets the value associated with the given key, computing it if absent.
+     *
+     * @param key  The key.
+     * @param func Computes the value for the key.
+     * @return The value.
+     */
+    public int computeIfAbsent(@Nullable K key, ToIntFunction<? super K> func) {
+        int pos = find(key);
+        if (pos >= 0) return values[pos];
+
+        int value = func.applyAsInt(key);
+        // The function may have modified the map.
+        pos = find(key);
+        if (pos >= 0) {
+            values[pos] = value;
+        } else {
+            insert(-pos - 1, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Remove the given key from the map.
+     *
+     * @param key The key.
+     * @return The previous value, or the default return value if absent.
+     */
+    public int removeInt(@Nullable K key) {
+        int pos = find(key);
+        if (pos < 0) return defaultReturnValue;
+
+        int prev = values[pos];
+        if (pos == n) {
+            containsNullKey = false;
+        } else {
+            shiftKeys(pos);
+        }
+        size--;
+        return prev;
+    }
+
+    /**
+     * Remove all entries from the map.
+     */
+    public void clear() {
+        if (size == 0) return;
+
+        size = 0;
+        containsNullKey = false;
+        Arrays.fill(keys, null);
+    }
+
+    /**
+     * Visit each entry in the map, in no particular order.
+     *
+     * @param action The action to perform on each key and value.
+     */
+    public void forEach(ObjIntConsumer<? super K> action) {
+        if (containsNullKey) {
+            action.accept(unsafeCast(null), values[n]);
+        }
+        for (int i = 0; i < n; i++) {
+            Object key = keys[i];
+            if (key != null) {
+                action.accept(unsafeCast(key), values[i]);
+            }
+        }
+    }
+
+    // Returns the slot of the key, or -(insertion slot + 1) if absent.
+    private int find(@Nullable Object key) {
+        if (key == null) return containsNullKey ? n : -(n + 1);
+
+        int pos = mix(key.hashCode()) & mask;
+        Object curr;
+        while ((curr = keys[pos]) != null) {
+            if (curr.equals(key)) return pos;
+            pos = (pos + 1) & mask;
+        }
+        return -(pos + 1);
+    }
+
+    private void insert(int pos, @Nullable K key, int value) {
+        if (pos == n) {
+            containsNullKey = true;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (size++ >= maxFill) {
+            rehash(arraySize(size + 1));
+        }
+    }
+
+    // Backward shift deletion, moves each following entry in the probe run into the hole if it may occupy it.
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            Object curr;
+            while (true) {
+                if ((curr = keys[pos]) == null) {
+                    keys[last] = null;
+                    return;
+                }
+                int slot = mix(curr.hashCode()) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) break;
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = curr;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newN) {
+        int newMask = newN - 1;
+        Object[] newKeys = new Object[newN + 1];
+        int[] newValues = new int[newN + 1];
+        for (int i = 0; i < n; i++) {
+            Object key = keys[i];
+            if (key == null) continue;
+
+            int pos = mix(key.hashCode()) & newMask;
+            while (newKeys[pos] != null) {
+                pos = (pos + 1) & newMask;
+            }
+            newKeys[pos] = key;
+            newValues[pos] = values[i];
+        }
+        newValues[newN] = values[n];
+        n = newN;
+        mask = newMask;
+        maxFill = maxFill(n);
+        keys = newKeys;
+        values = newValues;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,10 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+@NonNullApi
+package net.covers1624.quack.collection.primitive;
+
+import net.covers1624.quack.annotation.NonNullApi;
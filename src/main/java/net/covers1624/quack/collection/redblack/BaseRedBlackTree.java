@@ -151,6 +151,7 @@ public class BaseRedBlackTree<N extends RedBlackNode<N>> {
 
         root = buildFrom(nodes, 0, nodes.size(), bh);
         count = nodes.size();
+        _version++;
     }
 
     @Nullable
@@ -168,6 +169,220 @@ public class BaseRedBlackTree<N extends RedBlackNode<N>> {
         return p;
     }
 
+    /**
+     * Splits this tree before the given node.
+     * <p>
+     * Nodes ordered before {@code at} remain in this tree, {@code at} and all nodes
+     * after it are moved to {@code into}. Node augmentations are maintained.
+     * <p>
+     * This is {@code O(log n)} when {@link #countOf} is, otherwise the nodes remaining
+     * in this tree are counted.
+     *
+     * @param at   The node to split at, owned by this tree.
+     * @param into The empty tree to move {@code at} and all following nodes to.
+     */
+    public void split(N at, BaseRedBlackTree<N> into) {
+        if (into == this) throw new IllegalArgumentException("Can't split into the same tree.");
+        if (into.root != null) throw new IllegalArgumentException("Split target must be empty.");
+        assert at.getRoot() == root;
+
+        int total = count;
+        Split<N> split = splitAt(at);
+        int leftCount = countOf(split.left.root);
+        Subtree<N> right = join(new Subtree<>(null, 0), at, split.right);
+
+        reset(split.left.root, leftCount);
+        into.reset(right.root, total - leftCount);
+    }
+
+    /**
+     * Appends the given pivot, and all nodes of {@code right} to the end of this tree,
+     * leaving {@code right} empty. Node augmentations are maintained.
+     * <p>
+     * All nodes in {@code right} must be ordered after all nodes in this tree, and
+     * the pivot between them.
+     * <p>
+     * This is {@code O(log n)}.
+     *
+     * @param pivot The detached node to join between both trees, or {@code null} to join them directly.
+     * @param right The tree whose nodes to append.
+     */
+    public void join(@Nullable N pivot, BaseRedBlackTree<N> right) {
+        if (right == this) throw new IllegalArgumentException("Can't join a tree with itself.");
+        if (pivot == null) {
+            if (right.root == null) return;
+
+            pivot = right.root.getLeftMost();
+            right.entries().remove(pivot);
+        }
+        orderConsistencyCheck(getRightMost(), pivot);
+        orderConsistencyCheck(pivot, right.getLeftMost());
+
+        int total = count + 1 + right.count;
+        Subtree<N> left = new Subtree<>(root, blackHeight(root));
+        Subtree<N> joined = join(left, pivot, new Subtree<>(right.root, blackHeight(right.root)));
+        right.reset(null, 0);
+        reset(joined.root, total);
+    }
+
+    /**
+     * Counts the nodes in the given subtree.
+     * <p>
+     * Trees which track subtree sizes should override this, making {@link #split} {@code O(log n)}.
+     *
+     * @param node The root of the subtree.
+     * @return The number of nodes.
+     */
+    protected int countOf(@Nullable N node) {
+        if (node == null) return 0;
+        return 1 + countOf(node.getLeft()) + countOf(node.getRight());
+    }
+
+    /**
+     * Replaces the contents of this tree.
+     *
+     * @param root  The new root.
+     * @param count The number of nodes under the new root.
+     */
+    void reset(@Nullable N root, int count) {
+        setRoot(root);
+        if (root != null) {
+            root.setBlack(true);
+        }
+        this.count = count;
+        _version++;
+    }
+
+    /**
+     * Joins two detached subtrees with a pivot ordered between them.
+     * <p>
+     * The pivot is inserted into the taller subtree, on the spine facing the shorter subtree,
+     * at the first black node with the same black height as the shorter subtree. Then fixed
+     * up as an ordinary insertion. This uses the tree's root as scratch space.
+     *
+     * @param left  The left subtree.
+     * @param pivot The pivot node.
+     * @param right The right subtree.
+     * @return The joined subtree.
+     */
+    Subtree<N> join(Subtree<N> left, N pivot, Subtree<N> right) {
+        left = blackenRoot(left);
+        right = blackenRoot(right);
+        pivot.makeRoot();
+        pivot.setLeft(null);
+        pivot.setRight(null);
+
+        if (left.blackHeight == right.blackHeight) {
+            pivot.setLeft(left.root);
+            pivot.setRight(right.root);
+            pivot.setBlack(true);
+            pivot.onChildrenChanged();
+            return new Subtree<>(pivot, left.blackHeight + 1);
+        }
+
+        boolean tallRight = right.blackHeight > left.blackHeight;
+        Subtree<N> tall = tallRight ? right : left;
+        Subtree<N> small = tallRight ? left : right;
+        // Walk down the spine facing the short subtree.
+        boolean side = !tallRight;
+
+        N parent = null;
+        N at = tall.root;
+        int height = tall.blackHeight;
+        while (at != null && (at.isRed() || height > small.blackHeight)) {
+            if (at.isBlack()) {
+                height--;
+            }
+            parent = at;
+            at = at.getChild(side);
+        }
+        assert parent != null;
+
+        setRoot(tall.root);
+        pivot.assign(!side, at);
+        pivot.assign(side, small.root);
+        pivot.setRed(true);
+        pivot.onChildrenChanged();
+        parent.assign(side, pivot);
+        parent.onChildrenChanged();
+        fixInsertion(pivot);
+
+        N newRoot = requireNonNull(root);
+        int blackHeight = tall.blackHeight;
+        if (newRoot.isRed()) {
+            newRoot.setBlack(true);
+            blackHeight++;
+        }
+        return new Subtree<>(newRoot, blackHeight);
+    }
+
+    /**
+     * Splits this tree around the given node, which is detached from both sides.
+     * <p>
+     * Walks from the node to the root, joining each ancestor and its other subtree
+     * onto the side it is ordered on. This leaves the tree's root in an undefined state.
+     *
+     * @param at The node to split at.
+     * @return The nodes before and after {@code at}.
+     */
+    Split<N> splitAt(N at) {
+        // All subtrees beside the path to the root share the black height of the path node.
+        int height = blackHeight(at);
+        int childHeight = height - (at.isBlack() ? 1 : 0);
+        Subtree<N> left = new Subtree<>(at.getLeft(), childHeight);
+        Subtree<N> right = new Subtree<>(at.getRight(), childHeight);
+
+        N parent = at.getParent();
+        boolean side = parent != null && at.getSide();
+        while (parent != null) {
+            // Joining relinks the parent, capture where it came from first.
+            N grandParent = parent.getParent();
+            boolean parentSide = grandParent != null && parent.getSide();
+            Subtree<N> other = new Subtree<>(parent.getChild(!side), height);
+            if (parent.isBlack()) {
+                height++;
+            }
+            if (side) {
+                left = join(other, parent, left);
+            } else {
+                right = join(right, parent, other);
+            }
+            parent = grandParent;
+            side = parentSide;
+        }
+        at.setLeft(null);
+        at.setRight(null);
+        at.makeRoot();
+        at.onChildrenChanged();
+        return new Split<>(left, at, right);
+    }
+
+    /**
+     * Computes the black height of the given subtree, including its root.
+     *
+     * @param node The root of the subtree.
+     * @return The black height.
+     */
+    static int blackHeight(@Nullable RedBlackNode<?> node) {
+        int height = 0;
+        for (; node != null; node = node.getLeft()) {
+            if (node.isBlack()) {
+                height++;
+            }
+        }
+        return height;
+    }
+
+    private static <N extends RedBlackNode<N>> Subtree<N> blackenRoot(Subtree<N> tree) {
+        if (tree.root == null) return tree;
+
+        tree.root.makeRoot();
+        if (tree.root.isBlack()) return tree;
+
+        tree.root.setBlack(true);
+        return new Subtree<>(tree.root, tree.blackHeight + 1);
+    }
+
     protected void orderConsistencyCheck(@Nullable N left, @Nullable N right) { }
 
     protected Entries makeEntriesCollection() {
@@ -179,6 +394,13 @@ public class BaseRedBlackTree<N extends RedBlackNode<N>> {
         return root;
     }
 
+    /**
+     * @return The structural modification count of this tree.
+     */
+    int getVersion() {
+        return _version;
+    }
+
     public void setRoot(@Nullable N root) {
         this.root = root;
         if (root != null) {
@@ -316,6 +538,39 @@ public class BaseRedBlackTree<N extends RedBlackNode<N>> {
         node.onChildrenChanged();
     }
 
+    /**
+     * A detached subtree, with its black height.
+     */
+    static final class Subtree<N extends RedBlackNode<N>> {
+
+        @Nullable
+        final N root;
+        final int blackHeight;
+
+        Subtree(@Nullable N root, int blackHeight) {
+            this.root = root;
+            this.blackHeight = blackHeight;
+        }
+    }
+
+    /**
+     * The result of splitting a subtree, the nodes before and after the split point.
+     */
+    static final class Split<N extends RedBlackNode<N>> {
+
+        final Subtree<N> left;
+        // The node split at, if present in the subtree.
+        @Nullable
+        final N pivot;
+        final Subtree<N> right;
+
+        Split(Subtree<N> left, @Nullable N pivot, Subtree<N> right) {
+            this.left = left;
+            this.pivot = pivot;
+            this.right = right;
+        }
+    }
+
     protected class Entries extends AbstractCollection<N> {
 
         @Override
@@ -7,6 +7,8 @@ import net.covers1624.quack.collection.Object2IntPair;
 import net.covers1624.quack.util.SneakyUtils;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 /**
  * Based off Chicken-Bones C# RedBlack Tree library: https://github.com/Chicken-Bones/RedBlack
  * <p>
@@ -54,6 +56,84 @@ public abstract class ComparableRedBlackTree<T, N extends RedBlackNode<N> & Comp
         orderConsistencyCheck(loc, loc.getNext());
     }
 
+    /**
+     * Inserts a sorted batch of nodes into this tree.
+     * <p>
+     * The batch is built into a balanced tree, then merged into this tree by recursively
+     * splitting this tree around the batch's root, and joining the merged halves. This is
+     * {@code O(m log(n / m + 1))} for {@code m} nodes, compared to {@code O(m log n)} for
+     * {@link #insertRange(Iterable)}. Node augmentations are maintained.
+     * <p>
+     * Nodes equal to a node already present are not inserted, the existing node is kept.
+     *
+     * @param sorted The detached nodes to insert, in strictly ascending order.
+     * @return The number of nodes inserted.
+     */
+    public int union(List<N> sorted) {
+        if (sorted.isEmpty()) return 0;
+
+        for (int i = 1; i < sorted.size(); i++) {
+            orderConsistencyCheck(sorted.get(i - 1), sorted.get(i));
+        }
+        for (N node : sorted) {
+            node.makeRoot();
+            node.setLeft(null);
+            node.setRight(null);
+        }
+        int bh = 0;
+        for (int i = sorted.size() + 1; i > 1; i >>= 1) {
+            bh++;
+        }
+        N batch = buildFrom(sorted, 0, sorted.size(), bh);
+
+        int[] duplicates = { 0 };
+        N root = getRoot();
+        Subtree<N> merged = union(new Subtree<>(root, blackHeight(root)), new Subtree<>(batch, blackHeight(batch)), duplicates);
+        reset(merged.root, count + sorted.size() - duplicates[0]);
+        return sorted.size() - duplicates[0];
+    }
+
+    private Subtree<N> union(Subtree<N> a, Subtree<N> b, int[] duplicates) {
+        if (a.root == null) return b;
+        if (b.root == null) return a;
+
+        N pivot = b.root;
+        int childHeight = b.blackHeight - (pivot.isBlack() ? 1 : 0);
+        Subtree<N> bLeft = new Subtree<>(pivot.getLeft(), childHeight);
+        Subtree<N> bRight = new Subtree<>(pivot.getRight(), childHeight);
+
+        Split<N> split = splitByKey(a, pivot);
+        Subtree<N> left = union(split.left, bLeft, duplicates);
+        Subtree<N> right = union(split.right, bRight, duplicates);
+        if (split.pivot != null) {
+            duplicates[0]++;
+            // Keep the existing node, leaving ours detached.
+            pivot.setLeft(null);
+            pivot.setRight(null);
+            return join(left, split.pivot, right);
+        }
+        return join(left, pivot, right);
+    }
+
+    // Splits the subtree around the given key, detaching the node equal to the key if present.
+    private Split<N> splitByKey(Subtree<N> tree, N key) {
+        N node = tree.root;
+        if (node == null) return new Split<>(tree, null, tree);
+
+        int childHeight = tree.blackHeight - (node.isBlack() ? 1 : 0);
+        Subtree<N> left = new Subtree<>(node.getLeft(), childHeight);
+        Subtree<N> right = new Subtree<>(node.getRight(), childHeight);
+
+        int c = key.compareTo(node);
+        if (c == 0) return new Split<>(left, node, right);
+        if (c < 0) {
+            Split<N> split = splitByKey(left, key);
+            return new Split<>(split.left, split.pivot, join(split.right, node, right));
+        }
+        Split<N> split = splitByKey(right, key);
+        return new Split<>(join(left, node, split.left), split.pivot, split.right);
+    }
+
     protected class ComparableEntries extends Entries {
 
         @Override
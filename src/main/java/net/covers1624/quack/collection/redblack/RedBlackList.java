@@ -7,30 +7,129 @@ import net.covers1624.quack.util.Object2IntFunction;
 import net.covers1624.quack.util.SneakyUtils;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractList;
 import java.util.Collection;
 import java.util.List;
 import java.util.ListIterator;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Based off Chicken-Bones C# RedBlack Tree library: https://github.com/Chicken-Bones/RedBlack
  * <p>
+ * Index lookups remember the last node accessed, see {@link #nodeAt}. This is published as
+ * a single immutable reference, so concurrent reads remain safe without synchronization.
+ * Modifications still require external synchronization.
+ * <p>
  * Created by covers1624 on 16/5/21.
  */
 public class RedBlackList<T extends Comparable<T>> extends SimpleRedBlackTree<T, RedBlackList<T>.Node> implements List<T> {
 
+    // The last node accessed by index, replaced as a whole so concurrent readers never mix fields.
+    @Nullable
+    private Finger finger;
+
     @Override
     protected Node newNode(T value) {
         return new Node(value);
     }
 
+    /**
+     * Gets the node at the given index.
+     * <p>
+     * The last node accessed is remembered, and the next lookup walks from it, making
+     * sequential and nearby access amortised {@code O(1)}. Concurrent reads are safe, each
+     * walks from whichever node was last remembered.
+     *
+     * @param index The index.
+     * @return The node.
+     */
     public Node nodeAt(int index) {
-        return getByIndex(this, index, Node::getCount);
+        Finger finger = this.finger;
+        Node node;
+        if (finger != null && finger.version == getVersion()) {
+            checkIndex(this, index);
+            node = getByIndex(finger.node, finger.index, index, Node::getCount);
+        } else {
+            node = getByIndex(this, index, Node::getCount);
+        }
+        setFinger(node, index);
+        return node;
     }
 
     public int indexOf(@Nullable Node node) {
-        return indexOf(this, node, Node::getCount);
+        int index = indexOf(this, node, Node::getCount);
+        if (node != null) {
+            setFinger(node, index);
+        }
+        return index;
+    }
+
+    private void setFinger(Node node, int index) {
+        finger = new Finger(node, index, getVersion());
+    }
+
+    @Override
+    public void replace(Node loc, Node node) {
+        super.replace(loc, node);
+        // Replacing isn't structural, the tree's version is unchanged.
+        Finger finger = this.finger;
+        if (finger != null && finger.node == loc) {
+            this.finger = new Finger(node, finger.index, finger.version);
+        }
+    }
+
+    @Override
+    protected int countOf(@Nullable Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Removes the given range of elements from this list, returning them as a new list.
+     * <p>
+     * This is {@code O(log n)}, the nodes are moved, not copied.
+     *
+     * @param fromIndex The start index, inclusive.
+     * @param toIndex   The end index, exclusive.
+     * @return The removed elements.
+     */
+    public RedBlackList<T> extractRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Got: [" + fromIndex + ".." + toIndex + "), Range: [0.." + size() + "]");
+        }
+
+        RedBlackList<T> range = new RedBlackList<>();
+        if (fromIndex == toIndex) return range;
+
+        RedBlackList<T> tail = new RedBlackList<>();
+        if (toIndex < size()) {
+            split(nodeAt(toIndex), tail);
+        }
+        split(nodeAt(fromIndex), range);
+        join(null, tail);
+        return range;
+    }
+
+    /**
+     * Appends all elements of the given list to this list, leaving it empty.
+     * <p>
+     * This is {@code O(log n)}, the nodes are moved, not copied.
+     *
+     * @param other The list to append, all of its elements must be ordered after this list's.
+     */
+    public void concat(RedBlackList<T> other) {
+        join(null, other);
     }
 
+    /**
+     * Gets the element at the given index.
+     * <p>
+     * Amortised {@code O(1)} for sequential and nearby access, see {@link #nodeAt}.
+     * Safe to call concurrently with other reads.
+     *
+     * @param index The index.
+     * @return The element.
+     */
     @Override
     public T get(int index) {
         return nodeAt(index).value;
@@ -39,7 +138,9 @@ public class RedBlackList<T extends Comparable<T>> extends SimpleRedBlackTree<T,
     @Override
     public T set(int index, T element) {
         Node at = nodeAt(index);
-        replace(at, newNode(element));
+        Node node = newNode(element);
+        replace(at, node);
+        setFinger(node, index);
         return at.value;
     }
 
@@ -75,25 +176,48 @@ public class RedBlackList<T extends Comparable<T>> extends SimpleRedBlackTree<T,
         throw new UnsupportedOperationException("Not Yet Implemented");
     }
 
+    @Override
+    public void clear() {
+        super.clear();
+        // Don't retain the old tree.
+        finger = null;
+    }
+
     @Override
     public ListIterator<T> listIterator() {
-        throw new UnsupportedOperationException("Not Yet Implemented");
+        return listIterator(0);
     }
 
+    /**
+     * Returns a {@link ListIterator} over this list, starting at the given index.
+     * <p>
+     * Each step is amortised {@code O(1)}, see {@link #nodeAt}.
+     *
+     * @param index The index of the first element to return.
+     * @return The {@link ListIterator}.
+     */
     @Override
     public ListIterator<T> listIterator(int index) {
-        throw new UnsupportedOperationException("Not Yet Implemented");
+        return new View().listIterator(index);
     }
 
+    /**
+     * Returns a view of the given range of this list.
+     * <p>
+     * Creating the view is {@code O(1)}, each access is {@code O(log n)}. To detach the range
+     * from this list, see {@link #extractRange}.
+     *
+     * @param fromIndex The start index, inclusive.
+     * @param toIndex   The end index, exclusive.
+     * @return The view.
+     */
     @Override
     public List<T> subList(int fromIndex, int toIndex) {
-        throw new UnsupportedOperationException("Not Yet Implemented");
+        return new View().subList(fromIndex, toIndex);
     }
 
     public static <N extends RedBlackNode<N>> N getByIndex(BaseRedBlackTree<N> tree, int index, Object2IntFunction<N> countGetter) {
-        if (index < 0 || index >= tree.count) {
-            throw new IndexOutOfBoundsException("Got: " + index + ", Range: [0.." + tree.count + "]");
-        }
+        checkIndex(tree, index);
 
         N node = tree.getRoot();
         assert node != null;
@@ -112,6 +236,53 @@ public class RedBlackList<T extends Comparable<T>> extends SimpleRedBlackTree<T,
         }
     }
 
+    /**
+     * Gets the node at the given index, walking from another node with a known index.
+     * <p>
+     * Climbs from the finger until its subtree contains the index, then descends. This is
+     * {@code O(log d)} for a distance of {@code d} between both indexes.
+     *
+     * @param finger      The node to walk from.
+     * @param fingerIndex The index of the finger.
+     * @param index       The index, which must be in bounds.
+     * @param countGetter Gets the size of a node's subtree.
+     * @return The node.
+     */
+    public static <N extends RedBlackNode<N>> N getByIndex(N finger, int fingerIndex, int index, Object2IntFunction<N> countGetter) {
+        N node = finger;
+        int nodeIndex = fingerIndex;
+        while (true) {
+            int first = nodeIndex - countOf(node.getLeft(), countGetter);
+            int last = nodeIndex + countOf(node.getRight(), countGetter);
+            if (index >= first && index <= last) break;
+
+            N parent = node.getParent();
+            if (parent == null) throw new IndexOutOfBoundsException("Got: " + index + ", Range: [" + first + ".." + (last + 1) + "]");
+            nodeIndex = node.getSide() ? first - 1 : last + 1;
+            node = parent;
+        }
+        while (index != nodeIndex) {
+            if (index < nodeIndex) {
+                node = requireNonNull(node.getLeft());
+                nodeIndex -= 1 + countOf(node.getRight(), countGetter);
+            } else {
+                node = requireNonNull(node.getRight());
+                nodeIndex += 1 + countOf(node.getLeft(), countGetter);
+            }
+        }
+        return node;
+    }
+
+    private static <N extends RedBlackNode<N>> int countOf(@Nullable N node, Object2IntFunction<N> countGetter) {
+        return node != null ? countGetter.apply(node) : 0;
+    }
+
+    private static void checkIndex(BaseRedBlackTree<?> tree, int index) {
+        if (index < 0 || index >= tree.count) {
+            throw new IndexOutOfBoundsException("Got: " + index + ", Range: [0.." + tree.count + "]");
+        }
+    }
+
     public static <N extends RedBlackNode<N>> int indexOf(BaseRedBlackTree<N> tree, @Nullable N node, Object2IntFunction<N> countGetter) {
         if (node == null) return -1;
 
@@ -127,6 +298,36 @@ public class RedBlackList<T extends Comparable<T>> extends SimpleRedBlackTree<T,
         return index;
     }
 
+    /**
+     * An {@link AbstractList} view of this list, for its {@link ListIterator} and sub list implementations.
+     */
+    private class View extends AbstractList<T> {
+
+        // @formatter:off
+        @Override public T get(int index) { return RedBlackList.this.get(index); }
+        @Override public T set(int index, T element) { return RedBlackList.this.set(index, element); }
+        @Override public void add(int index, T element) { modCount++; RedBlackList.this.add(index, element); }
+        @Override public T remove(int index) { modCount++; return RedBlackList.this.remove(index); }
+        @Override public int size() { return RedBlackList.this.size(); }
+        // @formatter:on
+    }
+
+    /**
+     * A node with a known index, valid whilst the tree's version is unchanged.
+     */
+    private final class Finger {
+
+        private final Node node;
+        private final int index;
+        private final int version;
+
+        private Finger(Node node, int index, int version) {
+            this.node = node;
+            this.index = index;
+            this.version = version;
+        }
+    }
+
     public class Node extends ContainerNode<T, Node> {
 
         int count = 1;
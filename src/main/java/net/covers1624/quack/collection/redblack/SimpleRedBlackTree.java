@@ -31,6 +31,17 @@ public abstract class SimpleRedBlackTree<T extends Comparable<T>, N extends Cont
         buildFrom(list.stream().map(this::newNode).collect(Collectors.toList()));
     }
 
+    /**
+     * Inserts a sorted batch of values into this tree.
+     *
+     * @param sorted The values, in strictly ascending order.
+     * @return The number of values inserted.
+     * @see #union(List)
+     */
+    public int unionValues(List<T> sorted) {
+        return union(sorted.stream().map(this::newNode).collect(Collectors.toList()));
+    }
+
     @Override
     public boolean contains(Object o) {
         if (!(o instanceof Comparable)) return false;
@@ -3,6 +3,8 @@
  */
 package net.covers1624.quack.collection.redblack;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.Collection;
 import java.util.List;
 import java.util.ListIterator;
@@ -32,6 +34,11 @@ public class UnorderedRedBlackList<T> extends CollectionRedBlackTree<T, Unordere
         return node.value;
     }
 
+    @Override
+    protected int countOf(@Nullable Node node) {
+        return node == null ? 0 : node.count;
+    }
+
     @Override
     public boolean add(T t) {
         insertAt(null, true, newNode(t));
@@ -21,6 +21,7 @@ package net.covers1624.quack.sort;
 
 import com.google.common.graph.Graph;
 import net.covers1624.quack.annotation.Requires;
+import net.covers1624.quack.collection.primitive.Object2IntOpenHashMap;
 
 import java.util.*;
 
@@ -41,7 +42,7 @@ import java.util.*;
 public class StronglyConnectedComponentDetector<T> {
 
     private final Graph<T> graph;
-    private Map<T, Integer> ids;
+    private Object2IntOpenHashMap<T> ids;
     private T[] elements;
     private int[] dfn;
     private int[] low;
@@ -65,8 +66,8 @@ public class StronglyConnectedComponentDetector<T> {
     private void calculate() {
         components = new HashSet<>();
         int t = 0;
-        ids = new HashMap<>();
         Set<T> nodes = graph.nodes();
+        ids = new Object2IntOpenHashMap<>(nodes.size());
         elements = (T[]) new Object[nodes.size()];
         for (T node : nodes) {
             ids.put(node, t);
@@ -94,7 +95,7 @@ public class StronglyConnectedComponentDetector<T> {
         stack[top] = now;
         onStack.set(now);
         for (T each : graph.successors(elements[now])) {
-            int to = ids.get(each);
+            int to = ids.getInt(each);
             if (dfn[to] != 0) {
                 if (low[now] > dfn[to]) {
                     low[now] = dfn[to];
@@ -22,6 +22,7 @@ package net.covers1624.quack.sort;
 import com.google.common.base.Preconditions;
 import com.google.common.graph.Graph;
 import net.covers1624.quack.annotation.Requires;
+import net.covers1624.quack.collection.primitive.Object2IntOpenHashMap;
 
 import javax.annotation.Nullable;
 import java.util.*;
@@ -75,7 +76,7 @@ public final class TopologicalSort {
         Preconditions.checkArgument(!graph.allowsSelfLoops(), "Cannot topologically sort a graph with self loops!");
 
         final Queue<T> queue = comparator == null ? new ArrayDeque<>() : new PriorityQueue<>(comparator);
-        final Map<T, Integer> degrees = new HashMap<>();
+        final Object2IntOpenHashMap<T> degrees = new Object2IntOpenHashMap<>(graph.nodes().size());
         final List<T> results = new ArrayList<>();
 
         for (final T node : graph.nodes()) {
@@ -91,10 +92,13 @@ public final class TopologicalSort {
             final T current = queue.remove();
             results.add(current);
             for (final T successor : graph.successors(current)) {
-                final int updated = degrees.compute(successor, (node, degree) -> Objects.requireNonNull(degree, () -> "Invalid degree present for " + node) - 1);
-                if (updated == 0) {
+                // Absent degrees read as 0, present ones are always positive.
+                // An absent degree throws NullPointerException, as requireNonNull on the boxed degree did.
+                final int degree = degrees.addTo(successor, -1);
+                if (degree == 0) throw new NullPointerException("Invalid degree present for " + successor);
+                if (degree == 1) {
                     queue.add(successor);
-                    degrees.remove(successor);
+                    degrees.removeInt(successor);
                 }
             }
         }
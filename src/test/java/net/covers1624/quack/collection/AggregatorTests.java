@@ -0,0 +1,68 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class AggregatorTests {
+
+    private static final List<String> WORDS = Arrays.asList("apple", "avocado", "banana", "blueberry", "cherry", "apricot", "beet", "carrot", "artichoke");
+
+    @Test
+    public void testCounting() {
+        Map<Character, Long> counts = FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.counting());
+        assertEquals(Arrays.asList('a', 'b', 'c'), new ArrayList<>(counts.keySet()));
+        assertEquals(4L, counts.get('a'));
+        assertEquals(3L, counts.get('b'));
+        assertEquals(2L, counts.get('c'));
+    }
+
+    @Test
+    public void testSums() {
+        Map<Character, Integer> ints = FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.intSum(String::length));
+        assertEquals(5 + 7 + 7 + 9, ints.get('a'));
+        Map<Character, Long> longs = FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.longSum(String::length));
+        assertEquals(6L + 9 + 4, longs.get('b'));
+        Map<Character, Double> doubles = FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.doubleSum(e -> e.length() / 2D));
+        assertEquals(6D, doubles.get('c'));
+    }
+
+    @Test
+    public void testSelecting() {
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        assertEquals("apple", FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.minBy(byLength)).get('a'));
+        assertEquals("artichoke", FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.maxBy(byLength)).get('a'));
+        // Ties select the first element.
+        assertEquals("cherry", FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.minBy(byLength)).get('c'));
+        assertEquals("cherry", FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.maxBy(byLength)).get('c'));
+        assertEquals("banana", FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.first()).get('b'));
+        assertEquals("beet", FastStream.of(WORDS).groupBy(e -> e.charAt(0), Aggregator.last()).get('b'));
+    }
+
+    @Test
+    public void testCustom() {
+        Aggregator<String, StringBuilder, String> joining = Aggregator.of(StringBuilder::new, (b, e) -> b.append(e.charAt(1)), StringBuilder::append, StringBuilder::toString);
+        Map<Character, String> joined = FastStream.of(WORDS).groupBy(e -> e.charAt(0), joining);
+        assertEquals("pvpr", joined.get('a'));
+        assertEquals(Collections.emptyMap(), FastStream.<String>empty().groupBy(e -> e.charAt(0), joining));
+    }
+
+    @Test
+    public void testParallel() {
+        List<Integer> numbers = IntFastStream.range(0, 10000).boxed().toList();
+        Map<Integer, Long> counts = FastStream.of(numbers).groupBy(e -> e % 7, Aggregator.counting());
+        assertEquals(counts, FastStream.of(numbers).parallel().groupBy(e -> e % 7, Aggregator.counting()));
+        assertEquals(new ArrayList<>(counts.keySet()), new ArrayList<>(FastStream.of(numbers).parallel().groupBy(e -> e % 7, Aggregator.counting()).keySet()));
+
+        assertEquals(FastStream.of(numbers).groupBy(e -> e % 7, Aggregator.first()), FastStream.of(numbers).parallel().groupBy(e -> e % 7, Aggregator.first()));
+        assertEquals(FastStream.of(numbers).groupBy(e -> e % 7, Aggregator.last()), FastStream.of(numbers).parallel().groupBy(e -> e % 7, Aggregator.last()));
+    }
+}
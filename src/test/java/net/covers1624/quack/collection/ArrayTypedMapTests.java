@@ -0,0 +1,114 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.TypedMap.Key;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class ArrayTypedMapTests {
+
+    private static final Key<String> NAME = new Key<>("array_typed_map.name");
+    private static final Key<Integer> COUNT = new Key<>("array_typed_map.count");
+
+    @Test
+    public void testKeyIds() {
+        Key<String> other = new Key<>("array_typed_map.name");
+        assertEquals(NAME.getId(), other.getId());
+        assertEquals(NAME, other);
+        assertEquals(NAME.hashCode(), other.hashCode());
+        assertNotEquals(NAME, COUNT);
+        assertNotEquals(NAME.getId(), COUNT.getId());
+
+        TypedMap typed = new TypedMap();
+        typed.put(NAME, "a");
+        assertEquals("a", typed.get(other));
+    }
+
+    @Test
+    public void testArrayTypedMap() {
+        ArrayTypedMap map = new ArrayTypedMap();
+        assertNull(map.put(NAME, "a"));
+        assertEquals("a", map.put(NAME, "b"));
+        assertEquals(Integer.valueOf(3), map.computeIfAbsent(COUNT, k -> 3));
+        assertEquals(Integer.valueOf(3), map.computeIfAbsent(COUNT, k -> 4));
+        assertEquals(2, map.size());
+        assertEquals("b", map.get(new Key<String>("array_typed_map.name")));
+
+        Map<Key<?>, Object> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(2, visited.size());
+        assertEquals("b", visited.get(NAME));
+
+        assertEquals("b", map.put(NAME, null));
+        assertFalse(map.containsKey(NAME));
+        assertEquals("def", map.getOrDefault(NAME, "def"));
+        assertEquals(Integer.valueOf(3), map.remove(COUNT));
+        assertNull(map.remove(COUNT));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testSparseFallback() {
+        List<Key<Integer>> keys = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            keys.add(new Key<>("array_typed_map.sparse." + i));
+        }
+        ArrayTypedMap map = new ArrayTypedMap();
+        // Only a single, high, id present.
+        map.put(keys.get(199), 199);
+        map.put(keys.get(0), 0);
+        map.put(NAME, "name");
+        for (Key<Integer> key : keys) {
+            int i = Integer.parseInt(key.getName().substring(key.getName().lastIndexOf('.') + 1));
+            assertEquals(i == 0 || i == 199 ? Integer.valueOf(i) : null, map.get(key));
+        }
+        assertEquals(3, map.size());
+        assertEquals(Integer.valueOf(199), map.remove(keys.get(199)));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        for (Key<Integer> key : keys) {
+            map.put(key, key.getId());
+        }
+        for (Key<Integer> key : keys) {
+            assertEquals(Integer.valueOf(key.getId()), map.get(key));
+        }
+    }
+
+    @Test
+    public void testCopyOnWrite() throws Throwable {
+        CopyOnWriteArrayTypedMap map = new CopyOnWriteArrayTypedMap();
+        assertNull(map.put(NAME, "a"));
+        assertEquals("a", map.put(NAME, "b"));
+        assertEquals("b", map.remove(NAME));
+        assertTrue(map.isEmpty());
+
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> map.computeIfAbsent(COUNT, k -> calls.incrementAndGet())));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(Integer.valueOf(1), future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, map.size());
+        assertEquals("{array_typed_map.count=1}", map.toString());
+    }
+}
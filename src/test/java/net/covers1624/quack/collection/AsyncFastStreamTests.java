@@ -0,0 +1,183 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class AsyncFastStreamTests {
+
+    @Test
+    public void testMapParallel() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            Random rand = new Random(42);
+            List<Integer> delays = FastStream.of(IntFastStream.range(0, 200).boxed()).map(e -> rand.nextInt(3)).toList();
+
+            List<Integer> results = FastStream.of(IntFastStream.range(0, 200).boxed())
+                    .mapParallel(e -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        sleep(delays.get(e));
+                        running.decrementAndGet();
+                        return e * 2;
+                    }, executor, 4)
+                    .toList();
+            assertEquals(IntFastStream.range(0, 200).map(e -> e * 2).boxed().toList(), results);
+            assertTrue(maxRunning.get() <= 4);
+
+            List<Integer> unordered = FastStream.of(IntFastStream.range(0, 200).boxed())
+                    .mapParallelUnordered(e -> {
+                        sleep(delays.get(e));
+                        return e * 2;
+                    }, executor, 8)
+                    .sorted()
+                    .toList();
+            assertEquals(results, unordered);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnorderedCompletionOrder() {
+        List<CompletableFuture<Integer>> futures = new CopyOnWriteArrayList<>();
+        CountDownLatch created = new CountDownLatch(3);
+        Thread completer = new Thread(() -> {
+            try {
+                created.await();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            for (int i = 2; i >= 0; i--) {
+                futures.get(i).complete(i);
+                sleep(5);
+            }
+        });
+        completer.start();
+
+        List<Integer> results = FastStream.of(0, 1, 2)
+                .mapAsyncUnordered(e -> {
+                    CompletableFuture<Integer> future = new CompletableFuture<>();
+                    futures.add(future);
+                    created.countDown();
+                    return future;
+                }, 3)
+                .toList();
+        assertEquals(Arrays.asList(2, 1, 0), results);
+    }
+
+    @Test
+    public void testWindow() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        Iterator<Integer> itr = FastStream.of(0, 1, 2, 3, 4)
+                .mapAsync(e -> {
+                    CompletableFuture<Integer> future = new CompletableFuture<>();
+                    future.complete(e);
+                    futures.add(future);
+                    return future;
+                }, 2)
+                .iterator();
+        assertEquals(0, itr.next());
+        assertEquals(2, futures.size());
+        assertEquals(1, itr.next());
+        assertEquals(2, itr.next());
+        assertEquals(4, futures.size());
+    }
+
+    @Test
+    public void testSharedFuture() {
+        // Memoized lookups return the same future for equal elements.
+        Map<Integer, CompletableFuture<Integer>> cache = new HashMap<>();
+        List<Integer> unordered = FastStream.of(1, 2, 1, 3, 1, 2)
+                .mapAsyncUnordered(k -> cache.computeIfAbsent(k, e -> CompletableFuture.supplyAsync(() -> e * 10)), 4)
+                .toList();
+        unordered.sort(Comparator.naturalOrder());
+        assertEquals(Arrays.asList(10, 10, 10, 20, 20, 30), unordered);
+
+        cache.clear();
+        List<Integer> ordered = FastStream.of(1, 2, 1, 3, 1, 2)
+                .mapAsync(k -> cache.computeIfAbsent(k, e -> CompletableFuture.supplyAsync(() -> e * 10)), 4)
+                .toList();
+        assertEquals(Arrays.asList(10, 20, 10, 30, 10, 20), ordered);
+    }
+
+    @Test
+    public void testExceptions() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        FastStream<Integer> stream = FastStream.of(0, 1, 2, 3)
+                .mapAsync(e -> {
+                    CompletableFuture<Integer> future = new CompletableFuture<>();
+                    if (e == 0) future.completeExceptionally(new IllegalStateException("Failed " + e));
+                    futures.add(future);
+                    return future;
+                }, 4);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, stream::toList);
+        assertEquals("Failed 0", ex.getMessage());
+        assertEquals(4, futures.size());
+        for (int i = 1; i < 4; i++) {
+            assertTrue(futures.get(i).isCancelled());
+        }
+
+        futures.clear();
+        FastStream<Integer> throwing = FastStream.of(0, 1, 2)
+                .mapAsyncUnordered(e -> {
+                    if (e == 2) throw new IllegalArgumentException("Bad element");
+                    CompletableFuture<Integer> future = new CompletableFuture<>();
+                    futures.add(future);
+                    return future;
+                }, 4);
+        assertThrows(IllegalArgumentException.class, throwing::toList);
+        assertTrue(futures.get(0).isCancelled());
+        assertTrue(futures.get(1).isCancelled());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            FastStream<Integer> parallel = FastStream.of(0, 1, 2, 3).mapParallel(e -> {
+                if (e == 1) throw new UnsupportedOperationException();
+                return e;
+            }, executor, 2);
+            assertThrows(UnsupportedOperationException.class, parallel::toList);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> FastStream.of(1, 2).mapAsync(CompletableFuture::completedFuture, 0));
+    }
+
+    @Test
+    public void testShortCircuit() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        Optional<Integer> first = FastStream.of(0, 1, 2, 3)
+                .mapAsync(e -> {
+                    CompletableFuture<Integer> future = new CompletableFuture<>();
+                    if (e == 0) future.complete(e);
+                    futures.add(future);
+                    return future;
+                }, 3)
+                .findFirst();
+        assertEquals(Optional.of(0), first);
+        assertEquals(3, futures.size());
+        assertTrue(futures.get(1).isCancelled());
+        assertTrue(futures.get(2).isCancelled());
+        assertEquals(4, FastStream.of(0, 1, 2, 3).mapAsync(CompletableFuture::completedFuture, 2).knownLength());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class CompiledFastStreamTests {
+
+    private static final List<Integer> NUMBERS = IntFastStream.range(-50, 200).boxed().toList();
+
+    @Test
+    public void testArraySource() {
+        Integer[] array = NUMBERS.toArray(new Integer[0]);
+        assertEquals(pipeline(FastStream.of(array)).toList(), pipeline(FastStream.of(array)).compile().toList());
+    }
+
+    @Test
+    public void testListSource() {
+        assertEquals(pipeline(FastStream.of(NUMBERS)).toList(), pipeline(FastStream.of(NUMBERS)).compile().toList());
+    }
+
+    @Test
+    public void testStreamSource() {
+        Iterable<Integer> itr = () -> NUMBERS.iterator();
+        assertEquals(pipeline(FastStream.of(itr)).toList(), pipeline(FastStream.of(itr)).compile().toList());
+        assertEquals(pipeline(FastStream.of(NUMBERS).sorted()).toList(), pipeline(FastStream.of(NUMBERS).sorted()).compile().toList());
+
+        // Other stream sources are evaluated via their own forEach.
+        FastStream<Integer> forEachOnly = new FastStream<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void forEach(Consumer<? super Integer> action) {
+                NUMBERS.forEach(action);
+            }
+
+            @Override
+            public boolean forEachUntil(Predicate<? super Integer> action) {
+                for (Integer e : NUMBERS) {
+                    if (action.test(e)) return true;
+                }
+                return false;
+            }
+        };
+        assertEquals(pipeline(FastStream.of(NUMBERS)).toList(), pipeline(forEachOnly).compile().toList());
+        assertEquals(pipeline(FastStream.of(NUMBERS)).findFirst(), pipeline(forEachOnly).compile().findFirst());
+        assertFalse(forEachOnly.filter(e -> e > 1000).compile().anyMatch(e -> true));
+    }
+
+    @Test
+    public void testBucketSource() {
+        FastStream<FastStream<Integer>> partitions = FastStream.of(NUMBERS).partition(16);
+        for (FastStream<Integer> partition : partitions) {
+            assertEquals(pipeline(partition).toList(), pipeline(partition).compile().toList());
+        }
+    }
+
+    @Test
+    public void testOfTypeAndPeek() {
+        List<Object> mixed = Arrays.asList(1, "two", 3L, "four", null, 5);
+        List<Object> peeked = new ArrayList<>();
+        List<String> compiled = FastStream.of(mixed)
+                .peek(peeked::add)
+                .ofType(String.class)
+                .map(String::toUpperCase)
+                .compile()
+                .toList();
+        assertEquals(Arrays.asList("TWO", "FOUR"), compiled);
+        assertEquals(mixed, peeked);
+    }
+
+    @Test
+    public void testNoOps() {
+        assertEquals(NUMBERS, FastStream.of(NUMBERS).compile().toList());
+        assertEquals(Collections.emptyList(), FastStream.empty().compile().toList());
+    }
+
+    @Test
+    public void testReuse() {
+        FastStream<String> compiled = pipeline(FastStream.of(NUMBERS)).compile();
+        List<String> expected = pipeline(FastStream.of(NUMBERS)).toList();
+        assertEquals(expected, compiled.toList());
+        assertEquals(expected, compiled.toList());
+        assertEquals(expected, compiled.compile().toList());
+        assertEquals(expected.size(), compiled.count());
+
+        // Iteration falls back to the uncompiled pipeline.
+        List<String> iterated = new ArrayList<>();
+        compiled.iterator().forEachRemaining(iterated::add);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void testShortCircuit() {
+        List<Integer> seen = new ArrayList<>();
+        FastStream<Integer> compiled = FastStream.of(NUMBERS).peek(seen::add).map(e -> e * 2).compile();
+        assertTrue(compiled.anyMatch(e -> e == 0));
+        assertEquals(51, seen.size());
+        assertEquals(Optional.of(-100), compiled.findFirst());
+    }
+
+    @Test
+    public void testShapeCache() {
+        pipeline(FastStream.of(NUMBERS)).compile().toList();
+        int shapes = FastStreamCompiler.compiledShapes();
+        // Same shape, different functions.
+        assertEquals(Arrays.asList("1", "3"), FastStream.of(Arrays.asList(1, 2, 3, 4, 5, 6, 7))
+                .filter(e -> e % 2 == 1)
+                .map(e -> e * 1)
+                .filterNot(e -> e > 3)
+                .map(String::valueOf)
+                .compile()
+                .toList());
+        assertEquals(shapes, FastStreamCompiler.compiledShapes());
+    }
+
+    private static FastStream<String> pipeline(FastStream<Integer> stream) {
+        return stream.filter(e -> e % 2 == 0)
+                .map(e -> e * 3)
+                .filterNot(e -> e % 4 == 0)
+                .map(String::valueOf);
+    }
+}
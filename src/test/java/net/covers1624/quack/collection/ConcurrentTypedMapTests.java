@@ -0,0 +1,142 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import net.covers1624.quack.collection.TypedMap.Key;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class ConcurrentTypedMapTests {
+
+    private static final List<Key<Integer>> KEYS = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            KEYS.add(new Key<>("concurrent_typed_map." + i));
+        }
+    }
+
+    @Test
+    public void testBasic() {
+        ConcurrentTypedMap map = new ConcurrentTypedMap();
+        Key<Integer> a = KEYS.get(0);
+        Key<Integer> b = KEYS.get(99);
+
+        assertNull(map.get(b));
+        assertNull(map.put(a, 1));
+        assertEquals(Integer.valueOf(1), map.put(a, 2));
+        assertEquals(Integer.valueOf(2), map.putIfAbsent(a, 3));
+        assertNull(map.putIfAbsent(b, 4));
+        assertEquals(Integer.valueOf(4), map.computeIfAbsent(b, () -> 5));
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(2), map.get(new Key<Integer>("concurrent_typed_map.0")));
+
+        Map<Key<?>, Object> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(2, visited.size());
+        assertEquals(4, visited.get(b));
+
+        assertEquals(Integer.valueOf(2), map.put(a, null));
+        assertFalse(map.containsKey(a));
+        assertEquals(Integer.valueOf(7), map.getOrDefault(a, 7));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(b));
+    }
+
+    @Test
+    public void testConcurrentComputeIfAbsent() throws Throwable {
+        ConcurrentTypedMap map = new ConcurrentTypedMap();
+        AtomicInteger calls = new AtomicInteger();
+        int threads = 8;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    List<Integer> seen = new ArrayList<>();
+                    // Visit keys in a different order per thread, growing the map concurrently.
+                    for (int i = 0; i < KEYS.size(); i++) {
+                        Key<Integer> key = KEYS.get((i * 7 + offset * 13) % KEYS.size());
+                        seen.add(map.computeIfAbsent(key, calls::incrementAndGet));
+                    }
+                    return seen;
+                }));
+            }
+            Map<Integer, Integer> byValue = new HashMap<>();
+            for (Future<List<Integer>> future : futures) {
+                for (Integer value : future.get()) {
+                    byValue.merge(value, 1, Integer::sum);
+                }
+            }
+            // Every thread observed the same value for every key.
+            assertEquals(KEYS.size(), byValue.size());
+            byValue.values().forEach(e -> assertEquals(threads, e));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(KEYS.size(), calls.get());
+        assertEquals(KEYS.size(), map.size());
+    }
+
+    @Test
+    public void testComputeIfAbsentFailure() {
+        ConcurrentTypedMap map = new ConcurrentTypedMap();
+        Key<Integer> key = KEYS.get(0);
+        assertThrows(IllegalStateException.class, () -> map.computeIfAbsent(key, () -> {
+            throw new IllegalStateException();
+        }));
+        // A failed computation leaves the key absent.
+        assertFalse(map.containsKey(key));
+        assertEquals(0, map.size());
+        assertEquals(Integer.valueOf(1), map.computeIfAbsent(key, () -> 1));
+
+        Key<Integer> other = KEYS.get(1);
+        assertThrows(IllegalStateException.class, () -> map.computeIfAbsent(other, () -> map.computeIfAbsent(other, () -> 2)));
+        assertFalse(map.containsKey(other));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testConcurrentPutIfAbsent() throws Throwable {
+        ConcurrentTypedMap map = new ConcurrentTypedMap();
+        int threads = 8;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger wins = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int value = t;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (Key<Integer> key : KEYS) {
+                        if (map.putIfAbsent(key, value) == null) {
+                            wins.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(KEYS.size(), wins.get());
+        assertEquals(KEYS.size(), map.size());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class DistinctFastStreamTests {
+
+    private static final List<String> WORDS = Arrays.asList("apple", "avocado", "banana", "blueberry", "cherry", "apricot", "beet", "carrot", "artichoke");
+
+    @Test
+    public void testDistinctBy() {
+        FastStream<String> stream = FastStream.of(WORDS).distinctBy(e -> e.charAt(0));
+        assertEquals(Arrays.asList("apple", "banana", "cherry"), stream.toList());
+        assertEquals(3, stream.knownLength());
+
+        List<String> iterated = new ArrayList<>();
+        FastStream.of(WORDS).distinctBy(e -> e.charAt(0)).iterator().forEachRemaining(iterated::add);
+        assertEquals(Arrays.asList("apple", "banana", "cherry"), iterated);
+        assertEquals(Optional.of("banana"), FastStream.of(WORDS).distinctBy(String::length).filter(e -> e.startsWith("b")).findFirst());
+    }
+
+    @Test
+    public void testDistinctSorted() {
+        List<Integer> sorted = Arrays.asList(1, 1, 2, 3, 3, 3, 4, 5, 5);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), FastStream.of(sorted).distinctSorted().toList());
+
+        List<Integer> iterated = new ArrayList<>();
+        FastStream.of(sorted).distinctSorted().iterator().forEachRemaining(iterated::add);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), iterated);
+
+        // Only adjacent duplicates are removed.
+        assertEquals(Arrays.asList(1, 2, 1), FastStream.of(1, 1, 2, 1).distinctSorted().toList());
+        assertEquals(Arrays.asList(null, "a"), FastStream.of(null, null, "a", "a").distinctSorted().toList());
+        assertEquals(Optional.of(4), FastStream.of(sorted).distinctSorted().filter(e -> e > 3).findFirst());
+        assertEquals(FastStream.of(WORDS).sorted().toList(), FastStream.of(WORDS).concat(WORDS).sorted().distinctSorted().toList());
+    }
+
+    @Test
+    public void testProbablyDistinct() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            urls.add("https://example.com/" + (i % 20000));
+        }
+        List<String> distinct = FastStream.of(urls).probablyDistinct(20000, 0.01).toList();
+        // Never emits duplicates, may falsely drop a few unique elements.
+        assertEquals(distinct.size(), new HashSet<>(distinct).size());
+        assertTrue(distinct.size() <= 20000);
+        assertTrue(distinct.size() > 20000 * 0.98, "Dropped too many: " + (20000 - distinct.size()));
+        assertEquals(FastStream.of(urls).probablyDistinct(20000, 0.01).toList(), distinct);
+
+        List<String> iterated = new ArrayList<>();
+        FastStream.of(urls).probablyDistinct(20000, 0.01).iterator().forEachRemaining(iterated::add);
+        assertEquals(distinct, iterated);
+
+        assertEquals(Arrays.asList(1, 2), FastStream.of(1, 2, 2, 1).probablyDistinct(10, 0.001, e -> e).toList());
+        assertThrows(IllegalArgumentException.class, () -> FastStream.of(1).probablyDistinct(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> FastStream.of(1).probablyDistinct(10, 1));
+    }
+
+    @Test
+    public void testCountDistinct() {
+        assertEquals(0, FastStream.empty().countDistinct());
+        assertEquals(3, FastStream.of(WORDS).map(e -> e.charAt(0)).countDistinct());
+
+        for (int n : new int[] { 100, 10000, 41000, 200000 }) {
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < n * 2; i++) {
+                values.add("value-" + (i % n));
+            }
+            long estimate = FastStream.of(values).countDistinct();
+            assertEquals(n, estimate, n * 0.03);
+            assertEquals(estimate, FastStream.of(values).parallel().countDistinct());
+        }
+        assertEquals(100000, IntFastStream.range(0, 100000).boxed().countDistinct(e -> FastStream.Internal.mix64(e)), 3000);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class DoubleFastStreamTests {
+
+    @Test
+    public void testOperations() {
+        assertArrayEquals(new double[] { 1.5, 3.5 }, FastStream.of(new double[] { 1.5, 2, 3.5 }).filter(e -> e % 1 != 0).toArray());
+        assertArrayEquals(new double[] { 3, 4 }, DoubleFastStream.of(1.5, 2).map(e -> e * 2).toArray());
+        assertArrayEquals(new double[] { 0.0, -0.0, Double.NaN }, DoubleFastStream.of(0.0, -0.0, Double.NaN, 0.0, Double.NaN).distinct().toArray());
+        assertArrayEquals(new double[] { -1, 0.5, 2 }, DoubleFastStream.of(2, -1, 0.5).sorted().toArray());
+        assertArrayEquals(new int[] { 1, 2 }, DoubleFastStream.of(1.2, 2.7).mapToInt(e -> (int) e).toArray());
+        assertArrayEquals(new long[] { 1, 3 }, DoubleFastStream.of(1.2, 2.7).mapToLong(Math::round).toArray());
+        assertEquals(ImmutableList.of(1.5D), DoubleFastStream.of(1.5).boxed().toList());
+    }
+
+    @Test
+    public void testTerminals() {
+        assertEquals(4.0, DoubleFastStream.of(1.5, 2.5).sum());
+        assertEquals(OptionalDouble.of(-1), DoubleFastStream.of(5, -1, 3).min());
+        assertEquals(OptionalDouble.of(5), DoubleFastStream.of(5, -1, 3).max());
+        assertFalse(DoubleFastStream.of(5, -1, 3).allMatch(e -> e > 0));
+        assertEquals(2, DoubleFastStream.of(5, -1, 3).limit(2).count());
+    }
+}
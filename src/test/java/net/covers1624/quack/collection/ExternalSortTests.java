@@ -0,0 +1,166 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class ExternalSortTests {
+
+    private static final FastStream.Serializer<Integer> INT = new FastStream.Serializer<Integer>() {
+        @Override
+        public void write(DataOutput out, Integer value) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private static final FastStream.Serializer<String> STRING = new FastStream.Serializer<String>() {
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @Test
+    public void testSort() throws IOException {
+        Path temp = Files.createTempDirectory("external_sort");
+        temp.toFile().deleteOnExit();
+        List<Integer> numbers = randomNumbers(10000);
+        List<Integer> expected = FastStream.of(numbers).sorted().toList();
+
+        FastStream<Integer> sorted = FastStream.of(numbers).sortedExternal(Comparator.naturalOrder(), INT, temp, 100);
+        assertEquals(expected, sorted.toList());
+        assertEmpty(temp);
+
+        // Iterator cleans up once exhausted.
+        List<Integer> iterated = new ArrayList<>();
+        sorted.iterator().forEachRemaining(iterated::add);
+        assertEquals(expected, iterated);
+        assertEmpty(temp);
+
+        // Unsized source.
+        Iterable<Integer> unsized = numbers::iterator;
+        assertEquals(expected, FastStream.of(unsized).sortedExternal(Comparator.naturalOrder(), INT, temp, 333).toList());
+        assertEquals(numbers.size(), sorted.count());
+        assertEmpty(temp);
+    }
+
+    @Test
+    public void testFitsInMemory() throws IOException {
+        Path temp = Files.createTempDirectory("external_sort");
+        temp.toFile().deleteOnExit();
+        assertEquals(Arrays.asList(1, 2, 3, 4), FastStream.of(4, 2, 3, 1).sortedExternal(Comparator.naturalOrder(), INT, temp, 4).toList());
+        assertEquals(Collections.emptyList(), FastStream.<Integer>of().sortedExternal(Comparator.naturalOrder(), INT, temp, 4).toList());
+        assertEmpty(temp);
+    }
+
+    @Test
+    public void testStable() throws IOException {
+        Path temp = Files.createTempDirectory("external_sort");
+        temp.toFile().deleteOnExit();
+        Random rand = new Random(42);
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(rand.nextInt(10) + ":" + i);
+        }
+        Comparator<String> byKey = Comparator.comparingInt(e -> e.charAt(0));
+        assertEquals(FastStream.of(entries).sorted(byKey).toList(), FastStream.of(entries).sortedExternal(byKey, STRING, temp, 7).toList());
+        assertEmpty(temp);
+    }
+
+    @Test
+    public void testManyRuns() throws IOException {
+        // Enough runs to require compaction several times.
+        Path temp = Files.createTempDirectory("external_sort");
+        temp.toFile().deleteOnExit();
+        List<Integer> numbers = randomNumbers(20000);
+        assertEquals(FastStream.of(numbers).sorted().toList(), FastStream.of(numbers).sortedExternal(Comparator.naturalOrder(), INT, temp, 10).toList());
+        assertEmpty(temp);
+    }
+
+    @Test
+    public void testManyLevels() throws IOException {
+        // Two full levels of runs, requiring the youngest to be merged before the final merge.
+        Path temp = Files.createTempDirectory("external_sort");
+        temp.toFile().deleteOnExit();
+        Random rand = new Random(42);
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 127 * 128 * 2 + 127 * 2 + 1; i++) {
+            entries.add(rand.nextInt(10) + ":" + i);
+        }
+        Comparator<String> byKey = Comparator.comparingInt(e -> e.charAt(0));
+        assertEquals(FastStream.of(entries).sorted(byKey).toList(), FastStream.of(entries).sortedExternal(byKey, STRING, temp, 2).toList());
+        assertEmpty(temp);
+    }
+
+    @Test
+    public void testCleanupOnAbort() throws IOException {
+        Path temp = Files.createTempDirectory("external_sort");
+        temp.toFile().deleteOnExit();
+        List<Integer> numbers = randomNumbers(1000);
+        FastStream<Integer> sorted = FastStream.of(numbers).sortedExternal(Comparator.naturalOrder(), INT, temp, 50);
+
+        assertEquals(FastStream.of(numbers).sorted().findFirst(), sorted.findFirst());
+        assertEmpty(temp);
+
+        assertFalse(sorted.isEmpty());
+        assertEmpty(temp);
+
+        assertThrows(IllegalStateException.class, () -> sorted.forEach(e -> {
+            throw new IllegalStateException();
+        }));
+        assertEmpty(temp);
+
+        FastStream<Integer> failing = FastStream.of(numbers).map(e -> {
+            if (e == numbers.get(500)) throw new IllegalStateException();
+            return e;
+        });
+        assertThrows(IllegalStateException.class, () -> failing.sortedExternal(Comparator.naturalOrder(), INT, temp, 50).toList());
+        assertEmpty(temp);
+    }
+
+    @Test
+    public void testInvalidBudget() throws IOException {
+        Path temp = Files.createTempDirectory("external_sort");
+        temp.toFile().deleteOnExit();
+        assertThrows(IllegalArgumentException.class, () -> FastStream.of(1, 2).sortedExternal(Comparator.naturalOrder(), INT, temp, 0));
+    }
+
+    private static List<Integer> randomNumbers(int count) {
+        Random rand = new Random(42);
+        List<Integer> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(rand.nextInt());
+        }
+        return numbers;
+    }
+
+    private static void assertEmpty(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -76,6 +76,65 @@ public class FastStreamTests {
         assertEquals("F", entries.get(5));
     }
 
+    @Test
+    public void testConcatChain() {
+        FastStream<Integer> stream = FastStream.empty();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            stream = stream.concat(ImmutableList.of(i));
+            expected.add(i);
+        }
+        assertTrue(stream instanceof FastStream.ConcatenatedN);
+        assertEquals(100000, stream.knownLength());
+        assertEquals(expected, stream.toList());
+        assertIterableEquals(expected, stream);
+        assertTrue(stream.anyMatch(e -> e == 99999));
+
+        // Appending to an instance which has already been appended to must not affect the other.
+        FastStream<String> base = FastStream.of("a").concat(FastStream.of("b"));
+        FastStream<String> left = base.concat(FastStream.of("c"));
+        FastStream<String> right = base.concat(FastStream.of("d"));
+        assertStreamEquals(ImmutableList.of("a", "b"), () -> base);
+        assertStreamEquals(ImmutableList.of("a", "b", "c"), () -> left);
+        assertStreamEquals(ImmutableList.of("a", "b", "d"), () -> right);
+        assertStreamEquals(ImmutableList.of("a", "b", "c", "a", "b", "c"), () -> left.concat(left));
+        assertStreamEquals(ImmutableList.of("a", "b", "c", "a", "b", "d"), () -> FastStream.concat(left, right));
+
+        // Nested concatMany.
+        FastStream<Integer> many = FastStream.of(0);
+        for (int i = 1; i < 10000; i++) {
+            many = FastStream.concatMany(ImmutableList.of(many, ImmutableList.of(i)));
+        }
+        assertEquals(expected.subList(0, 10000), many.toList());
+        assertIterableEquals(expected.subList(0, 10000), many);
+        assertEquals(10000, many.knownLength());
+        assertEquals(Optional.of(9999), many.filter(e -> e == 9999).findFirst());
+    }
+
+    @Test
+    public void testMergeSorted() {
+        assertStreamEquals(ImmutableList.of(1, 2, 3, 4, 5, 6, 7), () -> FastStream.mergeSorted(Comparator.naturalOrder(), ImmutableList.of(1, 4, 7), ImmutableList.of(2, 5), ImmutableList.of(), ImmutableList.of(3, 6)));
+        assertStreamEquals(ImmutableList.of(), () -> FastStream.<Integer>mergeSorted(Comparator.naturalOrder()));
+        assertEquals(7, FastStream.mergeSorted(Comparator.naturalOrder(), ImmutableList.of(1, 4, 7), ImmutableList.of(2, 3, 5, 6)).knownLength());
+
+        // Equal elements are taken from earlier sources first, matching a stable sort.
+        Random rand = new Random(42);
+        Comparator<String> byKey = Comparator.comparingInt(e -> e.charAt(0));
+        List<List<String>> sources = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            List<String> source = new ArrayList<>();
+            for (int j = 0; j < rand.nextInt(50); j++) {
+                source.add(rand.nextInt(10) + ":" + i + ":" + j);
+            }
+            source.sort(byKey);
+            sources.add(source);
+        }
+        List<String> expected = FastStream.concatMany(sources).sorted(byKey).toList();
+        assertStreamEquals(expected, () -> FastStream.mergeSortedMany(byKey, sources));
+        assertStreamEquals(expected, () -> FastStream.mergeSortedMany(byKey, FastStream.of(sources).map(e -> (Iterable<String>) e::iterator)));
+        assertEquals(Optional.of(expected.get(0)), FastStream.mergeSortedMany(byKey, sources).findFirst());
+    }
+
     @Test
     public void testToList() {
         List<String> entries = FastStream.of("a", "b", "c", "d").toList();
@@ -174,6 +233,35 @@ public class FastStreamTests {
         assertEquals("d", peekList.get(3));
     }
 
+    @Test
+    public void testCached() {
+        List<Integer> numbers = IntFastStream.range(0, 100000).boxed().toList();
+        Iterable<Integer> unsized = numbers::iterator;
+        for (boolean soft : new boolean[] { false, true }) {
+            int[] evaluations = { 0 };
+            FastStream<Integer> cached = FastStream.of(unsized)
+                    .peek(e -> {
+                        if (e == 0) evaluations[0]++;
+                    })
+                    .cached(soft);
+            assertEquals(-1, cached.knownLength());
+            assertStreamEquals(numbers, () -> cached);
+            assertEquals(numbers.size(), cached.knownLength());
+            assertEquals(Optional.of(5), cached.filter(e -> e == 5).findFirst());
+            // Soft references are only cleared under memory pressure, which we won't see here.
+            assertEquals(1, evaluations[0]);
+        }
+
+        assertEquals(ImmutableList.of(), FastStream.of().cached().toList());
+        assertStreamEquals(ImmutableList.of("a", "b", "c"), () -> FastStream.of("a", "b", "c").cached());
+
+        FastStream<Integer> cached = FastStream.of(numbers).cached();
+        assertSame(cached, cached.cached());
+        assertSame(cached, cached.cached(true));
+        FastStream<Integer> soft = FastStream.of(numbers).cached(true);
+        assertNotSame(soft, soft.cached());
+    }
+
     @Test
     public void testLimit() {
         List<String> baseIterable = ImmutableList.of("a", "b", "c", "d", "a", "b", "c", "d", "a", "b", "c", "d");
@@ -420,6 +508,108 @@ public class FastStreamTests {
         assertEquals(b2, partitioned.get(2));
     }
 
+    @Test
+    public void testChunked() {
+        List<Integer> numbers = IntFastStream.range(0, 10).boxed().toList();
+        Iterable<Integer> unsized = numbers::iterator;
+        List<List<Integer>> expected = ImmutableList.of(ImmutableList.of(0, 1, 2, 3), ImmutableList.of(4, 5, 6, 7), ImmutableList.of(8, 9));
+        assertStreamEquals(expected, () -> FastStream.of(numbers).chunked(4));
+        assertStreamEquals(expected, () -> FastStream.of(unsized).chunked(4));
+        assertEquals(3, FastStream.of(numbers).chunked(4).knownLength());
+        assertEquals(2, FastStream.of(numbers).chunked(5).knownLength());
+        assertEquals(ImmutableList.of(ImmutableList.of(0, 1, 2, 3, 4), ImmutableList.of(5, 6, 7, 8, 9)), FastStream.of(numbers).chunked(5).toList());
+        assertEquals(ImmutableList.of(), FastStream.of().chunked(5).toList());
+
+        // Reused chunks are only valid until the next chunk is requested.
+        List<String> seen = new ArrayList<>();
+        FastStream.of(unsized).chunked(4, true).forEach(e -> seen.add(e.toString()));
+        assertEquals(ImmutableList.of("[0, 1, 2, 3]", "[4, 5, 6, 7]", "[8, 9]"), seen);
+        seen.clear();
+        for (List<Integer> chunk : FastStream.of(unsized).chunked(4, true)) {
+            seen.add(chunk.toString());
+        }
+        assertEquals(ImmutableList.of("[0, 1, 2, 3]", "[4, 5, 6, 7]", "[8, 9]"), seen);
+
+        // Lazy, the source is only consumed as far as required.
+        int[] consumed = { 0 };
+        assertEquals(Optional.of(ImmutableList.of(0, 1, 2)), FastStream.of(unsized).peek(e -> consumed[0]++).chunked(3).findFirst());
+        assertEquals(3, consumed[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> FastStream.of(numbers).chunked(0));
+    }
+
+    @Test
+    public void testWindowed() {
+        List<Integer> numbers = IntFastStream.range(0, 6).boxed().toList();
+        Iterable<Integer> unsized = numbers::iterator;
+        List<List<Integer>> sliding = ImmutableList.of(ImmutableList.of(0, 1, 2), ImmutableList.of(1, 2, 3), ImmutableList.of(2, 3, 4), ImmutableList.of(3, 4, 5));
+        assertStreamEquals(sliding, () -> FastStream.of(numbers).windowed(3, 1));
+        assertStreamEquals(sliding, () -> FastStream.of(unsized).windowed(3, 1));
+        assertEquals(4, FastStream.of(numbers).windowed(3, 1).knownLength());
+
+        List<List<Integer>> stepped = ImmutableList.of(ImmutableList.of(0, 1, 2), ImmutableList.of(2, 3, 4));
+        assertStreamEquals(stepped, () -> FastStream.of(numbers).windowed(3, 2));
+        assertEquals(2, FastStream.of(numbers).windowed(3, 2).knownLength());
+
+        List<List<Integer>> skipping = ImmutableList.of(ImmutableList.of(0, 1), ImmutableList.of(4, 5));
+        assertStreamEquals(skipping, () -> FastStream.of(numbers).windowed(2, 4));
+        assertEquals(2, FastStream.of(numbers).windowed(2, 4).knownLength());
+
+        assertEquals(ImmutableList.of(), FastStream.of(numbers).windowed(7, 1).toList());
+        assertEquals(0, FastStream.of(numbers).windowed(7, 1).knownLength());
+
+        List<String> seen = new ArrayList<>();
+        FastStream.of(unsized).windowed(3, 1, true).forEach(e -> seen.add(e.toString()));
+        assertEquals(FastStream.of(sliding).map(Object::toString).toList(), seen);
+
+        assertThrows(IllegalArgumentException.class, () -> FastStream.of(numbers).windowed(3, 0));
+    }
+
+    @Test
+    public void testIndexed() {
+        List<String> seen = new ArrayList<>();
+        FastStream.of("a", "b", "c").forEachIndexed((e, i) -> seen.add(e + i));
+        assertEquals(ImmutableList.of("a0", "b1", "c2"), seen);
+
+        assertStreamEquals(ImmutableList.of("a0", "b1", "c2"), () -> FastStream.of("a", "b", "c").mapIndexed((e, i) -> e + i));
+        assertEquals(3, FastStream.of("a", "b", "c").mapIndexed((e, i) -> e + i).knownLength());
+        // Indexes are of the elements reaching the stage.
+        assertEquals(ImmutableList.of("b0", "d1"), FastStream.of("a", "b", "c", "d").filter(e -> e.equals("b") || e.equals("d")).mapIndexed((e, i) -> e + i).toList());
+        assertEquals(Optional.of("c2"), FastStream.of("a", "b", "c", "d").mapIndexed((e, i) -> e + i).filter(e -> e.startsWith("c")).findFirst());
+    }
+
+    @Test
+    public void testZip() {
+        List<Integer> numbers = ImmutableList.of(1, 2, 3, 4);
+        Iterable<Integer> unsized = numbers::iterator;
+        assertStreamEquals(ImmutableList.of("a1", "b2", "c3"), () -> FastStream.of("a", "b", "c").zip(numbers, (a, b) -> a + b));
+        assertStreamEquals(ImmutableList.of("a1", "b2"), () -> FastStream.of("a", "b").zip(numbers, (a, b) -> a + b));
+        assertStreamEquals(ImmutableList.of("a1", "b2"), () -> FastStream.of("a", "b", "c").zip(ImmutableList.of(1, 2), (a, b) -> a + b));
+        assertStreamEquals(ImmutableList.of(), () -> FastStream.of("a", "b").zip(ImmutableList.of(), (a, b) -> a + b));
+
+        assertEquals(3, FastStream.of("a", "b", "c").zip(numbers, (a, b) -> a + b).knownLength());
+        assertEquals(-1, FastStream.of("a", "b", "c").zip(unsized, (a, b) -> a + b).knownLength());
+        assertEquals(2, FastStream.of("a", "b", "c").zip(FastStream.of(numbers).filter(e -> e > 2).sorted(), (a, b) -> a + b).knownLength(true));
+
+        // The left side is not evaluated past the end of the right side.
+        List<String> pulled = new ArrayList<>();
+        FastStream.of("a", "b", "c").peek(pulled::add).zip(ImmutableList.of(1), (a, b) -> a + b).forEach(e -> { });
+        assertEquals(ImmutableList.of("a"), pulled);
+
+        assertFalse(FastStream.of("a", "b", "c").zip(ImmutableList.of(1, 2), (a, b) -> a + b).anyMatch(e -> e.equals("c3")));
+        assertTrue(FastStream.of("a", "b", "c").zip(numbers, (a, b) -> a + b).anyMatch(e -> e.equals("c3")));
+    }
+
+    @Test
+    public void testScan() {
+        assertStreamEquals(ImmutableList.of(0, 1, 3, 6), () -> FastStream.of(1, 2, 3).scan(0, Integer::sum));
+        assertStreamEquals(ImmutableList.of(0), () -> FastStream.<Integer>of().scan(0, Integer::sum));
+        assertStreamEquals(ImmutableList.of("", "a", "ab"), () -> FastStream.of("a", "b").scan("", String::concat));
+        assertEquals(4, FastStream.of(1, 2, 3).scan(0, Integer::sum).knownLength());
+        assertEquals(Optional.of(3), FastStream.of(1, 2, 3).scan(0, Integer::sum).filter(e -> e > 2).findFirst());
+        assertEquals(Integer.valueOf(6), FastStream.of(1, 2, 3).scan(0, Integer::sum).last());
+    }
+
     @Test
     public void testJoin() {
         assertEquals("apple, banana, boat, pair, pool", FastStream.of("apple", "banana", "boat", "pair", "pool").join(", "));
@@ -450,6 +640,37 @@ public class FastStreamTests {
         assertEquals(entries, ImmutableList.of("a", "b", "c", "d"));
     }
 
+    @Test
+    public void testTopBottom() {
+        // Compare on the key only, the suffix checks equal elements retain encounter order.
+        Random rand = new Random(42);
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            entries.add(rand.nextInt(20) + ":" + i);
+        }
+        Comparator<String> byKey = Comparator.comparingInt(e -> Integer.parseInt(e.substring(0, e.indexOf(':'))));
+        Iterable<String> unsized = entries::iterator;
+
+        for (int k : new int[] { 1, 2, 7, 50, 499, 500, 1000 }) {
+            List<String> bottom = FastStream.of(entries).sorted(byKey).toList().subList(0, Math.min(k, 500));
+            List<String> top = FastStream.of(entries).sorted(byKey.reversed()).toList().subList(0, Math.min(k, 500));
+            assertStreamEquals(bottom, () -> FastStream.of(entries).bottom(k, byKey));
+            assertStreamEquals(bottom, () -> FastStream.of(unsized).bottom(k, byKey));
+            assertStreamEquals(bottom, () -> FastStream.of(unsized).sorted(byKey).limit(k));
+            assertStreamEquals(top, () -> FastStream.of(entries).top(k, byKey));
+            assertStreamEquals(top, () -> FastStream.of(unsized).top(k, byKey));
+        }
+
+        assertEquals(ImmutableList.of(), FastStream.of(entries).bottom(0, byKey).toList());
+        assertEquals(ImmutableList.of(), FastStream.<String>empty().top(3, byKey).toList());
+        assertEquals(ImmutableList.of("d", "c"), FastStream.of("b", "a", "c", "d").top(2, Comparator.naturalOrder()).toList());
+
+        // sorted().limit() only retains the elements it needs.
+        assertTrue(FastStream.of(unsized).sorted(byKey).limit(5) instanceof FastStream.SortedLimited);
+        assertEquals(5, FastStream.of(entries).sorted(byKey).limit(5).knownLength());
+        assertEquals(-1, FastStream.of(unsized).sorted(byKey).limit(5).knownLength());
+    }
+
     @Test
     public void testReversed() {
         List<String> entries = ImmutableList.of("a", "b", "c", "d");
@@ -508,6 +729,54 @@ public class FastStreamTests {
         assertStreamEquals(tenToTwenty, () -> FastStream.of(zeroToTwenty).dropUntil(e -> e >= 10));
     }
 
+    @Test
+    public void testForEachUntil() {
+        List<Integer> zeroToTwenty = IntStream.rangeClosed(0, 20).boxed().collect(Collectors.toList());
+        int[] evaluated = { 0 };
+        Supplier<FastStream<Integer>> source = () -> {
+            evaluated[0] = 0;
+            return FastStream.of(zeroToTwenty).peek(e -> evaluated[0]++);
+        };
+
+        assertTrue(source.get().map(e -> e * 2).filter(e -> e > 0).forEachUntil(e -> e == 10));
+        assertEquals(6, evaluated[0]);
+
+        assertFalse(source.get().filter(e -> e > 100).forEachUntil(e -> true));
+        assertEquals(21, evaluated[0]);
+
+        assertEquals(Optional.of(0), source.get().flatMap(e -> Arrays.asList(e, e)).findFirst());
+        assertEquals(1, evaluated[0]);
+
+        assertEquals(Arrays.asList(0, 1, 2), source.get().limit(3).toList());
+        assertEquals(3, evaluated[0]);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), source.get().takeWhile(e -> e < 5).toList());
+        assertEquals(6, evaluated[0]);
+
+        assertEquals(Integer.valueOf(3), source.get().skip(3).first());
+        assertEquals(4, evaluated[0]);
+
+        assertNull(source.get().onlyOrDefault());
+        assertEquals(2, evaluated[0]);
+
+        assertTrue(FastStream.concat(source.get(), FastStream.of(() -> { throw new AssertionError(); })).anyMatch(e -> e == 20));
+        assertEquals(21, evaluated[0]);
+    }
+
+    @Test
+    public void testForEachUntilResult() {
+        assertTrue(FastStream.of(1, 2, 3).limit(2).forEachUntil(e -> e == 2));
+        assertFalse(FastStream.of(1, 2, 3).limit(2).forEachUntil(e -> e == 3));
+        assertFalse(FastStream.of(1, 2, 3).takeWhile(e -> e < 3).forEachUntil(e -> e == 3));
+        assertTrue(FastStream.of(1, 2, 3).takeWhile(e -> e < 3).forEachUntil(e -> e == 2));
+        assertFalse(FastStream.of(1, 2, 3).skip(1).limit(5).anyMatch(e -> e == 1));
+        assertTrue(FastStream.of(1, 2, 3).dropWhile(e -> e < 2).anyMatch(e -> e == 3));
+        assertFalse(FastStream.of(1, 2, 3, 1).distinct().limit(5).anyMatch(e -> e > 3));
+        assertTrue(FastStream.of(ImmutableList.of(1, 2, 3).spliterator()).anyMatch(e -> e == 2));
+        assertTrue(FastStream.of(3, 1, 2).sorted().reversed().anyMatch(e -> e == 1));
+        assertFalse(FastStream.empty().forEachUntil(e -> true));
+    }
+
     private <T> void assertStreamEquals(List<T> expected, Supplier<FastStream<T>> stream) {
         assertEquals(expected.size(), stream.get().count());
         assertEquals(expected, stream.get().toList());
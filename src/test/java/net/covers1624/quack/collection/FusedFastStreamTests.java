@@ -0,0 +1,124 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class FusedFastStreamTests {
+
+    private static final List<Integer> NUMBERS = IntFastStream.range(-50, 200).boxed().toList();
+
+    @Test
+    public void testFusesAdjacentStages() {
+        FastStream<String> stream = FastStream.of(NUMBERS)
+                .filter(e -> e % 2 == 0)
+                .map(e -> e * 3)
+                .filterNot(e -> e % 4 == 0)
+                .map(String::valueOf);
+        assertTrue(stream instanceof FastStream.Fused);
+
+        assertTrue(FastStream.of(NUMBERS).filter(e -> e > 0) instanceof FastStream.Filtered);
+        assertTrue(FastStream.of(NUMBERS).map(e -> e + 1) instanceof FastStream.Mapped);
+    }
+
+    @Test
+    public void testMatchesUnfused() {
+        List<String> fused = FastStream.of(NUMBERS)
+                .filter(e -> e % 2 == 0)
+                .map(e -> e * 3)
+                .filterNot(e -> e % 4 == 0)
+                .map(String::valueOf)
+                .toList();
+        List<String> unfused = barrier(barrier(barrier(barrier(FastStream.of(NUMBERS)).filter(e -> e % 2 == 0)).map(e -> e * 3)).filterNot(e -> e % 4 == 0)).map(String::valueOf).toList();
+        assertEquals(unfused, fused);
+    }
+
+    @Test
+    public void testMatchesUnfusedIterator() {
+        FastStream<Integer> fused = FastStream.of(NUMBERS)
+                .map(e -> e + 7)
+                .filter(e -> e % 3 != 0)
+                .map(e -> -e);
+        List<Integer> unfused = barrier(barrier(FastStream.of(NUMBERS).map(e -> e + 7)).filter(e -> e % 3 != 0)).map(e -> -e).toList();
+
+        List<Integer> iterated = new ArrayList<>();
+        fused.iterator().forEachRemaining(iterated::add);
+        assertEquals(unfused, iterated);
+        assertEquals(unfused, fused.toList());
+    }
+
+    @Test
+    public void testPeekOrder() {
+        List<String> fusedLog = new ArrayList<>();
+        FastStream.of(1, 2, 3, 4)
+                .peek(e -> fusedLog.add("a" + e))
+                .filter(e -> e % 2 == 0)
+                .peek(e -> fusedLog.add("b" + e))
+                .map(e -> e * 10)
+                .peek(e -> fusedLog.add("c" + e))
+                .forEach(e -> fusedLog.add("d" + e));
+
+        List<String> unfusedLog = new ArrayList<>();
+        barrier(barrier(barrier(barrier(FastStream.of(1, 2, 3, 4).peek(e -> unfusedLog.add("a" + e))).filter(e -> e % 2 == 0)).peek(e -> unfusedLog.add("b" + e))).map(e -> e * 10))
+                .peek(e -> unfusedLog.add("c" + e))
+                .forEach(e -> unfusedLog.add("d" + e));
+
+        assertEquals(unfusedLog, fusedLog);
+        assertEquals(Arrays.asList("a1", "a2", "b2", "c20", "d20", "a3", "a4", "b4", "c40", "d40"), fusedLog);
+    }
+
+    @Test
+    public void testOfTypeAndMapNonNull() {
+        List<Object> mixed = Arrays.asList(1, "two", 3L, "four", null, 5);
+        List<Integer> fused = FastStream.of(mixed)
+                .filter(e -> e != "two")
+                .ofType(Integer.class)
+                .mapNonNull(e -> e > 1 ? e : null)
+                .toList();
+        assertEquals(Arrays.asList(5), fused);
+        assertEquals(Arrays.asList("four"), FastStream.of(mixed).map(e -> e).ofType(String.class).filter(e -> e.length() == 4).toList());
+    }
+
+    @Test
+    public void testReuse() {
+        FastStream<Integer> base = FastStream.of(NUMBERS).filter(e -> e > 0).map(e -> e * 2);
+        FastStream<Integer> a = base.filter(e -> e % 3 == 0);
+        FastStream<Integer> b = base.map(e -> e + 1);
+        assertEquals(barrier(base).filter(e -> e % 3 == 0).toList(), a.toList());
+        assertEquals(barrier(base).map(e -> e + 1).toList(), b.toList());
+        assertEquals(199, base.count());
+    }
+
+    @Test
+    public void testKnownLength() {
+        assertEquals(NUMBERS.size(), FastStream.of(NUMBERS).map(e -> e + 1).peek(e -> { }).map(e -> e * 2).knownLength());
+        assertEquals(-1, FastStream.of(NUMBERS).map(e -> e + 1).filter(e -> e > 0).knownLength());
+    }
+
+    @Test
+    public void testLongPipeline() {
+        FastStream<Integer> stream = FastStream.of(NUMBERS);
+        FastStream<Integer> unfused = FastStream.of(NUMBERS);
+        for (int i = 0; i < 500; i++) {
+            int j = i;
+            stream = stream.map(e -> e + j);
+            unfused = barrier(unfused.map(e -> e + j));
+        }
+        assertEquals(unfused.toList(), stream.toList());
+    }
+
+    // Wraps the stream in a plain Iterable, preventing it from being fused with the next stage.
+    private static <T> FastStream<T> barrier(FastStream<T> stream) {
+        return FastStream.of((Iterable<T>) stream::iterator);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class IntFastStreamTests {
+
+    @Test
+    public void testEmpty() {
+        assertTrue(IntFastStream.empty().isEmpty());
+        assertTrue(IntFastStream.of().isEmpty());
+        assertFalse(IntFastStream.of(1).isEmpty());
+        assertEquals(0, IntFastStream.of(new int[] { 1, 2 }, 1, 1).count());
+    }
+
+    @Test
+    public void testOf() {
+        assertArrayEquals(new int[] { 1, 2, 3 }, IntFastStream.of(1, 2, 3).toArray());
+        assertArrayEquals(new int[] { 2, 3 }, IntFastStream.of(new int[] { 1, 2, 3, 4 }, 1, 3).toArray());
+        assertArrayEquals(new int[] { 1, 2, 3 }, FastStream.of(new int[] { 1, 2, 3 }).toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> IntFastStream.of(new int[] { 1, 2 }, 1, 3));
+    }
+
+    @Test
+    public void testRange() {
+        assertIntStreamEquals(new int[] { 0, 1, 2, 3, 4 }, IntFastStream.range(0, 5));
+        assertIntStreamEquals(new int[] { 0, 1, 2, 3, 4, 5 }, IntFastStream.rangeClosed(0, 5));
+        assertIntStreamEquals(new int[0], IntFastStream.range(5, 5));
+        assertIntStreamEquals(new int[] { Integer.MAX_VALUE - 1, Integer.MAX_VALUE }, IntFastStream.rangeClosed(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+        assertEquals(-1, IntFastStream.range(Integer.MIN_VALUE, Integer.MAX_VALUE).knownLength());
+    }
+
+    @Test
+    public void testFilterMap() {
+        assertIntStreamEquals(new int[] { 0, 4, 8 }, IntFastStream.range(0, 5).filter(e -> e % 2 == 0).map(e -> e * 2));
+        assertIntStreamEquals(new int[] { 1, 3 }, IntFastStream.range(0, 5).filterNot(e -> e % 2 == 0));
+    }
+
+    @Test
+    public void testMapToObj() {
+        assertEquals(ImmutableList.of("0", "1", "2"), IntFastStream.range(0, 3).mapToObj(Integer::toString).toList());
+        assertEquals(ImmutableList.of(0, 1, 2), IntFastStream.range(0, 3).boxed().toList());
+        assertEquals(3, IntFastStream.range(0, 3).boxed().knownLength());
+    }
+
+    @Test
+    public void testObjBridges() {
+        List<String> list = ImmutableList.of("one", "two", "three");
+        assertIntStreamEquals(new int[] { 3, 3, 5 }, FastStream.of(list).mapToInt(String::length));
+        assertArrayEquals(new long[] { 3, 3, 5 }, FastStream.of(list).mapToLong(String::length).toArray());
+        assertArrayEquals(new double[] { 1.5, 1.5, 2.5 }, FastStream.of(list).mapToDouble(e -> e.length() / 2D).toArray());
+        assertEquals(3, FastStream.of(list).mapToInt(String::length).knownLength());
+        assertEquals(0, FastStream.<String>empty().mapToInt(String::length).count());
+    }
+
+    @Test
+    public void testPrimitiveBridges() {
+        assertArrayEquals(new long[] { 0, 2, 4 }, IntFastStream.range(0, 3).mapToLong(e -> e * 2L).toArray());
+        assertArrayEquals(new double[] { 0, 0.5, 1 }, IntFastStream.range(0, 3).mapToDouble(e -> e / 2D).toArray());
+    }
+
+    @Test
+    public void testDistinct() {
+        assertIntStreamEquals(new int[] { 3, 0, 1, -5 }, IntFastStream.of(3, 0, 3, 1, 0, -5, 1, -5).distinct());
+
+        int[] big = IntFastStream.range(0, 10000).map(e -> e % 1000).toArray();
+        assertIntStreamEquals(IntFastStream.range(0, 1000).toArray(), IntFastStream.of(big).distinct());
+    }
+
+    @Test
+    public void testSorted() {
+        assertIntStreamEquals(new int[] { -5, 0, 1, 3 }, IntFastStream.of(3, 0, 1, -5).sorted());
+    }
+
+    @Test
+    public void testLimitSkip() {
+        assertIntStreamEquals(new int[] { 0, 1, 2 }, IntFastStream.range(0, 10).limit(3));
+        assertIntStreamEquals(new int[] { 7, 8, 9 }, IntFastStream.range(0, 10).skip(7));
+        assertIntStreamEquals(new int[] { 7, 8, 9 }, IntFastStream.range(0, 10).filter(e -> true).skip(7));
+        assertIntStreamEquals(new int[0], IntFastStream.range(0, 10).limit(0));
+    }
+
+    @Test
+    public void testPeek() {
+        List<Integer> peeked = new ArrayList<>();
+        assertArrayEquals(new int[] { 1, 2, 3 }, IntFastStream.of(1, 2, 3).peek(peeked::add).toArray());
+        assertEquals(ImmutableList.of(1, 2, 3), peeked);
+    }
+
+    @Test
+    public void testConcat() {
+        assertIntStreamEquals(new int[] { 1, 2, 3, 4 }, IntFastStream.of(1, 2).concat(IntFastStream.of(3, 4)));
+        assertIntStreamEquals(new int[] { 1, 2, 3, 4 }, IntFastStream.empty().concat(IntFastStream.of(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void testQueries() {
+        assertTrue(IntFastStream.range(0, 10).anyMatch(e -> e == 5));
+        assertFalse(IntFastStream.range(0, 10).anyMatch(e -> e == 50));
+        assertTrue(IntFastStream.range(0, 10).allMatch(e -> e < 10));
+        assertTrue(IntFastStream.range(0, 10).noneMatch(e -> e < 0));
+        assertEquals(5, IntFastStream.range(0, 10).filter(e -> e % 2 == 0).count());
+    }
+
+    @Test
+    public void testTerminals() {
+        assertEquals(45, IntFastStream.range(0, 10).sum());
+        assertEquals(2L * Integer.MAX_VALUE, IntFastStream.of(Integer.MAX_VALUE, Integer.MAX_VALUE).longSum());
+        assertEquals(OptionalInt.of(-5), IntFastStream.of(3, 0, 1, -5).min());
+        assertEquals(OptionalInt.of(3), IntFastStream.of(3, 0, 1, -5).max());
+        assertEquals(OptionalInt.empty(), IntFastStream.empty().max());
+        assertEquals(10, IntFastStream.of(1, 2, 3, 4).fold(0, Integer::sum));
+        assertEquals(OptionalInt.of(24), IntFastStream.of(1, 2, 3, 4).fold((a, b) -> a * b));
+        assertEquals(OptionalInt.of(3), IntFastStream.of(3, 0).findFirst());
+        assertEquals(3, IntFastStream.of(3, 0).first());
+        assertEquals(7, IntFastStream.empty().firstOrDefault(7));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> IntFastStream.empty().first());
+        assertEquals("Not found.", ex.getMessage());
+    }
+
+    @Test
+    public void testForEachUntil() {
+        assertEquals(OptionalInt.of(12), IntFastStream.range(0, Integer.MAX_VALUE).map(e -> e * 2).filter(e -> e > 10).findFirst());
+        assertTrue(IntFastStream.range(0, Integer.MAX_VALUE).boxed().anyMatch(e -> e == 5));
+
+        int[] evaluated = { 0 };
+        assertArrayEquals(new int[] { 2, 3, 4 }, IntFastStream.range(0, 100).peek(e -> evaluated[0]++).skip(2).limit(3).toArray());
+        assertEquals(5, evaluated[0]);
+
+        assertTrue(IntFastStream.of(1, 2).concat(IntFastStream.of(3)).forEachUntil(e -> e == 3));
+        assertFalse(IntFastStream.of(3, 1, 3).distinct().sorted().forEachUntil(e -> e == 2));
+        assertEquals(7, IntFastStream.empty().firstOrDefault(7));
+        assertEquals(3, IntFastStream.of(3, 4).first());
+        assertThrows(IllegalArgumentException.class, () -> IntFastStream.of(3, 4).filter(e -> e > 5).first());
+    }
+
+    private static void assertIntStreamEquals(int[] expected, IntFastStream stream) {
+        assertArrayEquals(expected, stream.toArray());
+        assertEquals(expected.length, stream.count());
+
+        List<Integer> forEach = new ArrayList<>();
+        stream.forEach(forEach::add);
+        assertEquals(FastStream.of(expected).boxed().toList(), forEach);
+
+        PrimitiveIterator.OfInt itr = stream.iterator();
+        for (int e : expected) {
+            assertTrue(itr.hasNext());
+            assertEquals(e, itr.nextInt());
+        }
+        assertFalse(itr.hasNext());
+    }
+}
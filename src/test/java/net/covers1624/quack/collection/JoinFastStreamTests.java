@@ -0,0 +1,96 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class JoinFastStreamTests {
+
+    private static final List<String> ARTIFACTS = Arrays.asList("a.jar", "b.jar", "c.jar", "d.jar", "a.pom");
+    private static final List<String> CHECKSUMS = Arrays.asList("a:1", "c:3", "a:2", "e:5");
+
+    @Test
+    public void testJoin() {
+        // Smaller right side is built, results follow the left side.
+        List<String> probeLeft = Arrays.asList("a.jar=1", "a.jar=2", "c.jar=3", "a.pom=1", "a.pom=2");
+        assertEquals(probeLeft, join(FastStream.of(ARTIFACTS), CHECKSUMS).toList());
+        assertEquals(probeLeft, iterate(join(FastStream.of(ARTIFACTS), CHECKSUMS)));
+        assertEquals(probeLeft, join(FastStream.of(unsized(ARTIFACTS)), unsized(CHECKSUMS)).toList());
+
+        // Smaller, or only known, left side is built, results follow the right side.
+        List<String> probeRight = Arrays.asList("a.jar=1", "a.pom=1", "c.jar=3", "a.jar=2", "a.pom=2");
+        List<String> manyChecksums = new ArrayList<>(CHECKSUMS);
+        manyChecksums.addAll(Collections.nCopies(10, "z:0"));
+        assertEquals(probeRight, join(FastStream.of(ARTIFACTS), manyChecksums).toList());
+        assertEquals(probeRight, iterate(join(FastStream.of(ARTIFACTS), manyChecksums)));
+        assertEquals(probeRight, join(FastStream.of(ARTIFACTS), unsized(CHECKSUMS)).toList());
+
+        assertEquals(Optional.of("a.jar=1"), join(FastStream.of(ARTIFACTS), CHECKSUMS).findFirst());
+        assertEquals(Collections.emptyList(), join(FastStream.empty(), CHECKSUMS).toList());
+    }
+
+    @Test
+    public void testLeftJoin() {
+        List<String> expected = Arrays.asList("a.jar=1", "a.jar=2", "b.jar=null", "c.jar=3", "d.jar=null", "a.pom=1", "a.pom=2");
+        FastStream<String> joined = FastStream.of(ARTIFACTS).leftJoin(CHECKSUMS, e -> e.substring(0, 1), e -> e.substring(0, 1), (a, c) -> a + "=" + (c == null ? null : c.substring(2)));
+        assertEquals(expected, joined.toList());
+        assertEquals(expected, iterate(joined));
+    }
+
+    @Test
+    public void testNullKeys() {
+        List<String> left = Arrays.asList("a", "", "b");
+        List<String> right = Arrays.asList("", "a");
+        FastStream<String> joined = FastStream.of(left).join(right, e -> e.isEmpty() ? null : e, e -> e.isEmpty() ? null : e, (a, b) -> a + b);
+        assertEquals(Collections.singletonList("aa"), joined.toList());
+        assertEquals(Arrays.asList("a", "", "b"), FastStream.of(left).leftJoin(right, e -> e.isEmpty() ? null : e, e -> e.isEmpty() ? null : e, (a, b) -> a).toList());
+        assertEquals(Collections.singletonList("a"), FastStream.of(left).semiJoin(right, e -> e.isEmpty() ? null : e, e -> e.isEmpty() ? null : e).toList());
+        assertEquals(Arrays.asList("", "b"), FastStream.of(left).antiJoin(right, e -> e.isEmpty() ? null : e, e -> e.isEmpty() ? null : e).toList());
+    }
+
+    @Test
+    public void testSemiAntiJoin() {
+        FastStream<String> semi = FastStream.of(ARTIFACTS).semiJoin(CHECKSUMS, e -> e.substring(0, 1), e -> e.substring(0, 1));
+        assertEquals(Arrays.asList("a.jar", "c.jar", "a.pom"), semi.toList());
+        assertEquals(Arrays.asList("a.jar", "c.jar", "a.pom"), iterate(semi));
+
+        FastStream<String> anti = FastStream.of(ARTIFACTS).antiJoin(CHECKSUMS, e -> e.substring(0, 1), e -> e.substring(0, 1));
+        assertEquals(Arrays.asList("b.jar", "d.jar"), anti.toList());
+        assertEquals(Arrays.asList("b.jar", "d.jar"), iterate(anti));
+        assertEquals(Optional.of("d.jar"), anti.filter(e -> e.startsWith("d")).findFirst());
+    }
+
+    @Test
+    public void testCoGroup() {
+        List<FastStream.CoGroup<String, String, String>> groups = FastStream.of(ARTIFACTS).coGroup(CHECKSUMS, e -> e.substring(0, 1), e -> e.substring(0, 1)).toList();
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), FastStream.of(groups).map(FastStream.CoGroup::getKey).toList());
+        assertEquals(Arrays.asList("a.jar", "a.pom"), groups.get(0).getLeft().toList());
+        assertEquals(Arrays.asList("a:1", "a:2"), groups.get(0).getRight().toList());
+        assertTrue(groups.get(1).getRight().isEmpty());
+        assertTrue(groups.get(4).getLeft().isEmpty());
+        assertEquals(Collections.singletonList("e:5"), groups.get(4).getRight().toList());
+        assertEquals(5, FastStream.of(ARTIFACTS).coGroup(CHECKSUMS, e -> e.substring(0, 1), e -> e.substring(0, 1)).count());
+    }
+
+    private static FastStream<String> join(FastStream<String> artifacts, Iterable<String> checksums) {
+        return artifacts.join(checksums, e -> e.substring(0, 1), e -> e.substring(0, 1), (a, c) -> a + "=" + c.substring(2));
+    }
+
+    private static <T> Iterable<T> unsized(List<T> list) {
+        return list::iterator;
+    }
+
+    private static <T> List<T> iterate(FastStream<T> stream) {
+        List<T> list = new ArrayList<>();
+        stream.iterator().forEachRemaining(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class LinesFastStreamTests {
+
+    @Test
+    public void testTerminators() throws IOException {
+        assertLines("");
+        assertLines("a");
+        assertLines("a\n");
+        assertLines("a\nb");
+        assertLines("\n\n\n");
+        assertLines("a\r\nb\rc\n\rd\r\r\ne");
+        assertLines("trailing\r");
+        assertLines("some longer lines which span\nmultiple words, so the scan\r\nprocesses whole 8 byte words.\n");
+    }
+
+    @Test
+    public void testCharsets() throws IOException {
+        Path file = write("h\u00e9llo\nw\u00f6rld \u2603\n", UTF_8);
+        assertEquals(Arrays.asList("h\u00e9llo", "w\u00f6rld \u2603"), FastStream.lines(file, UTF_8).toList());
+
+        Path latin = write("h\u00e9llo\nw\u00f6rld\n", ISO_8859_1);
+        assertEquals(Arrays.asList("h\u00e9llo", "w\u00f6rld"), FastStream.lines(latin, ISO_8859_1).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> FastStream.lines(file, UTF_16));
+    }
+
+    @Test
+    public void testSequences() throws IOException {
+        Path file = write("hello world\nw\u00f6rld\n", UTF_8);
+        List<CharSequence> lines = FastStream.lineSequences(file, UTF_8).toList();
+        assertEquals(2, lines.size());
+
+        CharSequence ascii = lines.get(0);
+        assertEquals(11, ascii.length());
+        assertEquals('w', ascii.charAt(6));
+        assertEquals("world", ascii.subSequence(6, 11).toString());
+        assertEquals("hello world", ascii.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> ascii.charAt(11));
+
+        CharSequence decoded = lines.get(1);
+        assertEquals(5, decoded.length());
+        assertEquals('\u00f6', decoded.charAt(1));
+        assertEquals("w\u00f6rld", decoded.toString());
+    }
+
+    @Test
+    public void testShortCircuit() throws IOException {
+        Path file = write("a\nb\nc\nd\n", UTF_8);
+        assertEquals(Optional.of("c"), FastStream.lines(file, UTF_8).filter(e -> e.equals("c")).findFirst());
+        Iterator<String> itr = FastStream.lines(file, UTF_8).iterator();
+        assertEquals("a", itr.next());
+        assertEquals("b", itr.next());
+    }
+
+    @Test
+    public void testSplit() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        Random rand = new Random(42);
+        String[] terminators = { "\n", "\r", "\r\n" };
+        for (int i = 0; i < 2000; i++) {
+            sb.append("line ").append(i).append(FastStream.of(Collections.nCopies(rand.nextInt(20), "x")).join(""));
+            sb.append(terminators[rand.nextInt(3)]);
+        }
+        Path file = write(sb.toString(), UTF_8);
+        List<String> expected = readLines(sb.toString());
+
+        for (int parts : new int[] { 1, 2, 7, 64, 5000 }) {
+            long[] bounds = LineScanner.split(file, 0, Files.size(file), parts);
+            assertEquals(0, bounds[0]);
+            assertEquals(Files.size(file), bounds[bounds.length - 1]);
+
+            FastStream<String> lines = FastStream.lines(file, UTF_8);
+            List<String> actual = new ArrayList<>();
+            for (FastStream<String> segment : FastStream.Internal.split(lines, parts)) {
+                actual.addAll(segment.toList());
+            }
+            assertEquals(expected, actual);
+        }
+        assertEquals(expected, FastStream.lines(file, UTF_8).parallel().toList());
+        assertEquals(2000, FastStream.lines(file, UTF_8).parallel().filter(e -> e.startsWith("line")).count());
+    }
+
+    @Test
+    public void testWindows() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        Random rand = new Random(42);
+        String[] terminators = { "\n", "\r", "\r\n" };
+        for (int i = 0; i < 500; i++) {
+            sb.append(FastStream.of(Collections.nCopies(rand.nextInt(6), "x")).join(""));
+            sb.append(terminators[rand.nextInt(3)]);
+        }
+        sb.append("xyz");
+        Path file = write(sb.toString(), UTF_8);
+        List<String> expected = readLines(sb.toString());
+
+        // Small windows, so terminators, including "\r\n", straddle window boundaries at every alignment.
+        for (int windowSize = 8; windowSize <= 16; windowSize++) {
+            List<String> lines = new ArrayList<>();
+            new LineScanner<String>(file, UTF_8, false, 0, Files.size(file), windowSize).forEachRemaining(lines::add);
+            assertEquals(expected, lines);
+
+            List<String> views = new ArrayList<>();
+            new LineScanner<CharSequence>(file, UTF_8, true, 0, Files.size(file), windowSize).forEachRemaining(e -> views.add(e.toString()));
+            assertEquals(expected, views);
+        }
+
+        Path crlf = write("ab\r\ncd\r\n", UTF_8);
+        for (int windowSize = 4; windowSize <= 6; windowSize++) {
+            List<String> lines = new ArrayList<>();
+            new LineScanner<String>(crlf, UTF_8, false, 0, Files.size(crlf), windowSize).forEachRemaining(lines::add);
+            assertEquals(Arrays.asList("ab", "cd"), lines);
+        }
+
+        Path longLine = write("short\nthis line is too long\nshort\n", UTF_8);
+        LineScanner<String> scanner = new LineScanner<>(longLine, UTF_8, false, 0, Files.size(longLine), 8);
+        assertEquals("short", scanner.next());
+        assertThrows(IllegalStateException.class, scanner::next);
+        assertThrows(IllegalArgumentException.class, () -> new LineScanner<String>(longLine, UTF_8, false, 0, Files.size(longLine), 1));
+    }
+
+    private static void assertLines(String content) throws IOException {
+        Path file = write(content, UTF_8);
+        List<String> expected = readLines(content);
+        assertEquals(expected, FastStream.lines(file, UTF_8).toList());
+
+        List<String> iterated = new ArrayList<>();
+        FastStream.lines(file, UTF_8).iterator().forEachRemaining(iterated::add);
+        assertEquals(expected, iterated);
+
+        assertEquals(expected, FastStream.lineSequences(file, UTF_8).map(CharSequence::toString).toList());
+    }
+
+    private static List<String> readLines(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static Path write(String content, java.nio.charset.Charset charset) throws IOException {
+        Path file = Files.createTempFile("lines", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(charset));
+        return file;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class LongFastStreamTests {
+
+    @Test
+    public void testRange() {
+        assertArrayEquals(new long[] { 0, 1, 2, 3, 4 }, LongFastStream.range(0, 5).toArray());
+        assertArrayEquals(new long[] { Long.MAX_VALUE - 1, Long.MAX_VALUE }, LongFastStream.rangeClosed(Long.MAX_VALUE - 1, Long.MAX_VALUE).toArray());
+        assertEquals(-1, LongFastStream.range(0, Long.MAX_VALUE).knownLength());
+        assertEquals(5, LongFastStream.range(0, 5).knownLength());
+    }
+
+    @Test
+    public void testOperations() {
+        long big = Integer.MAX_VALUE * 4L;
+        assertArrayEquals(new long[] { big, big + 2 }, FastStream.of(new long[] { big, big + 1, big + 2 }).filter(e -> e % 2 == 0).toArray());
+        assertArrayEquals(new long[] { 2, 4, 6 }, LongFastStream.of(1, 2, 3).map(e -> e * 2).toArray());
+        assertArrayEquals(new long[] { big, 0, 1 }, LongFastStream.of(big, 0, big, 1, 0).distinct().toArray());
+        assertArrayEquals(new long[] { 0, 1, big }, LongFastStream.of(big, 0, 1).sorted().toArray());
+        assertArrayEquals(new long[] { 2, 3 }, LongFastStream.of(1, 2, 3, 4).skip(1).limit(2).toArray());
+        assertArrayEquals(new int[] { 1, 2 }, LongFastStream.of(1, 2).mapToInt(e -> (int) e).toArray());
+        assertEquals(ImmutableList.of(1L, 2L), LongFastStream.of(1, 2).boxed().toList());
+    }
+
+    @Test
+    public void testTerminals() {
+        assertEquals(Integer.MAX_VALUE * 2L, LongFastStream.of(Integer.MAX_VALUE, Integer.MAX_VALUE).sum());
+        assertEquals(OptionalLong.of(-1), LongFastStream.of(5, -1, 3).min());
+        assertEquals(OptionalLong.of(5), LongFastStream.of(5, -1, 3).max());
+        assertTrue(LongFastStream.of(5, -1, 3).anyMatch(e -> e < 0));
+        assertEquals(3, LongFastStream.of(5, -1, 3).filter(e -> true).count());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class ParallelFastStreamTests {
+
+    private static final List<Integer> NUMBERS = IntFastStream.range(0, 10000).boxed().toList();
+
+    @Test
+    public void testToListOrdered() {
+        assertEquals(NUMBERS, FastStream.of(NUMBERS).parallel().toList());
+        assertEquals(NUMBERS, FastStream.of(NUMBERS.toArray()).parallel().toList());
+        assertEquals(Collections.emptyList(), FastStream.empty().parallel().toList());
+        assertEquals(Collections.singletonList(1), FastStream.of(1).parallel().toList());
+    }
+
+    @Test
+    public void testFilterMap() {
+        List<String> expected = FastStream.of(NUMBERS).filter(e -> e % 3 == 0).map(e -> "v" + e).toList();
+        assertEquals(expected, FastStream.of(NUMBERS).parallel().filter(e -> e % 3 == 0).map(e -> "v" + e).toList());
+        assertEquals(expected, FastStream.of(NUMBERS).filter(e -> e % 3 == 0).map(e -> "v" + e).parallel().toList());
+    }
+
+    @Test
+    public void testFlatMap() {
+        List<Integer> expected = FastStream.of(NUMBERS).flatMap(e -> Arrays.asList(e, -e)).toList();
+        assertEquals(expected, FastStream.of(NUMBERS).parallel().flatMap(e -> Arrays.asList(e, -e)).toList());
+    }
+
+    @Test
+    public void testFold() {
+        long expected = FastStream.of(NUMBERS).longSum(e -> e);
+        assertEquals(expected, FastStream.of(NUMBERS).parallel().longSum(e -> e));
+        assertEquals(expected, (long) FastStream.of(NUMBERS).parallel().fold(0L, (a, b) -> a + b, Long::sum));
+        assertEquals(Optional.of(9999), FastStream.of(NUMBERS).parallel().fold(Math::max));
+        assertEquals(Optional.empty(), FastStream.<Integer>empty().parallel().fold(Math::max));
+        assertEquals(10000, FastStream.of(NUMBERS).parallel().count());
+    }
+
+    @Test
+    public void testMatch() {
+        assertTrue(FastStream.of(NUMBERS).parallel().anyMatch(e -> e == 9876));
+        assertFalse(FastStream.of(NUMBERS).parallel().anyMatch(e -> e < 0));
+        assertTrue(FastStream.of(NUMBERS).parallel().allMatch(e -> e >= 0));
+        assertTrue(FastStream.of(NUMBERS).parallel().noneMatch(e -> e >= 10000));
+        assertEquals(Optional.of(7), FastStream.of(NUMBERS).parallel().filter(e -> e > 6).findFirst());
+    }
+
+    @Test
+    public void testFindFirstSkipsLaterSegments() {
+        // With a single thread, segments are evaluated in order, later segments are skipped once one finds an element.
+        AtomicInteger counter = new AtomicInteger();
+        Optional<Integer> first = FastStream.of(NUMBERS)
+                .peek(e -> counter.incrementAndGet())
+                .parallel(new ForkJoinPool(1))
+                .filter(e -> e > 6)
+                .findFirst();
+        assertEquals(Optional.of(7), first);
+        assertEquals(8, counter.get());
+
+        assertEquals(Optional.empty(), FastStream.of(NUMBERS).parallel().filter(e -> e < 0).findFirst());
+    }
+
+    @Test
+    public void testForEach() {
+        AtomicInteger counter = new AtomicInteger();
+        FastStream.of(NUMBERS).parallel().forEach(e -> counter.incrementAndGet());
+        assertEquals(10000, counter.get());
+    }
+
+    @Test
+    public void testGroupBy() {
+        List<FastStream.Group<Integer, Integer>> expected = FastStream.of(NUMBERS).groupBy(e -> e % 7).toList();
+        List<FastStream.Group<Integer, Integer>> actual = FastStream.of(NUMBERS).parallel().groupBy(e -> e % 7).toList();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getKey(), actual.get(i).getKey());
+            assertEquals(expected.get(i).toList(), actual.get(i).toList());
+        }
+    }
+
+    @Test
+    public void testToMap() {
+        Map<Integer, Integer> expected = FastStream.of(NUMBERS).toMap(e -> e % 100, e -> e, Integer::sum);
+        LinkedHashMap<Integer, Integer> actual = FastStream.of(NUMBERS).parallel().toMap(e -> e % 100, e -> e, Integer::sum);
+        assertEquals(expected, actual);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+    }
+
+    @Test
+    public void testTopBottom() {
+        Comparator<Integer> byTens = Comparator.comparingInt(e -> e / 10);
+        assertEquals(FastStream.of(NUMBERS).bottom(25, byTens).toList(), FastStream.of(NUMBERS).parallel().bottom(25, byTens).toList());
+        assertEquals(FastStream.of(NUMBERS).top(25, byTens).toList(), FastStream.of(NUMBERS).parallel().top(25, byTens).toList());
+        assertEquals(NUMBERS, FastStream.of(NUMBERS).parallel().bottom(20000, byTens).toList());
+    }
+
+    @Test
+    public void testSources() {
+        // Partitioned
+        List<ArrayList<Integer>> partitions = FastStream.of(NUMBERS).partition(7).map(FastStream::toList).toList();
+        assertEquals(partitions, FastStream.of(NUMBERS).partition(7).parallel().map(FastStream::toList).toList());
+
+        // Sorted
+        List<Integer> reversed = new ArrayList<>(NUMBERS);
+        Collections.reverse(reversed);
+        assertEquals(NUMBERS, FastStream.of(reversed).sorted().parallel().toList());
+
+        // Unsized, buffered
+        Iterable<Integer> unsized = () -> NUMBERS.iterator();
+        assertEquals(NUMBERS, FastStream.of(unsized).parallel().toList());
+
+        // Primitive ranges
+        assertEquals(NUMBERS, IntFastStream.range(0, 10000).boxed().parallel().toList());
+        assertEquals(NUMBERS, IntFastStream.range(0, 10000).boxed().parallel(new ForkJoinPool(3)).toList());
+    }
+
+    @Test
+    public void testSplit() {
+        FastStream<Integer>[] split = FastStream.Internal.split(FastStream.of(NUMBERS), 8);
+        assertEquals(8, split.length);
+        assertEquals(NUMBERS, FastStream.of(split).flatMap(e -> e).toList());
+
+        assertEquals(1, FastStream.Internal.split(FastStream.empty(), 8).length);
+        assertEquals(3, FastStream.Internal.split(FastStream.of(1, 2, 3), 8).length);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class ProfileFastStreamTests {
+
+    @Test
+    public void testStageCounts() {
+        List<PipelineProfile> profiles = new ArrayList<>();
+        List<Integer> numbers = IntFastStream.range(0, 10000).boxed().toList();
+        List<Integer> result = FastStream.of(numbers)
+                .profile("test", profiles::add)
+                .map(e -> e % 3)
+                .distinct()
+                .flatMap(e -> Arrays.asList(e, e))
+                .toList();
+        assertEquals(Arrays.asList(0, 0, 1, 1, 2, 2), result);
+
+        assertEquals(1, profiles.size());
+        PipelineProfile profile = profiles.get(0);
+        assertEquals("test", profile.getName());
+        List<PipelineProfile.Stage> stages = profile.getStages();
+        assertEquals(Arrays.asList("source", "map", "distinct", "flatMap"), FastStream.of(stages).map(PipelineProfile.Stage::getOperation).toList());
+        assertEquals(Arrays.asList(10000L, 10000L, 3L, 6L), FastStream.of(stages).map(PipelineProfile.Stage::getElements).toList());
+        assertTrue(FastStream.of(stages).allMatch(e -> e.getNanos() >= 0));
+    }
+
+    @Test
+    public void testKnownLengthLost() {
+        List<PipelineProfile> profiles = new ArrayList<>();
+        FastStream.of(1, 2, 3, 4)
+                .profile("test", profiles::add)
+                .map(e -> e * 2)
+                .filter(e -> e > 4)
+                .forEach(e -> { });
+
+        List<PipelineProfile.Stage> stages = profiles.get(0).getStages();
+        assertFalse(stages.get(1).isKnownLengthLost());
+        assertTrue(stages.get(2).isKnownLengthLost());
+        assertEquals(2L, stages.get(2).getElements());
+    }
+
+    @Test
+    public void testShortCircuit() {
+        List<PipelineProfile> profiles = new ArrayList<>();
+        Optional<Integer> first = FastStream.of(1, 2, 3, 4, 5)
+                .profile("test", profiles::add)
+                .filter(e -> e > 2)
+                .findFirst();
+        assertEquals(Optional.of(3), first);
+        assertEquals(Arrays.asList(3L, 1L), FastStream.of(profiles.get(0).getStages()).map(PipelineProfile.Stage::getElements).toList());
+    }
+
+    @Test
+    public void testIterator() {
+        List<PipelineProfile> profiles = new ArrayList<>();
+        FastStream<Integer> stream = FastStream.of(1, 2, 3, 4, 5)
+                .profile("test", profiles::add)
+                .skip(1)
+                .limit(3);
+        List<Integer> list = new ArrayList<>();
+        stream.iterator().forEachRemaining(list::add);
+        assertEquals(Arrays.asList(2, 3, 4), list);
+
+        assertEquals(1, profiles.size());
+        assertEquals(Arrays.asList("source", "skip", "limit"), FastStream.of(profiles.get(0).getStages()).map(PipelineProfile.Stage::getOperation).toList());
+        assertEquals(3L, profiles.get(0).getStages().get(2).getElements());
+
+        // Re-evaluation resets the profile.
+        assertEquals(Arrays.asList(2, 3, 4), stream.toList());
+        assertEquals(2, profiles.size());
+        assertEquals(3L, profiles.get(1).getStages().get(2).getElements());
+    }
+
+    @Test
+    public void testPrimitiveStages() {
+        List<PipelineProfile> profiles = new ArrayList<>();
+        long sum = FastStream.of(1, 2, 3, 4, 5, 6)
+                .profile("test", profiles::add)
+                .map(e -> e * 2)
+                .mapToInt(e -> e)
+                .filter(e -> e > 4)
+                .mapToLong(e -> e)
+                .sum();
+        assertEquals(36, sum);
+
+        assertEquals(1, profiles.size());
+        List<PipelineProfile.Stage> stages = profiles.get(0).getStages();
+        assertEquals(Arrays.asList("source", "map", "mapToInt", "filter", "mapToLong"), FastStream.of(stages).map(PipelineProfile.Stage::getOperation).toList());
+        assertEquals(Arrays.asList(6L, 6L, 6L, 4L, 4L), FastStream.of(stages).map(PipelineProfile.Stage::getElements).toList());
+
+        List<Integer> boxed = new ArrayList<>();
+        IntFastStream.range(0, 4)
+                .mapToObj(e -> e)
+                .profile("boxed", profiles::add)
+                .mapToInt(e -> e)
+                .boxed()
+                .iterator()
+                .forEachRemaining(boxed::add);
+        assertEquals(Arrays.asList(0, 1, 2, 3), boxed);
+        assertEquals(Arrays.asList("source", "mapToInt", "mapToObj"), FastStream.of(profiles.get(1).getStages()).map(PipelineProfile.Stage::getOperation).toList());
+    }
+
+    @Test
+    public void testBranched() {
+        List<PipelineProfile> profiles = new ArrayList<>();
+        FastStream<Integer> mapped = FastStream.of(1, 2, 3, 4)
+                .profile("test", profiles::add)
+                .map(e -> e * 2);
+        FastStream<Integer> filtered = mapped.filter(e -> e > 4);
+        assertEquals(Arrays.asList(6, 8), filtered.toList());
+        assertEquals(Arrays.asList(2, 4, 6, 8), mapped.toList());
+
+        // The intermediate stage reports when evaluated itself.
+        assertEquals(2, profiles.size());
+        assertEquals(Arrays.asList("source", "map", "filter"), FastStream.of(profiles.get(0).getStages()).map(PipelineProfile.Stage::getOperation).toList());
+        assertEquals(Arrays.asList("source", "map"), FastStream.of(profiles.get(1).getStages()).map(PipelineProfile.Stage::getOperation).toList());
+        assertEquals(4L, profiles.get(1).getStages().get(1).getElements());
+    }
+
+    @Test
+    public void testConcurrentEvaluations() throws Throwable {
+        List<PipelineProfile> profiles = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> numbers = IntFastStream.range(0, 10000).boxed().toList();
+        FastStream<Integer> stream = FastStream.of(numbers)
+                .profile("test", profiles::add)
+                .map(e -> e % 100)
+                .filter(e -> e < 50);
+
+        int threads = 8;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < 20; i++) {
+                        assertEquals(5000, stream.count());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Each evaluation records separately.
+        assertEquals(threads * 20, profiles.size());
+        for (PipelineProfile profile : profiles) {
+            assertEquals(Arrays.asList(10000L, 10000L, 5000L), FastStream.of(profile.getStages()).map(PipelineProfile.Stage::getElements).toList());
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        FastStream<Integer> stream = FastStream.of(1, 2, 3).map(e -> e + 1).filter(e -> e > 2).sorted();
+        assertFalse(stream instanceof FastStream.Probed);
+        assertEquals(Arrays.asList(3, 4), stream.toList());
+    }
+}
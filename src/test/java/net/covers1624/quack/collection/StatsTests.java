@@ -0,0 +1,101 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class StatsTests {
+
+    private static final List<String> WORDS = Arrays.asList("apple", "avocado", "banana", "blueberry", "cherry", "apricot", "beet", "carrot", "artichoke");
+
+    @Test
+    public void testIntStats() {
+        IntStats stats = FastStream.of(WORDS).intStats(String::length);
+        assertEquals(9, stats.getCount());
+        assertEquals(59, stats.getSum());
+        assertEquals(4, stats.getMin());
+        assertEquals(9, stats.getMax());
+        assertEquals(59 / 9D, stats.getMean(), 1e-9);
+        assertThrows(IllegalStateException.class, stats::getVariance);
+        assertThrows(IllegalStateException.class, () -> stats.getPercentile(50));
+
+        IntStats empty = FastStream.<String>empty().intStats(String::length);
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getMean());
+        assertEquals(Integer.MAX_VALUE, empty.getMin());
+        assertTrue(Double.isNaN(FastStream.<String>empty().intStats(String::length, true).getPercentile(50)));
+
+        IntStats range = IntFastStream.range(1, 101).stats();
+        assertEquals(5050, range.getSum());
+        assertEquals(50.5, range.getMean());
+    }
+
+    @Test
+    public void testDistribution() {
+        IntStats stats = IntFastStream.range(1, 10001).stats(true);
+        // Population variance of 1..n is (n^2 - 1) / 12.
+        assertEquals((10000D * 10000 - 1) / 12, stats.getVariance(), 1e-3);
+        assertEquals(Math.sqrt((10000D * 10000 - 1) / 12), stats.getStdDev(), 1e-6);
+        assertEquals((10000D * 10000 - 1) / 12 * 10000 / 9999, stats.getSampleVariance(), 1e-3);
+
+        assertEquals(1, stats.getPercentile(0));
+        assertEquals(10000, stats.getPercentile(100));
+        assertEquals(5000, stats.getPercentile(50), 5000 * Distribution.RELATIVE_ACCURACY);
+        assertEquals(9900, stats.getPercentile(99), 9900 * Distribution.RELATIVE_ACCURACY);
+        assertThrows(IllegalArgumentException.class, () -> stats.getPercentile(101));
+
+        DoubleStats mixed = DoubleFastStream.of(-1000, -10, -1, 0, 0, 1, 10, 1000).stats(true);
+        assertEquals(-1000, mixed.getPercentile(0));
+        assertEquals(-10, mixed.getPercentile(20), 10 * Distribution.RELATIVE_ACCURACY);
+        assertEquals(0, mixed.getPercentile(50));
+        assertEquals(10, mixed.getPercentile(90), 10 * Distribution.RELATIVE_ACCURACY);
+        assertEquals(1000, mixed.getPercentile(100));
+    }
+
+    @Test
+    public void testDoubleStats() {
+        DoubleStats stats = FastStream.of(Collections.nCopies(1000000, 0.1)).doubleStats(e -> e);
+        assertEquals(100000, stats.getSum(), 1e-9);
+        assertEquals(0.1, stats.getMin());
+        assertEquals(0.1, stats.getMax());
+
+        DoubleStats infinite = DoubleFastStream.of(1, Double.POSITIVE_INFINITY).stats();
+        assertEquals(Double.POSITIVE_INFINITY, infinite.getSum());
+        assertEquals(Double.POSITIVE_INFINITY, infinite.getMax());
+
+        LongStats longs = FastStream.of(WORDS).longStats(e -> e.length() * 1000000000000L);
+        assertEquals(59000000000000L, longs.getSum());
+        assertEquals(9000000000000L, longs.getMax());
+    }
+
+    @Test
+    public void testParallel() {
+        List<Integer> numbers = IntFastStream.range(-5000, 20000).boxed().toList();
+        IntStats seq = FastStream.of(numbers).intStats(e -> e, true);
+        IntStats par = FastStream.of(numbers).parallel().intStats(e -> e, true);
+        assertEquals(seq.getCount(), par.getCount());
+        assertEquals(seq.getSum(), par.getSum());
+        assertEquals(seq.getMin(), par.getMin());
+        assertEquals(seq.getMax(), par.getMax());
+        assertEquals(seq.getVariance(), par.getVariance(), 1e-6);
+        for (double p : new double[] { 0, 1, 25, 50, 75, 99, 100 }) {
+            assertEquals(seq.getPercentile(p), par.getPercentile(p));
+        }
+
+        DoubleStats seqD = FastStream.of(numbers).doubleStats(e -> e / 7D, true);
+        DoubleStats parD = FastStream.of(numbers).parallel().doubleStats(e -> e / 7D, true);
+        assertEquals(seqD.getSum(), parD.getSum(), 1e-6);
+        assertEquals(seqD.getMean(), parD.getMean(), 1e-9);
+        assertEquals(seqD.getStdDev(), parD.getStdDev(), 1e-9);
+
+        assertEquals(FastStream.of(numbers).longStats(e -> e).getSum(), FastStream.of(numbers).parallel().longStats(e -> e).getSum());
+    }
+}
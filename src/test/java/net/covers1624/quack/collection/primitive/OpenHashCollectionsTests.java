@@ -0,0 +1,155 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection.primitive;
+
+import net.covers1624.quack.collection.FastStream;
+import net.covers1624.quack.collection.IntFastStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class OpenHashCollectionsTests {
+
+    @Test
+    public void testObject2IntAgainstHashMap() {
+        Random rand = new Random(1);
+        Object2IntOpenHashMap<String> map = new Object2IntOpenHashMap<String>(0).defaultReturnValue(-1);
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            // Small key range, so entries are frequently replaced and removed.
+            String key = rand.nextInt(50) == 0 ? null : "k" + rand.nextInt(500);
+            int value = rand.nextInt();
+            switch (rand.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.getOrDefault(key, -1), map.put(key, value));
+                    expected.put(key, value);
+                    break;
+                case 2:
+                    assertEquals(expected.getOrDefault(key, -1), map.removeInt(key));
+                    expected.remove(key);
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    assertEquals(expected.getOrDefault(key, -1), map.getInt(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<String, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(null));
+    }
+
+    @Test
+    public void testObject2IntUpdates() {
+        Object2IntOpenHashMap<String> map = new Object2IntOpenHashMap<>();
+        assertEquals(0, map.addTo("a", 5));
+        assertEquals(5, map.addTo("a", 2));
+        assertEquals(7, map.getInt("a"));
+        assertEquals(7, map.putIfAbsent("a", 1));
+        assertEquals(0, map.putIfAbsent("b", 1));
+        assertEquals(9, map.merge("b", 8, Integer::sum));
+        assertEquals(3, map.computeIfAbsent("abc", String::length));
+        assertEquals(3, map.computeIfAbsent("abc", e -> 100));
+        assertEquals(42, map.getOrDefault("missing", 42));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testInt2ObjectAgainstHashMap() {
+        Random rand = new Random(2);
+        Int2ObjectOpenHashMap<String> map = new Int2ObjectOpenHashMap<>(0);
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = rand.nextInt(50) == 0 ? 0 : rand.nextInt(1000) - 500;
+            String value = "v" + i;
+            switch (rand.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+                    assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<Integer, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+
+        assertEquals("x", map.computeIfAbsent(Integer.MAX_VALUE, e -> "x"));
+        assertEquals("x", map.computeIfAbsent(Integer.MAX_VALUE, e -> "y"));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testIntSetAgainstHashSet() {
+        Random rand = new Random(3);
+        IntOpenHashSet set = new IntOpenHashSet(0);
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int k = rand.nextInt(50) == 0 ? 0 : rand.nextInt(1000);
+            switch (rand.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(k), set.add(k));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(k), set.remove(k));
+                    break;
+                default:
+                    assertEquals(expected.contains(k), set.contains(k));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        Set<Integer> iterated = new HashSet<>();
+        set.iterator().forEachRemaining((java.util.function.IntConsumer) iterated::add);
+        assertEquals(expected, iterated);
+        assertEquals(expected.size(), set.toIntArray().length);
+        assertEquals(expected, new HashSet<>(set.stream().boxed().toList()));
+    }
+
+    @Test
+    public void testCollectors() {
+        List<String> words = Arrays.asList("apple", "banana", "avocado", "cherry", "blueberry");
+
+        Object2IntOpenHashMap<Character> firstLen = FastStream.of(words).toObject2IntMap(e -> e.charAt(0), String::length);
+        assertEquals(3, firstLen.size());
+        assertEquals(5, firstLen.getInt('a'));
+        assertEquals(6, firstLen.getInt('b'));
+
+        Object2IntOpenHashMap<Character> totalLen = FastStream.of(words).toObject2IntMap(e -> e.charAt(0), String::length, Integer::sum);
+        assertEquals(12, totalLen.getInt('a'));
+        assertEquals(15, totalLen.getInt('b'));
+        assertEquals(6, totalLen.getInt('c'));
+
+        Int2ObjectOpenHashMap<String> byLen = FastStream.of(words).toInt2ObjectMap(String::length, e -> e);
+        assertEquals("apple", byLen.get(5));
+        assertEquals("banana", byLen.get(6));
+        assertEquals("avocado", byLen.get(7));
+        assertNull(byLen.get(8));
+
+        IntOpenHashSet set = IntFastStream.of(3, 1, 3, 0, 2, 1).toSet();
+        assertEquals(4, set.size());
+        assertTrue(set.contains(0));
+        assertArrayEquals(new int[] { 0, 1, 2, 3 }, IntFastStream.of(set.toIntArray()).sorted().toArray());
+
+        // Distinct is backed by IntOpenHashSet.
+        assertArrayEquals(new int[] { 3, 1, 0, 2 }, IntFastStream.of(3, 1, 3, 0, 2, 1).distinct().toArray());
+    }
+}
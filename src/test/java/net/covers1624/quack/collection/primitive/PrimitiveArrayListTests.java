@@ -0,0 +1,71 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.quack.collection.primitive;
+
+import net.covers1624.quack.collection.IntFastStream;
+import net.covers1624.quack.collection.LongFastStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 16/10/26.
+ */
+public class PrimitiveArrayListTests {
+
+    @Test
+    public void testIntArrayList() {
+        IntArrayList list = new IntArrayList();
+        for (int i = 0; i < 100; i++) {
+            list.add(i * 2);
+        }
+        assertEquals(100, list.size());
+        assertEquals(10, list.getInt(5));
+        assertEquals(10, list.set(5, -1));
+        assertEquals(5, list.indexOf(-1));
+        assertTrue(list.contains(198));
+        assertFalse(list.contains(199));
+
+        assertEquals(0, list.removeInt(0));
+        assertEquals(99, list.size());
+        assertEquals(2, list.getInt(0));
+        assertEquals(198, list.getInt(98));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, 0));
+
+        assertEquals(IntFastStream.of(list.toIntArray()).sum(), list.stream().sum());
+        list.trim();
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.stream().count());
+    }
+
+    @Test
+    public void testLongArrayList() {
+        LongArrayList list = new LongArrayList(2);
+        list.add(Long.MAX_VALUE);
+        list.add(1);
+        list.add(2);
+        assertEquals(3, list.size());
+        assertEquals(Long.MAX_VALUE, list.removeLong(0));
+        assertArrayEquals(new long[] { 1, 2 }, list.toLongArray());
+        assertEquals("[1, 2]", list.toString());
+
+        LongArrayList other = new LongArrayList();
+        other.add(1);
+        other.add(2);
+        assertEquals(list, other);
+        assertEquals(list.hashCode(), other.hashCode());
+    }
+
+    @Test
+    public void testCollectors() {
+        IntArrayList ints = IntFastStream.range(0, 10).filter(e -> e % 2 == 0).toList();
+        assertArrayEquals(new int[] { 0, 2, 4, 6, 8 }, ints.toIntArray());
+
+        LongArrayList longs = LongFastStream.of(5, 4, 3).toList();
+        assertArrayEquals(new long[] { 5, 4, 3 }, longs.toLongArray());
+        assertArrayEquals(new long[] { 3, 4, 5 }, longs.stream().sorted().toArray());
+    }
+}
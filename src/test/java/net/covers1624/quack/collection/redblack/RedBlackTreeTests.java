@@ -160,6 +160,145 @@ public class RedBlackTreeTests {
         }
     }
 
+    @Test
+    public void testListFingerAccess() {
+        Random randy = new Random(0);
+        RedBlackList<Integer> rbList = new RedBlackList<>();
+        rbList.addAll(IntStream.range(0, 1000).map(e -> e * 10).boxed().collect(Collectors.toList()));
+        List<Integer> list = new ArrayList<>(rbList);
+
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.get(i), rbList.get(i));
+        }
+        for (int i = list.size() - 1; i >= 0; i--) {
+            assertEquals(list.get(i), rbList.get(i));
+        }
+        int index = 0;
+        for (int i = 0; i < 5000; i++) {
+            // Mostly nearby, occasionally far.
+            index = randy.nextInt(20) == 0 ? randy.nextInt(list.size()) : Math.max(0, Math.min(list.size() - 1, index + randy.nextInt(9) - 4));
+            assertEquals(list.get(index), rbList.get(index));
+            if (randy.nextInt(50) == 0) {
+                // Structural modification invalidates the finger.
+                Integer removed = rbList.remove(index);
+                assertEquals(list.remove(index), removed);
+                index = Math.min(index, list.size() - 1);
+            } else if (randy.nextInt(50) == 0) {
+                int v = list.get(index) + 1;
+                if (!list.contains(v)) {
+                    rbList.add(v);
+                    list.add(index + 1, v);
+                }
+            }
+        }
+        verify(rbList);
+        assertSeqEqual(list, rbList);
+        assertThrows(IndexOutOfBoundsException.class, () -> rbList.get(list.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> rbList.get(-1));
+
+        assertEquals(list.get(5), rbList.set(5, list.get(5) + 1));
+        list.set(5, list.get(5) + 1);
+        assertEquals(list.get(5), rbList.get(5));
+        assertEquals(list.get(6), rbList.get(6));
+        verify(rbList);
+
+        rbList.clear();
+        assertThrows(IndexOutOfBoundsException.class, () -> rbList.get(0));
+    }
+
+    @Test
+    public void testListFingerReplace() {
+        RedBlackList<Integer> rbList = new RedBlackList<>();
+        rbList.addAll(IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+
+        // Replacing the finger must not leave it detached.
+        RedBlackList<Integer>.Node old = rbList.nodeAt(5);
+        rbList.replace(old, rbList.new Node(5));
+        assertEquals(Integer.valueOf(2), rbList.get(2));
+        assertEquals(Integer.valueOf(5), rbList.get(5));
+        assertNotSame(old, rbList.nodeAt(5));
+        assertEquals(Integer.valueOf(9), rbList.get(9));
+        verify(rbList);
+
+        // Replacing isn't a structural modification.
+        int i = 0;
+        for (Integer v : rbList) {
+            assertEquals(v, rbList.set(i++, v));
+        }
+        assertEquals(IntStream.range(0, 10).boxed().collect(Collectors.toList()), new ArrayList<>(rbList));
+
+        UnorderedRedBlackList<String> unordered = new UnorderedRedBlackList<>();
+        unordered.addAll(Arrays.asList("a", "b", "c"));
+        i = 0;
+        for (String s : unordered) {
+            unordered.set(i++, s + s);
+        }
+        assertEquals(Arrays.asList("aa", "bb", "cc"), new ArrayList<>(unordered));
+    }
+
+    @Test
+    public void testListConcurrentReads() throws InterruptedException {
+        RedBlackList<Integer> rbList = new RedBlackList<>();
+        rbList.addAll(IntStream.range(0, 5000).boxed().collect(Collectors.toList()));
+
+        // Readers share the finger, each must still see the correct element.
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Random randy = new Random(t);
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 100000; i++) {
+                        int index = randy.nextInt(rbList.size());
+                        assertEquals(Integer.valueOf(index), rbList.get(index));
+                    }
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(Collections.emptyList(), failures);
+    }
+
+    @Test
+    public void testListIterator() {
+        RedBlackList<Integer> rbList = new RedBlackList<>();
+        rbList.addAll(IntStream.range(0, 500).map(e -> e * 10).boxed().collect(Collectors.toList()));
+        List<Integer> list = new ArrayList<>(rbList);
+
+        ListIterator<Integer> itr = rbList.listIterator();
+        ListIterator<Integer> expected = list.listIterator();
+        while (expected.hasNext()) {
+            assertEquals(expected.nextIndex(), itr.nextIndex());
+            int v = expected.next();
+            assertEquals(v, itr.next());
+            if (v % 30 == 0) {
+                expected.remove();
+                itr.remove();
+            } else if (v % 70 == 0) {
+                expected.add(v + 5);
+                itr.add(v + 5);
+            }
+        }
+        assertFalse(itr.hasNext());
+        while (expected.hasPrevious()) {
+            assertEquals(expected.previous(), itr.previous());
+        }
+        assertFalse(itr.hasPrevious());
+        verify(rbList);
+        assertSeqEqual(list, rbList);
+
+        ListIterator<Integer> from = rbList.listIterator(10);
+        assertEquals(list.get(10), from.next());
+        assertEquals(list.get(10), from.previous());
+        assertEquals(list.get(9), from.previous());
+    }
+
     @Test
     public void testList() {
         Random randy = new Random(0);
@@ -182,6 +321,139 @@ public class RedBlackTreeTests {
         }
     }
 
+    @Test
+    public void testSplitJoin() {
+        Random randy = new Random(0);
+        for (int size = 0; size < 200; size++) {
+            for (int j = 0; j < 5 && j <= size; j++) {
+                RedBlackList<Integer> left = new RedBlackList<>();
+                left.addAll(IntStream.range(0, size).boxed().collect(Collectors.toList()));
+                int at = size == 0 ? 0 : randy.nextInt(size);
+
+                RedBlackList<Integer> right = new RedBlackList<>();
+                if (size != 0) {
+                    left.split(left.nodeAt(at), right);
+                }
+                verify(left);
+                verify(right);
+                assertSeqEqual(IntStream.range(0, at).boxed().collect(Collectors.toList()), left);
+                assertSeqEqual(IntStream.range(at, size).boxed().collect(Collectors.toList()), right);
+
+                left.join(null, right);
+                verify(left);
+                verify(right);
+                assertTrue(right.isEmpty());
+                assertSeqEqual(IntStream.range(0, size).boxed().collect(Collectors.toList()), left);
+            }
+        }
+    }
+
+    @Test
+    public void testJoinUneven() {
+        for (int i = 0; i < 300; i += 7) {
+            for (int j = 0; j < 300; j += 11) {
+                RedBlackList<Integer> left = new RedBlackList<>();
+                left.addAll(IntStream.range(0, i).boxed().collect(Collectors.toList()));
+                RedBlackList<Integer> right = new RedBlackList<>();
+                right.addAll(IntStream.range(i + 1, i + 1 + j).boxed().collect(Collectors.toList()));
+
+                left.join(left.newNode(i), right);
+                verify(left);
+                assertEquals(i + j + 1, left.size());
+                for (int k = 0; k < left.size(); k++) {
+                    assertEquals(k, left.get(k));
+                }
+            }
+        }
+        RedBlackList<Integer> left = new RedBlackList<>();
+        left.add(5);
+        RedBlackList<Integer> right = new RedBlackList<>();
+        right.add(1);
+        assertThrows(IllegalArgumentException.class, () -> left.join(null, right));
+    }
+
+    @Test
+    public void testExtractRange() {
+        Random randy = new Random(0);
+        RedBlackList<Integer> rbList = new RedBlackList<>();
+        rbList.addAll(IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+        List<Integer> list = new ArrayList<>(rbList);
+
+        for (int i = 0; i < 100; i++) {
+            int from = randy.nextInt(list.size() + 1);
+            int to = from + randy.nextInt(list.size() - from + 1);
+
+            List<Integer> expected = new ArrayList<>(list.subList(from, to));
+            assertEquals(expected, rbList.subList(from, to));
+
+            RedBlackList<Integer> extracted = rbList.extractRange(from, to);
+            list.subList(from, to).clear();
+            verify(rbList);
+            verify(extracted);
+            assertSeqEqual(expected, extracted);
+            assertSeqEqual(list, rbList);
+
+            // Put them back.
+            RedBlackList<Integer> tail = rbList.extractRange(from, rbList.size());
+            rbList.concat(extracted);
+            rbList.concat(tail);
+            list.addAll(from, expected);
+            verify(rbList);
+            assertSeqEqual(list, rbList);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> rbList.extractRange(5, 4));
+    }
+
+    @Test
+    public void testUnion() {
+        Random randy = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            RedBlackTree<Integer> tree = new RedBlackTree<>();
+            TreeSet<Integer> set = new TreeSet<>();
+            for (int j = randy.nextInt(500); j > 0; j--) {
+                int v = randy.nextInt(1000);
+                tree.add(v);
+                set.add(v);
+            }
+            TreeSet<Integer> batch = new TreeSet<>();
+            for (int j = randy.nextInt(i < 100 ? 10 : 500); j > 0; j--) {
+                batch.add(randy.nextInt(1000));
+            }
+            int expected = (int) batch.stream().filter(e -> !set.contains(e)).count();
+            set.addAll(batch);
+
+            assertEquals(expected, tree.unionValues(new ArrayList<>(batch)));
+            verify(tree);
+            assertSeqEqual(set, tree);
+        }
+
+        RedBlackList<Integer> list = new RedBlackList<>();
+        list.addAll(Arrays.asList(1, 3, 5));
+        assertEquals(2, list.unionValues(Arrays.asList(2, 3, 4)));
+        verify(list);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), new ArrayList<>(list));
+        assertEquals(3, list.get(2));
+        assertThrows(IllegalArgumentException.class, () -> list.unionValues(Arrays.asList(7, 6)));
+    }
+
+    @Test
+    public void testSplitJoinUnordered() {
+        UnorderedRedBlackList<Integer> left = new UnorderedRedBlackList<>();
+        left.addAll(IntStream.range(0, 500).boxed().collect(Collectors.toList()));
+        UnorderedRedBlackList<Integer> right = new UnorderedRedBlackList<>();
+        left.split(left.nodeAt(123), right);
+        verify(left);
+        verify(right);
+        assertEquals(123, left.size());
+        assertEquals(377, right.size());
+        assertEquals(123, right.get(0));
+
+        right.join(null, left);
+        verify(right);
+        assertEquals(500, right.size());
+        assertEquals(0, right.get(377));
+    }
+
     @Test
     @Disabled ("Disabled, Run this test manually.")
     public void testPerformance() {